@@ -48,6 +48,47 @@ INSERT INTO `budgets` VALUES (1,1,3,11,2025,401.00),(2,2,3,11,2025,150.00),(3,3,
 /*!40000 ALTER TABLE `budgets` ENABLE KEYS */;
 UNLOCK TABLES;
 
+--
+-- Table structure for table `budget_notifications`
+--
+
+DROP TABLE IF EXISTS `budget_notifications`;
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!50503 SET character_set_client = utf8mb4 */;
+CREATE TABLE `budget_notifications` (
+  `user_id` int NOT NULL,
+  `category_id` int NOT NULL,
+  `month` int NOT NULL COMMENT 'Mese del budget (1-12)',
+  `year` int NOT NULL,
+  `notified` tinyint(1) NOT NULL DEFAULT '0' COMMENT 'Superamento gia notificato',
+  `dismissed_amount` decimal(10,2) DEFAULT NULL COMMENT 'Limite al momento di "Non mostrare piu", NULL se non dismessa',
+  `alert_level` int NOT NULL DEFAULT '0' COMMENT 'Soglia di utilizzo (%) piu alta gia segnalata',
+  `projection_notified` tinyint(1) NOT NULL DEFAULT '0' COMMENT 'Superamento previsto gia segnalato',
+  PRIMARY KEY (`user_id`,`category_id`,`month`,`year`),
+  KEY `budget_notifications_ibfk_1` (`category_id`),
+  CONSTRAINT `budget_notifications_ibfk_1` FOREIGN KEY (`category_id`) REFERENCES `categories` (`category_id`) ON DELETE CASCADE,
+  CONSTRAINT `budget_notifications_ibfk_2` FOREIGN KEY (`user_id`) REFERENCES `users` (`user_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+/*!40101 SET character_set_client = @saved_cs_client */;
+
+--
+-- Table structure for table `budget_thresholds`
+--
+
+DROP TABLE IF EXISTS `budget_thresholds`;
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!50503 SET character_set_client = utf8mb4 */;
+CREATE TABLE `budget_thresholds` (
+  `user_id` int NOT NULL,
+  `category_id` int NOT NULL,
+  `thresholds` varchar(100) NOT NULL COMMENT 'Soglie di avviso in percentuale del limite (es. "50, 80, 100")',
+  PRIMARY KEY (`user_id`,`category_id`),
+  KEY `budget_thresholds_ibfk_1` (`category_id`),
+  CONSTRAINT `budget_thresholds_ibfk_1` FOREIGN KEY (`category_id`) REFERENCES `categories` (`category_id`) ON DELETE CASCADE,
+  CONSTRAINT `budget_thresholds_ibfk_2` FOREIGN KEY (`user_id`) REFERENCES `users` (`user_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+/*!40101 SET character_set_client = @saved_cs_client */;
+
 --
 -- Table structure for table `categories`
 --
@@ -4,6 +4,7 @@ import java.io.IOException;
 import java.util.Objects;
 
 import it.unicas.project.template.address.model.dao.mysql.DAOMySQLSettings;
+import it.unicas.project.template.address.util.BudgetNotificationPreferences;
 import it.unicas.project.template.address.view.*;
 import it.unicas.project.template.address.model.User;
 import javafx.application.Application;
@@ -87,6 +88,17 @@ public class MainApp extends Application {
         showLogin();
     }
 
+    /**
+     * Invocato dal runtime JavaFX alla chiusura dell'applicazione.
+     * <p>
+     * Scrive sul database lo stato delle notifiche ancora in coda
+     * (vedi {@link BudgetNotificationPreferences#shutdown()}).
+     */
+    @Override
+    public void stop() {
+        BudgetNotificationPreferences.shutdown();
+    }
+
     /**
      * Mostra la schermata di registrazione utente.
      * <p>
@@ -201,6 +213,9 @@ public class MainApp extends Application {
 
             primaryStage.show();
 
+            // Gli avvisi di budget vengono mostrati come notifiche non modali sulla finestra principale
+            BudgetToastCenter.getInstance().attach(primaryStage);
+
             // Eventualmente si potrebbe caricare subito la Dashboard al centro
             // showDashboard();
 
@@ -2,6 +2,8 @@ package it.unicas.project.template.address.model;
 
 import javafx.beans.property.*;
 
+import java.time.LocalDate;
+
 /**
  * Rappresenta il budget mensile di una specifica categoria per un utente.
  * <p>
@@ -28,6 +30,11 @@ public class Budget {
     private final StringProperty categoryName; // Es. "Alimentari"
     private final DoubleProperty spentAmount;  // Es. 120.50€ (somma delle spese reali)
 
+    // Proiezione a fine mese (calcolata da BudgetBurnRate, NaN/null se non disponibile)
+    private final DoubleProperty dailyBurnRate = new SimpleDoubleProperty(Double.NaN);
+    private final DoubleProperty projectedAmount = new SimpleDoubleProperty(Double.NaN);
+    private final ObjectProperty<LocalDate> projectedExceedDate = new SimpleObjectProperty<>();
+
     /**
      * Costruttore di default.
      * <p>
@@ -94,6 +101,25 @@ public class Budget {
     public void setSpentAmount(double spentAmount) { this.spentAmount.set(spentAmount); }
     public DoubleProperty spentAmountProperty() { return spentAmount; }
 
+    public double getDailyBurnRate() { return dailyBurnRate.get(); }
+    public void setDailyBurnRate(double dailyBurnRate) { this.dailyBurnRate.set(dailyBurnRate); }
+
+    public double getProjectedAmount() { return projectedAmount.get(); }
+    public void setProjectedAmount(double projectedAmount) { this.projectedAmount.set(projectedAmount); }
+    public DoubleProperty projectedAmountProperty() { return projectedAmount; }
+
+    /** Data in cui il budget è stato (o sarà, al ritmo attuale) superato; {@code null} se non accade entro il mese. */
+    public LocalDate getProjectedExceedDate() { return projectedExceedDate.get(); }
+    public void setProjectedExceedDate(LocalDate date) { this.projectedExceedDate.set(date); }
+    public ObjectProperty<LocalDate> projectedExceedDateProperty() { return projectedExceedDate; }
+
+    /**
+     * Indica se è disponibile la proiezione a fine mese.
+     */
+    public boolean hasProjection() {
+        return !Double.isNaN(getProjectedAmount());
+    }
+
     // --- METODI DI UTILITÀ PER LA GRAFICA ---
 
     /**
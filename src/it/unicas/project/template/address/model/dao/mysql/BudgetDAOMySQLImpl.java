@@ -1,10 +1,20 @@
 package it.unicas.project.template.address.model.dao.mysql;
 
 import it.unicas.project.template.address.model.Budget;
+import it.unicas.project.template.address.util.BudgetAlertEngine;
+import it.unicas.project.template.address.util.BudgetBurnRate;
+import it.unicas.project.template.address.util.BudgetHistory;
+import it.unicas.project.template.address.util.BudgetNotificationPreferences;
+import it.unicas.project.template.address.util.BudgetNotificationPreferences.NotificationState;
+import it.unicas.project.template.address.util.MonthSnapshotCache;
 
 import java.sql.*;
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Implementazione MySQL delle operazioni di accesso ai dati per l'entità {@link Budget}.
@@ -12,15 +22,64 @@ import java.util.List;
  * Questa classe fornisce metodi per:
  * <ul>
  *     <li>recuperare i budget mensili di un utente, includendo l'importo speso
- *         calcolato "al volo" dalla tabella {@code movements};</li>
+ *         calcolato "al volo" dalla tabella {@code movements}, anche per tutte le
+ *         categorie esistenti ({@link #getCategoryBudgetsForMonth(int, int, int)});</li>
+ *     <li>riportare in un nuovo mese i limiti dell'ultimo mese impostato;</li>
+ *     <li>recuperare lo storico dei budget di più mesi come matrice categoria × mese
+ *         ({@link #getBudgetHistory(int, YearMonth, int)});</li>
  *     <li>inserire o aggiornare un budget (upsert) per una combinazione
- *         utente/categoria/mese/anno.</li>
+ *         utente/categoria/mese/anno;</li>
+ *     <li>calcolare la proiezione a fine mese di tutti i budget di un mese
+ *         ({@link #applyBurnRates(int, List, LocalDate)});</li>
+ *     <li>leggere e salvare lo stato delle notifiche di superamento
+ *         (tabella {@code budget_notifications}) e le soglie di avviso
+ *         personalizzate per categoria (tabella {@code budget_thresholds}).</li>
  * </ul>
  * Si appoggia alle impostazioni di connessione fornite da
  * {@link DAOMySQLSettings#getConnection()}.
  */
 public class BudgetDAOMySQLImpl {
 
+    /**
+     * Definizione della tabella dello stato notifiche, creata se assente
+     * (database creati prima della sua introduzione).
+     */
+    private static final String CREATE_NOTIFICATIONS_TABLE =
+            "CREATE TABLE IF NOT EXISTS budget_notifications (" +
+            "  user_id int NOT NULL," +
+            "  category_id int NOT NULL," +
+            "  month int NOT NULL," +
+            "  year int NOT NULL," +
+            "  notified tinyint(1) NOT NULL DEFAULT 0," +
+            "  dismissed_amount decimal(10,2) DEFAULT NULL," +
+            "  alert_level int NOT NULL DEFAULT 0," +
+            "  projection_notified tinyint(1) NOT NULL DEFAULT 0," +
+            "  PRIMARY KEY (user_id, category_id, month, year)," +
+            "  CONSTRAINT budget_notifications_ibfk_1 FOREIGN KEY (category_id) REFERENCES categories (category_id) ON DELETE CASCADE," +
+            "  CONSTRAINT budget_notifications_ibfk_2 FOREIGN KEY (user_id) REFERENCES users (user_id)" +
+            ")";
+
+    /**
+     * Definizione della tabella delle soglie di avviso personalizzate per utente
+     * e categoria, creata se assente come {@link #CREATE_NOTIFICATIONS_TABLE}.
+     * Le soglie sono salvate come elenco di percentuali (es. {@code "50, 80, 100"}).
+     */
+    private static final String CREATE_THRESHOLDS_TABLE =
+            "CREATE TABLE IF NOT EXISTS budget_thresholds (" +
+            "  user_id int NOT NULL," +
+            "  category_id int NOT NULL," +
+            "  thresholds varchar(100) NOT NULL," +
+            "  PRIMARY KEY (user_id, category_id)," +
+            "  CONSTRAINT budget_thresholds_ibfk_1 FOREIGN KEY (category_id) REFERENCES categories (category_id) ON DELETE CASCADE," +
+            "  CONSTRAINT budget_thresholds_ibfk_2 FOREIGN KEY (user_id) REFERENCES users (user_id)" +
+            ")";
+
+    /** Categoria delle entrate (Stipendio), esclusa dai budget di spesa. */
+    public static final int INCOME_CATEGORY_ID = 6;
+
+    /** Indica se le tabelle di notifiche e soglie sono già state verificate in questa esecuzione. */
+    private static volatile boolean notificationsTableChecked;
+
     /**
      * Restituisce una nuova connessione al database MySQL utilizzando
      * le impostazioni definite in {@link DAOMySQLSettings}.
@@ -32,6 +91,24 @@ public class BudgetDAOMySQLImpl {
         return DAOMySQLSettings.getConnection();
     }
 
+    /**
+     * Crea le tabelle {@code budget_notifications} e {@code budget_thresholds} se
+     * non esistono; la verifica viene eseguita una sola volta per esecuzione.
+     *
+     * @throws SQLException se si verifica un errore durante la creazione
+     */
+    private void ensureNotificationsTable() throws SQLException {
+        if (notificationsTableChecked) {
+            return;
+        }
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(CREATE_NOTIFICATIONS_TABLE);
+            stmt.executeUpdate(CREATE_THRESHOLDS_TABLE);
+        }
+        notificationsTableChecked = true;
+    }
+
     /**
      * Recupera la lista dei budget per un dato utente e per uno specifico mese/anno.
      * <p>
@@ -45,6 +122,10 @@ public class BudgetDAOMySQLImpl {
      *     <li>solo movimenti di tipo {@code 'Uscita'}.</li>
      * </ul>
      * Il risultato viene mappato in una lista di oggetti {@link Budget}.
+     * Nella stessa query viene letto lo stato delle notifiche di superamento
+     * ({@code LEFT JOIN} su {@code budget_notifications}), registrato nella cache
+     * di sessione di {@link BudgetNotificationPreferences}; i budget letti diventano
+     * la base di confronto di {@link BudgetAlertEngine}.
      *
      * @param userId identificativo dell'utente
      * @param month  mese di riferimento (1–12)
@@ -54,8 +135,6 @@ public class BudgetDAOMySQLImpl {
      * @throws SQLException se si verifica un errore durante l'esecuzione della query
      */
     public List<Budget> getBudgetsForMonth(int userId, int month, int year) throws SQLException {
-        List<Budget> budgetList = new ArrayList<>();
-
         // QUERY:
         // 1. Seleziona i dati del budget e il nome della categoria.
         // 2. Usa una subquery (SELECT SUM...) per calcolare il totale speso prendendolo dai movimenti.
@@ -71,23 +150,174 @@ public class BudgetDAOMySQLImpl {
                 "               AND MONTH(m.date) = b.month " +
                 "               AND YEAR(m.date) = b.year " +
                 "               AND m.type = 'Uscita'" +
-                "            ), 0) AS spent_amount " +
+                "            ), 0) AS spent_amount, " +
+                "   COALESCE(n.notified, 0) AS notified, " +
+                "   n.dismissed_amount, " +
+                "   COALESCE(n.alert_level, 0) AS alert_level, " +
+                "   COALESCE(n.projection_notified, 0) AS projection_notified, " +
+                "   t.thresholds " +
                 "FROM budgets b " +
                 "JOIN categories c ON b.category_id = c.category_id " +
+                "LEFT JOIN budget_notifications n ON n.user_id = b.user_id " +
+                "   AND n.category_id = b.category_id AND n.month = b.month AND n.year = b.year " +
+                "LEFT JOIN budget_thresholds t ON t.user_id = b.user_id AND t.category_id = b.category_id " +
                 "WHERE b.user_id = ? AND b.month = ? AND b.year = ?";
 
+        return queryBudgets(sql, userId, month, year, userId, month, year);
+    }
+
+    /**
+     * Recupera in un'unica query un budget per ciascuna categoria esistente
+     * (esclusa quella delle entrate, {@link #INCOME_CATEGORY_ID}), anche se per il
+     * mese non è stato impostato alcun limite.
+     * <p>
+     * A differenza di {@link #getBudgetsForMonth(int, int, int)} la query parte dalla
+     * tabella {@code categories}: le categorie senza riga in {@code budgets} sono
+     * restituite con {@code budgetId} e limite pari a 0, così che una nuova categoria
+     * compaia nella pagina dei budget senza modifiche al codice. La spesa del mese è
+     * calcolata con un'unica aggregazione per categoria su un intervallo di date
+     * (che può usare l'indice su {@code date}) invece di una subquery per riga.
+     *
+     * @param userId identificativo dell'utente
+     * @param month  mese di riferimento (1–12)
+     * @param year   anno di riferimento (es. 2025)
+     * @return un {@link Budget} per categoria, ordinati per nome della categoria
+     * @throws SQLException se si verifica un errore durante l'esecuzione della query
+     */
+    public List<Budget> getCategoryBudgetsForMonth(int userId, int month, int year) throws SQLException {
+        YearMonth yearMonth = YearMonth.of(year, month);
+        String sql = "SELECT " +
+                "   COALESCE(b.budget_id, 0) AS budget_id, " +
+                "   c.category_id, " +
+                "   c.name AS cat_name, " +
+                "   COALESCE(b.amount, 0) AS limit_amount, " +
+                "   COALESCE(s.spent, 0) AS spent_amount, " +
+                "   COALESCE(n.notified, 0) AS notified, " +
+                "   n.dismissed_amount, " +
+                "   COALESCE(n.alert_level, 0) AS alert_level, " +
+                "   COALESCE(n.projection_notified, 0) AS projection_notified, " +
+                "   t.thresholds " +
+                "FROM categories c " +
+                "LEFT JOIN budgets b ON b.category_id = c.category_id " +
+                "   AND b.user_id = ? AND b.month = ? AND b.year = ? " +
+                "LEFT JOIN (SELECT category_id, SUM(amount) AS spent " +
+                "           FROM movements " +
+                "           WHERE user_id = ? AND date >= ? AND date < ? AND type = 'Uscita' " +
+                "           GROUP BY category_id) s ON s.category_id = c.category_id " +
+                "LEFT JOIN budget_notifications n ON n.user_id = ? " +
+                "   AND n.category_id = c.category_id AND n.month = ? AND n.year = ? " +
+                "LEFT JOIN budget_thresholds t ON t.user_id = ? AND t.category_id = c.category_id " +
+                "WHERE c.category_id <> " + INCOME_CATEGORY_ID + " " +
+                "ORDER BY c.name";
+
+        return queryBudgets(sql, userId, month, year, userId, month, year,
+                userId, Date.valueOf(yearMonth.atDay(1)), Date.valueOf(yearMonth.plusMonths(1).atDay(1)),
+                userId, month, year, userId);
+    }
+
+    /**
+     * Recupera lo storico dei budget degli ultimi {@code months} mesi (fino a
+     * {@code lastMonth} compreso) come matrice categoria × mese, con un'unica query.
+     * <p>
+     * La query unisce ({@code UNION ALL}) i limiti della tabella {@code budgets} e le
+     * uscite della tabella {@code movements} dell'intervallo, filtrate per intervallo
+     * di date, e le raggruppa per categoria e mese: il database restituisce al più una
+     * riga per cella invece di una query per mese. Tutte le categorie (esclusa quella
+     * delle entrate) sono presenti nello storico, anche senza dati nell'intervallo.
+     *
+     * @param userId    identificativo dell'utente
+     * @param lastMonth ultimo mese dello storico
+     * @param months    numero di mesi, ultimo compreso
+     * @return storico categoria × mese, con le categorie ordinate per nome
+     * @throws SQLException se si verifica un errore durante l'esecuzione della query
+     */
+    public BudgetHistory getBudgetHistory(int userId, YearMonth lastMonth, int months) throws SQLException {
+        BudgetHistory history = new BudgetHistory(lastMonth, months);
+        YearMonth firstMonth = history.getFirstMonth();
+        int first = firstMonth.getYear() * 12 + firstMonth.getMonthValue() - 1;
+        int last = lastMonth.getYear() * 12 + lastMonth.getMonthValue() - 1;
+
+        String sql = "SELECT c.category_id, c.name AS cat_name, k.ym, " +
+                "   SUM(k.limit_amount) AS limit_amount, SUM(k.spent) AS spent_amount " +
+                "FROM categories c " +
+                "LEFT JOIN (" +
+                "   SELECT category_id, year * 12 + month - 1 AS ym, amount AS limit_amount, 0 AS spent " +
+                "   FROM budgets " +
+                "   WHERE user_id = ? AND year * 12 + month - 1 BETWEEN ? AND ? " +
+                "   UNION ALL " +
+                "   SELECT category_id, YEAR(date) * 12 + MONTH(date) - 1, 0, amount " +
+                "   FROM movements " +
+                "   WHERE user_id = ? AND date >= ? AND date < ? AND type = 'Uscita'" +
+                ") k ON k.category_id = c.category_id " +
+                "WHERE c.category_id <> " + INCOME_CATEGORY_ID + " " +
+                "GROUP BY c.category_id, c.name, k.ym " +
+                "ORDER BY c.name, k.ym";
 
         try (Connection conn = getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setInt(1, userId);
-            pstmt.setInt(2, month);
-            pstmt.setInt(3, year);
+            pstmt.setInt(2, first);
+            pstmt.setInt(3, last);
+            pstmt.setInt(4, userId);
+            pstmt.setDate(5, Date.valueOf(firstMonth.atDay(1)));
+            pstmt.setDate(6, Date.valueOf(lastMonth.plusMonths(1).atDay(1)));
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    int categoryId = rs.getInt("category_id");
+                    String name = rs.getString("cat_name");
+                    int ym = rs.getInt("ym");
+                    if (rs.wasNull()) {
+                        // Categoria senza dati nell'intervallo
+                        history.addCategory(categoryId, name);
+                        continue;
+                    }
+                    history.set(categoryId, name, YearMonth.of(ym / 12, ym % 12 + 1),
+                            rs.getDouble("limit_amount"), rs.getDouble("spent_amount"));
+                }
+            }
+        }
+        return history;
+    }
+
+    /**
+     * Esegue una query sui budget di un mese e ne mappa le righe in oggetti {@link Budget}.
+     * <p>
+     * Lo stato delle notifiche letto con la stessa query viene registrato nella cache
+     * di sessione di {@link BudgetNotificationPreferences}; i budget letti e le soglie
+     * personalizzate diventano la base di confronto di {@link BudgetAlertEngine}.
+     *
+     * @param sql    query con le colonne {@code budget_id}, {@code category_id}, {@code cat_name},
+     *               {@code limit_amount}, {@code spent_amount}, {@code notified},
+     *               {@code dismissed_amount}, {@code alert_level}, {@code projection_notified}
+     *               e {@code thresholds}
+     * @param userId identificativo dell'utente
+     * @param month  mese di riferimento (1–12)
+     * @param year   anno di riferimento
+     * @param params parametri della query, nell'ordine
+     * @return budget letti
+     * @throws SQLException se si verifica un errore durante l'esecuzione della query
+     */
+    private List<Budget> queryBudgets(String sql, int userId, int month, int year, Object... params) throws SQLException {
+        List<Budget> budgetList = new ArrayList<>();
+
+        ensureNotificationsTable();
+        BudgetNotificationPreferences prefs = BudgetNotificationPreferences.getInstance();
+        BudgetAlertEngine alerts = BudgetAlertEngine.getInstance();
+        YearMonth yearMonth = YearMonth.of(year, month);
+
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            for (int i = 0; i < params.length; i++) {
+                pstmt.setObject(i + 1, params[i]);
+            }
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
                     // Creiamo l'oggetto Budget con tutti i dati recuperati
-                    budgetList.add(new Budget(
+                    Budget budget = new Budget(
                             rs.getInt("budget_id"),
                             rs.getInt("category_id"),
                             userId, // userId che abbiamo passato
@@ -96,13 +326,203 @@ public class BudgetDAOMySQLImpl {
                             rs.getDouble("limit_amount"),
                             rs.getString("cat_name"),
                             rs.getDouble("spent_amount")
-                    ));
+                    );
+                    budgetList.add(budget);
+
+                    double dismissedAmount = rs.getDouble("dismissed_amount");
+                    boolean dismissed = !rs.wasNull();
+                    prefs.remember(new NotificationState(userId, yearMonth, rs.getInt("category_id"),
+                            rs.getBoolean("notified"), dismissed ? dismissedAmount : null, rs.getInt("alert_level"),
+                            rs.getBoolean("projection_notified")));
+                    applyThresholds(alerts, userId, budget.getCategoryId(), rs.getString("thresholds"));
+                    alerts.track(budget);
                 }
             }
         }
         return budgetList;
     }
 
+    /**
+     * Imposta nel motore degli avvisi le soglie salvate di una categoria, o quelle
+     * predefinite se non ne sono state salvate (o il valore salvato non è valido).
+     */
+    private static void applyThresholds(BudgetAlertEngine alerts, int userId, int categoryId, String saved) {
+        if (saved == null) {
+            alerts.resetThresholds(userId, categoryId);
+            return;
+        }
+        try {
+            alerts.setThresholds(userId, categoryId, BudgetAlertEngine.parseThresholds(saved));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Soglie non valide per la categoria " + categoryId + ": " + e.getMessage());
+            alerts.resetThresholds(userId, categoryId);
+        }
+    }
+
+    /**
+     * Salva le soglie di avviso di una categoria per l'utente e le applica al
+     * motore degli avvisi; {@code null} ripristina le soglie predefinite.
+     *
+     * @param userId     identificativo dell'utente
+     * @param categoryId identificativo della categoria
+     * @param percents   soglie in percentuale del limite, {@code null} per quelle predefinite
+     * @throws SQLException se si verifica un errore durante le operazioni SQL
+     */
+    public void saveThresholds(int userId, int categoryId, int[] percents) throws SQLException {
+        ensureNotificationsTable();
+        String sql = percents == null
+                ? "DELETE FROM budget_thresholds WHERE user_id = ? AND category_id = ?"
+                : "INSERT INTO budget_thresholds (user_id, category_id, thresholds) VALUES (?, ?, ?) " +
+                  "ON DUPLICATE KEY UPDATE thresholds = VALUES(thresholds)";
+
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, userId);
+            pstmt.setInt(2, categoryId);
+            if (percents != null) {
+                pstmt.setString(3, BudgetAlertEngine.formatThresholds(percents));
+            }
+            pstmt.executeUpdate();
+        }
+
+        BudgetAlertEngine alerts = BudgetAlertEngine.getInstance();
+        if (percents == null) {
+            alerts.resetThresholds(userId, categoryId);
+        } else {
+            alerts.setThresholds(userId, categoryId, percents);
+        }
+    }
+
+    /**
+     * Recupera le uscite giornaliere di un mese per ciascuna categoria con
+     * un'unica query raggruppata per categoria e giorno.
+     *
+     * @param userId identificativo dell'utente
+     * @param month  mese di riferimento
+     * @return per ogni id categoria, le uscite del mese giorno per giorno
+     *         (indice 0 = giorno 1); le categorie senza uscite non sono presenti
+     * @throws SQLException se si verifica un errore durante l'esecuzione della query
+     */
+    public Map<Integer, double[]> getDailySpendByCategory(int userId, YearMonth month) throws SQLException {
+        String sql = "SELECT category_id, DAY(date) AS giorno, SUM(amount) AS speso " +
+                "FROM movements " +
+                "WHERE user_id = ? AND date >= ? AND date < ? AND type = 'Uscita' " +
+                "GROUP BY category_id, giorno";
+
+        Map<Integer, double[]> result = new HashMap<>();
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, userId);
+            pstmt.setDate(2, Date.valueOf(month.atDay(1)));
+            pstmt.setDate(3, Date.valueOf(month.plusMonths(1).atDay(1)));
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    double[] daily = result.computeIfAbsent(rs.getInt("category_id"),
+                            id -> new double[month.lengthOfMonth()]);
+                    daily[rs.getInt("giorno") - 1] = rs.getDouble("speso");
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Calcola con {@link BudgetBurnRate} la proiezione a fine mese (ritmo di spesa,
+     * spesa proiettata, data di superamento) di tutti i budget indicati.
+     *
+     * @param userId  identificativo dell'utente
+     * @param budgets budget di uno stesso mese, come restituiti da {@link #getBudgetsForMonth(int, int, int)}
+     * @param today   giorno corrente
+     * @throws SQLException se si verifica un errore durante l'esecuzione della query
+     */
+    public void applyBurnRates(int userId, List<Budget> budgets, LocalDate today) throws SQLException {
+        if (budgets == null || budgets.isEmpty()) {
+            return;
+        }
+        YearMonth month = YearMonth.of(budgets.get(0).getYear(), budgets.get(0).getMonth());
+        BudgetBurnRate.apply(budgets, getDailySpendByCategory(userId, month), today);
+    }
+
+    /**
+     * Salva in un unico batch lo stato delle notifiche indicato
+     * (inserimento o aggiornamento della riga utente/categoria/mese/anno).
+     *
+     * @param states stati da salvare, nell'ordine delle modifiche
+     * @throws SQLException se si verifica un errore durante le operazioni SQL
+     */
+    public void saveNotificationStates(List<NotificationState> states) throws SQLException {
+        if (states == null || states.isEmpty()) {
+            return;
+        }
+        ensureNotificationsTable();
+        String sql = "INSERT INTO budget_notifications " +
+                "(user_id, category_id, month, year, notified, dismissed_amount, alert_level, projection_notified) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE notified = VALUES(notified), dismissed_amount = VALUES(dismissed_amount), " +
+                "alert_level = VALUES(alert_level), projection_notified = VALUES(projection_notified)";
+
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (NotificationState state : states) {
+                pstmt.setInt(1, state.getUserId());
+                pstmt.setInt(2, state.getCategoryId());
+                pstmt.setInt(3, state.getMonth().getMonthValue());
+                pstmt.setInt(4, state.getMonth().getYear());
+                pstmt.setBoolean(5, state.isNotified());
+                if (state.getDismissedAmount() == null) {
+                    pstmt.setNull(6, Types.DECIMAL);
+                } else {
+                    pstmt.setDouble(6, state.getDismissedAmount());
+                }
+                pstmt.setInt(7, state.getAlertLevel());
+                pstmt.setBoolean(8, state.isProjectionNotified());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    /**
+     * Copia nel mese indicato i limiti dell'ultimo mese precedente in cui l'utente
+     * ne ha impostati, con un'unica istruzione {@code INSERT ... SELECT}.
+     * <p>
+     * Sostituisce i limiti predefiniti fissi: le categorie senza un limite nel mese
+     * di origine restano senza limite e possono essere impostate dalla pagina dei budget.
+     *
+     * @param userId identificativo dell'utente
+     * @param month  mese di destinazione (1–12)
+     * @param year   anno di destinazione
+     * @return numero di budget creati (0 se l'utente non ha budget nei mesi precedenti)
+     * @throws SQLException se si verifica un errore durante le operazioni SQL
+     */
+    public int copyLatestBudgets(int userId, int month, int year) throws SQLException {
+        int target = year * 12 + month - 1;
+        String sql = "INSERT INTO budgets (user_id, category_id, month, year, amount) " +
+                "SELECT b.user_id, b.category_id, ?, ?, b.amount " +
+                "FROM budgets b " +
+                "JOIN (SELECT MAX(year * 12 + month - 1) AS latest " +
+                "      FROM budgets WHERE user_id = ? AND year * 12 + month - 1 < ?) l " +
+                "  ON b.year * 12 + b.month - 1 = l.latest " +
+                "WHERE b.user_id = ?";
+
+        int created;
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, month);
+            pstmt.setInt(2, year);
+            pstmt.setInt(3, userId);
+            pstmt.setInt(4, target);
+            pstmt.setInt(5, userId);
+            created = pstmt.executeUpdate();
+        }
+        if (created > 0) {
+            MonthSnapshotCache.invalidateAll();
+        }
+        return created;
+    }
+
     /**
      * Inserisce o aggiorna un budget per una specifica combinazione
      * utente/categoria/mese/anno.
@@ -159,5 +579,7 @@ public class BudgetDAOMySQLImpl {
                 pstmt.executeUpdate();
             }
         }
+        BudgetAlertEngine.getInstance().updateBudgetAmount(userId, categoryId, YearMonth.of(year, month), amount);
+        MonthSnapshotCache.invalidateAll();
     }
 }
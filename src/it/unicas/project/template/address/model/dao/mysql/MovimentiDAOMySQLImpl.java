@@ -3,15 +3,23 @@ package it.unicas.project.template.address.model.dao.mysql;
 import it.unicas.project.template.address.model.Movimenti;
 import it.unicas.project.template.address.model.dao.DAO;
 import it.unicas.project.template.address.model.dao.DAOException;
+import it.unicas.project.template.address.util.BudgetAlertEngine;
+import it.unicas.project.template.address.util.CategoryTotalsIndex;
+import it.unicas.project.template.address.util.ForecastService;
+import it.unicas.project.template.address.util.MonthSnapshotCache;
+import it.unicas.project.template.address.util.MovementWriteTracker;
+import it.unicas.project.template.address.util.PeriodTotalsIndex;
+import it.unicas.project.template.address.util.RunningBalanceIndex;
+import it.unicas.project.template.address.util.TimeBucketAggregator;
 
 import java.sql.*;
 import java.time.LocalDate;
 import java.time.YearMonth;
-import java.time.format.DateTimeFormatter;
-import java.time.format.TextStyle;
-import java.util.Locale;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import javafx.util.Pair;
 
 /**
@@ -20,16 +28,51 @@ import javafx.util.Pair;
  * Fornisce metodi specializzati per:
  * <ul>
  *     <li>recuperare i movimenti di un utente (tutti, ultimi N, filtrati per mese/anno);</li>
- *     <li>inserire, aggiornare e cancellare movimenti;</li>
+ *     <li>inserire, aggiornare e cancellare movimenti, invalidando la
+ *         {@link MonthSnapshotCache} della dashboard;</li>
  *     <li>calcolare statistiche e trend (somma mensile per tipo, andamento giornaliero,
- *         trend entrate/uscite per periodo, aggregazioni a blocchi di 3 giorni).</li>
+ *         trend entrate/uscite per periodo, aggregazioni a blocchi di 3 giorni);</li>
+ *     <li>mantenere in memoria l'indice del saldo progressivo di ciascun utente
+ *         ({@link RunningBalanceIndex}), i totali delle uscite per categoria
+ *         ({@link CategoryTotalsIndex}) e i totali per periodo ({@link PeriodTotalsIndex}).</li>
  * </ul>
+ * Le scritture sono registrate in {@link MovementWriteTracker}: un indice caricato
+ * mentre un movimento dell'utente veniva scritto non viene pubblicato.
  * Le query sono costruite direttamente sulla tabella {@code movements} del database
  * e spesso includono una JOIN con la tabella {@code categories} per recuperare
  * anche il nome della categoria.
  */
 public class MovimentiDAOMySQLImpl implements DAO<Movimenti> {
 
+    /**
+     * Indici del saldo progressivo già caricati, per utente.
+     * <p>
+     * Vengono aggiornati puntualmente da insert/update/delete, così da non
+     * dover mai risommare l'intera storia dei movimenti.
+     */
+    private static final Map<Integer, RunningBalanceIndex> BALANCE_INDEXES = new ConcurrentHashMap<>();
+
+    /**
+     * Totali delle uscite per categoria (di sempre e per mese) già caricati, per utente,
+     * aggiornati anch'essi dalle operazioni di scrittura.
+     */
+    private static final Map<Integer, CategoryTotalsIndex> CATEGORY_INDEXES = new ConcurrentHashMap<>();
+
+    /**
+     * Totali di entrate e uscite per giorno e per mese già caricati, per utente,
+     * usati dal grafico di andamento del report e aggiornati dalle scritture.
+     */
+    private static final Map<Integer, PeriodTotalsIndex> PERIOD_INDEXES = new ConcurrentHashMap<>();
+
+    /**
+     * Statement della query di aggregazione in corso su questa istanza, annullabile
+     * con {@link #cancelRunningQuery()}.
+     */
+    private volatile Statement runningStatement;
+
+    /** Impostato da {@link #cancelRunningQuery()}: le query successive vengono rifiutate. */
+    private volatile boolean cancelled;
+
     /**
      * Restituisce una connessione al database utilizzando le impostazioni
      * correnti definite in {@link DAOMySQLSettings}.
@@ -135,17 +178,27 @@ public class MovimentiDAOMySQLImpl implements DAO<Movimenti> {
     private void insertInternal(Movimenti m, int userId, int categoryId) throws SQLException {
         String query = "INSERT INTO movements (type, date, amount, title, payment_method, user_id, category_id) " +
                 "VALUES (?, ?, ?, ?, ?, ?, ?)";
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(query)) {
-            pstmt.setString(1, m.getType());
-            pstmt.setDate(2, Date.valueOf(m.getDate()));
-            pstmt.setFloat(3, m.getAmount());
-            pstmt.setString(4, m.getTitle());
-            pstmt.setString(5, m.getPayment_method());
-            pstmt.setInt(6, userId);
-            pstmt.setInt(7, categoryId);
-            pstmt.executeUpdate();
+        MovementWriteTracker.beginWrite(userId);
+        try {
+            try (Connection conn = getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(query)) {
+                pstmt.setString(1, m.getType());
+                pstmt.setDate(2, Date.valueOf(m.getDate()));
+                pstmt.setFloat(3, m.getAmount());
+                pstmt.setString(4, m.getTitle());
+                pstmt.setString(5, m.getPayment_method());
+                pstmt.setInt(6, userId);
+                pstmt.setInt(7, categoryId);
+                pstmt.executeUpdate();
+            }
+            applyBalanceDelta(userId, m.getDate(), RunningBalanceIndex.signedAmount(m.getType(), m.getAmount()));
+            applyCategoryDelta(userId, categoryId, m.getDate(), CategoryTotalsIndex.expenseAmount(m.getType(), m.getAmount()));
+            applyPeriodDelta(userId, m.getDate(), m.getType(), m.getAmount());
+        } finally {
+            MovementWriteTracker.endWrite(userId);
         }
+        ForecastService.movementChanged(userId, m.getDate());
+        MonthSnapshotCache.invalidateAll();
     }
 
     /**
@@ -171,9 +224,25 @@ public class MovimentiDAOMySQLImpl implements DAO<Movimenti> {
      */
     private void deleteInternal(int id) throws SQLException {
         String query = "DELETE FROM movements WHERE movement_id = ?";
+        BalanceEntry previous;
+        // L'utente del movimento è noto solo dopo averlo letto: la scrittura
+        // invalida quindi i caricamenti in corso di tutti gli utenti
+        MovementWriteTracker.beginWrite(MovementWriteTracker.ANY_USER);
         try (Connection conn = getConnection(); PreparedStatement pstmt = conn.prepareStatement(query)) {
+            previous = loadBalanceEntry(conn, id);
             pstmt.setInt(1, id);
             pstmt.executeUpdate();
+            MonthSnapshotCache.invalidateAll();
+            if (previous != null) {
+                applyBalanceDelta(previous.userId, previous.date, -previous.net);
+                applyCategoryDelta(previous.userId, previous.categoryId, previous.date, -previous.expense);
+                revertPeriodTotals(previous);
+            }
+        } finally {
+            MovementWriteTracker.endWrite(MovementWriteTracker.ANY_USER);
+        }
+        if (previous != null) {
+            ForecastService.movementChanged(previous.userId, previous.date);
         }
     }
 
@@ -294,6 +363,8 @@ public class MovimentiDAOMySQLImpl implements DAO<Movimenti> {
      *     <li>uscite: somma di importi con {@code type} in
      *         {@code ('uscita','expense')}.</li>
      * </ul>
+     * La suddivisione nei periodi è delegata a {@link TimeBucketAggregator};
+     * vengono restituiti solo i periodi che contengono almeno un movimento.
      *
      * @param userId     identificativo dell'utente
      * @param monthsBack numero di mesi da considerare a ritroso (deve essere &gt; 0)
@@ -312,86 +383,94 @@ public class MovimentiDAOMySQLImpl implements DAO<Movimenti> {
 
         // When grouping by month, include the entire current month
         // When grouping by day, only include up to today
-        LocalDate endDate;
-        if (groupByDay) {
-            endDate = today;
-        } else {
-            endDate = YearMonth.from(today).atEndOfMonth();
-        }
+        LocalDate endDate = groupByDay ? today : YearMonth.from(today).atEndOfMonth();
+        TimeBucketAggregator.Granularity granularity = groupByDay
+                ? TimeBucketAggregator.Granularity.DAY
+                : TimeBucketAggregator.Granularity.MONTH;
 
-        String selectClause;
-        String groupByClause;
-        String orderByClause;
-
-        if (groupByDay) {
-            selectClause = "DATE(date) as periodo_date";
-            groupByClause = "periodo_date";
-            orderByClause = "periodo_date ASC";
-        } else {
-            selectClause = "YEAR(date) as periodo_year, MONTH(date) as periodo_month";
-            groupByClause = "periodo_year, periodo_month";
-            orderByClause = "periodo_year ASC, periodo_month ASC";
-        }
-
-        String query = "SELECT " + selectClause + ", " +
-                "SUM(CASE WHEN LOWER(type) IN ('entrata', 'income') THEN amount ELSE 0 END) as entrate, " +
-                "SUM(CASE WHEN LOWER(type) IN ('uscita', 'expense') THEN amount ELSE 0 END) as uscite " +
-                "FROM movements " +
-                "WHERE user_id = ? AND date >= ? AND date <= ? " +
-                "GROUP BY " + groupByClause + " " +
-                "ORDER BY " + orderByClause;
+        TimeBucketAggregator aggregator = new TimeBucketAggregator(startDate, endDate, granularity);
+        fillBuckets(userId, aggregator);
 
         List<Pair<String, Pair<Float, Float>>> data = new ArrayList<>();
+        for (TimeBucketAggregator.Bucket bucket : aggregator.nonEmptyBuckets()) {
+            data.add(new Pair<>(bucket.getLabel(), new Pair<>(bucket.getIncome(), bucket.getExpense())));
+        }
+        return data;
+    }
 
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(query)) {
+    /**
+     * Recupera l'andamento di entrate e uscite di un utente su un intervallo
+     * arbitrario, scegliendo la granularità in modo che i punti siano al più
+     * {@code maxPoints} (giorno, settimana, mese, trimestre o anno, vedi
+     * {@link TimeBucketAggregator#granularityFor(LocalDate, LocalDate, int)}).
+     * <p>
+     * I totali provengono dall'indice per periodo in memoria
+     * ({@link #getPeriodTotals(int)}): dopo il primo caricamento non viene
+     * eseguita alcuna query, qualunque sia l'ampiezza dell'intervallo.
+     *
+     * @param userId    identificativo dell'utente
+     * @param from      primo giorno incluso; {@code null} per partire dal primo movimento
+     * @param to        ultimo giorno incluso
+     * @param maxPoints numero massimo di periodi desiderato
+     * @return lista di {@link Pair} con etichetta periodo e coppia (entrate, uscite),
+     *         solo per i periodi con almeno un movimento
+     * @throws SQLException se si verifica un errore durante il caricamento iniziale dell'indice
+     */
+    public List<Pair<String, Pair<Float, Float>>> getIncomeExpenseTrend(int userId, LocalDate from, LocalDate to,
+                                                                        int maxPoints) throws SQLException {
+        PeriodTotalsIndex index = getPeriodTotals(userId);
+        if (from == null) {
+            from = index.getFirstDate();
+        }
+        if (from == null || from.isAfter(to)) {
+            from = to;
+        }
 
-            pstmt.setInt(1, userId);
-            pstmt.setDate(2, Date.valueOf(startDate));
-            pstmt.setDate(3, Date.valueOf(endDate));
+        TimeBucketAggregator aggregator = new TimeBucketAggregator(from, to,
+                TimeBucketAggregator.granularityFor(from, to, maxPoints));
+        index.fill(aggregator);
 
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    float entrate = rs.getFloat("entrate");
-                    float uscite = rs.getFloat("uscite");
-
-                    String label;
-                    if (groupByDay) {
-                        LocalDate day = rs.getDate("periodo_date").toLocalDate();
-                        label = day.format(DateTimeFormatter.ofPattern("dd MMM", Locale.ITALIAN));
-                    } else {
-                        int year = rs.getInt("periodo_year");
-                        int month = rs.getInt("periodo_month");
-                        YearMonth ym = YearMonth.of(year, month);
-                        // Formato compatto: "gen '25" invece di "gen 2025"
-                        String monthName = ym.getMonth().getDisplayName(TextStyle.SHORT, Locale.ITALIAN);
-                        String yearShort = String.format("'%02d", year % 100);
-                        label = monthName + " " + yearShort;
-                    }
-
-                    data.add(new Pair<>(label, new Pair<>(entrate, uscite)));
-                }
-            }
+        List<Pair<String, Pair<Float, Float>>> data = new ArrayList<>();
+        for (TimeBucketAggregator.Bucket bucket : aggregator.nonEmptyBuckets()) {
+            data.add(new Pair<>(bucket.getLabel(), new Pair<>(bucket.getIncome(), bucket.getExpense())));
         }
-
         return data;
     }
 
+    /**
+     * Restituisce i totali per giorno e per mese dell'utente, caricandoli dal
+     * database al primo accesso con un'unica query raggruppata per giorno.
+     * <p>
+     * Il caricamento iniziale è annullabile con {@link #cancelRunningQuery()};
+     * in quel caso l'indice non viene memorizzato e sarà ricaricato alla
+     * richiesta successiva. Lo stesso accade se durante il caricamento viene
+     * scritto un movimento dell'utente (vedi {@link MovementWriteTracker}).
+     *
+     * @param userId identificativo dell'utente
+     * @return totali per periodo dell'utente
+     * @throws SQLException se si verifica un errore durante il caricamento
+     */
+    public PeriodTotalsIndex getPeriodTotals(int userId) throws SQLException {
+        PeriodTotalsIndex index = PERIOD_INDEXES.get(userId);
+        if (index == null) {
+            long version = MovementWriteTracker.currentVersion(userId);
+            index = MovementWriteTracker.publish(PERIOD_INDEXES, userId, version, loadPeriodTotals(userId));
+        }
+        return index;
+    }
+
     /**
      * Recupera, per un determinato mese di un utente, le somme di entrate e uscite
      * raggruppate in bucket di 3 giorni.
      * <p>
-     * Il bucket viene calcolato come:
-     * <pre>
-     * bucket = FLOOR((DAY(date) - 1) / 3)
-     * </pre>
-     * quindi:
+     * I bucket sono quelli di {@link TimeBucketAggregator#threeDayPeriodsOf(YearMonth)}:
      * <ul>
      *     <li>bucket 0 → giorni 1–3;</li>
      *     <li>bucket 1 → giorni 4–6;</li>
-     *     <li>ecc.</li>
+     *     <li>...</li>
+     *     <li>bucket 9 → dal giorno 28 a fine mese.</li>
      * </ul>
-     * Il risultato è una lista di coppie:
+     * Il risultato contiene solo i bucket con almeno un movimento, come coppie:
      * <pre>
      * (bucketIndex, (entrateTotali, usciteTotali))
      * </pre>
@@ -402,39 +481,82 @@ public class MovimentiDAOMySQLImpl implements DAO<Movimenti> {
      * @throws SQLException se si verifica un errore durante l'esecuzione della query
      */
     public List<Pair<Integer, Pair<Float, Float>>> getThreeDayBucketsForMonth(int userId, LocalDate referenceDate) throws SQLException {
-        LocalDate monthDate = referenceDate.withDayOfMonth(1);
-        int targetYear = monthDate.getYear();
-        int targetMonth = monthDate.getMonthValue();
+        TimeBucketAggregator aggregator = TimeBucketAggregator.threeDayPeriodsOf(YearMonth.from(referenceDate));
+        fillBuckets(userId, aggregator);
+
+        List<Pair<Integer, Pair<Float, Float>>> data = new ArrayList<>();
+        for (TimeBucketAggregator.Bucket bucket : aggregator.nonEmptyBuckets()) {
+            data.add(new Pair<>(bucket.getIndex(), new Pair<>(bucket.getIncome(), bucket.getExpense())));
+        }
+        return data;
+    }
 
-        String query = "SELECT FLOOR((DAY(date) - 1) / 3) AS bucket, " +
+    /**
+     * Popola un {@link TimeBucketAggregator} con i movimenti dell'utente che
+     * ricadono nel suo intervallo di date.
+     * <p>
+     * Esegue un'unica query raggruppata per giorno (al massimo una riga per giorno
+     * dell'intervallo) e delega all'aggregatore la collocazione di ciascuna riga
+     * nel bucket corretto, qualunque sia la granularità scelta.
+     *
+     * @param userId     identificativo dell'utente
+     * @param aggregator aggregatore da popolare
+     * @return lo stesso aggregatore, popolato
+     * @throws SQLException se si verifica un errore durante l'esecuzione della query
+     */
+    public TimeBucketAggregator fillBuckets(int userId, TimeBucketAggregator aggregator) throws SQLException {
+        String query = "SELECT DATE(date) as giorno, " +
                 "SUM(CASE WHEN LOWER(type) IN ('entrata', 'income') THEN amount ELSE 0 END) as entrate, " +
                 "SUM(CASE WHEN LOWER(type) IN ('uscita', 'expense') THEN amount ELSE 0 END) as uscite " +
                 "FROM movements " +
-                "WHERE user_id = ? AND YEAR(date) = ? AND MONTH(date) = ? " +
-                "GROUP BY bucket " +
-                "ORDER BY bucket ASC " +
-                "LIMIT 10";
-
-        List<Pair<Integer, Pair<Float, Float>>> data = new ArrayList<>();
+                "WHERE user_id = ? AND date >= ? AND date < ? " +
+                "GROUP BY giorno";
 
         try (Connection conn = getConnection();
              PreparedStatement pstmt = conn.prepareStatement(query)) {
 
+            runningStatement = pstmt;
+            if (cancelled) {
+                throw new SQLException("Query annullata");
+            }
+
             pstmt.setInt(1, userId);
-            pstmt.setInt(2, targetYear);
-            pstmt.setInt(3, targetMonth);
+            pstmt.setDate(2, Date.valueOf(aggregator.getFrom()));
+            pstmt.setDate(3, Date.valueOf(aggregator.getTo().plusDays(1)));
 
             try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    int bucketIndex = rs.getInt("bucket");
-                    float entrate = rs.getFloat("entrate");
-                    float uscite = rs.getFloat("uscite");
-                    data.add(new Pair<>(bucketIndex, new Pair<>(entrate, uscite)));
+                while (rs.next() && !cancelled) {
+                    aggregator.add(rs.getDate("giorno").toLocalDate(),
+                            rs.getFloat("entrate"),
+                            rs.getFloat("uscite"));
                 }
             }
+            if (cancelled) {
+                throw new SQLException("Query annullata");
+            }
+        } finally {
+            runningStatement = null;
         }
+        return aggregator;
+    }
 
-        return data;
+    /**
+     * Annulla la query di aggregazione in corso su questa istanza del DAO,
+     * tramite {@link Statement#cancel()}, e fa fallire quelle successive.
+     * <p>
+     * Usato dal report quando un nuovo caricamento rende superato quello in
+     * corso: la query interrotta termina con una {@link SQLException}.
+     */
+    public void cancelRunningQuery() {
+        cancelled = true;
+        Statement statement = runningStatement;
+        if (statement != null) {
+            try {
+                statement.cancel();
+            } catch (SQLException e) {
+                // Lo statement potrebbe essere già stato chiuso: nulla da annullare
+            }
+        }
     }
 
     /**
@@ -464,8 +586,12 @@ public class MovimentiDAOMySQLImpl implements DAO<Movimenti> {
     private void updateInternal(Movimenti m, int categoryId) throws SQLException {
         String query = "UPDATE movements SET type = ?, date = ?, amount = ?, title = ?, " +
                 "payment_method = ?, category_id = ? WHERE movement_id = ?";
+        BalanceEntry previous;
+        // Come per la cancellazione, l'utente è noto solo dopo aver letto il movimento
+        MovementWriteTracker.beginWrite(MovementWriteTracker.ANY_USER);
         try (Connection conn = getConnection();
              PreparedStatement pstmt = conn.prepareStatement(query)) {
+            previous = loadBalanceEntry(conn, m.getMovement_id());
             pstmt.setString(1, m.getType());
             pstmt.setDate(2, Date.valueOf(m.getDate()));
             pstmt.setFloat(3, m.getAmount());
@@ -474,6 +600,330 @@ public class MovimentiDAOMySQLImpl implements DAO<Movimenti> {
             pstmt.setInt(6, categoryId);
             pstmt.setInt(7, m.getMovement_id());
             pstmt.executeUpdate();
+            MonthSnapshotCache.invalidateAll();
+            if (previous != null) {
+                applyBalanceDelta(previous.userId, previous.date, -previous.net);
+                applyBalanceDelta(previous.userId, m.getDate(),
+                        RunningBalanceIndex.signedAmount(m.getType(), m.getAmount()));
+                applyCategoryChange(previous, categoryId, m.getDate(),
+                        CategoryTotalsIndex.expenseAmount(m.getType(), m.getAmount()));
+                revertPeriodTotals(previous);
+                applyPeriodDelta(previous.userId, m.getDate(), m.getType(), m.getAmount());
+            }
+        } finally {
+            MovementWriteTracker.endWrite(MovementWriteTracker.ANY_USER);
+        }
+        if (previous != null) {
+            ForecastService.movementChanged(previous.userId, previous.date);
+            ForecastService.movementChanged(previous.userId, m.getDate());
+        }
+    }
+
+    /**
+     * Restituisce l'indice del saldo progressivo dell'utente, caricandolo dal
+     * database al primo accesso.
+     * <p>
+     * Il caricamento esegue un'unica query con il netto giornaliero dell'intera
+     * storia; gli accessi successivi riusano l'indice in memoria, mantenuto
+     * aggiornato dalle operazioni di scrittura di questo DAO.
+     *
+     * @param userId identificativo dell'utente
+     * @return indice del saldo progressivo
+     * @throws SQLException se si verifica un errore durante il caricamento iniziale
+     */
+    public RunningBalanceIndex getBalanceIndex(int userId) throws SQLException {
+        RunningBalanceIndex index = BALANCE_INDEXES.get(userId);
+        if (index == null) {
+            long version = MovementWriteTracker.currentVersion(userId);
+            index = MovementWriteTracker.publish(BALANCE_INDEXES, userId, version, loadBalanceIndex(userId));
+        }
+        return index;
+    }
+
+    /**
+     * Restituisce i totali delle uscite per categoria dell'utente, caricandoli
+     * dal database al primo accesso.
+     * <p>
+     * Il caricamento esegue un'unica query con il totale per categoria e mese;
+     * gli accessi successivi riusano i totali in memoria, mantenuti aggiornati
+     * dalle operazioni di scrittura di questo DAO.
+     *
+     * @param userId identificativo dell'utente
+     * @return totali per categoria dell'utente
+     * @throws SQLException se si verifica un errore durante il caricamento
+     */
+    public CategoryTotalsIndex getCategoryTotals(int userId) throws SQLException {
+        CategoryTotalsIndex index = CATEGORY_INDEXES.get(userId);
+        if (index == null) {
+            long version = MovementWriteTracker.currentVersion(userId);
+            index = MovementWriteTracker.publish(CATEGORY_INDEXES, userId, version, loadCategoryTotals(userId));
+        }
+        if (!index.hasAllNames()) {
+            loadCategoryNames(index);
+        }
+        return index;
+    }
+
+    /**
+     * Rimuove dalla memoria gli indici dell'utente: saldo progressivo,
+     * totali per categoria e totali per periodo (es. al logout).
+     *
+     * @param userId identificativo dell'utente
+     */
+    public static void evictUserIndexes(int userId) {
+        BALANCE_INDEXES.remove(userId);
+        CATEGORY_INDEXES.remove(userId);
+        PERIOD_INDEXES.remove(userId);
+    }
+
+    /**
+     * Costruisce l'indice del saldo progressivo a partire dal netto giornaliero
+     * di tutti i movimenti dell'utente.
+     */
+    private RunningBalanceIndex loadBalanceIndex(int userId) throws SQLException {
+        String query = "SELECT DATE(date) as giorno, " +
+                "SUM(CASE WHEN LOWER(type) IN ('entrata', 'income') THEN amount " +
+                "WHEN LOWER(type) IN ('uscita', 'expense') THEN -amount ELSE 0 END) as netto " +
+                "FROM movements " +
+                "WHERE user_id = ? " +
+                "GROUP BY giorno " +
+                "ORDER BY giorno";
+
+        RunningBalanceIndex index = new RunningBalanceIndex();
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query)) {
+
+            pstmt.setInt(1, userId);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    index.add(rs.getDate("giorno").toLocalDate(), rs.getDouble("netto"));
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Costruisce i totali per categoria a partire dalle uscite dell'utente
+     * raggruppate per categoria e mese.
+     */
+    private CategoryTotalsIndex loadCategoryTotals(int userId) throws SQLException {
+        String query = "SELECT m.category_id, c.name, YEAR(m.date) as anno, MONTH(m.date) as mese, " +
+                "SUM(m.amount) as totale " +
+                "FROM movements m " +
+                "JOIN categories c ON m.category_id = c.category_id " +
+                "WHERE m.user_id = ? AND LOWER(m.type) IN ('uscita', 'expense') " +
+                "GROUP BY m.category_id, c.name, anno, mese";
+
+        CategoryTotalsIndex index = new CategoryTotalsIndex();
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query)) {
+
+            pstmt.setInt(1, userId);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    int categoryId = rs.getInt("category_id");
+                    index.setCategoryName(categoryId, rs.getString("name"));
+                    index.add(categoryId, YearMonth.of(rs.getInt("anno"), rs.getInt("mese")), rs.getDouble("totale"));
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Ricarica i nomi delle categorie, necessario quando un movimento viene
+     * registrato su una categoria non ancora presente nei totali. Le categorie
+     * non trovate vengono segnate nell'indice, così da non ripetere la query
+     * a ogni lettura.
+     */
+    private void loadCategoryNames(CategoryTotalsIndex index) throws SQLException {
+        String query = "SELECT category_id, name FROM categories";
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                index.setCategoryName(rs.getInt("category_id"), rs.getString("name"));
+            }
+        }
+        index.markNamesLoaded();
+    }
+
+    /**
+     * Costruisce i totali per periodo a partire da entrate e uscite giornaliere
+     * di tutta la storia dell'utente.
+     */
+    private PeriodTotalsIndex loadPeriodTotals(int userId) throws SQLException {
+        String query = "SELECT DATE(date) as giorno, " +
+                "SUM(CASE WHEN LOWER(type) IN ('entrata', 'income') THEN amount ELSE 0 END) as entrate, " +
+                "SUM(CASE WHEN LOWER(type) IN ('uscita', 'expense') THEN amount ELSE 0 END) as uscite " +
+                "FROM movements " +
+                "WHERE user_id = ? " +
+                "GROUP BY giorno";
+
+        PeriodTotalsIndex index = new PeriodTotalsIndex();
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query)) {
+
+            runningStatement = pstmt;
+            if (cancelled) {
+                throw new SQLException("Query annullata");
+            }
+
+            pstmt.setInt(1, userId);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next() && !cancelled) {
+                    index.add(rs.getDate("giorno").toLocalDate(), rs.getDouble("entrate"), rs.getDouble("uscite"));
+                }
+            }
+            if (cancelled) {
+                throw new SQLException("Query annullata");
+            }
+        } finally {
+            runningStatement = null;
+        }
+        return index;
+    }
+
+    /**
+     * Carica i totali per giorno di tutti gli utenti con un'unica query raggruppata
+     * per utente e giorno, ad esempio per un backtest delle previsioni su tutta la base.
+     * <p>
+     * Gli indici restituiti non vengono memorizzati né aggiornati dalle scritture
+     * successive: sono una fotografia dei dati al momento della lettura.
+     *
+     * @return totali per periodo, indicizzati per id utente
+     * @throws SQLException se si verifica un errore durante l'esecuzione della query
+     */
+    public Map<Integer, PeriodTotalsIndex> loadAllPeriodTotals() throws SQLException {
+        String query = "SELECT user_id, DATE(date) as giorno, " +
+                "SUM(CASE WHEN LOWER(type) IN ('entrata', 'income') THEN amount ELSE 0 END) as entrate, " +
+                "SUM(CASE WHEN LOWER(type) IN ('uscita', 'expense') THEN amount ELSE 0 END) as uscite " +
+                "FROM movements " +
+                "GROUP BY user_id, giorno";
+
+        Map<Integer, PeriodTotalsIndex> indexes = new HashMap<>();
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                indexes.computeIfAbsent(rs.getInt("user_id"), id -> new PeriodTotalsIndex())
+                        .add(rs.getDate("giorno").toLocalDate(), rs.getDouble("entrate"), rs.getDouble("uscite"));
+            }
+        }
+        return indexes;
+    }
+
+    /**
+     * Aggiunge un movimento ai totali per periodo dell'utente, se già caricati.
+     */
+    private static void applyPeriodDelta(int userId, LocalDate date, String type, double amount) {
+        PeriodTotalsIndex index = PERIOD_INDEXES.get(userId);
+        if (index != null) {
+            double income = TimeBucketAggregator.isIncome(type) ? amount : 0;
+            double expense = TimeBucketAggregator.isExpense(type) ? amount : 0;
+            index.add(date, income, expense);
+        }
+    }
+
+    /**
+     * Storna dai totali per periodo il contributo di un movimento esistente.
+     * Le entrate si ricavano dal netto: {@code netto = entrate - uscite}.
+     */
+    private static void revertPeriodTotals(BalanceEntry previous) {
+        PeriodTotalsIndex index = PERIOD_INDEXES.get(previous.userId);
+        if (index != null) {
+            index.add(previous.date, -(previous.net + previous.expense), -previous.expense);
+        }
+    }
+
+    /**
+     * Applica una variazione ai totali per categoria dell'utente, se già caricati,
+     * e la comunica al motore degli avvisi di budget.
+     */
+    private static void applyCategoryDelta(int userId, int categoryId, LocalDate date, double delta) {
+        CategoryTotalsIndex index = CATEGORY_INDEXES.get(userId);
+        if (index != null && date != null) {
+            index.add(categoryId, YearMonth.from(date), delta);
+        }
+        BudgetAlertEngine.getInstance().recordSpend(userId, categoryId, date, delta);
+    }
+
+    /**
+     * Applica la modifica di un movimento ai totali per categoria dell'utente, se già
+     * caricati, e la comunica al motore degli avvisi di budget come un'unica
+     * variazione ({@link BudgetAlertEngine#recordSpendChange}).
+     */
+    private static void applyCategoryChange(BalanceEntry previous, int categoryId, LocalDate date, double expense) {
+        CategoryTotalsIndex index = CATEGORY_INDEXES.get(previous.userId);
+        if (index != null) {
+            if (previous.date != null) {
+                index.add(previous.categoryId, YearMonth.from(previous.date), -previous.expense);
+            }
+            if (date != null) {
+                index.add(categoryId, YearMonth.from(date), expense);
+            }
+        }
+        BudgetAlertEngine.getInstance().recordSpendChange(previous.userId,
+                previous.categoryId, previous.date, previous.expense, categoryId, date, expense);
+    }
+
+    /**
+     * Applica una variazione all'indice del saldo dell'utente, se già caricato.
+     */
+    private static void applyBalanceDelta(int userId, LocalDate date, double delta) {
+        RunningBalanceIndex index = BALANCE_INDEXES.get(userId);
+        if (index != null) {
+            index.add(date, delta);
+        }
+    }
+
+    /**
+     * Legge utente, categoria, data e importi di un movimento esistente,
+     * necessari per stornarne il contributo dagli indici in memoria e
+     * invalidare la previsione prima di una modifica o cancellazione.
+     * La lettura avviene sempre, anche senza indici in memoria: un caricamento
+     * in background potrebbe pubblicarne uno mentre la scrittura è in corso.
+     */
+    private BalanceEntry loadBalanceEntry(Connection conn, int movementId) throws SQLException {
+        String query = "SELECT user_id, category_id, date, type, amount FROM movements WHERE movement_id = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+            pstmt.setInt(1, movementId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    String type = rs.getString("type");
+                    double amount = rs.getDouble("amount");
+                    return new BalanceEntry(
+                            rs.getInt("user_id"),
+                            rs.getInt("category_id"),
+                            rs.getDate("date").toLocalDate(),
+                            RunningBalanceIndex.signedAmount(type, amount),
+                            CategoryTotalsIndex.expenseAmount(type, amount));
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Contributo di un singolo movimento al saldo progressivo e ai totali per categoria.
+     */
+    private static final class BalanceEntry {
+        private final int userId;
+        private final int categoryId;
+        private final LocalDate date;
+        private final double net;
+        private final double expense;
+
+        private BalanceEntry(int userId, int categoryId, LocalDate date, double net, double expense) {
+            this.userId = userId;
+            this.categoryId = categoryId;
+            this.date = date;
+            this.net = net;
+            this.expense = expense;
         }
     }
 
@@ -1,6 +1,8 @@
 package it.unicas.project.template.address.model.dao.mysql;
 
 import it.unicas.project.template.address.model.dao.UserDAO;
+import it.unicas.project.template.address.util.ForecastService;
+import it.unicas.project.template.address.util.MonthSnapshotCache;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -180,6 +182,9 @@ public class UserDAOMySQLImpl implements UserDAO {
             }
 
             conn.commit();  // conferma transazione
+            MovimentiDAOMySQLImpl.evictUserIndexes(userId);
+            ForecastService.evict(userId);
+            MonthSnapshotCache.invalidateAll();
             return true;
 
         } catch (SQLException e) {
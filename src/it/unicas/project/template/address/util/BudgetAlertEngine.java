@@ -0,0 +1,425 @@
+package it.unicas.project.template.address.util;
+
+import it.unicas.project.template.address.model.Budget;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Motore degli avvisi di budget a soglie.
+ * <p>
+ * Per ogni categoria è possibile configurare più soglie di utilizzo, in
+ * percentuale del limite (di default {@code 50/80/100/150}); le soglie di ciascun
+ * utente sono salvate nella tabella {@code budget_thresholds} e caricate insieme ai
+ * budget ({@link #setThresholds(int, int, int...)}). Il motore mantiene
+ * in memoria, per utente e mese, limite e spesa di ciascun budget e a ogni
+ * scrittura di un movimento ({@link #recordSpend(int, int, LocalDate, double)})
+ * o di un limite ({@link #updateBudgetAmount(int, int, YearMonth, double)})
+ * confronta la percentuale di utilizzo prima e dopo la modifica: una soglia
+ * è attraversata se la percentuale passa da sotto a sopra di essa (strettamente
+ * sopra per le soglie di superamento, dal 100% in su). Il costo
+ * per scrittura è costante (qualche accesso a mappa e al più una manciata di soglie),
+ * senza rileggere i budget dal database.
+ * <p>
+ * Ogni soglia viene segnalata al più una volta per mese: la soglia più alta già
+ * segnalata è memorizzata in {@link BudgetNotificationPreferences} (e quindi sul
+ * database), per cui una spesa che scende e risale non genera un nuovo avviso.
+ * <p>
+ * Le soglie attraversate vengono accodate e raccolte dall'interfaccia con
+ * {@link #drainCrossings(int)} dopo la scrittura.
+ * <p>
+ * I budget vengono tracciati quando sono letti dal database
+ * ({@link #track(Budget)}); i movimenti di mesi non tracciati sono ignorati.
+ * I metodi sono sincronizzati perché i budget possono essere letti dai thread
+ * di prefetch mentre il thread JavaFX scrive i movimenti.
+ */
+public class BudgetAlertEngine {
+
+    /** Soglie predefinite, in percentuale del limite. */
+    public static final int[] DEFAULT_THRESHOLDS = {50, 80, 100, 150};
+
+    private static BudgetAlertEngine instance;
+
+    /** Budget tracciati: chiave utente/mese → categoria → limite e spesa. */
+    private final Map<Long, Map<Integer, Tracker>> trackers = new HashMap<>();
+
+    /**
+     * Soglie configurate per utente e categoria (vedi {@link #thresholdKey(int, int)});
+     * le categorie assenti usano {@link #DEFAULT_THRESHOLDS}.
+     */
+    private final Map<Long, int[]> thresholds = new HashMap<>();
+
+    /** Soglie attraversate non ancora raccolte dall'interfaccia. */
+    private final List<ThresholdCrossing> pending = new ArrayList<>();
+
+    /**
+     * @return istanza condivisa del motore
+     */
+    public static synchronized BudgetAlertEngine getInstance() {
+        if (instance == null) {
+            instance = new BudgetAlertEngine();
+        }
+        return instance;
+    }
+
+    /**
+     * Sostituisce l'istanza condivisa con una nuova, senza budget tracciati
+     * né soglie personalizzate. Pensato per i test.
+     */
+    public static synchronized void resetForTesting() {
+        instance = null;
+    }
+
+    /**
+     * Imposta le soglie di una categoria per un utente.
+     *
+     * @param userId     identificativo dell'utente
+     * @param categoryId identificativo della categoria
+     * @param percents   soglie in percentuale del limite (es. 50, 80, 100)
+     * @throws IllegalArgumentException se non è indicata alcuna soglia o una soglia non è positiva
+     */
+    public synchronized void setThresholds(int userId, int categoryId, int... percents) {
+        thresholds.put(thresholdKey(userId, categoryId), normalize(percents));
+    }
+
+    /**
+     * Ripristina le soglie predefinite di una categoria per un utente.
+     *
+     * @param userId     identificativo dell'utente
+     * @param categoryId identificativo della categoria
+     */
+    public synchronized void resetThresholds(int userId, int categoryId) {
+        thresholds.remove(thresholdKey(userId, categoryId));
+    }
+
+    /**
+     * @param userId     identificativo dell'utente
+     * @param categoryId identificativo della categoria
+     * @return soglie della categoria in ordine crescente
+     */
+    public synchronized int[] getThresholds(int userId, int categoryId) {
+        return thresholdsOf(userId, categoryId).clone();
+    }
+
+    /**
+     * Interpreta un elenco di soglie separate da virgole o spazi (es. {@code "50, 80, 100"}),
+     * come salvato sul database o inserito dall'utente.
+     *
+     * @param text elenco di soglie
+     * @return soglie in ordine crescente, senza duplicati
+     * @throws IllegalArgumentException se l'elenco è vuoto o contiene valori non validi
+     */
+    public static int[] parseThresholds(String text) {
+        if (text == null || text.isBlank()) {
+            throw new IllegalArgumentException("Indicare almeno una soglia");
+        }
+        String[] parts = text.trim().split("[,;\\s]+");
+        int[] percents = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            try {
+                percents[i] = Integer.parseInt(parts[i].replace("%", ""));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Soglia non valida: " + parts[i]);
+            }
+        }
+        return normalize(percents);
+    }
+
+    /**
+     * @param percents soglie in ordine crescente
+     * @return elenco delle soglie nel formato letto da {@link #parseThresholds(String)}
+     */
+    public static String formatThresholds(int[] percents) {
+        StringBuilder sb = new StringBuilder();
+        for (int p : percents) {
+            if (sb.length() > 0) sb.append(", ");
+            sb.append(p);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Ordina le soglie e ne elimina i duplicati.
+     *
+     * @throws IllegalArgumentException se non è indicata alcuna soglia o una soglia non è positiva
+     */
+    private static int[] normalize(int[] percents) {
+        if (percents == null || percents.length == 0) {
+            throw new IllegalArgumentException("Indicare almeno una soglia");
+        }
+        int[] sorted = Arrays.stream(percents).sorted().distinct().toArray();
+        if (sorted[0] <= 0) {
+            throw new IllegalArgumentException("Le soglie devono essere positive");
+        }
+        return sorted;
+    }
+
+    /**
+     * Registra limite e spesa di un budget letto dal database come nuova base
+     * di confronto, senza generare avvisi.
+     *
+     * @param budget budget letto dal database
+     */
+    public synchronized void track(Budget budget) {
+        Tracker tracker = trackersOf(budget.getUserId(), YearMonth.of(budget.getYear(), budget.getMonth()))
+                .computeIfAbsent(budget.getCategoryId(), id -> new Tracker());
+        tracker.categoryName = budget.getCategoryName();
+        tracker.budgetAmount = budget.getBudgetAmount();
+        tracker.spent = budget.getSpentAmount();
+    }
+
+    /**
+     * @param userId identificativo dell'utente
+     * @param month  mese richiesto
+     * @return {@code true} se i budget del mese sono tracciati
+     */
+    public synchronized boolean isTracking(int userId, YearMonth month) {
+        return trackers.containsKey(keyOf(userId, month));
+    }
+
+    /**
+     * Applica la variazione di spesa di una scrittura e accoda le soglie attraversate.
+     *
+     * @param userId     identificativo dell'utente
+     * @param categoryId categoria del movimento
+     * @param date       data del movimento
+     * @param delta      variazione delle uscite (negativa per una cancellazione)
+     */
+    public synchronized void recordSpend(int userId, int categoryId, LocalDate date, double delta) {
+        if (date == null || delta == 0) {
+            return;
+        }
+        YearMonth month = YearMonth.from(date);
+        Map<Integer, Tracker> byCategory = trackers.get(keyOf(userId, month));
+        Tracker tracker = byCategory == null ? null : byCategory.get(categoryId);
+        if (tracker == null) {
+            return;
+        }
+        double oldSpent = tracker.spent;
+        tracker.spent += delta;
+        evaluate(userId, month, categoryId, tracker, oldSpent, tracker.budgetAmount);
+    }
+
+    /**
+     * Applica la modifica di un movimento esistente.
+     * <p>
+     * Se categoria e mese non cambiano, viene applicata la sola variazione netta:
+     * stornare il vecchio importo e aggiungere il nuovo con due scritture separate
+     * farebbe riattraversare le soglie comprese tra i due valori, generando avvisi
+     * anche per una modifica che non cambia la spesa (ad esempio del solo titolo).
+     *
+     * @param userId        identificativo dell'utente
+     * @param oldCategoryId categoria prima della modifica
+     * @param oldDate       data prima della modifica
+     * @param oldAmount     uscita prima della modifica (0 per un'entrata)
+     * @param newCategoryId categoria dopo la modifica
+     * @param newDate       data dopo la modifica
+     * @param newAmount     uscita dopo la modifica (0 per un'entrata)
+     */
+    public synchronized void recordSpendChange(int userId, int oldCategoryId, LocalDate oldDate, double oldAmount,
+                                               int newCategoryId, LocalDate newDate, double newAmount) {
+        if (oldDate != null && newDate != null && oldCategoryId == newCategoryId
+                && YearMonth.from(oldDate).equals(YearMonth.from(newDate))) {
+            recordSpend(userId, newCategoryId, newDate, newAmount - oldAmount);
+            return;
+        }
+        recordSpend(userId, oldCategoryId, oldDate, -oldAmount);
+        recordSpend(userId, newCategoryId, newDate, newAmount);
+    }
+
+    /**
+     * Applica la modifica del limite di un budget e accoda le soglie attraversate
+     * (un limite più basso può far superare una soglia senza nuove spese).
+     *
+     * @param userId     identificativo dell'utente
+     * @param categoryId categoria del budget
+     * @param month      mese del budget
+     * @param amount     nuovo limite
+     */
+    public synchronized void updateBudgetAmount(int userId, int categoryId, YearMonth month, double amount) {
+        Map<Integer, Tracker> byCategory = trackers.get(keyOf(userId, month));
+        Tracker tracker = byCategory == null ? null : byCategory.get(categoryId);
+        if (tracker == null) {
+            return;
+        }
+        double oldAmount = tracker.budgetAmount;
+        tracker.budgetAmount = amount;
+        evaluate(userId, month, categoryId, tracker, tracker.spent, oldAmount);
+    }
+
+    /**
+     * Restituisce e rimuove le soglie attraversate di un utente, nell'ordine in cui sono avvenute.
+     *
+     * @param userId identificativo dell'utente
+     * @return soglie attraversate, vuota se non ce ne sono
+     */
+    public synchronized List<ThresholdCrossing> drainCrossings(int userId) {
+        List<ThresholdCrossing> result = new ArrayList<>();
+        for (Iterator<ThresholdCrossing> it = pending.iterator(); it.hasNext(); ) {
+            ThresholdCrossing crossing = it.next();
+            if (crossing.getUserId() == userId) {
+                result.add(crossing);
+                it.remove();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Confronta l'utilizzo prima ({@code oldSpent / oldAmount}) e dopo la modifica
+     * (valori correnti del tracker) e accoda le soglie attraversate verso l'alto
+     * non ancora segnalate nel mese.
+     */
+    private void evaluate(int userId, YearMonth month, int categoryId, Tracker tracker,
+                          double oldSpent, double oldAmount) {
+        if (tracker.budgetAmount <= 0) {
+            return;
+        }
+        double before = oldAmount > 0 ? oldSpent / oldAmount * 100 : 0;
+        double after = tracker.spent / tracker.budgetAmount * 100;
+        if (after <= before) {
+            return;
+        }
+
+        BudgetNotificationPreferences prefs = BudgetNotificationPreferences.getInstance();
+        int alerted = prefs.getAlertLevel(userId, month, categoryId);
+        int highest = 0;
+        for (int threshold : thresholdsOf(userId, categoryId)) {
+            if (threshold > alerted && crosses(threshold, before, after)) {
+                pending.add(new ThresholdCrossing(userId, month, categoryId, tracker.categoryName,
+                        threshold, tracker.budgetAmount, tracker.spent));
+                highest = threshold;
+            }
+        }
+        if (highest > 0) {
+            prefs.raiseAlertLevel(userId, month, categoryId, highest);
+        }
+    }
+
+    /**
+     * Indica se l'utilizzo è passato da sotto a sopra la soglia. Per le soglie di
+     * superamento (dal 100% in su) il confronto è stretto, come in
+     * {@link BudgetNotificationHelper#isBudgetExceeded(Budget)}: spendere esattamente il
+     * limite non è un superamento.
+     */
+    private static boolean crosses(int threshold, double before, double after) {
+        return threshold >= 100
+                ? before <= threshold && after > threshold
+                : before < threshold && after >= threshold;
+    }
+
+    private int[] thresholdsOf(int userId, int categoryId) {
+        return thresholds.getOrDefault(thresholdKey(userId, categoryId), DEFAULT_THRESHOLDS);
+    }
+
+    private static long thresholdKey(int userId, int categoryId) {
+        return ((long) userId << 32) | (categoryId & 0xffffffffL);
+    }
+
+    private Map<Integer, Tracker> trackersOf(int userId, YearMonth month) {
+        return trackers.computeIfAbsent(keyOf(userId, month), k -> new HashMap<>());
+    }
+
+    /**
+     * Combina utente e mese in un'unica chiave, come {@link MonthSnapshotCache}.
+     */
+    private static long keyOf(int userId, YearMonth month) {
+        return ((long) userId << 32) | (month.getYear() * 12L + month.getMonthValue() - 1);
+    }
+
+    /** Limite e spesa correnti di un budget tracciato. */
+    private static final class Tracker {
+        private String categoryName;
+        private double budgetAmount;
+        private double spent;
+    }
+
+    /**
+     * Attraversamento di una soglia di utilizzo di un budget.
+     */
+    public static final class ThresholdCrossing {
+        private final int userId;
+        private final YearMonth month;
+        private final int categoryId;
+        private final String categoryName;
+        private final int threshold;
+        private final double budgetAmount;
+        private final double spentAmount;
+        private final LocalDate projectedExceedDate;
+
+        /**
+         * @param userId       identificativo dell'utente
+         * @param month        mese del budget
+         * @param categoryId   identificativo della categoria
+         * @param categoryName nome della categoria
+         * @param threshold    soglia attraversata, in percentuale del limite
+         * @param budgetAmount limite del budget
+         * @param spentAmount  spesa dopo la scrittura
+         */
+        public ThresholdCrossing(int userId, YearMonth month, int categoryId, String categoryName,
+                                 int threshold, double budgetAmount, double spentAmount) {
+            this(userId, month, categoryId, categoryName, threshold, budgetAmount, spentAmount, null);
+        }
+
+        private ThresholdCrossing(int userId, YearMonth month, int categoryId, String categoryName,
+                                  int threshold, double budgetAmount, double spentAmount,
+                                  LocalDate projectedExceedDate) {
+            this.userId = userId;
+            this.month = month;
+            this.categoryId = categoryId;
+            this.categoryName = categoryName;
+            this.threshold = threshold;
+            this.budgetAmount = budgetAmount;
+            this.spentAmount = spentAmount;
+            this.projectedExceedDate = projectedExceedDate;
+        }
+
+        /**
+         * Crea l'avviso anticipato per un budget che, al ritmo di spesa attuale,
+         * verrà superato entro fine mese (vedi {@link BudgetBurnRate}).
+         * <p>
+         * L'avviso ha soglia 0, così che una soglia effettivamente attraversata
+         * per la stessa categoria abbia sempre la precedenza.
+         *
+         * @param budget budget con la proiezione calcolata
+         * @return avviso di superamento previsto
+         */
+        public static ThresholdCrossing projection(Budget budget) {
+            return new ThresholdCrossing(budget.getUserId(), YearMonth.of(budget.getYear(), budget.getMonth()),
+                    budget.getCategoryId(), budget.getCategoryName(), 0,
+                    budget.getBudgetAmount(), budget.getSpentAmount(), budget.getProjectedExceedDate());
+        }
+
+        public int getUserId() { return userId; }
+        public YearMonth getMonth() { return month; }
+        public int getCategoryId() { return categoryId; }
+        public String getCategoryName() { return categoryName; }
+        public int getThreshold() { return threshold; }
+        public double getBudgetAmount() { return budgetAmount; }
+        public double getSpentAmount() { return spentAmount; }
+
+        /** @return data di superamento prevista, {@code null} se non è un avviso anticipato */
+        public LocalDate getProjectedExceedDate() { return projectedExceedDate; }
+
+        /**
+         * @return {@code true} se è un avviso anticipato creato con {@link #projection(Budget)}
+         */
+        public boolean isProjection() {
+            return projectedExceedDate != null;
+        }
+
+        /**
+         * @return {@code true} se la soglia indica il superamento del limite (soglia dal 100%
+         *         in su, attraversata con una spesa strettamente superiore)
+         */
+        public boolean isExceeded() {
+            return threshold >= 100;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package it.unicas.project.template.address.util;
+
+import it.unicas.project.template.address.model.Budget;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Proiezione a fine mese della spesa di ciascun budget di categoria.
+ * <p>
+ * Per ogni budget calcola, a partire dalla spesa del mese fino a oggi:
+ * <ul>
+ *     <li>il ritmo di spesa giornaliero (speso / giorni trascorsi), come la
+ *         proiezione lineare di {@link ForecastCalculator};</li>
+ *     <li>la spesa proiettata a fine mese;</li>
+ *     <li>la data in cui il budget è stato superato, oppure quella in cui lo
+ *         sarà mantenendo lo stesso ritmo (se cade entro il mese).</li>
+ * </ul>
+ * I valori sono scritti nei campi di proiezione di {@link Budget}; i totali
+ * giornalieri per categoria provengono da un'unica query raggruppata sul mese
+ * (vedi {@code BudgetDAOMySQLImpl#applyBurnRates}).
+ */
+public final class BudgetBurnRate {
+
+    private BudgetBurnRate() {
+        // Utility class
+    }
+
+    /**
+     * Calcola la proiezione di tutti i budget.
+     *
+     * @param budgets    budget dello stesso mese
+     * @param dailySpend uscite giornaliere per id categoria (indice 0 = giorno 1 del mese)
+     * @param today      giorno corrente
+     */
+    public static void apply(List<Budget> budgets, Map<Integer, double[]> dailySpend, LocalDate today) {
+        for (Budget b : budgets) {
+            project(b, dailySpend.get(b.getCategoryId()), today);
+        }
+    }
+
+    /**
+     * Calcola la proiezione di un budget.
+     *
+     * @param budget budget da proiettare; la spesa di partenza è {@link Budget#getSpentAmount()}
+     * @param daily  uscite giornaliere della categoria nel mese, {@code null} se non ci sono movimenti
+     * @param today  giorno corrente
+     */
+    public static void project(Budget budget, double[] daily, LocalDate today) {
+        YearMonth month = YearMonth.of(budget.getYear(), budget.getMonth());
+        int length = month.lengthOfMonth();
+        int elapsed;
+        if (month.equals(YearMonth.from(today))) {
+            elapsed = today.getDayOfMonth();
+        } else {
+            elapsed = month.isBefore(YearMonth.from(today)) ? length : 0;
+        }
+
+        double spent = budget.getSpentAmount();
+        double limit = budget.getBudgetAmount();
+        double rate = elapsed > 0 ? spent / elapsed : 0;
+
+        budget.setDailyBurnRate(rate);
+        budget.setProjectedAmount(spent + rate * (length - elapsed));
+        budget.setProjectedExceedDate(exceedDate(month, daily, spent, limit, rate, elapsed));
+    }
+
+    /**
+     * Indica se il budget non è ancora superato ma lo sarà entro fine mese al ritmo attuale.
+     *
+     * @param budget budget con la proiezione calcolata
+     * @return {@code true} se è opportuno un avviso anticipato
+     */
+    public static boolean isProjectedToExceed(Budget budget) {
+        return budget.getBudgetAmount() > 0
+                && budget.getSpentAmount() <= budget.getBudgetAmount()
+                && budget.getProjectedExceedDate() != null;
+    }
+
+    private static LocalDate exceedDate(YearMonth month, double[] daily, double spent, double limit,
+                                        double rate, int elapsed) {
+        if (limit <= 0) {
+            return null;
+        }
+        if (spent > limit) {
+            // Già superato: primo giorno in cui la spesa cumulata ha passato il limite
+            double cumulative = 0;
+            if (daily != null) {
+                for (int day = 1; day <= Math.min(elapsed, daily.length); day++) {
+                    cumulative += daily[day - 1];
+                    if (cumulative > limit) {
+                        return month.atDay(day);
+                    }
+                }
+            }
+            return month.atDay(Math.max(1, elapsed));
+        }
+        if (rate <= 0) {
+            return null;
+        }
+        // Giorni necessari perché la spesa superi (strettamente) il limite
+        int daysNeeded = (int) Math.floor((limit - spent) / rate) + 1;
+        int day = elapsed + daysNeeded;
+        return day <= month.lengthOfMonth() ? month.atDay(day) : null;
+    }
+}
@@ -0,0 +1,144 @@
+package it.unicas.project.template.address.util;
+
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+
+/**
+ * Storico dei budget di un utente: limite e spesa per categoria su una
+ * sequenza di mesi consecutivi, in forma di matrice categoria × mese.
+ * <p>
+ * I valori sono memorizzati in due array di {@code double} indicizzati per
+ * {@code categoria * mesi + mese}, senza un oggetto per cella: anche uno
+ * storico di molte categorie su un anno occupa pochi kilobyte. Le categorie
+ * vengono registrate nell'ordine di {@link #addCategory(int, String)} e i mesi
+ * vanno da {@link #getFirstMonth()} (indice 0) all'ultimo mese richiesto.
+ * <p>
+ * Il DAO popola lo storico con un'unica query aggregata
+ * (vedi {@code BudgetDAOMySQLImpl#getBudgetHistory}); un mese senza budget
+ * salvato ha limite 0.
+ */
+public class BudgetHistory {
+
+    private final YearMonth firstMonth;
+    private final int monthCount;
+
+    private int[] categoryIds = new int[8];
+    private String[] categoryNames = new String[8];
+    private int categoryCount;
+
+    private double[] limits;
+    private double[] spent;
+
+    /**
+     * Crea uno storico vuoto.
+     *
+     * @param lastMonth  ultimo mese dello storico
+     * @param monthCount numero di mesi, ultimo compreso
+     * @throws IllegalArgumentException se {@code monthCount} non è positivo
+     */
+    public BudgetHistory(YearMonth lastMonth, int monthCount) {
+        if (monthCount <= 0) {
+            throw new IllegalArgumentException("Il numero di mesi deve essere positivo");
+        }
+        this.firstMonth = lastMonth.minusMonths(monthCount - 1);
+        this.monthCount = monthCount;
+        this.limits = new double[categoryIds.length * monthCount];
+        this.spent = new double[categoryIds.length * monthCount];
+    }
+
+    /**
+     * Registra una categoria, se non è già presente.
+     *
+     * @param categoryId identificativo della categoria
+     * @param name       nome della categoria
+     * @return indice della categoria nella matrice
+     */
+    public int addCategory(int categoryId, String name) {
+        int index = indexOfCategory(categoryId);
+        if (index >= 0) {
+            return index;
+        }
+        if (categoryCount == categoryIds.length) {
+            int capacity = categoryIds.length * 2;
+            categoryIds = Arrays.copyOf(categoryIds, capacity);
+            categoryNames = Arrays.copyOf(categoryNames, capacity);
+            limits = Arrays.copyOf(limits, capacity * monthCount);
+            spent = Arrays.copyOf(spent, capacity * monthCount);
+        }
+        categoryIds[categoryCount] = categoryId;
+        categoryNames[categoryCount] = name;
+        return categoryCount++;
+    }
+
+    /**
+     * Imposta limite e spesa di una categoria in un mese; i mesi fuori
+     * dall'intervallo dello storico vengono ignorati.
+     *
+     * @param categoryId  identificativo della categoria
+     * @param name        nome della categoria
+     * @param month       mese
+     * @param limit       limite del budget (0 se non impostato)
+     * @param spentAmount uscite del mese nella categoria
+     */
+    public void set(int categoryId, String name, YearMonth month, double limit, double spentAmount) {
+        int monthIndex = indexOfMonth(month);
+        int categoryIndex = addCategory(categoryId, name);
+        if (monthIndex < 0) {
+            return;
+        }
+        limits[categoryIndex * monthCount + monthIndex] = limit;
+        spent[categoryIndex * monthCount + monthIndex] = spentAmount;
+    }
+
+    /**
+     * @param categoryId identificativo della categoria
+     * @return indice della categoria nella matrice, -1 se assente
+     */
+    public int indexOfCategory(int categoryId) {
+        for (int i = 0; i < categoryCount; i++) {
+            if (categoryIds[i] == categoryId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param month mese
+     * @return indice del mese nella matrice, -1 se fuori dall'intervallo
+     */
+    public int indexOfMonth(YearMonth month) {
+        long index = firstMonth.until(month, ChronoUnit.MONTHS);
+        return index >= 0 && index < monthCount ? (int) index : -1;
+    }
+
+    public YearMonth getFirstMonth() { return firstMonth; }
+    public int getMonthCount() { return monthCount; }
+    public int getCategoryCount() { return categoryCount; }
+
+    /** @return mese corrispondente all'indice indicato */
+    public YearMonth getMonth(int monthIndex) { return firstMonth.plusMonths(monthIndex); }
+
+    public int getCategoryId(int categoryIndex) { return categoryIds[categoryIndex]; }
+    public String getCategoryName(int categoryIndex) { return categoryNames[categoryIndex]; }
+
+    /** @return limite della categoria nel mese, 0 se non impostato */
+    public double getLimit(int categoryIndex, int monthIndex) {
+        return limits[categoryIndex * monthCount + monthIndex];
+    }
+
+    /** @return uscite della categoria nel mese */
+    public double getSpent(int categoryIndex, int monthIndex) {
+        return spent[categoryIndex * monthCount + monthIndex];
+    }
+
+    /**
+     * Calcola la percentuale di utilizzo (da 0.0 in su) di una cella.
+     * Se il limite è 0, ritorna 0 come {@code Budget#getProgress()}.
+     */
+    public double getProgress(int categoryIndex, int monthIndex) {
+        double limit = getLimit(categoryIndex, monthIndex);
+        return limit == 0 ? 0.0 : getSpent(categoryIndex, monthIndex) / limit;
+    }
+}
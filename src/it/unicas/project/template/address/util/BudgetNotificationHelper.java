@@ -1,6 +1,7 @@
 package it.unicas.project.template.address.util;
 
 import it.unicas.project.template.address.model.Budget;
+import it.unicas.project.template.address.util.BudgetAlertEngine.ThresholdCrossing;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.Alert;
@@ -14,8 +15,11 @@ import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.stage.StageStyle;
 
+import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -23,6 +27,9 @@ import java.util.Optional;
  * <p>
  * La classe fornisce metodi statici per:
  * <ul>
+ *     <li>selezionare gli avvisi da notificare per le soglie di utilizzo
+ *         attraversate, calcolate da {@link BudgetAlertEngine}, e gli avvisi
+ *         anticipati per i budget che verranno superati entro fine mese;</li>
  *     <li>verificare se il budget di una singola categoria è stato superato
  *         e mostrare il relativo popup di avviso;</li>
  *     <li>(deprecato) verificare e mostrare un avviso cumulativo per
@@ -30,10 +37,10 @@ import java.util.Optional;
  *     <li>eseguire un controllo semplice su un singolo oggetto {@link Budget}
  *         per sapere se risulta superato.</li>
  * </ul>
- * I popup utilizzano componenti JavaFX e si basano sulle preferenze utente
- * gestite da {@link BudgetNotificationPreferences} per ricordare:
+ * I popup utilizzano componenti JavaFX e si basano sullo stato per utente
+ * gestito da {@link BudgetNotificationPreferences} per ricordare:
  * <ul>
- *     <li>quali categorie sono già state notificate nel mese corrente;</li>
+ *     <li>quali categorie sono già state notificate nel mese del budget;</li>
  *     <li>quali notifiche sono state disabilitate con l'opzione
  *         "Non mostrare più" per il mese.</li>
  * </ul>
@@ -48,17 +55,17 @@ public class BudgetNotificationHelper {
      * <ul>
      *     <li>il budget della categoria risulta effettivamente superato;</li>
      *     <li>la categoria non è la categoria "Stipendio" (ID 6, ignorata);</li>
-     *     <li>per il mese corrente non è stata memorizzata la scelta
+     *     <li>per l'utente e il mese del budget non è stata memorizzata la scelta
      *         "Non mostrare più" tramite {@link BudgetNotificationPreferences};</li>
      * </ul>
      * Inoltre:
      * <ul>
-     *     <li>se il budget è superato per la prima volta nel mese corrente,
+     *     <li>se il budget è superato per la prima volta nel mese,
      *         viene registrata la notifica con
-     *         {@link BudgetNotificationPreferences#markAsNotified(int)};</li>
+     *         {@link BudgetNotificationPreferences#markAsNotified(int, YearMonth, int)};</li>
      *     <li>se il budget non risulta più superato, eventuali marcature
      *         precedenti vengono rimosse tramite
-     *         {@link BudgetNotificationPreferences#unmarkAsNotified(int)}.</li>
+     *         {@link BudgetNotificationPreferences#unmarkAsNotified(int, YearMonth, int)}.</li>
      * </ul>
      *
      * @param budgets    lista di tutti i budget del mese correntemente attivo
@@ -91,20 +98,22 @@ public class BudgetNotificationHelper {
                 && categoryBudget.getBudgetAmount() > 0;
 
         BudgetNotificationPreferences prefs = BudgetNotificationPreferences.getInstance();
+        int userId = categoryBudget.getUserId();
+        YearMonth month = YearMonth.of(categoryBudget.getYear(), categoryBudget.getMonth());
 
         if (!isExceeded) {
             // Se il budget NON è più superato, rimuovi la marcatura
-            prefs.unmarkAsNotified(categoryId);
+            prefs.unmarkAsNotified(userId, month, categoryId);
             return false;
         }
 
         // Il budget è superato: controlla se mostrare la notifica
-        if (prefs.isNotificationDismissedForCurrentMonth(categoryId, categoryBudget.getBudgetAmount())) {
-            // L'utente ha scelto "Non mostrare più" per questo budget nel mese corrente
+        if (prefs.isNotificationDismissed(userId, month, categoryId, categoryBudget.getBudgetAmount())) {
+            // L'utente ha scelto "Non mostrare più" per questo budget nel mese
             return false;
         }
 
-        if (prefs.wasAlreadyNotifiedThisMonth(categoryId)) {
+        if (prefs.wasAlreadyNotified(userId, month, categoryId)) {
             // Già notificato questo mese: mostra comunque il popup
             // (l'utente ha inserito un altro movimento nella stessa categoria)
             showSingleBudgetExceededAlert(categoryBudget);
@@ -112,11 +121,86 @@ public class BudgetNotificationHelper {
         }
 
         // Prima volta che supera il budget questo mese: mostra notifica e segna
-        prefs.markAsNotified(categoryId);
+        prefs.markAsNotified(userId, month, categoryId);
         showSingleBudgetExceededAlert(categoryBudget);
         return true;
     }
 
+    /**
+     * Seleziona, tra le soglie di utilizzo attraversate da una scrittura, quelle da notificare.
+     * <p>
+     * Per ogni categoria viene mantenuta solo la soglia più alta (una spesa può
+     * attraversarne più di una in una volta); la categoria "Stipendio" (ID 6) e
+     * le categorie per cui è stata scelta l'opzione "Non mostrare più" vengono ignorate.
+     * Le categorie con una soglia dal 100% in su vengono marcate come notificate.
+     * La visualizzazione, non modale, è affidata al centro notifiche della vista.
+     *
+     * @param crossings soglie attraversate, come restituite da {@link BudgetAlertEngine#drainCrossings(int)}
+     * @return soglie da notificare, al più una per categoria
+     */
+    public static List<ThresholdCrossing> selectCrossingsToNotify(List<ThresholdCrossing> crossings) {
+        if (crossings == null || crossings.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Integer, ThresholdCrossing> highest = new LinkedHashMap<>();
+        for (ThresholdCrossing c : crossings) {
+            // Ignora la categoria Stipendio (ID 6)
+            if (c.getCategoryId() == 6) continue;
+            highest.merge(c.getCategoryId(), c, (a, b) -> b.getThreshold() > a.getThreshold() ? b : a);
+        }
+
+        BudgetNotificationPreferences prefs = BudgetNotificationPreferences.getInstance();
+        List<ThresholdCrossing> result = new ArrayList<>();
+        for (ThresholdCrossing c : highest.values()) {
+            if (prefs.isNotificationDismissed(c.getUserId(), c.getMonth(), c.getCategoryId(), c.getBudgetAmount())) {
+                continue;
+            }
+            if (c.isExceeded()) {
+                prefs.markAsNotified(c.getUserId(), c.getMonth(), c.getCategoryId());
+            }
+            result.add(c);
+        }
+        return result;
+    }
+
+    /**
+     * Seleziona gli avvisi anticipati da notificare per i budget che, al ritmo di
+     * spesa attuale, verranno superati entro fine mese
+     * ({@link #isBudgetProjectedToExceed(Budget)}).
+     * <p>
+     * Per ogni utente, categoria e mese l'avviso viene proposto una sola volta: le
+     * categorie già avvisate, già segnalate come superate o per cui è stata scelta
+     * l'opzione "Non mostrare più" vengono ignorate, le altre vengono marcate con
+     * {@link BudgetNotificationPreferences#markProjectionNotified(int, YearMonth, int)}.
+     *
+     * @param budgets budget di un mese con la proiezione calcolata (può essere {@code null})
+     * @return avvisi anticipati da notificare, al più uno per categoria
+     */
+    public static List<ThresholdCrossing> selectProjectionsToNotify(List<Budget> budgets) {
+        List<ThresholdCrossing> result = new ArrayList<>();
+        if (budgets == null) {
+            return result;
+        }
+
+        BudgetNotificationPreferences prefs = null;
+        for (Budget b : budgets) {
+            if (!isBudgetProjectedToExceed(b)) continue;
+            if (prefs == null) {
+                prefs = BudgetNotificationPreferences.getInstance();
+            }
+            YearMonth month = YearMonth.of(b.getYear(), b.getMonth());
+            if (prefs.wasProjectionNotified(b.getUserId(), month, b.getCategoryId())
+                    || prefs.wasAlreadyNotified(b.getUserId(), month, b.getCategoryId())
+                    || prefs.isNotificationDismissed(b.getUserId(), month, b.getCategoryId(), b.getBudgetAmount())) {
+                continue;
+            }
+            prefs.markProjectionNotified(b.getUserId(), month, b.getCategoryId());
+            result.add(ThresholdCrossing.projection(b));
+        }
+        return result;
+    }
+
     /**
      * Controlla se ci sono budget superati nella lista fornita e mostra una
      * notifica di allarme cumulativa per tutte le categorie interessate.
@@ -170,9 +254,9 @@ public class BudgetNotificationHelper {
      *         <ul>
      *             <li>"OK": chiude semplicemente l'avviso;</li>
      *             <li>"Non mostrare più": registra, tramite
-     *                 {@link BudgetNotificationPreferences#dismissNotificationForCurrentMonth(int, double)},
+     *                 {@link BudgetNotificationPreferences#dismissNotification(int, YearMonth, int, double)},
      *                 la scelta di non mostrare ulteriori avvisi per quella categoria nel
-     *                 mese corrente.</li>
+     *                 mese del budget.</li>
      *         </ul>
      *     </li>
      * </ul>
@@ -274,9 +358,10 @@ public class BudgetNotificationHelper {
         // Gestione click
         Optional<ButtonType> result = alert.showAndWait();
         if (result.isPresent() && result.get() == disableButton) {
-            // L'utente ha scelto "Non mostrare più" per il mese corrente
-            BudgetNotificationPreferences.getInstance()
-                    .dismissNotificationForCurrentMonth(budget.getCategoryId(), budget.getBudgetAmount());
+            // L'utente ha scelto "Non mostrare più" per il mese del budget
+            BudgetNotificationPreferences.getInstance().dismissNotification(budget.getUserId(),
+                    YearMonth.of(budget.getYear(), budget.getMonth()),
+                    budget.getCategoryId(), budget.getBudgetAmount());
         }
     }
 
@@ -383,6 +468,23 @@ public class BudgetNotificationHelper {
         alert.showAndWait();
     }
 
+    /**
+     * Verifica se un budget, non ancora superato, lo sarà entro fine mese
+     * mantenendo il ritmo di spesa attuale (avviso anticipato).
+     * <p>
+     * Richiede che la proiezione sia stata calcolata con {@link BudgetBurnRate};
+     * la categoria "Stipendio" (ID 6) viene ignorata come in {@link #isBudgetExceeded(Budget)}.
+     *
+     * @param budget oggetto {@link Budget} da verificare (può essere {@code null})
+     * @return {@code true} se il superamento è previsto entro fine mese
+     */
+    public static boolean isBudgetProjectedToExceed(Budget budget) {
+        if (budget == null || budget.getCategoryId() == 6 || !budget.hasProjection()) {
+            return false;
+        }
+        return BudgetBurnRate.isProjectedToExceed(budget);
+    }
+
     /**
      * Verifica se un singolo budget risulta superato.
      * <p>
@@ -1,43 +1,64 @@
 package it.unicas.project.template.address.util;
 
-import java.io.*;
+import it.unicas.project.template.address.model.dao.mysql.BudgetDAOMySQLImpl;
+
+import java.sql.SQLException;
 import java.time.YearMonth;
-import java.util.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Gestisce le preferenze per le notifiche di budget superato.
+ * Gestisce lo stato delle notifiche di budget superato, per utente.
  * <p>
- * Questa classe si occupa di:
+ * Per ogni utente, mese e categoria la classe ricorda:
  * <ul>
- *     <li>tenere traccia delle categorie per cui il superamento del budget
- *         è già stato notificato nel mese corrente;</li>
- *     <li>ricordare le categorie per cui l'utente ha selezionato
- *         la scelta "Non mostrare più" nel mese corrente, insieme
+ *     <li>se il superamento del budget è già stato notificato;</li>
+ *     <li>se l'utente ha selezionato la scelta "Non mostrare più", insieme
  *         al limite di budget impostato in quel momento;</li>
- *     <li>persistenza di queste informazioni su file;</li>
- *     <li>pulizia periodica dei dati relativi a mesi troppo vecchi.</li>
+ *     <li>la soglia di utilizzo più alta già segnalata da {@link BudgetAlertEngine};</li>
+ *     <li>se è già stato mostrato l'avviso anticipato di superamento previsto.</li>
  * </ul>
  * <p>
+ * <b>Persistenza.</b> Lo stato è salvato nella tabella {@code budget_notifications},
+ * accanto ai budget: {@link BudgetDAOMySQLImpl#getBudgetsForMonth(int, int, int)}
+ * lo legge nella stessa query dei budget del mese e lo registra qui con
+ * {@link #remember(NotificationState)}. Da quel momento, per la durata della
+ * sessione, le verifiche sono semplici letture della cache in memoria.
+ * <p>
+ * Le modifiche aggiornano subito la cache e vengono accodate; un unico thread
+ * in background le scrive con un solo batch {@value #FLUSH_DELAY_MILLIS} ms dopo
+ * la prima modifica, così che una raffica di modifiche (ad esempio le verifiche
+ * dopo un movimento) produca una sola scrittura. Le modifiche che non cambiano
+ * lo stato non accodano nulla. Alla chiusura dell'applicazione {@link #shutdown()}
+ * scrive le modifiche ancora in coda.
+ * <p>
  * L'implementazione utilizza un pattern <em>singleton</em>:
  * l'accesso all'istanza avviene tramite {@link #getInstance()}.
- * Il file di preferenze può essere personalizzato (ad esempio nei test)
- * usando {@link #resetForTesting(String)}.
+ * Il DAO usato per le scritture può essere sostituito (ad esempio nei test)
+ * usando {@link #resetForTesting(BudgetDAOMySQLImpl)}.
  */
 public class BudgetNotificationPreferences {
 
-    /**
-     * Percorso predefinito del file di preferenze utilizzato per salvare e
-     * caricare le informazioni sulle notifiche di budget.
-     */
-    private static final String DEFAULT_PREFERENCES_FILE = "budget_notifications.json";
+    /** Attesa tra la prima modifica in coda e la sua scrittura sul database. */
+    private static final long FLUSH_DELAY_MILLIS = 500;
+
+    /** Attesa prima di ritentare una scrittura fallita. */
+    private static final long RETRY_DELAY_MILLIS = 2000;
 
     /**
-     * Percorso del file attualmente in uso.
-     * <p>
-     * Può essere modificato tramite {@link #resetForTesting(String)}
-     * (utile per i test automatizzati).
+     * Thread di scrittura, condiviso e demone per non bloccare la chiusura
+     * dell'applicazione: le modifiche in coda vengono scritte da {@link #shutdown()}.
      */
-    private static String preferencesFile = DEFAULT_PREFERENCES_FILE;
+    private static final ScheduledExecutorService WRITER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "notification-preferences-writer");
+        t.setDaemon(true);
+        return t;
+    });
 
     /**
      * Istanza singleton della classe.
@@ -45,118 +66,134 @@ public class BudgetNotificationPreferences {
     private static BudgetNotificationPreferences instance;
 
     /**
-     * Mappa: chiave mese-anno ({@code "YYYY-MM"}) →
-     * set di {@code categoryId} già notificati come superati.
+     * Cache di sessione: chiave utente/mese (vedi {@link #keyOf(int, YearMonth)}) →
+     * mappa {@code categoryId} → stato della notifica.
      * <p>
-     * Esempio:
-     * <pre>
-     * "2025-11" -> {1, 3, 5}
-     * </pre>
+     * Una categoria assente equivale a "non notificata e non dismessa".
      */
-    private Map<String, Set<Integer>> notifiedExceededCategories;
+    private final Map<Long, Map<Integer, NotificationState>> states = new ConcurrentHashMap<>();
 
-    /**
-     * Mappa: chiave mese-anno ({@code "YYYY-MM"}) →
-     * mappa {@code categoryId} → {@code budgetAmount} salvato al momento
-     * della scelta "Non mostrare più".
-     * <p>
-     * Questo consente di ripristinare le notifiche se l'utente aumenta
-     * il limite di budget rispetto a quello registrato.
-     */
-    private Map<String, Map<Integer, Double>> dismissedNotifications;
+    /** Stati modificati non ancora scritti, nell'ordine delle modifiche. */
+    private final List<NotificationState> pending = new ArrayList<>();
+
+    /** Indica se una scrittura degli stati in coda è già stata pianificata. */
+    private boolean flushScheduled;
+
+    /** Serializza le scritture sul database. */
+    private final Object ioLock = new Object();
+
+    /** DAO usato per scrivere gli stati modificati. */
+    private final BudgetDAOMySQLImpl dao;
 
     /**
-     * Costruttore privato: inizializza le strutture dati e carica le
-     * preferenze dal file associato a {@link #preferencesFile}.
-     * <p>
-     * L'istanza viene creata tramite {@link #getInstance()}.
+     * Costruttore privato: l'istanza viene creata tramite {@link #getInstance()}.
+     *
+     * @param dao DAO usato per scrivere gli stati modificati
      */
-    private BudgetNotificationPreferences() {
-        this.notifiedExceededCategories = new HashMap<>();
-        this.dismissedNotifications = new HashMap<>();
-        load();
+    private BudgetNotificationPreferences(BudgetDAOMySQLImpl dao) {
+        this.dao = dao;
     }
 
     /**
      * Restituisce l'unica istanza di {@link BudgetNotificationPreferences}.
-     * <p>
-     * Se l'istanza non esiste ancora, viene creata e inizializzata
-     * caricando il file di preferenze corrente.
      *
      * @return istanza singleton di {@link BudgetNotificationPreferences}
      */
     public static synchronized BudgetNotificationPreferences getInstance() {
         if (instance == null) {
-            instance = new BudgetNotificationPreferences();
+            instance = new BudgetNotificationPreferences(new BudgetDAOMySQLImpl());
         }
         return instance;
     }
 
     /**
-     * Reimposta il file di preferenze e la relativa istanza singleton.
+     * Scrive le modifiche in coda dell'istanza corrente e la sostituisce con una
+     * nuova istanza, con la cache vuota, che scrive tramite il DAO indicato.
      * <p>
      * Questo metodo è pensato principalmente per i test, per poter
-     * lavorare su file temporanei senza modificare le preferenze reali
-     * dell'applicazione.
+     * lavorare senza database.
      *
-     * @param customFilePath percorso del file di preferenze da utilizzare;
-     *                       se {@code null}, viene ripristinato il file
-     *                       predefinito {@link #DEFAULT_PREFERENCES_FILE}
+     * @param customDao DAO da utilizzare; se {@code null}, viene creata
+     *                  l'istanza predefinita alla prossima {@link #getInstance()}
      */
-    public static synchronized void resetForTesting(String customFilePath) {
-        preferencesFile = customFilePath != null ? customFilePath : DEFAULT_PREFERENCES_FILE;
-        instance = null;
+    public static synchronized void resetForTesting(BudgetDAOMySQLImpl customDao) {
+        shutdown();
+        instance = customDao != null ? new BudgetNotificationPreferences(customDao) : null;
+    }
+
+    /**
+     * Scrive sul database le modifiche ancora in coda.
+     * <p>
+     * Da invocare alla chiusura dell'applicazione; non crea l'istanza se
+     * le notifiche non sono mai state usate.
+     */
+    public static synchronized void shutdown() {
+        if (instance != null) {
+            instance.flush();
+        }
+    }
+
+    /**
+     * Registra lo stato letto dal database insieme ai budget del mese.
+     * <p>
+     * Se per la stessa categoria la cache contiene già uno stato, questo viene
+     * mantenuto: le modifiche della sessione (eventualmente non ancora scritte)
+     * sono più recenti di quanto letto dal database.
+     *
+     * @param state stato letto dal database
+     */
+    public void remember(NotificationState state) {
+        statesOf(state.getUserId(), state.getMonth()).putIfAbsent(state.getCategoryId(), state);
     }
 
     /**
      * Verifica se una categoria è già stata notificata come avente
-     * budget superato nel mese corrente.
+     * budget superato nel mese indicato.
      *
+     * @param userId     identificativo dell'utente
+     * @param month      mese del budget
      * @param categoryId identificativo della categoria
-     * @return {@code true} se la categoria risulta già notificata
-     *         per il mese corrente, {@code false} altrimenti
+     * @return {@code true} se la categoria risulta già notificata, {@code false} altrimenti
      */
-    public boolean wasAlreadyNotifiedThisMonth(int categoryId) {
-        String currentMonth = getCurrentMonthKey();
-        Set<Integer> notifiedThisMonth = notifiedExceededCategories.get(currentMonth);
-        return notifiedThisMonth != null && notifiedThisMonth.contains(categoryId);
+    public boolean wasAlreadyNotified(int userId, YearMonth month, int categoryId) {
+        NotificationState state = stateOf(userId, month, categoryId);
+        return state != null && state.isNotified();
     }
 
     /**
-     * Segna una categoria come notificata per il mese corrente,
-     * in modo che successive verifiche possano sapere che l'avviso
-     * è già stato mostrato.
+     * Segna una categoria come notificata nel mese indicato, in modo che
+     * successive verifiche possano sapere che l'avviso è già stato mostrato.
      *
+     * @param userId     identificativo dell'utente
+     * @param month      mese del budget
      * @param categoryId identificativo della categoria da marcare come notificata
      */
-    public void markAsNotified(int categoryId) {
-        String currentMonth = getCurrentMonthKey();
-        notifiedExceededCategories.computeIfAbsent(currentMonth, k -> new HashSet<>()).add(categoryId);
-        save();
+    public synchronized void markAsNotified(int userId, YearMonth month, int categoryId) {
+        NotificationState state = stateOrEmpty(userId, month, categoryId);
+        if (!state.isNotified()) {
+            update(state.withNotified(true));
+        }
     }
 
     /**
-     * Rimuove la marcatura di notifica per una categoria nel mese corrente.
+     * Rimuove la marcatura di notifica per una categoria nel mese indicato.
      * <p>
      * Questo è utile quando il budget torna sotto il limite e si desidera
      * permettere una futura nuova notifica per la stessa categoria.
      *
+     * @param userId     identificativo dell'utente
+     * @param month      mese del budget
      * @param categoryId identificativo della categoria da smarcare
      */
-    public void unmarkAsNotified(int categoryId) {
-        String currentMonth = getCurrentMonthKey();
-        Set<Integer> notifiedThisMonth = notifiedExceededCategories.get(currentMonth);
-        if (notifiedThisMonth != null) {
-            notifiedThisMonth.remove(categoryId);
-            if (notifiedThisMonth.isEmpty()) {
-                notifiedExceededCategories.remove(currentMonth);
-            }
-            save();
+    public synchronized void unmarkAsNotified(int userId, YearMonth month, int categoryId) {
+        NotificationState state = stateOf(userId, month, categoryId);
+        if (state != null && state.isNotified()) {
+            update(state.withNotified(false));
         }
     }
 
     /**
-     * Verifica se, per il mese corrente, l'utente ha scelto "Non mostrare più"
+     * Verifica se, nel mese indicato, l'utente ha scelto "Non mostrare più"
      * per una specifica categoria con il limite indicato.
      * <p>
      * Se il limite di budget attuale ({@code currentBudgetAmount}) è maggiore
@@ -164,31 +201,24 @@ public class BudgetNotificationPreferences {
      * annullata per consentire nuove notifiche (si assume che l'utente abbia
      * cambiato intenzione, aumentando il budget).
      *
+     * @param userId              identificativo dell'utente
+     * @param month               mese del budget
      * @param categoryId          identificativo della categoria
      * @param currentBudgetAmount limite di budget attuale per la categoria
      * @return {@code true} se, con il limite attuale, la notifica deve
      *         rimanere soppressa; {@code false} se non è stata dismessa
      *         o se la dismissione è stata invalidata (budget aumentato)
      */
-    public boolean isNotificationDismissedForCurrentMonth(int categoryId, double currentBudgetAmount) {
-        String currentMonth = getCurrentMonthKey();
-        Map<Integer, Double> dismissedThisMonth = dismissedNotifications.get(currentMonth);
-        if (dismissedThisMonth == null) {
+    public synchronized boolean isNotificationDismissed(int userId, YearMonth month, int categoryId,
+                                                        double currentBudgetAmount) {
+        NotificationState state = stateOf(userId, month, categoryId);
+        if (state == null || state.getDismissedAmount() == null) {
             return false;
         }
 
-        Double dismissedAmount = dismissedThisMonth.get(categoryId);
-        if (dismissedAmount == null) {
-            return false;
-        }
-
-        if (currentBudgetAmount > dismissedAmount) {
+        if (currentBudgetAmount > state.getDismissedAmount()) {
             // Il limite è stato alzato: annulla la dismissione
-            dismissedThisMonth.remove(categoryId);
-            if (dismissedThisMonth.isEmpty()) {
-                dismissedNotifications.remove(currentMonth);
-            }
-            save();
+            update(state.withDismissedAmount(null));
             return false;
         }
 
@@ -197,218 +227,211 @@ public class BudgetNotificationPreferences {
 
     /**
      * Registra la scelta "Non mostrare più" per la categoria specificata
-     * nel mese corrente, memorizzando il limite di budget attuale.
+     * nel mese indicato, memorizzando il limite di budget attuale.
      * <p>
      * In futuro, se il limite verrà aumentato oltre questo valore,
      * la dismissione potrà essere automaticamente rimossa.
      *
+     * @param userId       identificativo dell'utente
+     * @param month        mese del budget
      * @param categoryId   identificativo della categoria
      * @param budgetAmount limite di budget corrente da associare alla dismissione
      */
-    public void dismissNotificationForCurrentMonth(int categoryId, double budgetAmount) {
-        String currentMonth = getCurrentMonthKey();
-        dismissedNotifications.computeIfAbsent(currentMonth, k -> new HashMap<>())
-                .put(categoryId, budgetAmount);
-        save();
+    public synchronized void dismissNotification(int userId, YearMonth month, int categoryId, double budgetAmount) {
+        update(stateOrEmpty(userId, month, categoryId).withDismissedAmount(budgetAmount));
     }
 
     /**
-     * Pulisce le notifiche relative a mesi troppo vecchi.
-     * <p>
-     * Vengono mantenuti solo i dati relativi agli ultimi tre mesi
-     * (incluso il mese corrente); i dati più vecchi vengono eliminati
-     * sia da {@link #notifiedExceededCategories} che da
-     * {@link #dismissedNotifications}.
+     * Restituisce la soglia di utilizzo più alta già segnalata nel mese.
+     *
+     * @param userId     identificativo dell'utente
+     * @param month      mese del budget
+     * @param categoryId identificativo della categoria
+     * @return soglia in percentuale del limite, 0 se nessuna soglia è stata segnalata
      */
-    public void cleanOldMonths() {
-        YearMonth current = YearMonth.now();
-        Set<String> toRemove = new HashSet<>();
-
-        for (String monthKey : new HashSet<>(notifiedExceededCategories.keySet())) {
-            try {
-                YearMonth monthYear = YearMonth.parse(monthKey);
-                // Rimuovi se più vecchio di 3 mesi
-                if (monthYear.isBefore(current.minusMonths(3))) {
-                    toRemove.add(monthKey);
-                }
-            } catch (Exception e) {
-                // Chiave malformata, rimuovi in ogni caso
-                toRemove.add(monthKey);
-            }
-        }
-
-        toRemove.forEach(notifiedExceededCategories::remove);
-        toRemove.forEach(dismissedNotifications::remove);
-        if (!toRemove.isEmpty()) {
-            save();
-        }
+    public int getAlertLevel(int userId, YearMonth month, int categoryId) {
+        NotificationState state = stateOf(userId, month, categoryId);
+        return state == null ? 0 : state.getAlertLevel();
     }
 
     /**
-     * Restituisce uno snapshot (copia) della mappa delle categorie già
-     * notificate per ciascun mese.
-     * <p>
-     * Ogni {@link Set} contenuto nella mappa risultante è una nuova
-     * istanza, in modo da evitare modifiche esterne allo stato interno
-     * della classe. Pensato principalmente per uso in test automatizzati.
+     * Registra una soglia di utilizzo segnalata nel mese, se più alta di quella già registrata.
      *
-     * @return mappa (copia) mese-anno → set di categoryId notificati
+     * @param userId     identificativo dell'utente
+     * @param month      mese del budget
+     * @param categoryId identificativo della categoria
+     * @param level      soglia segnalata, in percentuale del limite
      */
-    public Map<String, Set<Integer>> getNotifiedExceededCategoriesSnapshot() {
-        Map<String, Set<Integer>> snapshot = new HashMap<>();
-        notifiedExceededCategories.forEach((k, v) -> snapshot.put(k, new HashSet<>(v)));
-        return snapshot;
+    public synchronized void raiseAlertLevel(int userId, YearMonth month, int categoryId, int level) {
+        NotificationState state = stateOrEmpty(userId, month, categoryId);
+        if (level > state.getAlertLevel()) {
+            update(state.withAlertLevel(level));
+        }
     }
 
     /**
-     * Restituisce uno snapshot (copia) della mappa delle notifiche
-     * dismesse per ciascun mese.
-     * <p>
-     * Ogni mappa interna (categoria → limite) è copiata per evitare
-     * che il chiamante possa modificare lo stato interno dell'oggetto.
-     * Pensato principalmente per uso in test automatizzati.
+     * Verifica se per la categoria è già stato mostrato, nel mese indicato,
+     * l'avviso anticipato di superamento previsto.
      *
-     * @return mappa (copia) mese-anno → mappa categoria → limite salvato
+     * @param userId     identificativo dell'utente
+     * @param month      mese del budget
+     * @param categoryId identificativo della categoria
+     * @return {@code true} se l'avviso anticipato è già stato mostrato
      */
-    public Map<String, Map<Integer, Double>> getDismissedNotificationsSnapshot() {
-        Map<String, Map<Integer, Double>> snapshot = new HashMap<>();
-        dismissedNotifications.forEach((month, map) -> snapshot.put(month, new HashMap<>(map)));
-        return snapshot;
+    public boolean wasProjectionNotified(int userId, YearMonth month, int categoryId) {
+        NotificationState state = stateOf(userId, month, categoryId);
+        return state != null && state.isProjectionNotified();
     }
 
     /**
-     * Ottiene la chiave del mese corrente nel formato {@code "YYYY-MM"},
-     * coerente con il formato restituito da {@link YearMonth#toString()}.
+     * Registra che per la categoria è stato mostrato l'avviso anticipato del mese:
+     * l'avviso viene mostrato al più una volta per utente, categoria e mese.
      *
-     * @return stringa rappresentante il mese corrente, es. {@code "2025-11"}
+     * @param userId     identificativo dell'utente
+     * @param month      mese del budget
+     * @param categoryId identificativo della categoria
      */
-    private String getCurrentMonthKey() {
-        return YearMonth.now().toString();
+    public synchronized void markProjectionNotified(int userId, YearMonth month, int categoryId) {
+        NotificationState state = stateOrEmpty(userId, month, categoryId);
+        if (!state.isProjectionNotified()) {
+            update(state.withProjectionNotified(true));
+        }
     }
 
     /**
-     * Salva le preferenze sul file configurato in {@link #preferencesFile}
-     * usando un semplice formato testuale riga per riga.
+     * Scrive in un unico batch gli stati in coda.
      * <p>
-     * Formato di esempio:
-     * <pre>
-     * notified.2025-11=1,3,5
-     * notified.2025-12=2,4
-     * dismissed.2025-12=3:400.0,4:250.0
-     * </pre>
-     * In caso di errore di I/O, il problema viene loggato su {@code System.err}.
+     * Viene eseguito dal thread di scrittura, ma può essere invocato
+     * direttamente per rendere subito persistenti le modifiche.
+     * In caso di errore SQL, il problema viene loggato su {@code System.err},
+     * gli stati restano in coda e la scrittura viene ritentata dopo
+     * {@value #RETRY_DELAY_MILLIS} ms.
      */
-    private void save() {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(preferencesFile))) {
-            // Salva categorie notificate per mese
-            for (Map.Entry<String, Set<Integer>> entry : notifiedExceededCategories.entrySet()) {
-                if (!entry.getValue().isEmpty()) {
-                    writer.print("notified." + entry.getKey() + "=");
-                    writer.println(String.join(",",
-                            entry.getValue().stream().map(String::valueOf).toArray(String[]::new)));
+    public void flush() {
+        synchronized (ioLock) {
+            List<NotificationState> batch;
+            synchronized (this) {
+                flushScheduled = false;
+                if (pending.isEmpty()) {
+                    return;
                 }
+                batch = new ArrayList<>(pending);
+                pending.clear();
             }
 
-            // Salva categorie dismesse per mese con il relativo limite
-            for (Map.Entry<String, Map<Integer, Double>> entry : dismissedNotifications.entrySet()) {
-                if (!entry.getValue().isEmpty()) {
-                    writer.print("dismissed." + entry.getKey() + "=");
-                    List<String> values = new ArrayList<>();
-                    entry.getValue().forEach((catId, amount) -> values.add(catId + ":" + amount));
-                    writer.println(String.join(",", values));
+            try {
+                dao.saveNotificationStates(batch);
+            } catch (SQLException e) {
+                System.err.println("Errore nel salvataggio dello stato notifiche: " + e.getMessage());
+                synchronized (this) {
+                    pending.addAll(0, batch);
+                    if (!flushScheduled) {
+                        flushScheduled = true;
+                        WRITER.schedule(this::flush, RETRY_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+                    }
                 }
             }
-        } catch (IOException e) {
-            System.err.println("Errore nel salvataggio delle preferenze notifiche: " + e.getMessage());
         }
     }
 
     /**
-     * Carica le preferenze dal file configurato in {@link #preferencesFile}.
-     * <p>
-     * Il metodo legge il file riga per riga e popola le strutture dati
-     * {@link #notifiedExceededCategories} e {@link #dismissedNotifications}.
-     * <ul>
-     *     <li>Le righe che iniziano con {@code "notified."} rappresentano
-     *         categorie già notificate in un dato mese;</li>
-     *     <li>le righe che iniziano con {@code "dismissed."} rappresentano
-     *         categorie dismesse per un dato mese, con il relativo limite.</li>
-     * </ul>
-     * Le righe non valide o formattate in modo errato vengono ignorate.
+     * Aggiorna la cache e accoda lo stato; se non è già pianificata, pianifica
+     * la scrittura degli stati in coda dopo {@value #FLUSH_DELAY_MILLIS} ms.
      * <p>
-     * Al termine del caricamento viene invocato {@link #cleanOldMonths()}
-     * per rimuovere eventuali dati troppo vecchi.
+     * Va invocato con il lock dell'istanza, così che l'ordine della coda
+     * coincida con quello delle modifiche.
      */
-    private void load() {
-        File file = new File(preferencesFile);
-        if (!file.exists()) {
-            return;
+    private void update(NotificationState state) {
+        statesOf(state.getUserId(), state.getMonth()).put(state.getCategoryId(), state);
+        pending.add(state);
+        if (!flushScheduled) {
+            flushScheduled = true;
+            WRITER.schedule(this::flush, FLUSH_DELAY_MILLIS, TimeUnit.MILLISECONDS);
         }
+    }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                line = line.trim();
-                if (line.isEmpty() || line.startsWith("#")) {
-                    continue;
-                }
+    private NotificationState stateOf(int userId, YearMonth month, int categoryId) {
+        Map<Integer, NotificationState> byCategory = states.get(keyOf(userId, month));
+        return byCategory == null ? null : byCategory.get(categoryId);
+    }
 
-                int equalsIndex = line.indexOf('=');
-                if (equalsIndex == -1) {
-                    continue;
-                }
+    private NotificationState stateOrEmpty(int userId, YearMonth month, int categoryId) {
+        NotificationState state = stateOf(userId, month, categoryId);
+        return state != null ? state : new NotificationState(userId, month, categoryId, false, null, 0, false);
+    }
 
-                String key = line.substring(0, equalsIndex);
-                String value = line.substring(equalsIndex + 1);
-
-                if (key.startsWith("notified.")) {
-                    // Carica categorie notificate per mese
-                    String monthKey = key.substring("notified.".length());
-                    if (!value.isEmpty()) {
-                        String[] ids = value.split(",");
-                        Set<Integer> categoryIds = new HashSet<>();
-                        for (String id : ids) {
-                            try {
-                                categoryIds.add(Integer.parseInt(id.trim()));
-                            } catch (NumberFormatException e) {
-                                // Ignora valori non validi
-                            }
-                        }
-                        if (!categoryIds.isEmpty()) {
-                            notifiedExceededCategories.put(monthKey, categoryIds);
-                        }
-                    }
-                } else if (key.startsWith("dismissed.")) {
-                    // Carica categorie dismesse per mese con il relativo limite
-                    String monthKey = key.substring("dismissed.".length());
-                    if (!value.isEmpty()) {
-                        Map<Integer, Double> dismissedForMonth = new HashMap<>();
-                        String[] parts = value.split(",");
-                        for (String part : parts) {
-                            String[] pair = part.split(":");
-                            if (pair.length != 2) {
-                                continue;
-                            }
-                            try {
-                                int categoryId = Integer.parseInt(pair[0].trim());
-                                double amount = Double.parseDouble(pair[1].trim());
-                                dismissedForMonth.put(categoryId, amount);
-                            } catch (NumberFormatException e) {
-                                // Ignora valori non validi
-                            }
-                        }
-                        if (!dismissedForMonth.isEmpty()) {
-                            dismissedNotifications.put(monthKey, dismissedForMonth);
-                        }
-                    }
-                }
-            }
+    private Map<Integer, NotificationState> statesOf(int userId, YearMonth month) {
+        return states.computeIfAbsent(keyOf(userId, month), k -> new ConcurrentHashMap<>());
+    }
 
-            // Pulisci mesi vecchi al caricamento
-            cleanOldMonths();
+    /**
+     * Combina utente e mese in un'unica chiave, come {@link MonthSnapshotCache}:
+     * id utente nei 32 bit alti, numero progressivo del mese in quelli bassi.
+     */
+    private static long keyOf(int userId, YearMonth month) {
+        return ((long) userId << 32) | (month.getYear() * 12L + month.getMonthValue() - 1);
+    }
 
-        } catch (IOException e) {
-            System.err.println("Errore nel caricamento delle preferenze notifiche: " + e.getMessage());
+    /**
+     * Stato della notifica di una categoria per un utente in un mese,
+     * corrispondente a una riga della tabella {@code budget_notifications}.
+     */
+    public static final class NotificationState {
+        private final int userId;
+        private final YearMonth month;
+        private final int categoryId;
+        private final boolean notified;
+        private final Double dismissedAmount;
+        private final int alertLevel;
+        private final boolean projectionNotified;
+
+        /**
+         * @param userId          identificativo dell'utente
+         * @param month           mese del budget
+         * @param categoryId      identificativo della categoria
+         * @param notified        {@code true} se il superamento è già stato notificato
+         * @param dismissedAmount limite al momento della scelta "Non mostrare più",
+         *                        {@code null} se la notifica non è stata dismessa
+         * @param alertLevel      soglia più alta già segnalata (percentuale del limite), 0 se nessuna
+         * @param projectionNotified {@code true} se l'avviso di superamento previsto è già stato mostrato
+         */
+        public NotificationState(int userId, YearMonth month, int categoryId,
+                                 boolean notified, Double dismissedAmount, int alertLevel,
+                                 boolean projectionNotified) {
+            this.userId = userId;
+            this.month = month;
+            this.categoryId = categoryId;
+            this.notified = notified;
+            this.dismissedAmount = dismissedAmount;
+            this.alertLevel = alertLevel;
+            this.projectionNotified = projectionNotified;
         }
+
+        NotificationState withNotified(boolean value) {
+            return new NotificationState(userId, month, categoryId, value, dismissedAmount, alertLevel,
+                    projectionNotified);
+        }
+
+        NotificationState withDismissedAmount(Double value) {
+            return new NotificationState(userId, month, categoryId, notified, value, alertLevel,
+                    projectionNotified);
+        }
+
+        NotificationState withAlertLevel(int value) {
+            return new NotificationState(userId, month, categoryId, notified, dismissedAmount, value,
+                    projectionNotified);
+        }
+
+        NotificationState withProjectionNotified(boolean value) {
+            return new NotificationState(userId, month, categoryId, notified, dismissedAmount, alertLevel, value);
+        }
+
+        public int getUserId() { return userId; }
+        public YearMonth getMonth() { return month; }
+        public int getCategoryId() { return categoryId; }
+        public boolean isNotified() { return notified; }
+        public Double getDismissedAmount() { return dismissedAmount; }
+        public int getAlertLevel() { return alertLevel; }
+        public boolean isProjectionNotified() { return projectionNotified; }
     }
 }
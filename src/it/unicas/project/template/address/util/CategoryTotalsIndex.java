@@ -0,0 +1,154 @@
+package it.unicas.project.template.address.util;
+
+import javafx.util.Pair;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Totali delle uscite di un utente per categoria, mantenuti in memoria e
+ * aggiornati in modo incrementale a ogni scrittura di un movimento.
+ * <p>
+ * Per ogni categoria vengono tenuti:
+ * <ul>
+ *     <li>il totale di tutta la storia, per il grafico a torta del report;</li>
+ *     <li>i totali mese per mese, da cui si ottengono i totali di un intervallo
+ *         sommando al più una riga per categoria per ciascun mese.</li>
+ * </ul>
+ * I nomi delle categorie sono memorizzati a parte, indicizzati per id; un
+ * movimento su una categoria di cui non si conosce ancora il nome viene comunque
+ * contabilizzato e {@link #hasAllNames()} segnala al DAO di ricaricare i nomi.
+ * Dopo il caricamento, {@link #markNamesLoaded()} registra le categorie rimaste
+ * senza nome (ad esempio perché non più presenti nella tabella delle categorie),
+ * così che i nomi vengano ricaricati solo per una nuova categoria e non a ogni lettura.
+ * <p>
+ * I metodi sono sincronizzati perché l'indice è condiviso tra i controller
+ * e aggiornato dal DAO dopo ogni scrittura.
+ */
+public class CategoryTotalsIndex {
+
+    /** Sotto questa soglia un totale è considerato nullo (arrotondamenti dei float). */
+    private static final double EPSILON = 0.005;
+
+    private final Map<Integer, Double> allTime = new HashMap<>();
+    private final TreeMap<YearMonth, Map<Integer, Double>> monthly = new TreeMap<>();
+    private final Map<Integer, String> names = new HashMap<>();
+    /** Categorie con un totale il cui nome non è stato trovato all'ultimo caricamento dei nomi. */
+    private final Set<Integer> unnamed = new HashSet<>();
+
+    /**
+     * Restituisce l'importo di un movimento che concorre ai totali per categoria.
+     *
+     * @param type   tipo del movimento ("Entrata"/"Uscita" o equivalenti inglesi)
+     * @param amount importo del movimento
+     * @return l'importo per le uscite, 0 per gli altri tipi
+     */
+    public static double expenseAmount(String type, double amount) {
+        return TimeBucketAggregator.isExpense(type) ? amount : 0;
+    }
+
+    /**
+     * Aggiunge un delta al totale di una categoria in un mese.
+     *
+     * @param categoryId identificativo della categoria
+     * @param month      mese del movimento
+     * @param delta      variazione (negativa per annullare un movimento)
+     */
+    public synchronized void add(int categoryId, YearMonth month, double delta) {
+        if (month == null || delta == 0) {
+            return;
+        }
+        allTime.merge(categoryId, delta, Double::sum);
+        monthly.computeIfAbsent(month, m -> new HashMap<>()).merge(categoryId, delta, Double::sum);
+    }
+
+    /**
+     * Associa il nome a una categoria.
+     *
+     * @param categoryId identificativo della categoria
+     * @param name       nome della categoria
+     */
+    public synchronized void setCategoryName(int categoryId, String name) {
+        names.put(categoryId, name);
+        unnamed.remove(categoryId);
+    }
+
+    /**
+     * Segnala che i nomi delle categorie sono appena stati caricati: le categorie
+     * con un totale ancora senza nome non vengono più segnalate da {@link #hasAllNames()}
+     * e restano mostrate con un nome generico.
+     */
+    public synchronized void markNamesLoaded() {
+        for (Integer categoryId : allTime.keySet()) {
+            if (!names.containsKey(categoryId)) {
+                unnamed.add(categoryId);
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} se per tutte le categorie con un totale il nome è noto
+     *         o è già stato cercato senza successo
+     */
+    public synchronized boolean hasAllNames() {
+        for (Integer categoryId : allTime.keySet()) {
+            if (!names.containsKey(categoryId) && !unnamed.contains(categoryId)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Restituisce i totali di tutta la storia, in ordine decrescente.
+     *
+     * @return coppie (nome categoria, totale) con totale positivo
+     */
+    public synchronized List<Pair<String, Double>> totals() {
+        return sortedByName(allTime);
+    }
+
+    /**
+     * Restituisce i totali dei mesi compresi tra {@code from} e {@code to} (inclusi),
+     * in ordine decrescente.
+     *
+     * @param from primo mese incluso
+     * @param to   ultimo mese incluso
+     * @return coppie (nome categoria, totale) con totale positivo
+     */
+    public synchronized List<Pair<String, Double>> totalsBetween(YearMonth from, YearMonth to) {
+        if (from == null || to == null || to.isBefore(from)) {
+            return new ArrayList<>();
+        }
+        Map<Integer, Double> sums = new HashMap<>();
+        for (Map<Integer, Double> month : monthly.subMap(from, true, to, true).values()) {
+            month.forEach((id, value) -> sums.merge(id, value, Double::sum));
+        }
+        return sortedByName(sums);
+    }
+
+    /**
+     * Raggruppa i totali per nome di categoria, come il {@code GROUP BY c.name}
+     * della query originale, scartando quelli nulli e ordinando per importo.
+     */
+    private List<Pair<String, Double>> sortedByName(Map<Integer, Double> byId) {
+        Map<String, Double> byName = new LinkedHashMap<>();
+        byId.forEach((id, value) -> byName.merge(names.getOrDefault(id, "Categoria " + id), value, Double::sum));
+
+        List<Pair<String, Double>> result = new ArrayList<>();
+        byName.forEach((name, value) -> {
+            if (value > EPSILON) {
+                result.add(new Pair<>(name, value));
+            }
+        });
+        result.sort((a, b) -> Double.compare(b.getValue(), a.getValue()));
+        return result;
+    }
+}
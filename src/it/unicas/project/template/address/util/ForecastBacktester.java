@@ -0,0 +1,245 @@
+package it.unicas.project.template.address.util;
+
+import it.unicas.project.template.address.util.ForecastCalculator.ForecastModel;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Backtest dei modelli di previsione sui mesi passati.
+ * <p>
+ * Ogni mese completo dei dati viene riprodotto giorno per giorno: per ciascun
+ * giorno si calcola la previsione che ogni {@link ForecastModel} avrebbe prodotto
+ * con i dati disponibili fino a quel giorno e la si confronta con il saldo reale
+ * di fine mese. Gli errori sono riassunti in {@link ErrorMetrics}.
+ * <p>
+ * L'input sono i totali giornalieri di entrate e uscite (di un utente reale,
+ * da {@link PeriodTotalsIndex}, o sintetici). Lo stato del modello stagionale
+ * all'inizio di ogni mese viene calcolato con un'unica passata sequenziale;
+ * i mesi vengono poi valutati in modo indipendente, anche in parallelo.
+ */
+public final class ForecastBacktester {
+
+    private ForecastBacktester() {
+        // Utility class
+    }
+
+    /**
+     * Esegue il backtest sui mesi completi precedenti a quello di {@code today}.
+     *
+     * @param totals   totali per giorno dell'utente
+     * @param today    giorno corrente (il mese in corso è escluso)
+     * @param parallel {@code true} per valutare i mesi in parallelo
+     * @return metriche di errore per modello; vuote se non ci sono mesi completi
+     */
+    public static BacktestReport run(PeriodTotalsIndex totals, LocalDate today, boolean parallel) {
+        LocalDate first = totals.getFirstDate();
+        LocalDate end = YearMonth.from(today).atDay(1).minusDays(1);
+        if (first == null || end.isBefore(first)) {
+            return new BacktestReport(0);
+        }
+        LocalDate start = YearMonth.from(first).atDay(1);
+        return run(start, totals.dailyIncome(start, end), totals.dailyExpenses(start, end), parallel);
+    }
+
+    /**
+     * Esegue il backtest su serie giornaliere di entrate e uscite.
+     * <p>
+     * Vengono valutati solo i mesi interamente coperti dalle serie; i giorni
+     * precedenti al primo mese completo servono comunque ad alimentare il
+     * modello stagionale.
+     *
+     * @param start        giorno corrispondente all'indice 0 delle serie
+     * @param dailyIncome  entrate giornaliere
+     * @param dailyExpense uscite giornaliere (stessa lunghezza di {@code dailyIncome})
+     * @param parallel     {@code true} per valutare i mesi in parallelo
+     * @return metriche di errore per modello
+     * @throws IllegalArgumentException se le serie hanno lunghezze diverse
+     */
+    public static BacktestReport run(LocalDate start, double[] dailyIncome, double[] dailyExpense, boolean parallel) {
+        if (dailyIncome.length != dailyExpense.length) {
+            throw new IllegalArgumentException("Le serie di entrate e uscite devono avere la stessa lunghezza");
+        }
+        LocalDate end = start.plusDays(dailyIncome.length - 1L);
+
+        // Mesi interi contenuti nelle serie, con lo stato stagionale al loro inizio
+        List<YearMonth> months = new ArrayList<>();
+        List<SeasonalForecastModel> snapshots = new ArrayList<>();
+        SeasonalForecastModel seasonal = new SeasonalForecastModel();
+        for (int i = 0; i < dailyExpense.length; i++) {
+            LocalDate day = start.plusDays(i);
+            if (day.getDayOfMonth() == 1 && !YearMonth.from(day).atEndOfMonth().isAfter(end)) {
+                months.add(YearMonth.from(day));
+                snapshots.add(seasonal.copy());
+            }
+            seasonal.update(day, dailyExpense[i]);
+        }
+
+        IntStream indexes = IntStream.range(0, months.size());
+        if (parallel) {
+            indexes = indexes.parallel();
+        }
+        return indexes
+                .mapToObj(m -> evaluateMonth(months.get(m), snapshots.get(m), start, dailyIncome, dailyExpense))
+                .reduce(new BacktestReport(0), BacktestReport::merge);
+    }
+
+    /**
+     * Valuta un mese. Le previsioni del modello lineare di tutti i giorni del mese
+     * sono calcolate con un'unica chiamata a
+     * {@link ForecastCalculator#calculateForecasts}; quelle stagionali giorno per
+     * giorno, perché dipendono dallo stato aggiornato al giorno precedente.
+     */
+    private static BacktestReport evaluateMonth(YearMonth month, SeasonalForecastModel seasonal, LocalDate start,
+                                                double[] dailyIncome, double[] dailyExpense) {
+        ForecastCalculator calculator = new ForecastCalculator();
+        int offset = (int) (month.atDay(1).toEpochDay() - start.toEpochDay());
+        int length = month.lengthOfMonth();
+
+        double actual = 0;
+        for (int i = offset; i < offset + length; i++) {
+            actual += dailyIncome[i] - dailyExpense[i];
+        }
+        ForecastCalculator.ForecastStatus actualStatus = calculator.determineStatus(actual);
+
+        // L'ultimo giorno non c'è più nulla da prevedere
+        int days = length - 1;
+        double[] income = new double[days];
+        double[] expenses = new double[days];
+        int[] daysWithMovements = new int[days];
+        int[] currentDay = new int[days];
+        int[] daysInMonth = new int[days];
+
+        BacktestReport report = new BacktestReport(1);
+        double totalIncome = 0;
+        double totalExpenses = 0;
+        int movementDays = 0;
+        for (int d = 0; d < days; d++) {
+            int i = offset + d;
+            LocalDate date = month.atDay(d + 1);
+            totalIncome += dailyIncome[i];
+            totalExpenses += dailyExpense[i];
+            if (dailyIncome[i] != 0 || dailyExpense[i] != 0) {
+                movementDays++;
+            }
+            income[d] = totalIncome;
+            expenses[d] = totalExpenses;
+            daysWithMovements[d] = movementDays;
+            currentDay[d] = d + 1;
+            daysInMonth[d] = length;
+
+            report.record(ForecastModel.SEASONAL,
+                    calculator.calculateSeasonalForecast(totalIncome, totalExpenses, seasonal, date),
+                    actual, actualStatus);
+
+            seasonal.update(date, dailyExpense[i]);
+        }
+
+        double[] projectedExpenses = new double[days];
+        double[] estimatedBalance = new double[days];
+        ForecastCalculator.ForecastStatus[] status = new ForecastCalculator.ForecastStatus[days];
+        // I mesi sono già valutati in parallelo: il batch di un mese resta sequenziale
+        calculator.calculateForecasts(income, expenses, daysWithMovements, currentDay, daysInMonth,
+                projectedExpenses, estimatedBalance, status, false);
+        for (int d = 0; d < days; d++) {
+            report.record(ForecastModel.LINEAR, status[d] != ForecastCalculator.ForecastStatus.INSUFFICIENT_DATA,
+                    estimatedBalance[d], status[d], actual, actualStatus);
+        }
+        return report;
+    }
+
+    /**
+     * Risultato del backtest: mesi valutati e metriche di errore per modello.
+     */
+    public static final class BacktestReport {
+        private final int months;
+        private final Map<ForecastModel, ErrorMetrics> metrics = new EnumMap<>(ForecastModel.class);
+
+        private BacktestReport(int months) {
+            this.months = months;
+            for (ForecastModel model : ForecastModel.values()) {
+                metrics.put(model, new ErrorMetrics());
+            }
+        }
+
+        private void record(ForecastModel model, ForecastCalculator.ForecastResult result,
+                            double actual, ForecastCalculator.ForecastStatus actualStatus) {
+            record(model, result.isValid(), result.getEstimatedBalance(), result.getStatus(), actual, actualStatus);
+        }
+
+        private void record(ForecastModel model, boolean valid, double estimatedBalance,
+                            ForecastCalculator.ForecastStatus status,
+                            double actual, ForecastCalculator.ForecastStatus actualStatus) {
+            if (valid) {
+                metrics.get(model).add(estimatedBalance - actual, status == actualStatus);
+            }
+        }
+
+        private static BacktestReport merge(BacktestReport a, BacktestReport b) {
+            BacktestReport merged = new BacktestReport(a.months + b.months);
+            for (ForecastModel model : ForecastModel.values()) {
+                merged.metrics.get(model).merge(a.metrics.get(model));
+                merged.metrics.get(model).merge(b.metrics.get(model));
+            }
+            return merged;
+        }
+
+        /** @return numero di mesi valutati */
+        public int getMonths() { return months; }
+
+        /**
+         * @param model modello di previsione
+         * @return metriche di errore del modello
+         */
+        public ErrorMetrics getMetrics(ForecastModel model) { return metrics.get(model); }
+    }
+
+    /**
+     * Metriche di errore delle previsioni di saldo a fine mese (previsto - reale).
+     */
+    public static final class ErrorMetrics {
+        private long count;
+        private double sumError;
+        private double sumAbsError;
+        private double sumSquaredError;
+        private long statusHits;
+
+        private void add(double error, boolean statusHit) {
+            count++;
+            sumError += error;
+            sumAbsError += Math.abs(error);
+            sumSquaredError += error * error;
+            if (statusHit) {
+                statusHits++;
+            }
+        }
+
+        private void merge(ErrorMetrics other) {
+            count += other.count;
+            sumError += other.sumError;
+            sumAbsError += other.sumAbsError;
+            sumSquaredError += other.sumSquaredError;
+            statusHits += other.statusHits;
+        }
+
+        /** @return numero di previsioni valide valutate */
+        public long getCount() { return count; }
+
+        /** @return errore medio assoluto, in euro */
+        public double getMeanAbsoluteError() { return count == 0 ? Double.NaN : sumAbsError / count; }
+
+        /** @return radice dell'errore quadratico medio, in euro */
+        public double getRootMeanSquaredError() { return count == 0 ? Double.NaN : Math.sqrt(sumSquaredError / count); }
+
+        /** @return errore medio con segno: positivo se il modello sovrastima il saldo */
+        public double getBias() { return count == 0 ? Double.NaN : sumError / count; }
+
+        /** @return frazione di previsioni con lo stesso stato del saldo reale (0–1) */
+        public double getStatusAccuracy() { return count == 0 ? Double.NaN : (double) statusHits / count; }
+    }
+}
@@ -1,5 +1,8 @@
 package it.unicas.project.template.address.util;
 
+import java.time.LocalDate;
+import java.util.stream.IntStream;
+
 /**
  * Classe per il calcolo delle previsioni finanziarie mensili.
  * <p>
@@ -232,6 +235,37 @@ public class ForecastCalculator {
         CRITICAL
     }
 
+    /**
+     * Modello usato per proiettare le uscite a fine mese.
+     */
+    public enum ForecastModel {
+
+        /** Media giornaliera delle uscite del mese corrente ({@link #calculateForecast}). */
+        LINEAR("Lineare"),
+
+        /**
+         * Holt-Winters con stagionalità settimanale sullo storico dei giorni conclusi
+         * ({@link #calculateSeasonalForecast}).
+         */
+        SEASONAL("Stagionale (Holt-Winters)");
+
+        private final String label;
+
+        ForecastModel(String label) {
+            this.label = label;
+        }
+
+        /** @return nome del modello mostrato nell'interfaccia */
+        public String getLabel() {
+            return label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
     /**
      * Soglia superiore del saldo stimato oltre la quale la situazione
      * viene considerata stabile ({@link ForecastStatus#STABLE}).
@@ -320,6 +354,116 @@ public class ForecastCalculator {
         );
     }
 
+    /**
+     * Calcola la previsione mensile con il modello stagionale.
+     * <p>
+     * Le uscite reali fino a oggi vengono sommate a quelle previste da {@code model}
+     * per i giorni da domani a fine mese; saldo e stato si ottengono come in
+     * {@link #calculateForecast(double, double, int, int, int)}. La media giornaliera
+     * restituita è il livello destagionalizzato del modello.
+     *
+     * @param totalIncome   totale delle entrate registrate fino a oggi
+     * @param totalExpenses totale delle uscite registrate fino a oggi
+     * @param model         modello aggiornato fino a un giorno precedente a {@code today}
+     * @param today         giorno corrente
+     * @return un oggetto {@link ForecastResult} con la previsione, oppure un risultato
+     *         non valido se il modello non ha ancora {@link SeasonalForecastModel#MINIMUM_DAYS} giorni
+     */
+    public ForecastResult calculateSeasonalForecast(double totalIncome, double totalExpenses,
+                                                    SeasonalForecastModel model, LocalDate today) {
+        if (model == null || !model.isReady()) {
+            return ForecastResult.insufficient(
+                    "Dati insufficienti: il modello stagionale richiede almeno "
+                            + SeasonalForecastModel.MINIMUM_DAYS + " giorni di storico"
+            );
+        }
+
+        int currentDay = today.getDayOfMonth();
+        int remainingDays = today.lengthOfMonth() - currentDay;
+
+        double projectedExpenses = totalExpenses
+                + model.forecastTotal(today.plusDays(1), today.withDayOfMonth(today.lengthOfMonth()));
+        double estimatedBalance = calculateEstimatedBalance(totalIncome, projectedExpenses);
+
+        return ForecastResult.valid(
+                currentDay,
+                remainingDays,
+                model.getLevel(),
+                projectedExpenses,
+                estimatedBalance,
+                determineStatus(estimatedBalance)
+        );
+    }
+
+    /**
+     * Numero di voci elaborate da ciascun task in {@link #calculateForecasts}:
+     * sotto questa soglia il calcolo parallelo non conviene.
+     */
+    private static final int BATCH_CHUNK_SIZE = 4096;
+
+    /**
+     * Calcola in un solo passaggio le previsioni di molte coppie (utente, mese),
+     * ad esempio per un backtest su tutta la storia o per i report amministrativi.
+     * <p>
+     * Applica le stesse regole di {@link #calculateForecast(double, double, int, int, int)}
+     * voce per voce, ma lavora su array paralleli di primitivi e scrive i risultati
+     * negli array di output senza creare un {@link ForecastResult} per ogni voce.
+     * Le voci non valide (dati insufficienti o parametri errati) hanno stato
+     * {@link ForecastStatus#INSUFFICIENT_DATA} e valori numerici a 0.
+     * <p>
+     * Con {@code parallel} a {@code true} le voci sono suddivise in blocchi
+     * elaborati sul pool comune di {@link java.util.concurrent.ForkJoinPool};
+     * ogni voce dipende solo dai propri input, per cui il risultato non cambia.
+     *
+     * @param totalIncome       entrate registrate fino al giorno corrente, per voce
+     * @param totalExpenses     uscite registrate fino al giorno corrente, per voce
+     * @param daysWithMovements giorni del mese con movimenti, per voce
+     * @param currentDay        giorno corrente del mese, per voce
+     * @param daysInMonth       giorni del mese, per voce
+     * @param projectedExpenses output: uscite proiettate a fine mese
+     * @param estimatedBalance  output: saldo stimato a fine mese
+     * @param status            output: stato della previsione
+     * @param parallel          {@code true} per distribuire il calcolo sui core disponibili
+     * @throws IllegalArgumentException se gli array non hanno tutti la stessa lunghezza
+     */
+    public void calculateForecasts(double[] totalIncome, double[] totalExpenses,
+                                   int[] daysWithMovements, int[] currentDay, int[] daysInMonth,
+                                   double[] projectedExpenses, double[] estimatedBalance,
+                                   ForecastStatus[] status, boolean parallel) {
+        int n = totalIncome.length;
+        if (totalExpenses.length != n || daysWithMovements.length != n || currentDay.length != n
+                || daysInMonth.length != n || projectedExpenses.length != n
+                || estimatedBalance.length != n || status.length != n) {
+            throw new IllegalArgumentException("Gli array della previsione batch devono avere la stessa lunghezza");
+        }
+
+        int chunks = (n + BATCH_CHUNK_SIZE - 1) / BATCH_CHUNK_SIZE;
+        IntStream stream = IntStream.range(0, chunks);
+        if (parallel && chunks > 1) {
+            stream = stream.parallel();
+        }
+        stream.forEach(chunk -> {
+            int end = Math.min(n, (chunk + 1) * BATCH_CHUNK_SIZE);
+            for (int i = chunk * BATCH_CHUNK_SIZE; i < end; i++) {
+                int day = currentDay[i];
+                int monthDays = daysInMonth[i];
+                if (daysWithMovements[i] < MINIMUM_DAYS_FOR_FORECAST
+                        || day <= 0 || day > monthDays || monthDays > 31) {
+                    projectedExpenses[i] = 0;
+                    estimatedBalance[i] = 0;
+                    status[i] = ForecastStatus.INSUFFICIENT_DATA;
+                    continue;
+                }
+                double expenses = totalExpenses[i];
+                double projected = calculateProjectedTotal(expenses, calculateDailyAverage(expenses, day), monthDays - day);
+                double balance = calculateEstimatedBalance(totalIncome[i], projected);
+                projectedExpenses[i] = projected;
+                estimatedBalance[i] = balance;
+                status[i] = determineStatus(balance);
+            }
+        });
+    }
+
     /**
      * Calcola la media giornaliera di un totale (entrate o uscite).
      * <p>
@@ -0,0 +1,334 @@
+package it.unicas.project.template.address.util;
+
+import it.unicas.project.template.address.model.dao.mysql.DAOMySQLSettings;
+import it.unicas.project.template.address.model.dao.mysql.MovimentiDAOMySQLImpl;
+import it.unicas.project.template.address.util.ForecastCalculator.ForecastModel;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Servizio condiviso per la previsione del saldo a fine mese.
+ * <p>
+ * Dashboard e report mostrano la stessa previsione, calcolata con
+ * {@link ForecastQueryProvider#MONTHLY_FORECAST_AGGREGATE} e
+ * {@link ForecastCalculator}. Il servizio esegue query e calcolo una sola volta
+ * per combinazione (utente, giorno, versione dei dati) e memorizza il risultato.
+ * <p>
+ * La versione dei dati di un utente viene incrementata dal DAO dei movimenti
+ * tramite {@link #movementChanged(int, LocalDate)} solo quando cambia un
+ * movimento del mese corrente, l'unico che entra nella previsione; le
+ * modifiche ai mesi passati non invalidano il risultato.
+ * <p>
+ * Con il modello {@link ForecastModel#SEASONAL} il servizio mantiene inoltre, per
+ * utente, lo stato di un {@link SeasonalForecastModel} aggiornato giorno per giorno
+ * dai totali di {@link PeriodTotalsIndex}: a ogni richiesta vengono aggiunti solo
+ * i giorni conclusi dopo l'ultimo osservato. Lo stato viene scartato (e ricostruito
+ * dai totali giornalieri) solo se cambia un movimento di un giorno già osservato.
+ */
+public final class ForecastService {
+
+    /** Giorni di storico da cui la simulazione campiona le spese giornaliere. */
+    private static final int SIMULATION_HISTORY_DAYS = 90;
+
+    /** Tempo massimo dedicato alla simulazione, perché non ritardi il report. */
+    private static final long SIMULATION_TIME_BUDGET_MS = 250;
+
+    /** Versione dei dati del mese corrente, per utente. */
+    private static final Map<Integer, AtomicLong> VERSIONS = new ConcurrentHashMap<>();
+
+    /** Ultima previsione calcolata, per modello e utente. */
+    private static final Map<ForecastModel, Map<Integer, MonthForecast>> CACHES = new EnumMap<>(ForecastModel.class);
+
+    /** Stato del modello stagionale, per utente. */
+    private static final Map<Integer, SeasonalForecastModel> SEASONAL_MODELS = new ConcurrentHashMap<>();
+
+    static {
+        for (ForecastModel model : ForecastModel.values()) {
+            CACHES.put(model, new ConcurrentHashMap<>());
+        }
+    }
+
+    private ForecastService() {
+        // Utility class
+    }
+
+    /**
+     * Restituisce la previsione del mese di {@code today} per l'utente,
+     * riusando quella in cache se calcolata lo stesso giorno sugli stessi dati.
+     *
+     * @param userId identificativo dell'utente
+     * @param today  giorno di riferimento (i movimenti sono considerati fino a questa data inclusa)
+     * @return previsione del mese con i totali usati per calcolarla
+     * @throws SQLException in caso di errori di accesso al database
+     */
+    public static MonthForecast getForecast(int userId, LocalDate today) throws SQLException {
+        return getForecast(userId, today, ForecastModel.LINEAR);
+    }
+
+    /**
+     * Restituisce la previsione del mese di {@code today} calcolata con il modello indicato.
+     *
+     * @param userId identificativo dell'utente
+     * @param today  giorno di riferimento (i movimenti sono considerati fino a questa data inclusa)
+     * @param model  modello di previsione
+     * @return previsione del mese con i totali usati per calcolarla
+     * @throws SQLException in caso di errori di accesso al database
+     */
+    public static MonthForecast getForecast(int userId, LocalDate today, ForecastModel model) throws SQLException {
+        Map<Integer, MonthForecast> cache = CACHES.get(model);
+        long version = versionOf(userId).get();
+        MonthForecast cached = cache.get(userId);
+        if (cached != null && cached.getDate().equals(today) && cached.version == version) {
+            return cached;
+        }
+
+        long writes = MovementWriteTracker.currentVersion(userId);
+        MonthForecast computed = compute(userId, today, version, model);
+        // Se nel frattempo un movimento è stato scritto il risultato può essere già obsoleto: non va in cache
+        if (versionOf(userId).get() == version && MovementWriteTracker.isUnchangedSince(userId, writes)) {
+            cache.put(userId, computed);
+        }
+        return computed;
+    }
+
+    /**
+     * Segnala che un movimento dell'utente con la data indicata è stato
+     * inserito, modificato o cancellato. La previsione viene invalidata solo
+     * se la data cade nel mese corrente o in un giorno già osservato dal
+     * modello stagionale, il cui stato in quel caso viene scartato.
+     *
+     * @param userId identificativo dell'utente
+     * @param date   data del movimento (per una modifica: sia la vecchia che la nuova)
+     */
+    public static void movementChanged(int userId, LocalDate date) {
+        if (date == null) {
+            return;
+        }
+        boolean invalidate = YearMonth.from(date).equals(YearMonth.now());
+        SeasonalForecastModel seasonal = SEASONAL_MODELS.get(userId);
+        if (seasonal != null) {
+            synchronized (seasonal) {
+                LocalDate lastDay = seasonal.getLastDay();
+                if (lastDay != null && !date.isAfter(lastDay)) {
+                    SEASONAL_MODELS.remove(userId, seasonal);
+                    invalidate = true;
+                }
+            }
+        }
+        if (invalidate) {
+            versionOf(userId).incrementAndGet();
+            removeCached(userId);
+        }
+    }
+
+    /**
+     * Rimuove la previsione in cache dell'utente (ad esempio al logout).
+     *
+     * @param userId identificativo dell'utente
+     */
+    public static void evict(int userId) {
+        versionOf(userId).incrementAndGet();
+        removeCached(userId);
+        SEASONAL_MODELS.remove(userId);
+    }
+
+    private static void removeCached(int userId) {
+        for (Map<Integer, MonthForecast> cache : CACHES.values()) {
+            cache.remove(userId);
+        }
+    }
+
+    /**
+     * Simula la distribuzione del saldo a fine mese con {@link MonteCarloSimulator}.
+     * <p>
+     * Il saldo di partenza è quello reale del mese fino a oggi (dalla previsione
+     * lineare in cache); le spese dei giorni rimanenti sono campionate dalle uscite
+     * giornaliere degli ultimi {@link #SIMULATION_HISTORY_DAYS} giorni conclusi,
+     * lette dai totali per giorno già in memoria. Il seme dipende da utente e giorno,
+     * per cui a parità di dati la simulazione restituisce sempre lo stesso risultato.
+     *
+     * @param userId identificativo dell'utente
+     * @param today  giorno di riferimento
+     * @return distribuzione del saldo, oppure {@code null} se lo storico ha meno di
+     *         {@link ForecastCalculator#MINIMUM_DAYS_FOR_FORECAST} giorni
+     * @throws SQLException in caso di errori di accesso al database
+     */
+    public static MonteCarloSimulator.SimulationResult simulate(int userId, LocalDate today) throws SQLException {
+        MonthForecast forecast = getForecast(userId, today);
+        PeriodTotalsIndex totals = new MovimentiDAOMySQLImpl().getPeriodTotals(userId);
+
+        LocalDate first = totals.getFirstDate();
+        if (first == null) {
+            return null;
+        }
+        LocalDate from = today.minusDays(SIMULATION_HISTORY_DAYS);
+        if (from.isBefore(first)) {
+            from = first;
+        }
+        double[] history = totals.dailyExpenses(from, today.minusDays(1));
+        if (history.length < ForecastCalculator.MINIMUM_DAYS_FOR_FORECAST) {
+            return null;
+        }
+
+        long seed = ((long) userId << 32) ^ today.toEpochDay();
+        return MonteCarloSimulator.simulate(
+                forecast.getTotalIncome() - forecast.getTotalExpenses(),
+                history,
+                today.lengthOfMonth() - today.getDayOfMonth(),
+                MonteCarloSimulator.DEFAULT_PATHS,
+                seed,
+                SIMULATION_TIME_BUDGET_MS
+        );
+    }
+
+    /**
+     * Misura l'errore dei modelli di previsione sui mesi passati dell'utente
+     * con {@link ForecastBacktester}, sui totali per giorno già in memoria.
+     *
+     * @param userId identificativo dell'utente
+     * @param today  giorno corrente (il mese in corso è escluso)
+     * @return metriche di errore per modello
+     * @throws SQLException in caso di errori di accesso al database
+     */
+    public static ForecastBacktester.BacktestReport backtest(int userId, LocalDate today) throws SQLException {
+        return ForecastBacktester.run(new MovimentiDAOMySQLImpl().getPeriodTotals(userId), today, true);
+    }
+
+    /**
+     * Esegue il backtest di tutti gli utenti sui totali per giorno caricati con
+     * un'unica query raggruppata ({@link MovimentiDAOMySQLImpl#loadAllPeriodTotals()}).
+     * Gli utenti sono valutati uno dopo l'altro, ciascuno con i mesi in parallelo.
+     *
+     * @param today giorno corrente (il mese in corso è escluso)
+     * @return metriche di errore per modello, indicizzate per id utente
+     * @throws SQLException in caso di errori di accesso al database
+     */
+    public static Map<Integer, ForecastBacktester.BacktestReport> backtestAll(LocalDate today) throws SQLException {
+        Map<Integer, ForecastBacktester.BacktestReport> reports = new TreeMap<>();
+        for (Map.Entry<Integer, PeriodTotalsIndex> e : new MovimentiDAOMySQLImpl().loadAllPeriodTotals().entrySet()) {
+            reports.put(e.getKey(), ForecastBacktester.run(e.getValue(), today, true));
+        }
+        return reports;
+    }
+
+    private static AtomicLong versionOf(int userId) {
+        return VERSIONS.computeIfAbsent(userId, id -> new AtomicLong());
+    }
+
+    private static MonthForecast compute(int userId, LocalDate today, long version, ForecastModel model)
+            throws SQLException {
+        YearMonth currentMonth = YearMonth.from(today);
+        LocalDate startOfMonth = currentMonth.atDay(1);
+
+        double totaleEntrate = 0;
+        double totaleUscite = 0;
+        int giorniConMovimenti = 0;
+
+        try (Connection conn = DAOMySQLSettings.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(ForecastQueryProvider.MONTHLY_FORECAST_AGGREGATE)) {
+
+            pstmt.setInt(1, userId);
+            pstmt.setDate(2, Date.valueOf(startOfMonth));
+            pstmt.setDate(3, Date.valueOf(today));
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    totaleEntrate = rs.getDouble("totaleEntrate");
+                    totaleUscite = rs.getDouble("totaleUscite");
+                    giorniConMovimenti = rs.getInt("giorniConMovimenti");
+                }
+            }
+        }
+
+        ForecastCalculator.ForecastResult result;
+        if (model == ForecastModel.SEASONAL) {
+            result = computeSeasonal(userId, today, totaleEntrate, totaleUscite);
+        } else {
+            result = new ForecastCalculator().calculateForecast(
+                    totaleEntrate,
+                    totaleUscite,
+                    giorniConMovimenti,
+                    today.getDayOfMonth(),
+                    currentMonth.lengthOfMonth()
+            );
+        }
+        return new MonthForecast(today, version, model, totaleEntrate, totaleUscite, result);
+    }
+
+    /**
+     * Porta lo stato stagionale dell'utente fino a ieri e calcola la previsione.
+     * Al primo utilizzo lo stato parte dal primo giorno con movimenti.
+     * <p>
+     * Se durante l'aggiornamento viene scritto un movimento dell'utente, i totali
+     * letti possono non includerlo: la previsione viene comunque restituita, ma lo
+     * stato viene scartato e ricostruito alla richiesta successiva.
+     */
+    private static ForecastCalculator.ForecastResult computeSeasonal(int userId, LocalDate today,
+                                                                     double totaleEntrate, double totaleUscite)
+            throws SQLException {
+        long writes = MovementWriteTracker.currentVersion(userId);
+        PeriodTotalsIndex totals = new MovimentiDAOMySQLImpl().getPeriodTotals(userId);
+        SeasonalForecastModel seasonal = SEASONAL_MODELS.computeIfAbsent(userId, id -> new SeasonalForecastModel());
+        synchronized (seasonal) {
+            LocalDate next = seasonal.getLastDay() != null ? seasonal.getLastDay().plusDays(1) : totals.getFirstDate();
+            if (next != null) {
+                for (LocalDate day = next; day.isBefore(today); day = day.plusDays(1)) {
+                    seasonal.update(day, totals.expenseOn(day));
+                }
+            }
+            if (!MovementWriteTracker.isUnchangedSince(userId, writes)) {
+                SEASONAL_MODELS.remove(userId, seasonal);
+            }
+            return new ForecastCalculator().calculateSeasonalForecast(totaleEntrate, totaleUscite, seasonal, today);
+        }
+    }
+
+    /**
+     * Previsione di un mese insieme ai totali reali su cui è stata calcolata.
+     */
+    public static final class MonthForecast {
+        private final LocalDate date;
+        private final long version;
+        private final ForecastModel model;
+        private final double totalIncome;
+        private final double totalExpenses;
+        private final ForecastCalculator.ForecastResult result;
+
+        private MonthForecast(LocalDate date, long version, ForecastModel model,
+                              double totalIncome, double totalExpenses,
+                              ForecastCalculator.ForecastResult result) {
+            this.date = date;
+            this.version = version;
+            this.model = model;
+            this.totalIncome = totalIncome;
+            this.totalExpenses = totalExpenses;
+            this.result = result;
+        }
+
+        /** @return giorno di riferimento della previsione */
+        public LocalDate getDate() { return date; }
+
+        /** @return modello usato per la previsione */
+        public ForecastModel getModel() { return model; }
+
+        /** @return totale delle entrate del mese fino al giorno di riferimento */
+        public double getTotalIncome() { return totalIncome; }
+
+        /** @return totale delle uscite del mese fino al giorno di riferimento */
+        public double getTotalExpenses() { return totalExpenses; }
+
+        /** @return risultato del calcolo, secondo il modello usato */
+        public ForecastCalculator.ForecastResult getResult() { return result; }
+    }
+}
@@ -0,0 +1,89 @@
+package it.unicas.project.template.address.util;
+
+/**
+ * Riduzione del numero di punti di una serie con l'algoritmo
+ * Largest-Triangle-Three-Buckets (LTTB).
+ * <p>
+ * Il primo e l'ultimo punto vengono sempre mantenuti; i punti intermedi sono
+ * divisi in {@code threshold - 2} bucket e per ciascun bucket si sceglie il punto
+ * che forma il triangolo di area massima con il punto scelto nel bucket precedente
+ * e con la media del bucket successivo. In questo modo picchi e valli (ad esempio
+ * una singola spesa anomala) sopravvivono alla riduzione, a differenza di una
+ * semplice media o di un campionamento regolare.
+ * <p>
+ * Complessità O(n) in tempo, nessuna allocazione oltre all'array dei risultati.
+ */
+public final class LttbDownsampler {
+
+    private LttbDownsampler() {
+        // Utility class
+    }
+
+    /**
+     * Seleziona gli indici dei punti da mantenere.
+     *
+     * @param xs        coordinate X, in ordine non decrescente
+     * @param ys        coordinate Y, stessa lunghezza di {@code xs}
+     * @param threshold numero di punti desiderato
+     * @return indici crescenti dei punti selezionati; tutti gli indici se la serie
+     *         ha già al più {@code threshold} punti o se {@code threshold < 3}
+     */
+    public static int[] select(double[] xs, double[] ys, int threshold) {
+        int n = Math.min(xs.length, ys.length);
+        if (threshold >= n || threshold < 3) {
+            int[] all = new int[n];
+            for (int i = 0; i < n; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+
+        int[] selected = new int[threshold];
+        int count = 0;
+        selected[count++] = 0;
+
+        double bucketSize = (double) (n - 2) / (threshold - 2);
+        int a = 0;
+
+        for (int i = 0; i < threshold - 2; i++) {
+            // Media del bucket successivo (o ultimo punto per l'ultimo bucket)
+            int nextStart = (int) Math.floor((i + 1) * bucketSize) + 1;
+            int nextEnd = Math.min((int) Math.floor((i + 2) * bucketSize) + 1, n);
+            double avgX = 0;
+            double avgY = 0;
+            int nextCount = nextEnd - nextStart;
+            if (nextCount <= 0) {
+                avgX = xs[n - 1];
+                avgY = ys[n - 1];
+            } else {
+                for (int j = nextStart; j < nextEnd; j++) {
+                    avgX += xs[j];
+                    avgY += ys[j];
+                }
+                avgX /= nextCount;
+                avgY /= nextCount;
+            }
+
+            // Punto del bucket corrente con area del triangolo massima
+            int rangeStart = (int) Math.floor(i * bucketSize) + 1;
+            int rangeEnd = Math.min((int) Math.floor((i + 1) * bucketSize) + 1, n - 1);
+            double ax = xs[a];
+            double ay = ys[a];
+            double maxArea = -1;
+            int best = rangeStart;
+            for (int j = rangeStart; j < rangeEnd; j++) {
+                double area = Math.abs((ax - avgX) * (ys[j] - ay) - (ax - xs[j]) * (avgY - ay));
+                if (area > maxArea) {
+                    maxArea = area;
+                    best = j;
+                }
+            }
+
+            selected[count++] = best;
+            a = best;
+        }
+
+        selected[count] = n - 1;
+        return selected;
+    }
+}
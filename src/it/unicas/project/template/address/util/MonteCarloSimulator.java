@@ -0,0 +1,199 @@
+package it.unicas.project.template.address.util;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Simulazione Monte Carlo del saldo a fine mese.
+ * <p>
+ * Ogni percorso parte dal saldo del mese fino a oggi e, per ciascuno dei giorni
+ * rimanenti, sottrae una spesa giornaliera estratta con reinserimento (bootstrap)
+ * dallo storico delle uscite giornaliere dell'utente. La distribuzione dei saldi
+ * finali fornisce i percentili P10/P50/P90 e la probabilità di chiudere in negativo,
+ * a complemento della stima puntuale di {@link ForecastCalculator}.
+ * <p>
+ * I percorsi sono suddivisi in blocchi da {@value #PATHS_PER_TASK} elaborati sul
+ * pool comune di {@link ForkJoinPool}. Ogni blocco usa un generatore derivato dal
+ * seme e dal proprio indice, per cui a parità di input il risultato è lo stesso
+ * indipendentemente dai thread. Allo scadere del budget di tempo i blocchi non
+ * ancora iniziati vengono saltati e il risultato si basa sui percorsi completati.
+ */
+public final class MonteCarloSimulator {
+
+    /** Numero di percorsi simulati di default. */
+    public static final int DEFAULT_PATHS = 20_000;
+
+    /** Percorsi elaborati da ciascun task. */
+    private static final int PATHS_PER_TASK = 1_000;
+
+    /** Costante usata per decorrelare i semi dei blocchi. */
+    private static final long SEED_STRIDE = 0x9E3779B97F4A7C15L;
+
+    private MonteCarloSimulator() {
+        // Utility class
+    }
+
+    /**
+     * Esegue la simulazione.
+     *
+     * @param startBalance     saldo del mese fino a oggi (entrate - uscite reali)
+     * @param dailyExpenses    uscite giornaliere storiche da cui campionare (giorni senza movimenti inclusi, a 0)
+     * @param remainingDays    giorni rimanenti da simulare
+     * @param paths            numero di percorsi richiesti
+     * @param seed             seme del generatore pseudo-casuale
+     * @param timeBudgetMillis tempo massimo di calcolo in millisecondi
+     * @return distribuzione del saldo a fine mese
+     * @throws IllegalArgumentException se lo storico è vuoto o {@code paths} non è positivo
+     */
+    public static SimulationResult simulate(double startBalance, double[] dailyExpenses, int remainingDays,
+                                            int paths, long seed, long timeBudgetMillis) {
+        if (dailyExpenses == null || dailyExpenses.length == 0) {
+            throw new IllegalArgumentException("Storico delle uscite vuoto");
+        }
+        if (paths <= 0) {
+            throw new IllegalArgumentException("Numero di percorsi non valido: " + paths);
+        }
+
+        int tasks = (paths + PATHS_PER_TASK - 1) / PATHS_PER_TASK;
+        double[] balances = new double[paths];
+        boolean[] completed = new boolean[tasks];
+        long deadline = System.nanoTime() + timeBudgetMillis * 1_000_000L;
+
+        ForkJoinPool.commonPool().invoke(new SimulationTask(0, tasks, startBalance, dailyExpenses,
+                Math.max(0, remainingDays), seed, deadline, balances, completed));
+
+        int done = 0;
+        for (int t = 0; t < tasks; t++) {
+            if (completed[t]) {
+                int from = t * PATHS_PER_TASK;
+                int to = Math.min(paths, from + PATHS_PER_TASK);
+                System.arraycopy(balances, from, balances, done, to - from);
+                done += to - from;
+            }
+        }
+        return SimulationResult.of(Arrays.copyOf(balances, done), paths);
+    }
+
+    /**
+     * Divide ricorsivamente l'intervallo di blocchi e simula i percorsi di ciascun blocco.
+     */
+    private static final class SimulationTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int fromTask;
+        private final int toTask;
+        private final double startBalance;
+        private final double[] dailyExpenses;
+        private final int remainingDays;
+        private final long seed;
+        private final long deadline;
+        private final double[] balances;
+        private final boolean[] completed;
+
+        SimulationTask(int fromTask, int toTask, double startBalance, double[] dailyExpenses, int remainingDays,
+                       long seed, long deadline, double[] balances, boolean[] completed) {
+            this.fromTask = fromTask;
+            this.toTask = toTask;
+            this.startBalance = startBalance;
+            this.dailyExpenses = dailyExpenses;
+            this.remainingDays = remainingDays;
+            this.seed = seed;
+            this.deadline = deadline;
+            this.balances = balances;
+            this.completed = completed;
+        }
+
+        @Override
+        protected void compute() {
+            if (toTask - fromTask > 1) {
+                int mid = (fromTask + toTask) >>> 1;
+                invokeAll(
+                        new SimulationTask(fromTask, mid, startBalance, dailyExpenses, remainingDays,
+                                seed, deadline, balances, completed),
+                        new SimulationTask(mid, toTask, startBalance, dailyExpenses, remainingDays,
+                                seed, deadline, balances, completed));
+                return;
+            }
+            if (System.nanoTime() > deadline) {
+                return;
+            }
+            SplittableRandom random = new SplittableRandom(seed + fromTask * SEED_STRIDE);
+            int from = fromTask * PATHS_PER_TASK;
+            int to = Math.min(balances.length, from + PATHS_PER_TASK);
+            int samples = dailyExpenses.length;
+            for (int p = from; p < to; p++) {
+                double balance = startBalance;
+                for (int d = 0; d < remainingDays; d++) {
+                    balance -= dailyExpenses[random.nextInt(samples)];
+                }
+                balances[p] = balance;
+            }
+            completed[fromTask] = true;
+        }
+    }
+
+    /**
+     * Distribuzione del saldo a fine mese ottenuta dalla simulazione.
+     */
+    public static final class SimulationResult {
+        private final double p10;
+        private final double p50;
+        private final double p90;
+        private final double probabilityNegative;
+        private final int completedPaths;
+        private final int requestedPaths;
+
+        private SimulationResult(double p10, double p50, double p90, double probabilityNegative,
+                                 int completedPaths, int requestedPaths) {
+            this.p10 = p10;
+            this.p50 = p50;
+            this.p90 = p90;
+            this.probabilityNegative = probabilityNegative;
+            this.completedPaths = completedPaths;
+            this.requestedPaths = requestedPaths;
+        }
+
+        private static SimulationResult of(double[] balances, int requestedPaths) {
+            if (balances.length == 0) {
+                return new SimulationResult(Double.NaN, Double.NaN, Double.NaN, Double.NaN, 0, requestedPaths);
+            }
+            Arrays.sort(balances);
+            int negative = 0;
+            while (negative < balances.length && balances[negative] < 0) {
+                negative++;
+            }
+            return new SimulationResult(percentile(balances, 0.10), percentile(balances, 0.50),
+                    percentile(balances, 0.90), (double) negative / balances.length,
+                    balances.length, requestedPaths);
+        }
+
+        /** Percentile con il metodo nearest-rank su un array ordinato. */
+        private static double percentile(double[] sorted, double p) {
+            int rank = (int) Math.ceil(p * sorted.length);
+            return sorted[Math.max(0, rank - 1)];
+        }
+
+        /** @return saldo a fine mese superato nel 90% dei percorsi */
+        public double getP10() { return p10; }
+
+        /** @return saldo mediano a fine mese */
+        public double getP50() { return p50; }
+
+        /** @return saldo a fine mese superato solo nel 10% dei percorsi */
+        public double getP90() { return p90; }
+
+        /** @return frazione dei percorsi che chiudono il mese in negativo (0–1) */
+        public double getProbabilityNegative() { return probabilityNegative; }
+
+        /** @return percorsi completati entro il budget di tempo */
+        public int getCompletedPaths() { return completedPaths; }
+
+        /** @return percorsi richiesti */
+        public int getRequestedPaths() { return requestedPaths; }
+
+        /** @return {@code true} se almeno un percorso è stato completato */
+        public boolean hasResult() { return completedPaths > 0; }
+    }
+}
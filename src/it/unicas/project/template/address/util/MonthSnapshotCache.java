@@ -0,0 +1,187 @@
+package it.unicas.project.template.address.util;
+
+import it.unicas.project.template.address.model.Budget;
+import it.unicas.project.template.address.model.Movimenti;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache LRU dei dati mensili mostrati in dashboard (totali, movimenti e budget),
+ * indicizzata per utente e mese.
+ * <p>
+ * La validità delle voci è legata a un numero di versione globale: ogni scrittura
+ * su movimenti o budget chiama {@link #invalidateAll()}, che incrementa la versione
+ * e rende obsolete tutte le istantanee già presenti. Un'istantanea caricata prima
+ * di una scrittura (ad esempio da un prefetch in background ancora in corso) porta
+ * con sé la versione letta all'inizio del caricamento e viene quindi scartata
+ * da {@link #put(MonthSnapshot)}.
+ * <p>
+ * Le istantanee valgono inoltre solo per il giorno in cui sono state caricate:
+ * la proiezione a fine mese dei budget dipende dai giorni trascorsi, per cui
+ * dopo il cambio di data il mese viene ricaricato.
+ * <p>
+ * I metodi di istanza sono sincronizzati perché la cache è letta dal thread
+ * JavaFX e popolata dai thread di prefetch.
+ */
+public class MonthSnapshotCache {
+
+    /** Numero di mesi mantenuti in cache di default (un anno di navigazione). */
+    public static final int DEFAULT_CAPACITY = 12;
+
+    /** Versione globale dei dati, incrementata a ogni scrittura. */
+    private static final AtomicLong VERSION = new AtomicLong();
+
+    private final Map<Long, MonthSnapshot> entries;
+
+    /**
+     * Crea una cache con la capacità indicata.
+     *
+     * @param capacity numero massimo di mesi mantenuti; oltre questa soglia
+     *                 viene eliminato il mese usato meno di recente
+     */
+    public MonthSnapshotCache(int capacity) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, MonthSnapshot> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Rende obsolete tutte le istantanee di tutte le cache.
+     * Da chiamare dopo ogni inserimento, modifica o cancellazione di movimenti o budget.
+     */
+    public static void invalidateAll() {
+        VERSION.incrementAndGet();
+    }
+
+    /**
+     * @return versione corrente dei dati, da leggere prima di iniziare un caricamento
+     */
+    public static long currentVersion() {
+        return VERSION.get();
+    }
+
+    /**
+     * Restituisce l'istantanea del mese se presente e ancora valida.
+     *
+     * @param userId identificativo dell'utente
+     * @param month  mese richiesto
+     * @return istantanea valida, oppure {@code null}
+     */
+    public synchronized MonthSnapshot get(int userId, YearMonth month) {
+        long key = keyOf(userId, month);
+        MonthSnapshot snapshot = entries.get(key);
+        if (snapshot != null && !isCurrent(snapshot)) {
+            entries.remove(key);
+            return null;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Indica se il mese è presente e valido, senza modificarne l'ordine di utilizzo.
+     *
+     * @param userId identificativo dell'utente
+     * @param month  mese richiesto
+     * @return {@code true} se l'istantanea è disponibile
+     */
+    public synchronized boolean contains(int userId, YearMonth month) {
+        MonthSnapshot snapshot = entries.get(keyOf(userId, month));
+        return snapshot != null && isCurrent(snapshot);
+    }
+
+    /**
+     * Memorizza un'istantanea se è stata caricata con la versione corrente dei dati.
+     *
+     * @param snapshot istantanea da memorizzare
+     * @return {@code true} se memorizzata, {@code false} se obsoleta
+     */
+    public synchronized boolean put(MonthSnapshot snapshot) {
+        if (snapshot.getVersion() != VERSION.get()) {
+            return false;
+        }
+        entries.put(keyOf(snapshot.getUserId(), snapshot.getMonth()), snapshot);
+        return true;
+    }
+
+    /**
+     * Svuota la cache.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * @return numero di mesi attualmente in cache (anche obsoleti)
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return {@code true} se l'istantanea è della versione corrente dei dati ed è stata caricata oggi
+     */
+    private static boolean isCurrent(MonthSnapshot snapshot) {
+        return snapshot.getVersion() == VERSION.get() && LocalDate.now().equals(snapshot.getLoadedOn());
+    }
+
+    /**
+     * Combina utente e mese in un'unica chiave: id utente nei 32 bit alti,
+     * numero progressivo del mese ({@code anno * 12 + mese}) in quelli bassi.
+     */
+    private static long keyOf(int userId, YearMonth month) {
+        return ((long) userId << 32) | (month.getYear() * 12L + month.getMonthValue() - 1);
+    }
+
+    /**
+     * Dati di un mese per un utente, così come mostrati dalla dashboard.
+     */
+    public static final class MonthSnapshot {
+        private final int userId;
+        private final YearMonth month;
+        private final LocalDate loadedOn;
+        private final float entrate;
+        private final float uscite;
+        private final List<Movimenti> movements;
+        private final List<Budget> budgets;
+        private final long version;
+
+        /**
+         * @param userId    identificativo dell'utente
+         * @param month     mese di riferimento
+         * @param loadedOn  giorno del caricamento, usato per le proiezioni dei budget
+         * @param entrate   totale delle entrate del mese
+         * @param uscite    totale delle uscite del mese
+         * @param movements movimenti del mese
+         * @param budgets   budget del mese, {@code null} se non è stato possibile caricarli
+         * @param version   versione dei dati letta prima del caricamento
+         */
+        public MonthSnapshot(int userId, YearMonth month, LocalDate loadedOn, float entrate, float uscite,
+                             List<Movimenti> movements, List<Budget> budgets, long version) {
+            this.userId = userId;
+            this.month = month;
+            this.loadedOn = loadedOn;
+            this.entrate = entrate;
+            this.uscite = uscite;
+            this.movements = movements == null ? List.of() : List.copyOf(movements);
+            this.budgets = budgets == null ? null : List.copyOf(budgets);
+            this.version = version;
+        }
+
+        public int getUserId() { return userId; }
+        public YearMonth getMonth() { return month; }
+        public LocalDate getLoadedOn() { return loadedOn; }
+        public float getEntrate() { return entrate; }
+        public float getUscite() { return uscite; }
+        public List<Movimenti> getMovements() { return movements; }
+        public List<Budget> getBudgets() { return budgets; }
+        public long getVersion() { return version; }
+    }
+}
@@ -0,0 +1,122 @@
+package it.unicas.project.template.address.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Contatore delle scritture sui movimenti, per utente, usato per non pubblicare
+ * indici in memoria caricati mentre una scrittura era in corso.
+ * <p>
+ * Gli indici per utente (saldo progressivo, totali per categoria e per periodo)
+ * vengono caricati una sola volta con l'intera storia e poi aggiornati con le
+ * variazioni delle scritture; una scrittura però applica le variazioni solo a un
+ * indice già pubblicato. Se inserimento, modifica o cancellazione avvengono durante
+ * un caricamento (ad esempio in background per il report), l'indice caricato può
+ * non includere la scrittura, che andrebbe così persa.
+ * <p>
+ * Ogni scrittura è quindi racchiusa tra {@link #beginWrite(int)} e
+ * {@link #endWrite(int)}, che incrementano la versione dell'utente. Chi carica un
+ * indice legge la versione con {@link #currentVersion(int)} prima della query e lo
+ * pubblica con {@link #publish(Map, int, long, Object)}, che lo scarta se la versione
+ * è cambiata o se una scrittura è ancora in corso. Le scritture di cui non si conosce
+ * l'utente si registrano con {@link #ANY_USER} e invalidano i caricamenti di tutti.
+ */
+public final class MovementWriteTracker {
+
+    /** Utente da indicare per una scrittura di cui non si conosce l'utente. */
+    public static final int ANY_USER = -1;
+
+    /** Versione e scritture in corso per utente; tutti gli accessi sono sincronizzati sulla mappa. */
+    private static final Map<Integer, long[]> COUNTERS = new HashMap<>();
+
+    private static final int VERSION = 0;
+    private static final int PENDING = 1;
+
+    private MovementWriteTracker() {
+        // Utility class
+    }
+
+    /**
+     * Segnala l'inizio di una scrittura sui movimenti dell'utente, da chiamare
+     * prima di eseguire la query.
+     *
+     * @param userId identificativo dell'utente, o {@link #ANY_USER} se non noto
+     */
+    public static void beginWrite(int userId) {
+        synchronized (COUNTERS) {
+            long[] counter = COUNTERS.computeIfAbsent(userId, id -> new long[2]);
+            counter[VERSION]++;
+            counter[PENDING]++;
+        }
+    }
+
+    /**
+     * Segnala la fine di una scrittura, dopo averne applicato le variazioni agli
+     * indici già pubblicati; va chiamato anche se la scrittura non è riuscita.
+     *
+     * @param userId identificativo dell'utente passato a {@link #beginWrite(int)}
+     */
+    public static void endWrite(int userId) {
+        synchronized (COUNTERS) {
+            long[] counter = COUNTERS.computeIfAbsent(userId, id -> new long[2]);
+            counter[VERSION]++;
+            counter[PENDING]--;
+        }
+    }
+
+    /**
+     * @param userId identificativo dell'utente
+     * @return versione delle scritture dell'utente, da leggere prima di iniziare un caricamento
+     */
+    public static long currentVersion(int userId) {
+        synchronized (COUNTERS) {
+            return valueOf(userId, VERSION) + valueOf(ANY_USER, VERSION);
+        }
+    }
+
+    /**
+     * Indica se dall'istante in cui è stata letta {@code version} non è avvenuta,
+     * né è in corso, alcuna scrittura sui movimenti dell'utente.
+     *
+     * @param userId  identificativo dell'utente
+     * @param version versione letta con {@link #currentVersion(int)} prima del caricamento
+     * @return {@code true} se i dati caricati sono ancora allineati alle scritture
+     */
+    public static boolean isUnchangedSince(int userId, long version) {
+        synchronized (COUNTERS) {
+            return valueOf(userId, PENDING) + valueOf(ANY_USER, PENDING) == 0
+                    && currentVersion(userId) == version;
+        }
+    }
+
+    /**
+     * Pubblica l'indice caricato nella mappa, se nessuna scrittura è avvenuta dal
+     * momento in cui è stata letta {@code version}.
+     * <p>
+     * Se nel frattempo è già stato pubblicato un indice viene restituito quello; se
+     * invece il caricamento è stato superato da una scrittura l'indice caricato non
+     * viene pubblicato, ma viene comunque restituito al chiamante (riflette il database
+     * al momento della query) e sarà ricaricato alla richiesta successiva.
+     *
+     * @param indexes mappa degli indici pubblicati, per utente
+     * @param userId  identificativo dell'utente
+     * @param version versione letta con {@link #currentVersion(int)} prima del caricamento
+     * @param loaded  indice appena caricato
+     * @param <T>     tipo dell'indice
+     * @return indice da usare
+     */
+    public static <T> T publish(Map<Integer, T> indexes, int userId, long version, T loaded) {
+        synchronized (COUNTERS) {
+            if (!isUnchangedSince(userId, version)) {
+                return loaded;
+            }
+            T existing = indexes.putIfAbsent(userId, loaded);
+            return existing != null ? existing : loaded;
+        }
+    }
+
+    private static long valueOf(int userId, int field) {
+        long[] counter = COUNTERS.get(userId);
+        return counter == null ? 0 : counter[field];
+    }
+}
@@ -0,0 +1,159 @@
+package it.unicas.project.template.address.util;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Totali di entrate e uscite di un utente pre-aggregati per giorno e per mese,
+ * mantenuti in memoria e aggiornati in modo incrementale a ogni scrittura.
+ * <p>
+ * Servono il grafico di andamento del report per qualunque intervallo:
+ * <ul>
+ *     <li>con granularità giornaliera o settimanale si sommano i totali giornalieri
+ *         (al più qualche centinaio di giorni, per come viene scelta la granularità);</li>
+ *     <li>con granularità mensile, trimestrale o annuale si sommano i totali mensili,
+ *         ricorrendo ai giornalieri solo per i mesi tagliati dagli estremi dell'intervallo.</li>
+ * </ul>
+ * In questo modo anche "Tutta la storia" costa al più una riga per mese,
+ * indipendentemente dal numero di movimenti.
+ * <p>
+ * I metodi sono sincronizzati perché l'indice è condiviso tra i controller
+ * e aggiornato dal DAO dopo ogni scrittura.
+ */
+public class PeriodTotalsIndex {
+
+    /** Sotto questa soglia un totale è considerato nullo (arrotondamenti dei float). */
+    private static final double EPSILON = 0.005;
+
+    /** Totali per giorno: [entrate, uscite]. */
+    private final TreeMap<LocalDate, double[]> daily = new TreeMap<>();
+
+    /** Totali per mese: [entrate, uscite]. */
+    private final TreeMap<YearMonth, double[]> monthly = new TreeMap<>();
+
+    /**
+     * Aggiunge entrate e uscite al giorno indicato (valori negativi per annullare un movimento).
+     * I giorni e i mesi i cui totali tornano a zero vengono rimossi dall'indice.
+     *
+     * @param date    giorno del movimento
+     * @param income  variazione delle entrate
+     * @param expense variazione delle uscite
+     */
+    public synchronized void add(LocalDate date, double income, double expense) {
+        if (date == null || (income == 0 && expense == 0)) {
+            return;
+        }
+        accumulate(daily, date, income, expense);
+        accumulate(monthly, YearMonth.from(date), income, expense);
+    }
+
+    /**
+     * @return primo giorno con movimenti, {@code null} se l'indice è vuoto
+     */
+    public synchronized LocalDate getFirstDate() {
+        return daily.isEmpty() ? null : daily.firstKey();
+    }
+
+    /**
+     * @param date giorno richiesto
+     * @return totale delle uscite del giorno, 0 se non ci sono movimenti
+     */
+    public synchronized double expenseOn(LocalDate date) {
+        double[] totals = daily.get(date);
+        return totals == null ? 0 : totals[1];
+    }
+
+    /**
+     * Restituisce le uscite di ciascun giorno dell'intervallo, giorni senza movimenti inclusi.
+     *
+     * @param from primo giorno incluso
+     * @param to   ultimo giorno incluso
+     * @return uscite giornaliere in ordine cronologico, vuoto se {@code to} precede {@code from}
+     */
+    public synchronized double[] dailyExpenses(LocalDate from, LocalDate to) {
+        return dailyColumn(from, to, 1);
+    }
+
+    /**
+     * Restituisce le entrate di ciascun giorno dell'intervallo, giorni senza movimenti inclusi.
+     *
+     * @param from primo giorno incluso
+     * @param to   ultimo giorno incluso
+     * @return entrate giornaliere in ordine cronologico, vuoto se {@code to} precede {@code from}
+     */
+    public synchronized double[] dailyIncome(LocalDate from, LocalDate to) {
+        return dailyColumn(from, to, 0);
+    }
+
+    private double[] dailyColumn(LocalDate from, LocalDate to, int column) {
+        if (to.isBefore(from)) {
+            return new double[0];
+        }
+        double[] values = new double[(int) (to.toEpochDay() - from.toEpochDay()) + 1];
+        for (Map.Entry<LocalDate, double[]> e : daily.subMap(from, true, to, true).entrySet()) {
+            values[(int) (e.getKey().toEpochDay() - from.toEpochDay())] = e.getValue()[column];
+        }
+        return values;
+    }
+
+    /**
+     * Popola l'aggregatore con i totali del suo intervallo.
+     *
+     * @param aggregator aggregatore da popolare
+     * @return lo stesso aggregatore, popolato
+     */
+    public synchronized TimeBucketAggregator fill(TimeBucketAggregator aggregator) {
+        LocalDate from = aggregator.getFrom();
+        LocalDate to = aggregator.getTo();
+
+        switch (aggregator.getGranularity()) {
+            case MONTH:
+            case QUARTER:
+            case YEAR:
+                for (Map.Entry<YearMonth, double[]> e : monthly.subMap(YearMonth.from(from), true, YearMonth.from(to), true).entrySet()) {
+                    YearMonth month = e.getKey();
+                    LocalDate monthStart = month.atDay(1);
+                    LocalDate monthEnd = month.atEndOfMonth();
+                    if (monthStart.isBefore(from) || monthEnd.isAfter(to)) {
+                        // Mese tagliato dall'intervallo: servono i totali giornalieri
+                        addDays(aggregator, monthStart.isBefore(from) ? from : monthStart,
+                                monthEnd.isAfter(to) ? to : monthEnd);
+                    } else {
+                        addTotals(aggregator, monthStart, e.getValue());
+                    }
+                }
+                break;
+            default:
+                addDays(aggregator, from, to);
+                break;
+        }
+        return aggregator;
+    }
+
+    private void addDays(TimeBucketAggregator aggregator, LocalDate from, LocalDate to) {
+        for (Map.Entry<LocalDate, double[]> e : daily.subMap(from, true, to, true).entrySet()) {
+            addTotals(aggregator, e.getKey(), e.getValue());
+        }
+    }
+
+    private static void addTotals(TimeBucketAggregator aggregator, LocalDate date, double[] totals) {
+        if (!isZero(totals)) {
+            aggregator.add(date, (float) totals[0], (float) totals[1]);
+        }
+    }
+
+    private static <K> void accumulate(TreeMap<K, double[]> map, K key, double income, double expense) {
+        double[] totals = map.computeIfAbsent(key, k -> new double[2]);
+        totals[0] += income;
+        totals[1] += expense;
+        if (isZero(totals)) {
+            map.remove(key);
+        }
+    }
+
+    private static boolean isZero(double[] totals) {
+        return Math.abs(totals[0]) < EPSILON && Math.abs(totals[1]) < EPSILON;
+    }
+}
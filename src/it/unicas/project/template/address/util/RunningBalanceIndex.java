@@ -0,0 +1,212 @@
+package it.unicas.project.template.address.util;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Indice del saldo progressivo di un utente basato su un albero di Fenwick
+ * (Binary Indexed Tree) indicizzato per giorno.
+ * <p>
+ * Ogni posizione dell'albero corrisponde a un giorno a partire dalla data del
+ * primo movimento e contiene il valore netto di quel giorno (entrate meno uscite).
+ * In questo modo:
+ * <ul>
+ *     <li>l'inserimento, la modifica o la cancellazione di un movimento si
+ *         traducono in un aggiornamento puntuale in O(log n);</li>
+ *     <li>il saldo a una data qualsiasi è una somma di prefisso in O(log n);</li>
+ *     <li>il netto di un intervallo di date è la differenza di due prefissi.</li>
+ * </ul>
+ * Se un movimento cade prima della data di origine o oltre la capacità corrente,
+ * l'albero viene ricostruito in O(n) con un'origine/capacità adeguata.
+ * <p>
+ * I metodi sono sincronizzati perché l'indice è condiviso tra i controller
+ * e aggiornato dal DAO dopo ogni scrittura.
+ */
+public class RunningBalanceIndex {
+
+    /** Capacità iniziale (in giorni) allocata al primo movimento. */
+    private static final int INITIAL_CAPACITY = 366;
+
+    /** Giorno corrispondente alla posizione 0, {@code null} finché l'indice è vuoto. */
+    private LocalDate origin;
+
+    /** Valori netti giornalieri, usati per le ricostruzioni. */
+    private double[] daily = new double[0];
+
+    /** Albero di Fenwick (1-based) sui valori di {@link #daily}. */
+    private double[] tree = new double[1];
+
+    /**
+     * Restituisce il valore netto (entrate positive, uscite negative) di un movimento.
+     *
+     * @param type   tipo del movimento ("Entrata"/"Uscita" o equivalenti inglesi)
+     * @param amount importo del movimento
+     * @return importo con segno, 0 per tipi non riconosciuti
+     */
+    public static double signedAmount(String type, double amount) {
+        if (TimeBucketAggregator.isIncome(type)) {
+            return amount;
+        }
+        if (TimeBucketAggregator.isExpense(type)) {
+            return -amount;
+        }
+        return 0;
+    }
+
+    /**
+     * Aggiunge un delta al netto del giorno indicato.
+     *
+     * @param date  giorno del movimento
+     * @param delta variazione del netto (negativa per uscite o per annullare un movimento)
+     */
+    public synchronized void add(LocalDate date, double delta) {
+        if (date == null || delta == 0) {
+            return;
+        }
+        ensureCovers(date);
+        int offset = offsetOf(date);
+        daily[offset] += delta;
+        for (int i = offset + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    /**
+     * Restituisce il saldo cumulato dall'inizio della storia fino alla data indicata (inclusa).
+     *
+     * @param date data di riferimento
+     * @return saldo progressivo a quella data
+     */
+    public synchronized double balanceAt(LocalDate date) {
+        if (origin == null || date == null || date.isBefore(origin)) {
+            return 0;
+        }
+        long offset = ChronoUnit.DAYS.between(origin, date);
+        return prefix((int) Math.min(offset, daily.length - 1));
+    }
+
+    /**
+     * Restituisce il netto (entrate meno uscite) dell'intervallo {@code [from, to]}.
+     *
+     * @param from primo giorno incluso
+     * @param to   ultimo giorno incluso
+     * @return netto dell'intervallo
+     */
+    public synchronized double netBetween(LocalDate from, LocalDate to) {
+        if (from == null || to == null || to.isBefore(from)) {
+            return 0;
+        }
+        return balanceAt(to) - balanceAt(from.minusDays(1));
+    }
+
+    /**
+     * Restituisce il saldo progressivo di ogni giorno dell'intervallo {@code [from, to]}.
+     * <p>
+     * Viene calcolata una sola somma di prefisso per il giorno precedente a {@code from};
+     * i valori successivi si ottengono accumulando i netti giornalieri, per un costo
+     * complessivo di O(log n + giorni dell'intervallo).
+     *
+     * @param from primo giorno incluso
+     * @param to   ultimo giorno incluso
+     * @return array con il saldo a fine giornata, uno per ogni giorno dell'intervallo
+     */
+    public synchronized double[] dailyBalances(LocalDate from, LocalDate to) {
+        if (from == null || to == null || to.isBefore(from)) {
+            return new double[0];
+        }
+        int days = (int) ChronoUnit.DAYS.between(from, to) + 1;
+        double[] balances = new double[days];
+        double running = balanceAt(from.minusDays(1));
+        LocalDate day = from;
+        for (int i = 0; i < days; i++, day = day.plusDays(1)) {
+            if (origin != null && !day.isBefore(origin)) {
+                int offset = offsetOf(day);
+                if (offset < daily.length) {
+                    running += daily[offset];
+                }
+            }
+            balances[i] = running;
+        }
+        return balances;
+    }
+
+    /**
+     * Restituisce il saldo complessivo di tutta la storia.
+     *
+     * @return somma dei netti di tutti i giorni
+     */
+    public synchronized double total() {
+        return origin == null ? 0 : prefix(daily.length - 1);
+    }
+
+    /**
+     * @return data del primo giorno indicizzato, {@code null} se non ci sono movimenti
+     */
+    public synchronized LocalDate getFirstDate() {
+        return origin;
+    }
+
+    /**
+     * @return {@code true} se l'indice non contiene ancora alcun movimento
+     */
+    public synchronized boolean isEmpty() {
+        return origin == null;
+    }
+
+    private double prefix(int offset) {
+        double sum = 0;
+        for (int i = offset + 1; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    private int offsetOf(LocalDate date) {
+        return (int) ChronoUnit.DAYS.between(origin, date);
+    }
+
+    /**
+     * Garantisce che il giorno indicato rientri nell'indice, ricostruendo
+     * l'albero se la data precede l'origine o supera la capacità.
+     */
+    private void ensureCovers(LocalDate date) {
+        if (origin == null) {
+            rebuild(date, INITIAL_CAPACITY);
+            return;
+        }
+        if (date.isBefore(origin)) {
+            int shift = (int) ChronoUnit.DAYS.between(date, origin);
+            rebuild(date, daily.length + shift + INITIAL_CAPACITY);
+            return;
+        }
+        int offset = offsetOf(date);
+        if (offset >= daily.length) {
+            rebuild(origin, Math.max(offset + 1, daily.length * 2));
+        }
+    }
+
+    /**
+     * Ricostruisce l'albero con una nuova origine e capacità in O(n),
+     * ricollocando i valori giornalieri esistenti.
+     */
+    private void rebuild(LocalDate newOrigin, int capacity) {
+        double[] newDaily = new double[capacity];
+        if (origin != null) {
+            int shift = (int) ChronoUnit.DAYS.between(newOrigin, origin);
+            System.arraycopy(daily, 0, newDaily, shift, daily.length);
+        }
+
+        double[] newTree = new double[capacity + 1];
+        for (int i = 1; i <= capacity; i++) {
+            newTree[i] += newDaily[i - 1];
+            int parent = i + (i & -i);
+            if (parent <= capacity) {
+                newTree[parent] += newTree[i];
+            }
+        }
+
+        origin = newOrigin;
+        daily = newDaily;
+        tree = newTree;
+    }
+}
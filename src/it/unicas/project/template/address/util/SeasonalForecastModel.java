@@ -0,0 +1,171 @@
+package it.unicas.project.template.address.util;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Modello di previsione delle uscite giornaliere a smorzamento esponenziale
+ * (Holt-Winters additivo) con stagionalità settimanale.
+ * <p>
+ * Lo stato è composto da livello, trend e sette componenti stagionali, una per
+ * giorno della settimana. Viene aggiornato in tempo costante a ogni giorno
+ * concluso tramite {@link #update(LocalDate, double)}, senza rileggere i
+ * movimenti: il chiamante fornisce il totale delle uscite del giorno
+ * (anche 0 per i giorni senza movimenti), in ordine e senza salti.
+ * <p>
+ * I primi sette giorni servono a inizializzare livello e stagionalità; il modello
+ * è considerato affidabile dopo {@link #MINIMUM_DAYS} giorni osservati.
+ * La classe non è thread-safe: chi la condivide deve sincronizzare gli accessi.
+ */
+public class SeasonalForecastModel {
+
+    /** Lunghezza della stagione in giorni. */
+    public static final int SEASON_LENGTH = 7;
+
+    /** Giorni osservati necessari per una previsione affidabile (due settimane). */
+    public static final int MINIMUM_DAYS = 2 * SEASON_LENGTH;
+
+    private final double alpha;
+    private final double beta;
+    private final double gamma;
+
+    private double level;
+    private double trend;
+    private final double[] seasonal = new double[SEASON_LENGTH];
+    private double initialSum;
+
+    private LocalDate lastDay;
+    private int observedDays;
+
+    /**
+     * Crea un modello con i parametri di smorzamento predefiniti: livello reattivo,
+     * trend molto smorzato (le uscite giornaliere sono rumorose) e stagionalità intermedia.
+     */
+    public SeasonalForecastModel() {
+        this(0.3, 0.01, 0.2);
+    }
+
+    /**
+     * @param alpha fattore di smorzamento del livello (0–1)
+     * @param beta  fattore di smorzamento del trend (0–1)
+     * @param gamma fattore di smorzamento della stagionalità (0–1)
+     */
+    public SeasonalForecastModel(double alpha, double beta, double gamma) {
+        this.alpha = alpha;
+        this.beta = beta;
+        this.gamma = gamma;
+    }
+
+    /**
+     * @return copia indipendente del modello, con gli stessi parametri e lo stesso stato
+     */
+    public SeasonalForecastModel copy() {
+        SeasonalForecastModel copy = new SeasonalForecastModel(alpha, beta, gamma);
+        copy.level = level;
+        copy.trend = trend;
+        System.arraycopy(seasonal, 0, copy.seasonal, 0, SEASON_LENGTH);
+        copy.initialSum = initialSum;
+        copy.lastDay = lastDay;
+        copy.observedDays = observedDays;
+        return copy;
+    }
+
+    /**
+     * Aggiorna lo stato con le uscite di un giorno concluso.
+     *
+     * @param day     giorno osservato, successivo a {@link #getLastDay()}
+     * @param expense totale delle uscite del giorno
+     * @throws IllegalArgumentException se il giorno non segue immediatamente l'ultimo osservato
+     */
+    public void update(LocalDate day, double expense) {
+        if (lastDay != null && !day.equals(lastDay.plusDays(1))) {
+            throw new IllegalArgumentException("Giorno non consecutivo: " + day + " dopo " + lastDay);
+        }
+        int season = seasonIndex(day);
+
+        if (observedDays < SEASON_LENGTH) {
+            // Prima settimana: si accumula per inizializzare livello e stagionalità
+            seasonal[season] = expense;
+            initialSum += expense;
+            if (observedDays == SEASON_LENGTH - 1) {
+                level = initialSum / SEASON_LENGTH;
+                trend = 0;
+                for (int i = 0; i < SEASON_LENGTH; i++) {
+                    seasonal[i] -= level;
+                }
+            }
+        } else {
+            double previousLevel = level;
+            double previousSeason = seasonal[season];
+            level = alpha * (expense - previousSeason) + (1 - alpha) * (level + trend);
+            trend = beta * (level - previousLevel) + (1 - beta) * trend;
+            seasonal[season] = gamma * (expense - level) + (1 - gamma) * previousSeason;
+        }
+
+        lastDay = day;
+        observedDays++;
+    }
+
+    /**
+     * @return {@code true} se sono stati osservati almeno {@link #MINIMUM_DAYS} giorni
+     */
+    public boolean isReady() {
+        return observedDays >= MINIMUM_DAYS;
+    }
+
+    /**
+     * @return ultimo giorno osservato, {@code null} se il modello è vuoto
+     */
+    public LocalDate getLastDay() {
+        return lastDay;
+    }
+
+    /**
+     * @return numero di giorni osservati
+     */
+    public int getObservedDays() {
+        return observedDays;
+    }
+
+    /**
+     * @return livello destagionalizzato corrente delle uscite giornaliere
+     */
+    public double getLevel() {
+        return level;
+    }
+
+    /**
+     * Prevede le uscite di un giorno successivo all'ultimo osservato.
+     *
+     * @param day giorno da prevedere
+     * @return uscite previste (mai negative), 0 se il modello non è inizializzato
+     */
+    public double forecast(LocalDate day) {
+        if (observedDays < SEASON_LENGTH) {
+            return 0;
+        }
+        long horizon = Math.max(1, ChronoUnit.DAYS.between(lastDay, day));
+        return Math.max(0, level + horizon * trend + seasonal[seasonIndex(day)]);
+    }
+
+    /**
+     * Somma le uscite previste dei giorni compresi tra {@code from} e {@code to} (inclusi).
+     *
+     * @param from primo giorno incluso
+     * @param to   ultimo giorno incluso
+     * @return totale delle uscite previste, 0 se l'intervallo è vuoto
+     */
+    public double forecastTotal(LocalDate from, LocalDate to) {
+        double total = 0;
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            total += forecast(day);
+        }
+        return total;
+    }
+
+    private static int seasonIndex(LocalDate day) {
+        DayOfWeek dow = day.getDayOfWeek();
+        return dow.getValue() - 1;
+    }
+}
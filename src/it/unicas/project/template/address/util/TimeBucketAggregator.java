@@ -0,0 +1,436 @@
+package it.unicas.project.template.address.util;
+
+import it.unicas.project.template.address.model.Movimenti;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.TextStyle;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.IsoFields;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Motore generico di aggregazione temporale di entrate e uscite.
+ * <p>
+ * Dato un intervallo di date e una {@link Granularity}, suddivide l'intervallo
+ * in bucket consecutivi e accumula gli importi in un'unica passata, sia a partire
+ * da righe già aggregate per giorno (es. risultato di una query SQL
+ * {@code GROUP BY DATE(date)}) sia da una lista di {@link Movimenti} in memoria.
+ * <p>
+ * L'indice del bucket viene calcolato in tempo costante per ogni riga, quindi
+ * l'aggregazione è lineare nel numero di righe in ingresso. Opzionalmente è
+ * possibile limitare il numero di bucket: in tal caso l'ultimo bucket assorbe
+ * tutti i giorni rimanenti dell'intervallo (comportamento usato dalla dashboard,
+ * che mostra sempre 10 periodi di 3 giorni, l'ultimo esteso fino a fine mese).
+ */
+public class TimeBucketAggregator {
+
+    /**
+     * Granularità supportate per la suddivisione dell'intervallo.
+     */
+    public enum Granularity {
+        /** Un bucket per ogni giorno. */
+        DAY,
+        /** Bucket di N giorni consecutivi a partire dall'inizio dell'intervallo. */
+        N_DAY,
+        /** Settimane ISO (da lunedì a domenica). */
+        ISO_WEEK,
+        /** Mesi di calendario. */
+        MONTH,
+        /** Trimestri di calendario. */
+        QUARTER,
+        /** Anni solari. */
+        YEAR
+    }
+
+    /**
+     * Singolo bucket dell'aggregazione, con periodo coperto, etichetta
+     * e totali di entrate e uscite.
+     */
+    public static final class Bucket {
+
+        private final int index;
+        private final LocalDate start;
+        private final LocalDate end;
+        private final String label;
+        private final float income;
+        private final float expense;
+        private final int rows;
+
+        private Bucket(int index, LocalDate start, LocalDate end, String label,
+                       float income, float expense, int rows) {
+            this.index = index;
+            this.start = start;
+            this.end = end;
+            this.label = label;
+            this.income = income;
+            this.expense = expense;
+            this.rows = rows;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public LocalDate getStart() {
+            return start;
+        }
+
+        public LocalDate getEnd() {
+            return end;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public float getIncome() {
+            return income;
+        }
+
+        public float getExpense() {
+            return expense;
+        }
+
+        /**
+         * @return {@code true} se almeno una riga è stata accumulata nel bucket
+         */
+        public boolean hasData() {
+            return rows > 0;
+        }
+    }
+
+    /** Numero massimo di mesi di calendario per cui {@link #granularityFor} usa giorni o settimane. */
+    private static final int SHORT_RANGE_MONTHS = 3;
+
+    private static final DateTimeFormatter DAY_LABEL = DateTimeFormatter.ofPattern("dd MMM", Locale.ITALIAN);
+
+    private final LocalDate from;
+    private final LocalDate to;
+    private final Granularity granularity;
+    private final int daysPerBucket;
+
+    /** Primo giorno del primo bucket (allineato alla granularità, può precedere {@link #from}). */
+    private final LocalDate origin;
+    private final int bucketCount;
+
+    private final float[] income;
+    private final float[] expense;
+    private final int[] rows;
+
+    /**
+     * Crea un aggregatore per l'intervallo {@code [from, to]} con la granularità indicata.
+     *
+     * @param from        primo giorno incluso
+     * @param to          ultimo giorno incluso
+     * @param granularity granularità dei bucket (per {@link Granularity#N_DAY} usare
+     *                    {@link #TimeBucketAggregator(LocalDate, LocalDate, Granularity, int, int)})
+     */
+    public TimeBucketAggregator(LocalDate from, LocalDate to, Granularity granularity) {
+        this(from, to, granularity, 1, 0);
+    }
+
+    /**
+     * Crea un aggregatore per l'intervallo {@code [from, to]}.
+     *
+     * @param from          primo giorno incluso
+     * @param to            ultimo giorno incluso
+     * @param granularity   granularità dei bucket
+     * @param daysPerBucket ampiezza in giorni dei bucket, usata solo con {@link Granularity#N_DAY}
+     * @param maxBuckets    numero massimo di bucket (0 = nessun limite); se superato,
+     *                      l'ultimo bucket si estende fino a {@code to}
+     * @throws IllegalArgumentException se l'intervallo o i parametri non sono validi
+     */
+    public TimeBucketAggregator(LocalDate from, LocalDate to, Granularity granularity,
+                                int daysPerBucket, int maxBuckets) {
+        if (from == null || to == null || granularity == null) {
+            throw new IllegalArgumentException("from, to and granularity are required");
+        }
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("to must not be before from");
+        }
+        if (granularity == Granularity.N_DAY && daysPerBucket <= 0) {
+            throw new IllegalArgumentException("daysPerBucket must be positive");
+        }
+        if (maxBuckets < 0) {
+            throw new IllegalArgumentException("maxBuckets must not be negative");
+        }
+
+        this.from = from;
+        this.to = to;
+        this.granularity = granularity;
+        this.daysPerBucket = granularity == Granularity.N_DAY ? daysPerBucket : 1;
+        this.origin = alignToBucketStart(from);
+
+        int naturalCount = rawIndex(to) + 1;
+        this.bucketCount = maxBuckets > 0 ? Math.min(naturalCount, maxBuckets) : naturalCount;
+
+        this.income = new float[bucketCount];
+        this.expense = new float[bucketCount];
+        this.rows = new int[bucketCount];
+    }
+
+    /**
+     * Crea l'aggregatore usato dalla dashboard: 10 periodi di 3 giorni sul mese
+     * indicato, con l'ultimo periodo esteso fino alla fine del mese.
+     *
+     * @param month mese di riferimento
+     * @return aggregatore configurato per il mese
+     */
+    public static TimeBucketAggregator threeDayPeriodsOf(YearMonth month) {
+        return new TimeBucketAggregator(month.atDay(1), month.atEndOfMonth(), Granularity.N_DAY, 3, 10);
+    }
+
+    /**
+     * Sceglie la granularità in base all'ampiezza dell'intervallo.
+     * <p>
+     * Fino a {@link #SHORT_RANGE_MONTHS} mesi di calendario si usa la granularità più
+     * fine che resta entro {@code maxBuckets} bucket (giorno, poi settimana ISO);
+     * gli intervalli più lunghi sono mostrati per mese, come i riepiloghi mensili,
+     * passando a trimestri e anni solo se i mesi superano {@code maxBuckets}.
+     *
+     * @param from       primo giorno incluso
+     * @param to         ultimo giorno incluso
+     * @param maxBuckets numero massimo di punti desiderato
+     * @return granularità adatta all'intervallo
+     */
+    public static Granularity granularityFor(LocalDate from, LocalDate to, int maxBuckets) {
+        long months = ChronoUnit.MONTHS.between(YearMonth.from(from), YearMonth.from(to)) + 1;
+        if (months <= SHORT_RANGE_MONTHS) {
+            long days = ChronoUnit.DAYS.between(from, to) + 1;
+            if (days <= maxBuckets) {
+                return Granularity.DAY;
+            }
+            long weeks = (days + from.getDayOfWeek().getValue() - 1 + 6) / 7;
+            if (weeks <= maxBuckets) {
+                return Granularity.ISO_WEEK;
+            }
+        }
+        if (months <= maxBuckets) {
+            return Granularity.MONTH;
+        }
+        if ((months + 2) / 3 + 1 <= maxBuckets) {
+            return Granularity.QUARTER;
+        }
+        return Granularity.YEAR;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public Granularity getGranularity() {
+        return granularity;
+    }
+
+    public int getBucketCount() {
+        return bucketCount;
+    }
+
+    /**
+     * Restituisce l'indice del bucket che contiene la data indicata.
+     *
+     * @param date data da collocare
+     * @return indice del bucket, oppure {@code -1} se la data è fuori intervallo
+     */
+    public int indexOf(LocalDate date) {
+        if (date == null || date.isBefore(from) || date.isAfter(to)) {
+            return -1;
+        }
+        return Math.min(rawIndex(date), bucketCount - 1);
+    }
+
+    /**
+     * Accumula una riga già separata in entrate e uscite (es. una riga di una
+     * query raggruppata per giorno). Le date fuori intervallo vengono ignorate.
+     *
+     * @param date    data della riga
+     * @param entrate importo delle entrate
+     * @param uscite  importo delle uscite
+     */
+    public void add(LocalDate date, float entrate, float uscite) {
+        int idx = indexOf(date);
+        if (idx < 0) {
+            return;
+        }
+        income[idx] += entrate;
+        expense[idx] += uscite;
+        rows[idx]++;
+    }
+
+    /**
+     * Accumula un singolo movimento classificandolo come entrata o uscita in base al tipo.
+     *
+     * @param m movimento da aggregare
+     */
+    public void add(Movimenti m) {
+        if (m == null || m.getDate() == null) {
+            return;
+        }
+        float amount = m.getAmount();
+        if (isIncome(m.getType())) {
+            add(m.getDate(), amount, 0f);
+        } else if (isExpense(m.getType())) {
+            add(m.getDate(), 0f, amount);
+        }
+    }
+
+    /**
+     * Accumula in un'unica passata tutti i movimenti della lista.
+     *
+     * @param movimenti movimenti da aggregare
+     * @return questo aggregatore, per concatenare le chiamate
+     */
+    public TimeBucketAggregator addAll(List<Movimenti> movimenti) {
+        if (movimenti != null) {
+            for (Movimenti m : movimenti) {
+                add(m);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Restituisce tutti i bucket dell'intervallo, compresi quelli vuoti, in ordine cronologico.
+     *
+     * @return lista dei bucket
+     */
+    public List<Bucket> buckets() {
+        List<Bucket> result = new ArrayList<>(bucketCount);
+        for (int i = 0; i < bucketCount; i++) {
+            result.add(buildBucket(i));
+        }
+        return result;
+    }
+
+    /**
+     * Restituisce solo i bucket in cui è stata accumulata almeno una riga.
+     *
+     * @return lista dei bucket non vuoti
+     */
+    public List<Bucket> nonEmptyBuckets() {
+        List<Bucket> result = new ArrayList<>();
+        for (int i = 0; i < bucketCount; i++) {
+            if (rows[i] > 0) {
+                result.add(buildBucket(i));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Indica se il tipo di movimento corrisponde a un'entrata.
+     *
+     * @param type tipo del movimento
+     * @return {@code true} per "Entrata"/"Income" (case-insensitive)
+     */
+    public static boolean isIncome(String type) {
+        return "entrata".equalsIgnoreCase(type) || "income".equalsIgnoreCase(type);
+    }
+
+    /**
+     * Indica se il tipo di movimento corrisponde a un'uscita.
+     *
+     * @param type tipo del movimento
+     * @return {@code true} per "Uscita"/"Expense" (case-insensitive)
+     */
+    public static boolean isExpense(String type) {
+        return "uscita".equalsIgnoreCase(type) || "expense".equalsIgnoreCase(type);
+    }
+
+    private Bucket buildBucket(int i) {
+        LocalDate start = bucketStart(i);
+        LocalDate end = i == bucketCount - 1 ? to : bucketStart(i + 1).minusDays(1);
+        if (start.isBefore(from)) {
+            start = from;
+        }
+        if (end.isAfter(to)) {
+            end = to;
+        }
+        return new Bucket(i, start, end, labelFor(start, end), income[i], expense[i], rows[i]);
+    }
+
+    private LocalDate alignToBucketStart(LocalDate date) {
+        switch (granularity) {
+            case ISO_WEEK:
+                return date.with(DayOfWeek.MONDAY);
+            case MONTH:
+                return date.withDayOfMonth(1);
+            case QUARTER:
+                return date.withDayOfMonth(1).withMonth(((date.getMonthValue() - 1) / 3) * 3 + 1);
+            case YEAR:
+                return date.withDayOfYear(1);
+            default:
+                return date;
+        }
+    }
+
+    private int rawIndex(LocalDate date) {
+        switch (granularity) {
+            case DAY:
+            case N_DAY:
+                return (int) (ChronoUnit.DAYS.between(origin, date) / daysPerBucket);
+            case ISO_WEEK:
+                return (int) (ChronoUnit.DAYS.between(origin, date) / 7);
+            case MONTH:
+                return (date.getYear() * 12 + date.getMonthValue()) - (origin.getYear() * 12 + origin.getMonthValue());
+            case QUARTER:
+                return (date.getYear() * 4 + (date.getMonthValue() - 1) / 3)
+                        - (origin.getYear() * 4 + (origin.getMonthValue() - 1) / 3);
+            case YEAR:
+                return date.getYear() - origin.getYear();
+            default:
+                throw new IllegalStateException("Granularità non gestita: " + granularity);
+        }
+    }
+
+    private LocalDate bucketStart(int i) {
+        switch (granularity) {
+            case DAY:
+            case N_DAY:
+                return origin.plusDays((long) i * daysPerBucket);
+            case ISO_WEEK:
+                return origin.plusWeeks(i);
+            case MONTH:
+                return origin.plusMonths(i);
+            case QUARTER:
+                return origin.plusMonths(3L * i);
+            case YEAR:
+                return origin.plusYears(i);
+            default:
+                throw new IllegalStateException("Granularità non gestita: " + granularity);
+        }
+    }
+
+    private String labelFor(LocalDate start, LocalDate end) {
+        switch (granularity) {
+            case DAY:
+                return start.format(DAY_LABEL);
+            case N_DAY:
+                return start.getDayOfMonth() + "-" + end.getDayOfMonth();
+            case ISO_WEEK:
+                return "Sett. " + start.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR) + " " + shortYear(start.get(IsoFields.WEEK_BASED_YEAR));
+            case MONTH:
+                // Formato compatto: "gen '25" invece di "gen 2025"
+                return start.getMonth().getDisplayName(TextStyle.SHORT, Locale.ITALIAN) + " " + shortYear(start.getYear());
+            case QUARTER:
+                return "T" + start.get(IsoFields.QUARTER_OF_YEAR) + " " + shortYear(start.getYear());
+            case YEAR:
+                return String.valueOf(start.getYear());
+            default:
+                throw new IllegalStateException("Granularità non gestita: " + granularity);
+        }
+    }
+
+    private static String shortYear(int year) {
+        return String.format("'%02d", year % 100);
+    }
+}
@@ -0,0 +1,154 @@
+package it.unicas.project.template.address.view;
+
+import it.unicas.project.template.address.model.Budget;
+import it.unicas.project.template.address.util.BudgetBurnRate;
+import javafx.css.PseudoClass;
+import javafx.geometry.Pos;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.VBox;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Objects;
+
+/**
+ * Card della dashboard che mostra lo stato di un budget di categoria.
+ * <p>
+ * I nodi della card vengono creati una sola volta; a ogni aggiornamento
+ * {@link #update(Budget)} confronta i valori con quelli già mostrati e, se
+ * non sono cambiati, non tocca il grafo della scena. Colori e stato
+ * (regolare, vicino al limite, superato) sono definiti in
+ * {@code css/budget-card.css} e selezionati tramite pseudo-classi, così da
+ * evitare la ricostruzione degli stili inline a ogni refresh.
+ * <p>
+ * Se il budget ha una proiezione a fine mese, la card mostra la spesa
+ * proiettata e, quando il ritmo attuale porterebbe a superare il limite
+ * entro il mese, la data prevista con lo stato di avviso anticipato.
+ */
+public class BudgetCard extends VBox {
+
+    /** Spesa oltre l'80% del budget. */
+    private static final PseudoClass WARNING = PseudoClass.getPseudoClass("warning");
+    /** Budget raggiunto o superato. */
+    private static final PseudoClass OVER = PseudoClass.getPseudoClass("over");
+    /** Budget non ancora superato ma che lo sarà entro fine mese al ritmo attuale. */
+    private static final PseudoClass PROJECTED = PseudoClass.getPseudoClass("projected");
+
+    private static final DateTimeFormatter EXCEED_FORMAT = DateTimeFormatter.ofPattern("dd/MM");
+
+    private final Label lblName = new Label();
+    private final Label icon = new Label("!");
+    private final Label lblSpesi = new Label();
+    private final Label lblLeft = new Label();
+    private final ProgressBar pb = new ProgressBar(0);
+    private final Label lblProjection = new Label();
+
+    private String shownName;
+    private double shownSpent = Double.NaN;
+    private double shownBudget = Double.NaN;
+    private double shownProjected = Double.NaN;
+    private LocalDate shownExceedDate;
+
+    /**
+     * Crea la struttura vuota della card.
+     */
+    public BudgetCard() {
+        super(10);
+        getStyleClass().add("budget-card");
+
+        lblName.getStyleClass().add("budget-card-name");
+        icon.getStyleClass().add("budget-card-icon");
+        lblSpesi.getStyleClass().add("budget-card-spent");
+        lblLeft.getStyleClass().add("budget-card-left");
+        pb.getStyleClass().add("budget-card-progress");
+        lblProjection.getStyleClass().add("budget-card-projection");
+
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+
+        HBox topRow = new HBox(lblName, spacer, icon);
+        topRow.setAlignment(Pos.CENTER_LEFT);
+
+        HBox detailsRow = new HBox(10, lblSpesi, lblLeft);
+        detailsRow.setAlignment(Pos.CENTER_LEFT);
+
+        pb.setMaxWidth(Double.MAX_VALUE);
+        pb.setPrefHeight(6);
+
+        lblProjection.setVisible(false);
+        lblProjection.setManaged(false);
+
+        getChildren().addAll(topRow, detailsRow, pb, lblProjection);
+    }
+
+    /**
+     * Aggiorna la card con i valori del budget.
+     *
+     * @param b budget da mostrare
+     * @return {@code true} se la card è stata modificata, {@code false} se i valori erano già aggiornati
+     */
+    public boolean update(Budget b) {
+        double spent = b.getSpentAmount();
+        double budget = b.getBudgetAmount();
+        double projected = b.getProjectedAmount();
+        LocalDate exceedDate = b.getProjectedExceedDate();
+        if (Objects.equals(shownName, b.getCategoryName()) && spent == shownSpent && budget == shownBudget
+                && Double.compare(projected, shownProjected) == 0 && Objects.equals(exceedDate, shownExceedDate)) {
+            return false;
+        }
+        shownName = b.getCategoryName();
+        shownSpent = spent;
+        shownBudget = budget;
+        shownProjected = projected;
+        shownExceedDate = exceedDate;
+
+        double progress = b.getProgress();
+        double remaining = b.getRemaining();
+        boolean isOver = remaining < 0;
+
+        lblName.setText(shownName);
+        lblSpesi.setText("Spesi: €" + String.format("%.0f", spent));
+        lblLeft.setText(isOver
+                ? "Superato di: €" + String.format("%.0f", Math.abs(remaining))
+                : "Rimasti: €" + String.format("%.0f", remaining));
+        pb.setProgress(Math.min(progress, 1.0));
+
+        boolean showIcon = isOver || progress > 0.9;
+        icon.setVisible(showIcon);
+        icon.setManaged(showIcon);
+
+        boolean earlyWarning = b.hasProjection() && BudgetBurnRate.isProjectedToExceed(b) && progress < 1.0;
+        boolean showProjection = b.hasProjection() && budget > 0 && !isOver;
+        if (showProjection) {
+            lblProjection.setText(earlyWarning
+                    ? "Proiezione: €" + String.format("%.0f", projected)
+                        + " · superamento il " + EXCEED_FORMAT.format(exceedDate)
+                    : "Proiezione: €" + String.format("%.0f", projected));
+        }
+        lblProjection.setVisible(showProjection);
+        lblProjection.setManaged(showProjection);
+
+        pseudoClassStateChanged(OVER, progress >= 1.0);
+        pseudoClassStateChanged(WARNING, progress > 0.80 && progress < 1.0);
+        pseudoClassStateChanged(PROJECTED, earlyWarning);
+        return true;
+    }
+
+    /**
+     * @return testo della proiezione attualmente mostrata (vuoto se nascosta)
+     */
+    public String getProjectionText() {
+        return lblProjection.isVisible() ? lblProjection.getText() : "";
+    }
+
+    /**
+     * @return testo dell'importo rimanente o superato attualmente mostrato
+     */
+    public String getLeftText() {
+        return lblLeft.getText();
+    }
+}
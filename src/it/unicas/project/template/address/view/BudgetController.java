@@ -2,23 +2,40 @@ package it.unicas.project.template.address.view;
 import it.unicas.project.template.address.MainApp;
 import it.unicas.project.template.address.model.Budget;
 import it.unicas.project.template.address.model.dao.mysql.BudgetDAOMySQLImpl;
+import it.unicas.project.template.address.util.BudgetAlertEngine;
+import it.unicas.project.template.address.util.BudgetAlertEngine.ThresholdCrossing;
+import it.unicas.project.template.address.util.BudgetNotificationHelper;
+import it.unicas.project.template.address.util.BudgetHistory;
+import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.control.TextFormatter;
+import javafx.scene.layout.GridPane;
 
 import java.sql.SQLException;
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 
 /**
  * Controller JavaFX per la gestione dei budget mensili dell'utente.
  * <p>
- * Recupera dal database i limiti di spesa per ciascuna categoria,
- * inizializza i budget di default se necessario e aggiorna le card
- * dell'interfaccia (etichette e barre di avanzamento) in base ai
- * dati correnti. Permette inoltre di modificare il limite di una
- * singola categoria tramite finestra di dialogo.
+ * Recupera dal database, con un'unica query, i limiti di spesa di tutte le
+ * categorie esistenti e li mostra in una griglia virtualizzata di card
+ * ({@link BudgetGridRowCell}, {@link BudgetLimitCard}): aggiungere una categoria
+ * non richiede modifiche a FXML o controller. Se il mese non ha ancora limiti
+ * vengono riportati quelli dell'ultimo mese impostato. Permette inoltre di
+ * modificare il limite di una singola categoria tramite finestra di dialogo.
+ * <p>
+ * Il pulsante "Storico" sostituisce la griglia con una tabella categoria × mese
+ * (limite e spesa degli ultimi mesi), letta con un'unica query aggregata.
+ * <p>
+ * Ogni card mostra anche la proiezione della spesa a fine mese e, se al
+ * ritmo attuale il limite verrebbe superato, la data prevista del superamento.
  */
 public class BudgetController {
 
@@ -30,61 +47,25 @@ public class BudgetController {
     private int currentMonth;
     private int currentYear;
 
-    // ====== CARD ALIMENTARI (ID 1) ======
-    @FXML private Label foodCategoryLabel;
-    @FXML private Label foodRemainingLabel;
-    @FXML private Label foodPercentageLabel;
-    @FXML private Label foodSpentLabel;
-    @FXML private Label foodLimitLabel;
-    @FXML private ProgressBar foodProgressBar;
-
-    // ====== CARD TRASPORTI (ID 2) ======
-    @FXML private Label transportCategoryLabel;
-    @FXML private Label transportRemainingLabel;
-    @FXML private Label transportPercentageLabel;
-    @FXML private Label transportSpentLabel;
-    @FXML private Label transportLimitLabel;
-    @FXML private ProgressBar transportProgressBar;
-
-    // ====== CARD SVAGO (ID 4) ======
-    @FXML private Label leisureCategoryLabel;
-    @FXML private Label leisureRemainingLabel;
-    @FXML private Label leisurePercentageLabel;
-    @FXML private Label leisureSpentLabel;
-    @FXML private Label leisureLimitLabel;
-    @FXML private ProgressBar leisureProgressBar;
-
-    // ====== CARD BOLLETTE (ID 3) ======
-    @FXML private Label billsCategoryLabel;
-    @FXML private Label billsRemainingLabel;
-    @FXML private Label billsPercentageLabel;
-    @FXML private Label billsSpentLabel;
-    @FXML private Label billsLimitLabel;
-    @FXML private ProgressBar billsProgressBar;
-
-    // ====== CARD SALUTE (ID 5) ======
-    @FXML private Label healthCategoryLabel;
-    @FXML private Label healthRemainingLabel;
-    @FXML private Label healthPercentageLabel;
-    @FXML private Label healthSpentLabel;
-    @FXML private Label healthLimitLabel;
-    @FXML private ProgressBar healthProgressBar;
-
-    // ====== CARD INVESTIMENTI (ID 7) ======
-    @FXML private Label investCategoryLabel;
-    @FXML private Label investRemainingLabel;
-    @FXML private Label investPercentageLabel;
-    @FXML private Label investSpentLabel;
-    @FXML private Label investLimitLabel;
-    @FXML private ProgressBar investProgressBar;
-
-    // ====== CARD ALTRO (ID 8) ======
-    @FXML private Label otherCategoryLabel;
-    @FXML private Label otherRemainingLabel;
-    @FXML private Label otherPercentageLabel;
-    @FXML private Label otherSpentLabel;
-    @FXML private Label otherLimitLabel;
-    @FXML private ProgressBar otherProgressBar;
+    /** Numero di card per riga della griglia. */
+    private static final int GRID_COLUMNS = 2;
+
+    /** Griglia virtualizzata dei budget: ogni elemento è una riga di {@value #GRID_COLUMNS} categorie. */
+    @FXML private ListView<List<Budget>> budgetGrid;
+
+    // ====== STORICO ======
+    /** Periodi dello storico selezionabili, con il numero di mesi corrispondente. */
+    private static final String[] HISTORY_RANGES = {"Ultimi 3 mesi", "Ultimi 6 mesi", "Ultimo anno"};
+    private static final int[] HISTORY_MONTHS = {3, 6, 12};
+
+    private static final DateTimeFormatter HISTORY_MONTH_LABEL = DateTimeFormatter.ofPattern("MMM yyyy", Locale.ITALIAN);
+
+    @FXML private ToggleButton historyToggle;
+    @FXML private ComboBox<String> cmbHistoryRange;
+    /** Matrice categoria × mese: ogni riga è l'indice di una categoria nello storico. */
+    @FXML private TableView<Integer> historyTable;
+
+    private BudgetHistory history;
 
 
     /**
@@ -98,6 +79,17 @@ public class BudgetController {
         LocalDate now = LocalDate.now();
         currentMonth = now.getMonthValue();
         currentYear = now.getYear();
+
+        if (budgetGrid != null) {
+            budgetGrid.setCellFactory(list -> new BudgetGridRowCell(GRID_COLUMNS,
+                    b -> editSingleBudget(b.getCategoryId(), b.getCategoryName())));
+            budgetGrid.setFocusTraversable(false);
+        }
+        if (cmbHistoryRange != null) {
+            cmbHistoryRange.getItems().setAll(HISTORY_RANGES);
+            cmbHistoryRange.setValue(HISTORY_RANGES[1]);
+            cmbHistoryRange.setOnAction(event -> loadHistory());
+        }
     }
 
 
@@ -130,25 +122,38 @@ public class BudgetController {
     /**
      * Ricarica dal database i budget del mese e anno correnti per l'utente attivo.
      * <p>
-     * Se non viene trovato alcun budget, vengono creati dei limiti
-     * predefiniti per l'utente e i dati vengono poi ricaricati.
+     * I budget di tutte le categorie vengono letti con un'unica query
+     * ({@link BudgetDAOMySQLImpl#getCategoryBudgetsForMonth(int, int, int)}).
+     * Se per il mese non è ancora stato impostato alcun limite, vengono riportati
+     * quelli dell'ultimo mese impostato e i dati vengono poi ricaricati.
      * In seguito l'interfaccia viene aggiornata tramite
-     * {@link #updateUIFromBudgets()}.
+     * {@link #updateUIFromBudgets()} e vengono accodati gli avvisi anticipati per
+     * i budget che verranno superati entro fine mese.
      */
     private void refreshBudgetsFromDb() {
         if (currentUserId <= 0) return;
 
         try {
-            currentBudgets = budgetDAO.getBudgetsForMonth(currentUserId, currentMonth, currentYear);
+            currentBudgets = budgetDAO.getCategoryBudgetsForMonth(currentUserId, currentMonth, currentYear);
 
-            if (currentBudgets == null || currentBudgets.isEmpty()) {
-                System.out.println("Nessun budget trovato, creo limiti predefiniti...");
-                createDefaultBudgetsForUser(currentUserId, currentMonth, currentYear);
-                currentBudgets = budgetDAO.getBudgetsForMonth(currentUserId, currentMonth, currentYear);
+            if (!hasAnyLimit(currentBudgets)
+                    && budgetDAO.copyLatestBudgets(currentUserId, currentMonth, currentYear) > 0) {
+                currentBudgets = budgetDAO.getCategoryBudgetsForMonth(currentUserId, currentMonth, currentYear);
+            }
+            try {
+                budgetDAO.applyBurnRates(currentUserId, currentBudgets, LocalDate.now());
+            } catch (SQLException e) {
+                // Le card vengono mostrate comunque, senza proiezione
+                e.printStackTrace();
             }
 
             updateUIFromBudgets();
 
+            List<ThresholdCrossing> projections = BudgetNotificationHelper.selectProjectionsToNotify(currentBudgets);
+            if (!projections.isEmpty()) {
+                BudgetToastCenter.getInstance().post(projections);
+            }
+
         } catch (SQLException e) {
             e.printStackTrace();
             showError("Errore nel caricamento dei budget", e.getMessage());
@@ -156,168 +161,189 @@ public class BudgetController {
     }
 
     /**
-     * Crea una serie di budget predefiniti per l'utente indicato,
-     * per il mese e l'anno specificati.
-     * <p>
-     * I limiti vengono inizializzati per le principali categorie
-     * (alimentari, trasporti, bollette, svago, salute, investimenti, altro).
-     *
-     * @param userId identificativo dell'utente.
-     * @param month  mese di riferimento (1-12).
-     * @param year   anno di riferimento.
-     * @throws SQLException se si verifica un errore durante l'aggiornamento del database.
+     * @param budgets budget delle categorie del mese
+     * @return {@code true} se almeno una categoria ha un budget salvato per il mese
      */
-    private void createDefaultBudgetsForUser(int userId, int month, int year) throws SQLException {
-        budgetDAO.setOrUpdateBudget(userId, 1, month, year, 400.0);
-        budgetDAO.setOrUpdateBudget(userId, 2, month, year, 150.0);
-        budgetDAO.setOrUpdateBudget(userId, 3, month, year, 300.0);
-        budgetDAO.setOrUpdateBudget(userId, 4, month, year, 200.0);
-        budgetDAO.setOrUpdateBudget(userId, 5, month, year, 100.0);
-        budgetDAO.setOrUpdateBudget(userId, 6, month, year, 0.0);
-        budgetDAO.setOrUpdateBudget(userId, 7, month, year, 200.0);
-        budgetDAO.setOrUpdateBudget(userId, 8, month, year, 100.0);
+    private static boolean hasAnyLimit(List<Budget> budgets) {
+        if (budgets == null) return false;
+        for (Budget b : budgets) {
+            if (b.getBudgetId() > 0) return true;
+        }
+        return false;
     }
 
     /**
-     * Aggiorna le card dell'interfaccia grafica in base alla lista di budget correnti.
+     * Aggiorna la griglia dell'interfaccia grafica in base alla lista di budget correnti.
      * <p>
-     * Prima azzera i dati visualizzati per tutte le categorie e poi,
-     * per ciascun budget presente, imposta i testi (limite, speso, rimasto,
-     * percentuale) e aggiorna la barra di avanzamento con il colore
-     * appropriato in funzione del consumo.
+     * I budget vengono raggruppati in righe di {@value #GRID_COLUMNS} card; la
+     * {@code ListView} crea soltanto le celle delle righe visibili e le card
+     * vengono aggiornate da {@link BudgetGridRowCell}.
      */
     private void updateUIFromBudgets() {
-        resetCard(foodRemainingLabel, foodSpentLabel, foodLimitLabel, foodPercentageLabel, foodProgressBar);
-        resetCard(transportRemainingLabel, transportSpentLabel, transportLimitLabel, transportPercentageLabel, transportProgressBar);
-        resetCard(leisureRemainingLabel, leisureSpentLabel, leisureLimitLabel, leisurePercentageLabel, leisureProgressBar);
-        resetCard(billsRemainingLabel, billsSpentLabel, billsLimitLabel, billsPercentageLabel, billsProgressBar);
-        resetCard(healthRemainingLabel, healthSpentLabel, healthLimitLabel, healthPercentageLabel, healthProgressBar);
-        resetCard(investRemainingLabel, investSpentLabel, investLimitLabel, investPercentageLabel, investProgressBar);
-        resetCard(otherRemainingLabel, otherSpentLabel, otherLimitLabel, otherPercentageLabel, otherProgressBar);
-
-        if (currentBudgets == null) return;
-
-        for (Budget b : currentBudgets) {
-            switch (b.getCategoryId()) {
-                case 1 -> {
-                    foodCategoryLabel.setText(b.getCategoryName());
-                    updateCardFromBudget(b, foodRemainingLabel, foodSpentLabel, foodLimitLabel, foodPercentageLabel, foodProgressBar);
-                }
-                case 2 -> {
-                    transportCategoryLabel.setText(b.getCategoryName());
-                    updateCardFromBudget(b, transportRemainingLabel, transportSpentLabel, transportLimitLabel, transportPercentageLabel, transportProgressBar);
-                }
-                case 3 -> {
-                    billsCategoryLabel.setText(b.getCategoryName());
-                    updateCardFromBudget(b, billsRemainingLabel, billsSpentLabel, billsLimitLabel, billsPercentageLabel, billsProgressBar);
-                }
-                case 4 -> {
-                    leisureCategoryLabel.setText(b.getCategoryName());
-                    updateCardFromBudget(b, leisureRemainingLabel, leisureSpentLabel, leisureLimitLabel, leisurePercentageLabel, leisureProgressBar);
-                }
-                case 5 -> {
-                    healthCategoryLabel.setText(b.getCategoryName());
-                    updateCardFromBudget(b, healthRemainingLabel, healthSpentLabel, healthLimitLabel, healthPercentageLabel, healthProgressBar);
-                    if (b.getProgress() <= 1.0) healthProgressBar.setStyle("-fx-accent: #db2777;");
-                }
-                case 7 -> {
-                    investCategoryLabel.setText(b.getCategoryName());
-                    updateCardFromBudget(b, investRemainingLabel, investSpentLabel, investLimitLabel, investPercentageLabel, investProgressBar);
-                    if (b.getProgress() <= 1.0) investProgressBar.setStyle("-fx-accent: #7c3aed;");
-                }
-                case 8 -> {
-                    otherCategoryLabel.setText(b.getCategoryName());
-                    updateCardFromBudget(b, otherRemainingLabel, otherSpentLabel, otherLimitLabel, otherPercentageLabel, otherProgressBar);
-                    if (b.getProgress() <= 1.0) otherProgressBar.setStyle("-fx-accent: #475569;");
-                }
-            }
-        }
+        if (budgetGrid == null) return;
+        budgetGrid.getItems().setAll(toRows(currentBudgets, GRID_COLUMNS));
     }
 
     /**
-     * Reimposta i valori di una card di budget a uno stato iniziale (vuoto).
+     * Suddivide i budget in righe della griglia.
      *
-     * @param remaining  label che mostra l'importo rimanente.
-     * @param spent      label che mostra l'importo speso.
-     * @param limit      label che mostra il limite di budget.
-     * @param percentage label che mostra la percentuale di utilizzo.
-     * @param bar        barra di avanzamento associata alla categoria.
+     * @param budgets budget da mostrare, nell'ordine di visualizzazione
+     * @param columns numero di card per riga
+     * @return righe della griglia; l'ultima può essere incompleta
      */
-    private void resetCard(Label remaining, Label spent, Label limit, Label percentage, ProgressBar bar) {
-        if (remaining != null) remaining.setText("Rimasti: € 0.00");
-        if (spent != null) spent.setText("Spesi: € 0.00");
-        if (limit != null) limit.setText("Limite: € 0.00");
-        if (percentage != null) percentage.setText("0%");
-        if (bar != null) {
-            bar.setProgress(0);
-            bar.setStyle("-fx-accent: #10b981;");
+    private static List<List<Budget>> toRows(List<Budget> budgets, int columns) {
+        List<List<Budget>> rows = new ArrayList<>();
+        if (budgets == null) return rows;
+        for (int i = 0; i < budgets.size(); i += columns) {
+            rows.add(new ArrayList<>(budgets.subList(i, Math.min(i + columns, budgets.size()))));
         }
+        return rows;
     }
 
+    // ====== STORICO ======
 
     /**
-     * Aggiorna i dati visualizzati in una card di budget a partire
-     * dall'oggetto {@link Budget} fornito.
-     * <p>
-     * Imposta testi (speso, limite, rimanente, percentuale) e aggiorna
-     * la barra di avanzamento, scegliendo il colore in base al rapporto
-     * tra spesa e limite (verde, giallo o rosso).
+     * Alterna la griglia del mese corrente e lo storico dei budget; lo storico
+     * viene ricaricato dal database a ogni apertura.
+     */
+    @FXML
+    private void handleToggleHistory() {
+        boolean showHistory = historyToggle != null && historyToggle.isSelected();
+        setShown(budgetGrid, !showHistory);
+        setShown(historyTable, showHistory);
+        setShown(cmbHistoryRange, showHistory);
+        if (showHistory) {
+            loadHistory();
+        }
+    }
+
+    private static void setShown(Control control, boolean shown) {
+        if (control == null) return;
+        control.setVisible(shown);
+        control.setManaged(shown);
+    }
+
+    /**
+     * @return numero di mesi del periodo selezionato (6 se non selezionato)
+     */
+    private int selectedHistoryMonths() {
+        String range = cmbHistoryRange == null ? null : cmbHistoryRange.getValue();
+        for (int i = 0; i < HISTORY_RANGES.length; i++) {
+            if (HISTORY_RANGES[i].equals(range)) return HISTORY_MONTHS[i];
+        }
+        return HISTORY_MONTHS[1];
+    }
+
+    /**
+     * Carica lo storico dei budget del periodo selezionato, fino al mese corrente,
+     * con un'unica query ({@link BudgetDAOMySQLImpl#getBudgetHistory(int, YearMonth, int)}).
+     */
+    private void loadHistory() {
+        if (currentUserId <= 0) return;
+
+        try {
+            showHistory(budgetDAO.getBudgetHistory(currentUserId,
+                    YearMonth.of(currentYear, currentMonth), selectedHistoryMonths()));
+        } catch (SQLException e) {
+            e.printStackTrace();
+            showError("Errore nel caricamento dello storico", e.getMessage());
+        }
+    }
+
+    /**
+     * Mostra lo storico nella tabella: una riga per categoria e una colonna per
+     * mese, con spesa e limite della cella colorati in base al consumo.
      *
-     * @param b          oggetto {@link Budget} con i dati della categoria.
-     * @param remaining  label che mostra l'importo rimanente.
-     * @param spent      label che mostra l'importo speso.
-     * @param limit      label che mostra il limite di budget.
-     * @param percentage label che mostra la percentuale di utilizzo.
-     * @param bar        barra di avanzamento associata alla categoria.
+     * @param h storico da mostrare
      */
-    private void updateCardFromBudget(Budget b, Label remaining, Label spent, Label limit, Label percentage, ProgressBar bar) {
-        double budgetAmount = b.getBudgetAmount();
-        double spentAmount = b.getSpentAmount();
-        double remainingAmount = b.getRemaining();
-        double ratio = b.getProgress();
-
-        double percentageValue = ratio * 100.0;
-        double clamped = Math.max(0.0, Math.min(1.0, ratio));
-
-        if (spent != null) spent.setText(String.format("Spesi: € %.2f", spentAmount));
-        if (limit != null) limit.setText(String.format("Limite: € %.2f", budgetAmount));
-        if (remaining != null) remaining.setText(String.format("Rimasti: € %.2f", Math.max(0, remainingAmount)));
-        if (percentage != null) percentage.setText(String.format("%.0f%%", percentageValue));
-
-        if (bar != null) {
-            bar.setProgress(clamped);
-            String color;
-            if (ratio < 0.75) color = "#10b981";
-            else if (ratio <= 1.0) color = "#f59e0b";
-            else color = "#ef4444";
-            bar.setStyle("-fx-accent: " + color + ";");
+    private void showHistory(BudgetHistory h) {
+        history = h;
+        if (historyTable == null) return;
+
+        TableColumn<Integer, Integer> categoryColumn = new TableColumn<>("Categoria");
+        categoryColumn.setCellValueFactory(data -> new ReadOnlyObjectWrapper<>(data.getValue()));
+        categoryColumn.setCellFactory(column -> new TableCell<>() {
+            @Override
+            protected void updateItem(Integer index, boolean empty) {
+                super.updateItem(index, empty);
+                setText(empty || index == null ? null : history.getCategoryName(index));
+                setStyle("-fx-font-weight: bold;");
+            }
+        });
+        categoryColumn.setSortable(false);
+        categoryColumn.setPrefWidth(150);
+
+        List<TableColumn<Integer, ?>> columns = new ArrayList<>();
+        columns.add(categoryColumn);
+        for (int m = 0; m < h.getMonthCount(); m++) {
+            final int monthIndex = m;
+            TableColumn<Integer, Integer> column = new TableColumn<>(HISTORY_MONTH_LABEL.format(h.getMonth(m)));
+            column.setCellValueFactory(data -> new ReadOnlyObjectWrapper<>(data.getValue()));
+            column.setCellFactory(c -> new TableCell<>() {
+                @Override
+                protected void updateItem(Integer index, boolean empty) {
+                    super.updateItem(index, empty);
+                    if (empty || index == null) {
+                        setText(null);
+                        setStyle("");
+                        return;
+                    }
+                    setText(historyCellText(history, index, monthIndex));
+                    setStyle("-fx-text-fill: " + historyCellColor(history, index, monthIndex) + ";");
+                }
+            });
+            column.setSortable(false);
+            columns.add(column);
+        }
+        historyTable.getColumns().setAll(columns);
+
+        List<Integer> rows = new ArrayList<>();
+        for (int i = 0; i < h.getCategoryCount(); i++) {
+            rows.add(i);
         }
+        historyTable.getItems().setAll(rows);
     }
 
-    // ====== MODIFICA SINGOLA CATEGORIA (ICONA MATITA) ======
+    /**
+     * @return testo di una cella dello storico: spesa e limite, solo la spesa se il
+     *         limite non era impostato, un trattino se non ci sono dati
+     */
+    private static String historyCellText(BudgetHistory h, int category, int month) {
+        double limit = h.getLimit(category, month);
+        double spent = h.getSpent(category, month);
+        if (limit > 0) return String.format("€ %.0f / € %.0f", spent, limit);
+        if (spent > 0) return String.format("€ %.0f", spent);
+        return "—";
+    }
 
-    @FXML private void handleEditFood() { editSingleBudget(1, "Alimentari"); }
-    @FXML private void handleEditTransport() { editSingleBudget(2, "Trasporti"); }
-    @FXML private void handleEditBills() { editSingleBudget(3, "Bollette"); }
-    @FXML private void handleEditLeisure() { editSingleBudget(4, "Svago"); }
-    @FXML private void handleEditHealth() { editSingleBudget(5, "Salute"); }
-    @FXML private void handleEditInvest() { editSingleBudget(7, "Investimenti"); }
-    @FXML private void handleEditOther() { editSingleBudget(8, "Altro"); }
+    /**
+     * @return colore di una cella dello storico, con le stesse soglie delle card (verde, giallo o rosso)
+     */
+    private static String historyCellColor(BudgetHistory h, int category, int month) {
+        if (h.getLimit(category, month) <= 0) return "#94a3b8";
+        double ratio = h.getProgress(category, month);
+        if (ratio < 0.75) return "#10b981";
+        if (ratio <= 1.0) return "#f59e0b";
+        return "#ef4444";
+    }
 
+    // ====== MODIFICA SINGOLA CATEGORIA (ICONA MATITA) ======
 
     /**
      * Permette di modificare il limite di budget per una singola categoria.
      * <p>
-     * Mostra una finestra di input con il valore corrente, valida il nuovo
-     * limite inserito dall'utente e, se corretto, aggiorna la voce nel
-     * database e ricarica i budget dall'origine dati.
+     * Mostra una finestra di input con il valore corrente e le soglie di avviso
+     * della categoria, valida il nuovo limite e le soglie inserite dall'utente e,
+     * se corretti, aggiorna le voci nel database e ricarica i budget dall'origine dati.
+     * Lasciando vuote le soglie si ripristinano quelle predefinite
+     * ({@link BudgetAlertEngine#DEFAULT_THRESHOLDS}).
      *
      * @param categoryId   identificativo numerico della categoria.
      * @param categoryName nome descrittivo della categoria (es. "Alimentari").
      */
     private void editSingleBudget(int categoryId, String categoryName) {
         double currentLimit = 0;
-        for (Budget b : currentBudgets) {
+        for (Budget b : currentBudgets == null ? List.<Budget>of() : currentBudgets) {
             if (b.getCategoryId() == categoryId) {
                 currentLimit = b.getBudgetAmount();
                 break;
@@ -345,6 +371,16 @@ public class BudgetController {
             return change;
         }));
 
+        TextField thresholdsField = new TextField(BudgetAlertEngine.formatThresholds(
+                BudgetAlertEngine.getInstance().getThresholds(currentUserId, categoryId)));
+        thresholdsField.setPromptText("es. 50, 80, 100");
+        GridPane grid = new GridPane();
+        grid.setHgap(10);
+        grid.setVgap(10);
+        grid.addRow(0, new Label("Nuovo limite (€):"), dialog.getEditor());
+        grid.addRow(1, new Label("Soglie di avviso (%):"), thresholdsField);
+        dialog.getDialogPane().setContent(grid);
+
         Optional<String> result = dialog.showAndWait();
 
         result.ifPresent(value -> {
@@ -356,6 +392,16 @@ public class BudgetController {
                     return;
                 }
 
+                String thresholdsText = thresholdsField.getText().trim();
+                int[] thresholds;
+                try {
+                    thresholds = thresholdsText.isEmpty() ? null : BudgetAlertEngine.parseThresholds(thresholdsText);
+                } catch (IllegalArgumentException e) {
+                    showError("Soglie non valide", "Inserisci percentuali positive separate da virgola (es. 50, 80, 100).");
+                    return;
+                }
+
+                budgetDAO.saveThresholds(currentUserId, categoryId, thresholds);
                 budgetDAO.setOrUpdateBudget(currentUserId, categoryId, currentMonth, currentYear, newLimit);
                 refreshBudgetsFromDb();
 
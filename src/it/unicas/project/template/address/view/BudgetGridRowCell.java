@@ -0,0 +1,73 @@
+package it.unicas.project.template.address.view;
+
+import it.unicas.project.template.address.model.Budget;
+import javafx.scene.control.ContentDisplay;
+import javafx.scene.control.ListCell;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Cella riutilizzabile della griglia dei budget: una riga con un numero fisso
+ * di {@link BudgetLimitCard}.
+ * <p>
+ * La {@code ListView} della pagina Budget mantiene soltanto le righe visibili;
+ * durante lo scroll le celle vengono riutilizzate e le card aggiornate in
+ * {@link #updateItem(List, boolean)}, per cui il numero di nodi non dipende
+ * dal numero di categorie.
+ */
+public class BudgetGridRowCell extends ListCell<List<Budget>> {
+
+    private final BudgetLimitCard[] cards;
+    private final HBox row = new HBox(20);
+
+    /**
+     * Crea la cella e le sue card, che verranno poi solo aggiornate.
+     *
+     * @param columns numero di card per riga
+     * @param onEdit  azione invocata con il budget della card di cui si preme la matita
+     */
+    public BudgetGridRowCell(int columns, Consumer<Budget> onEdit) {
+        cards = new BudgetLimitCard[columns];
+        for (int i = 0; i < columns; i++) {
+            cards[i] = new BudgetLimitCard(onEdit);
+            cards[i].setMaxWidth(Double.MAX_VALUE);
+            // Stessa larghezza per tutte le colonne, anche nell'ultima riga incompleta
+            cards[i].setPrefWidth(0);
+            HBox.setHgrow(cards[i], Priority.ALWAYS);
+            row.getChildren().add(cards[i]);
+        }
+
+        setContentDisplay(ContentDisplay.GRAPHIC_ONLY);
+        setStyle("-fx-background-color: transparent; -fx-padding: 0 5 20 5;");
+    }
+
+    /**
+     * Aggiorna le card con i budget della riga, senza ricreare i nodi.
+     *
+     * @param budgets budget della riga, al più uno per colonna
+     * @param empty   {@code true} se la cella non è associata ad alcuna riga
+     */
+    @Override
+    protected void updateItem(List<Budget> budgets, boolean empty) {
+        super.updateItem(budgets, empty);
+
+        if (empty || budgets == null) {
+            setGraphic(null);
+            return;
+        }
+
+        for (int i = 0; i < cards.length; i++) {
+            boolean present = i < budgets.size();
+            if (present) {
+                cards[i].update(budgets.get(i));
+            } else {
+                cards[i].reset();
+            }
+            cards[i].setVisible(present);
+        }
+        setGraphic(row);
+    }
+}
@@ -0,0 +1,203 @@
+package it.unicas.project.template.address.view;
+
+import it.unicas.project.template.address.model.Budget;
+import it.unicas.project.template.address.util.BudgetBurnRate;
+import it.unicas.project.template.address.util.DateUtil;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Circle;
+import javafx.scene.shape.SVGPath;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+
+import java.util.function.Consumer;
+
+/**
+ * Card della pagina Budget con limite, spesa e proiezione di una categoria.
+ * <p>
+ * La card non è legata a una categoria specifica: i nodi vengono creati una
+ * sola volta e {@link #update(Budget)} li aggiorna per il budget ricevuto, così
+ * che le celle della griglia virtualizzata possano riutilizzarla per categorie
+ * diverse durante lo scroll. Il colore dell'icona è scelto in base all'id della
+ * categoria da una tavolozza fissa, per cui una nuova categoria non richiede
+ * modifiche al codice.
+ */
+public class BudgetLimitCard extends VBox {
+
+    /** Coppie sfondo/testo dell'icona di categoria. */
+    private static final String[][] PALETTE = {
+            {"#dcfce7", "#16a34a"},
+            {"#dbeafe", "#2563eb"},
+            {"#fee2e2", "#dc2626"},
+            {"#ffedd5", "#ea580c"},
+            {"#fce7f3", "#db2777"},
+            {"#ede9fe", "#7c3aed"},
+            {"#f1f5f9", "#475569"}
+    };
+
+    private static final String PENCIL = "M16.862 4.487l1.687-1.688a1.875 1.875 0 112.652 2.652L6.832 19.82a4.5 4.5 0 01-1.897 1.13l-2.685.8.8-2.685a4.5 4.5 0 011.13-1.897L16.863 4.487zm0 0L19.5 7.125";
+
+    private final Circle circle = new Circle(24);
+    private final Label initial = new Label();
+    private final Label lblCategory = new Label();
+    private final Label lblRemaining = new Label();
+    private final Label lblPercentage = new Label();
+    private final Label lblSpent = new Label();
+    private final Label lblLimit = new Label();
+    private final ProgressBar progressBar = new ProgressBar(0);
+    private final Label lblProjection = new Label();
+
+    private Budget budget;
+
+    /**
+     * Crea la struttura vuota della card.
+     *
+     * @param onEdit azione invocata con il budget mostrato quando si preme la matita
+     */
+    public BudgetLimitCard(Consumer<Budget> onEdit) {
+        super(15);
+        setPadding(new Insets(25));
+        setStyle("-fx-background-color: white; -fx-background-radius: 12; "
+                + "-fx-effect: dropshadow(three-pass-box, rgba(0,0,0,0.05), 10, 0, 0, 5);");
+
+        initial.setFont(Font.font("System", FontWeight.BOLD, 20));
+        StackPane icon = new StackPane(circle, initial);
+
+        lblCategory.setTextFill(Color.web("#1e293b"));
+        lblCategory.setFont(Font.font("System", FontWeight.BOLD, 18));
+        lblRemaining.setFont(Font.font("System", FontWeight.BOLD, 13));
+        VBox names = new VBox(lblCategory, lblRemaining);
+
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+
+        lblPercentage.setTextFill(Color.web("#94a3b8"));
+        lblPercentage.setFont(Font.font("System", FontWeight.BOLD, 18));
+
+        SVGPath pencil = new SVGPath();
+        pencil.setContent(PENCIL);
+        pencil.setFill(Color.TRANSPARENT);
+        pencil.setStroke(Color.web("#64748b"));
+        pencil.setStrokeWidth(1.5);
+        pencil.setScaleX(0.8);
+        pencil.setScaleY(0.8);
+        Button btnEdit = new Button();
+        btnEdit.setGraphic(pencil);
+        btnEdit.setPadding(new Insets(8));
+        btnEdit.setStyle("-fx-background-color: #f1f5f9; -fx-background-radius: 8; -fx-cursor: hand;");
+        btnEdit.setOnAction(e -> {
+            if (budget != null) onEdit.accept(budget);
+        });
+
+        HBox header = new HBox(15, icon, names, spacer, lblPercentage, btnEdit);
+        header.setAlignment(Pos.CENTER_LEFT);
+
+        lblSpent.setTextFill(Color.web("#64748b"));
+        lblLimit.setTextFill(Color.web("#64748b"));
+        Region amountsSpacer = new Region();
+        HBox.setHgrow(amountsSpacer, Priority.ALWAYS);
+        HBox amounts = new HBox(lblSpent, amountsSpacer, lblLimit);
+
+        progressBar.setMaxWidth(Double.MAX_VALUE);
+        lblProjection.setFont(Font.font("System", 12));
+
+        getChildren().addAll(header, new VBox(5, amounts, progressBar, lblProjection));
+        reset();
+    }
+
+    /**
+     * Reimposta la card a uno stato iniziale (vuoto).
+     */
+    public void reset() {
+        budget = null;
+        lblRemaining.setText("Rimasti: € 0.00");
+        lblSpent.setText("Spesi: € 0.00");
+        lblLimit.setText("Limite: € 0.00");
+        lblPercentage.setText("0%");
+        progressBar.setProgress(0);
+        progressBar.setStyle(barStyle("#10b981"));
+        lblProjection.setText("");
+    }
+
+    /**
+     * Aggiorna la card con i dati del budget, senza ricreare i nodi.
+     * <p>
+     * Imposta testi (speso, limite, rimanente, percentuale) e la barra di
+     * avanzamento, scegliendo il colore in base al rapporto tra spesa e limite
+     * (verde, giallo o rosso), e mostra la proiezione a fine mese.
+     *
+     * @param b budget da mostrare
+     */
+    public void update(Budget b) {
+        budget = b;
+        String[] colors = PALETTE[Math.floorMod(b.getCategoryId() - 1, PALETTE.length)];
+        circle.setFill(Color.web(colors[0]));
+        String name = b.getCategoryName() == null ? "" : b.getCategoryName();
+        initial.setText(name.isEmpty() ? "?" : name.substring(0, 1).toUpperCase());
+        initial.setTextFill(Color.web(colors[1]));
+        lblCategory.setText(name);
+        lblRemaining.setTextFill(Color.web(colors[1]));
+
+        double ratio = b.getProgress();
+        lblSpent.setText(String.format("Spesi: € %.2f", b.getSpentAmount()));
+        lblLimit.setText(String.format("Limite: € %.2f", b.getBudgetAmount()));
+        lblRemaining.setText(String.format("Rimasti: € %.2f", Math.max(0, b.getRemaining())));
+        lblPercentage.setText(String.format("%.0f%%", ratio * 100.0));
+
+        progressBar.setProgress(Math.max(0.0, Math.min(1.0, ratio)));
+        String color;
+        if (ratio < 0.75) color = "#10b981";
+        else if (ratio <= 1.0) color = "#f59e0b";
+        else color = "#ef4444";
+        progressBar.setStyle(barStyle(color));
+
+        showProjection(b);
+    }
+
+    /**
+     * Mostra la proiezione a fine mese del budget.
+     * <p>
+     * Se il limite verrebbe superato entro fine mese al ritmo di spesa attuale,
+     * la label riporta anche la data prevista ed è evidenziata come avviso.
+     */
+    private void showProjection(Budget b) {
+        if (!b.hasProjection() || b.getBudgetAmount() <= 0 || b.getRemaining() < 0) {
+            lblProjection.setText("");
+            return;
+        }
+        if (BudgetBurnRate.isProjectedToExceed(b)) {
+            lblProjection.setText(String.format("Ritmo € %.2f/giorno · a fine mese € %.2f · superamento previsto il %s",
+                    b.getDailyBurnRate(), b.getProjectedAmount(),
+                    DateUtil.format(b.getProjectedExceedDate())));
+            lblProjection.setStyle("-fx-text-fill: #ea580c; -fx-font-weight: bold;");
+        } else {
+            lblProjection.setText(String.format("Ritmo € %.2f/giorno · a fine mese € %.2f",
+                    b.getDailyBurnRate(), b.getProjectedAmount()));
+            lblProjection.setStyle("-fx-text-fill: #94a3b8;");
+        }
+    }
+
+    private static String barStyle(String accent) {
+        return "-fx-accent: " + accent + "; -fx-control-inner-background: #e2e8f0; -fx-text-box-border: transparent;";
+    }
+
+    /** @return budget attualmente mostrato, {@code null} se la card è vuota */
+    public Budget getBudget() { return budget; }
+
+    public String getCategoryText() { return lblCategory.getText(); }
+    public String getRemainingText() { return lblRemaining.getText(); }
+    public String getPercentageText() { return lblPercentage.getText(); }
+    public String getSpentText() { return lblSpent.getText(); }
+    public String getLimitText() { return lblLimit.getText(); }
+    public double getProgress() { return progressBar.getProgress(); }
+    public String getProjectionText() { return lblProjection.getText(); }
+}
@@ -0,0 +1,343 @@
+package it.unicas.project.template.address.view;
+
+import it.unicas.project.template.address.util.BudgetAlertEngine.ThresholdCrossing;
+import it.unicas.project.template.address.util.BudgetNotificationPreferences;
+import it.unicas.project.template.address.util.DateUtil;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.css.PseudoClass;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.VBox;
+import javafx.stage.Popup;
+import javafx.stage.Window;
+import javafx.util.Duration;
+
+import java.time.YearMonth;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Centro notifiche non modale per gli avvisi di budget.
+ * <p>
+ * Gli avvisi vengono mostrati come piccole notifiche ("toast") impilate in basso
+ * a destra della finestra principale e si chiudono da sole dopo qualche secondo,
+ * senza bloccare l'operazione che li ha generati:
+ * <ul>
+ *     <li><b>coda</b>: sono visibili al più {@value #MAX_VISIBLE} notifiche; le altre
+ *         attendono in coda (con un'indicazione del loro numero) e vengono mostrate
+ *         man mano che le precedenti si chiudono;</li>
+ *     <li><b>deduplicazione</b>: per ogni utente, mese e categoria esiste al più una
+ *         notifica, visibile o in coda; un avviso per una soglia più alta aggiorna
+ *         quella esistente invece di aggiungerne una nuova;</li>
+ *     <li><b>raggruppamento</b>: gli avvisi ricevuti nello stesso ciclo del thread
+ *         JavaFX (ad esempio da un'operazione su più movimenti) vengono
+ *         visualizzati con un solo aggiornamento della scena;</li>
+ *     <li><b>riuso dei nodi</b>: le notifiche chiuse tornano in un pool e vengono
+ *         riutilizzate, così che i nodi vengano creati al più {@value #MAX_VISIBLE} volte.</li>
+ * </ul>
+ * Gli avvisi anticipati ({@link ThresholdCrossing#isProjection()}, superamento previsto
+ * entro fine mese) hanno soglia 0 e vengono quindi sostituiti da qualunque soglia
+ * attraversata per la stessa categoria.
+ * <p>
+ * Colori e stato (avviso, budget superato) sono definiti in {@code css/budget-toast.css}.
+ * <p>
+ * Finché non viene collegata una finestra con {@link #attach(Window)} le notifiche
+ * vengono gestite normalmente ma non sono visualizzate.
+ */
+public class BudgetToastCenter {
+
+    /** Numero massimo di notifiche visibili contemporaneamente. */
+    public static final int MAX_VISIBLE = 3;
+
+    /** Durata di visualizzazione di una notifica. */
+    private static final Duration DISPLAY_TIME = Duration.seconds(6);
+
+    /** Distanza delle notifiche dal bordo della finestra. */
+    private static final double MARGIN = 20;
+
+    /** Budget raggiunto o superato. */
+    private static final PseudoClass OVER = PseudoClass.getPseudoClass("over");
+
+    private static BudgetToastCenter instance;
+
+    private final VBox container = new VBox(8);
+    private final Label lblMore = new Label();
+    private final Popup popup = new Popup();
+
+    /** Notifiche visibili, per chiave utente/mese/categoria. */
+    private final Map<String, Toast> visible = new LinkedHashMap<>();
+    /** Avvisi in attesa, per chiave utente/mese/categoria, in ordine di arrivo. */
+    private final Map<String, ThresholdCrossing> queued = new LinkedHashMap<>();
+    /** Notifiche chiuse, pronte per essere riutilizzate. */
+    private final Deque<Toast> pool = new ArrayDeque<>();
+
+    private Window owner;
+    private boolean drainScheduled;
+
+    private BudgetToastCenter() {
+        container.getStyleClass().add("budget-toast-center");
+        container.setPrefWidth(340);
+        container.setFillWidth(true);
+        container.getStylesheets().add(
+                Objects.requireNonNull(getClass().getResource("css/budget-toast.css")).toExternalForm());
+        lblMore.getStyleClass().add("budget-toast-more");
+        popup.getContent().add(container);
+        popup.setAutoHide(false);
+    }
+
+    /**
+     * @return istanza condivisa del centro notifiche
+     */
+    public static synchronized BudgetToastCenter getInstance() {
+        if (instance == null) {
+            instance = new BudgetToastCenter();
+        }
+        return instance;
+    }
+
+    /**
+     * Sostituisce l'istanza condivisa con una nuova, vuota. Pensato per i test.
+     */
+    public static synchronized void resetForTesting() {
+        if (instance != null) {
+            instance.popup.hide();
+        }
+        instance = null;
+    }
+
+    /**
+     * Collega il centro notifiche alla finestra in cui mostrare le notifiche.
+     *
+     * @param owner finestra principale dell'applicazione
+     */
+    public void attach(Window owner) {
+        this.owner = owner;
+        refresh();
+    }
+
+    /**
+     * Accoda gli avvisi indicati. Può essere invocato da qualunque thread:
+     * la visualizzazione avviene sul thread JavaFX, senza attendere l'utente.
+     *
+     * @param crossings soglie attraversate da notificare
+     */
+    public void post(List<ThresholdCrossing> crossings) {
+        if (crossings == null || crossings.isEmpty()) {
+            return;
+        }
+        if (!Platform.isFxApplicationThread()) {
+            List<ThresholdCrossing> copy = new ArrayList<>(crossings);
+            Platform.runLater(() -> post(copy));
+            return;
+        }
+
+        for (ThresholdCrossing crossing : crossings) {
+            String key = keyOf(crossing);
+            Toast shown = visible.get(key);
+            if (shown != null) {
+                // Già visibile: aggiorna la notifica se la soglia è più alta
+                if (crossing.getThreshold() > shown.crossing.getThreshold()) {
+                    shown.show(crossing);
+                }
+                continue;
+            }
+            queued.merge(key, crossing, (a, b) -> b.getThreshold() > a.getThreshold() ? b : a);
+        }
+
+        if (!drainScheduled) {
+            drainScheduled = true;
+            Platform.runLater(this::drain);
+        }
+    }
+
+    /**
+     * @return numero di notifiche visibili
+     */
+    public int getVisibleCount() {
+        return visible.size();
+    }
+
+    /**
+     * @return numero di avvisi in attesa di essere mostrati
+     */
+    public int getQueuedCount() {
+        return queued.size();
+    }
+
+    /**
+     * @return testi delle notifiche visibili, dall'alto verso il basso
+     */
+    public List<String> getVisibleMessages() {
+        List<String> messages = new ArrayList<>();
+        for (Toast toast : visible.values()) {
+            messages.add(toast.lblMessage.getText());
+        }
+        return messages;
+    }
+
+    /**
+     * Chiude tutte le notifiche visibili, mostrando quelle in coda. Pensato per i test.
+     */
+    public void closeAll() {
+        for (Toast toast : new ArrayList<>(visible.values())) {
+            close(toast);
+        }
+    }
+
+    /**
+     * Mostra gli avvisi in coda fino a riempire i posti disponibili.
+     */
+    private void drain() {
+        drainScheduled = false;
+        Iterator<Map.Entry<String, ThresholdCrossing>> it = queued.entrySet().iterator();
+        while (visible.size() < MAX_VISIBLE && it.hasNext()) {
+            Map.Entry<String, ThresholdCrossing> next = it.next();
+            it.remove();
+
+            Toast toast = pool.isEmpty() ? new Toast() : pool.pop();
+            toast.show(next.getValue());
+            visible.put(next.getKey(), toast);
+            container.getChildren().add(container.getChildren().size() - (lblMore.getParent() == null ? 0 : 1), toast);
+        }
+        refresh();
+    }
+
+    /**
+     * Chiude una notifica, la restituisce al pool e mostra il prossimo avviso in coda.
+     * <p>
+     * Una chiusura tardiva (timer o pulsante di una notifica già tornata nel pool)
+     * viene ignorata: la voce della chiave viene rimossa solo se appartiene ancora
+     * a questa notifica, così da non chiudere quella che nel frattempo l'ha sostituita.
+     */
+    private void close(Toast toast) {
+        if (!toast.active || !visible.remove(keyOf(toast.crossing), toast)) {
+            return;
+        }
+        toast.active = false;
+        toast.timer.stop();
+        container.getChildren().remove(toast);
+        pool.push(toast);
+        drain();
+    }
+
+    /**
+     * Aggiorna l'indicazione degli avvisi in coda e la visibilità e posizione della finestra.
+     */
+    private void refresh() {
+        if (queued.isEmpty()) {
+            container.getChildren().remove(lblMore);
+        } else {
+            lblMore.setText("+" + queued.size() + (queued.size() == 1 ? " altro avviso" : " altri avvisi"));
+            if (lblMore.getParent() == null) {
+                container.getChildren().add(lblMore);
+            }
+        }
+
+        if (owner == null || !owner.isShowing() || visible.isEmpty()) {
+            popup.hide();
+            return;
+        }
+        if (!popup.isShowing()) {
+            popup.show(owner);
+        }
+        container.applyCss();
+        container.layout();
+        popup.setX(owner.getX() + owner.getWidth() - container.getPrefWidth() - MARGIN);
+        popup.setY(owner.getY() + owner.getHeight() - container.prefHeight(container.getPrefWidth()) - MARGIN);
+    }
+
+    private static String keyOf(ThresholdCrossing c) {
+        return c.getUserId() + ":" + c.getMonth() + ":" + c.getCategoryId();
+    }
+
+    /**
+     * Singola notifica: titolo, messaggio, pulsante di chiusura e, per i budget
+     * superati, l'opzione "Non mostrare più". I nodi sono creati una sola volta
+     * e riutilizzati per avvisi diversi.
+     */
+    private final class Toast extends VBox {
+        private final Label lblTitle = new Label();
+        private final Label lblMessage = new Label();
+        private final Button btnClose = new Button("✕");
+        private final Button btnDismiss = new Button("Non mostrare più");
+        private final PauseTransition timer = new PauseTransition(DISPLAY_TIME);
+        private ThresholdCrossing crossing;
+        /** {@code true} finché la notifica è visibile, {@code false} quando è nel pool. */
+        private boolean active;
+
+        private Toast() {
+            super(6);
+            getStyleClass().add("budget-toast");
+            lblTitle.getStyleClass().add("budget-toast-title");
+            lblMessage.getStyleClass().add("budget-toast-message");
+            lblMessage.setWrapText(true);
+            btnClose.getStyleClass().add("budget-toast-close");
+            btnDismiss.getStyleClass().add("budget-toast-dismiss");
+
+            Region spacer = new Region();
+            HBox.setHgrow(spacer, Priority.ALWAYS);
+            HBox header = new HBox(lblTitle, spacer, btnClose);
+            header.setAlignment(Pos.CENTER_LEFT);
+
+            HBox actions = new HBox(btnDismiss);
+            actions.setAlignment(Pos.CENTER_RIGHT);
+
+            getChildren().addAll(header, lblMessage, actions);
+
+            btnClose.setOnAction(e -> close(this));
+            btnDismiss.setOnAction(e -> {
+                YearMonth month = crossing.getMonth();
+                BudgetNotificationPreferences.getInstance().dismissNotification(
+                        crossing.getUserId(), month, crossing.getCategoryId(), crossing.getBudgetAmount());
+                close(this);
+            });
+            timer.setOnFinished(e -> close(this));
+            setOnMouseEntered(e -> {
+                if (active) {
+                    timer.pause();
+                }
+            });
+            setOnMouseExited(e -> {
+                if (active) {
+                    timer.play();
+                }
+            });
+        }
+
+        /**
+         * Mostra l'avviso indicato e riavvia il timer di chiusura.
+         */
+        private void show(ThresholdCrossing c) {
+            crossing = c;
+            active = true;
+            boolean exceeded = c.isExceeded();
+            if (c.isProjection()) {
+                lblTitle.setText("Superamento previsto: " + c.getCategoryName());
+                lblMessage.setText(String.format("Speso €%.2f su €%.2f · al ritmo attuale il limite sarà superato il %s",
+                        c.getSpentAmount(), c.getBudgetAmount(), DateUtil.format(c.getProjectedExceedDate())));
+            } else {
+                lblTitle.setText(exceeded ? "Budget superato: " + c.getCategoryName()
+                        : "Budget al " + c.getThreshold() + "%: " + c.getCategoryName());
+                lblMessage.setText(String.format("Speso €%.2f su €%.2f · %s €%.2f",
+                        c.getSpentAmount(), c.getBudgetAmount(),
+                        exceeded ? "superato di" : "restano",
+                        Math.abs(c.getBudgetAmount() - c.getSpentAmount())));
+            }
+            btnDismiss.setVisible(exceeded);
+            btnDismiss.setManaged(exceeded);
+            pseudoClassStateChanged(OVER, exceeded);
+            timer.playFromStart();
+        }
+    }
+}
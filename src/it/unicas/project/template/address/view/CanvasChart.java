@@ -0,0 +1,501 @@
+package it.unicas.project.template.address.view;
+
+import it.unicas.project.template.address.util.LttbDownsampler;
+import javafx.geometry.Point2D;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.Tooltip;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+import javafx.util.Duration;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * Grafico disegnato interamente su un {@link Canvas}, pensato per serie con
+ * molti punti (decine di migliaia).
+ * <p>
+ * A differenza dei grafici standard di JavaFX ({@code BarChart}, {@link SmoothAreaChart},
+ * {@code PieChart}), che creano un nodo per ogni punto più eventuali tooltip e aree
+ * di hover, questo componente usa un numero fisso di nodi (un canvas e un tooltip)
+ * e disegna direttamente a partire da array primitivi. Supporta tre modalità:
+ * <ul>
+ *     <li>{@link Mode#BAR}: barre affiancate per una o più serie; se le categorie sono
+ *         più dei pixel disponibili, ogni colonna di pixel mostra il massimo del suo intervallo;</li>
+ *     <li>{@link Mode#AREA}: area smussata (Catmull-Rom), ridotta con LTTB a circa un
+ *         punto ogni 2 pixel prima del disegno;</li>
+ *     <li>{@link Mode#PIE}: grafico a torta.</li>
+ * </ul>
+ * I tooltip sono gestiti con un hit-test sulle coordinate del mouse e mostrano
+ * sempre i valori originali, non quelli ridotti.
+ * <p>
+ * Il ridisegno avviene solo quando cambiano i dati o le dimensioni; il movimento
+ * del mouse aggiorna soltanto il testo e la posizione del tooltip.
+ */
+public class CanvasChart extends Region {
+
+    /** Modalità di rappresentazione dei dati. */
+    public enum Mode {
+        /** Barre affiancate. */
+        BAR,
+        /** Area smussata. */
+        AREA,
+        /** Torta. */
+        PIE
+    }
+
+    private static final double PADDING_LEFT = 60;
+    private static final double PADDING_RIGHT = 15;
+    private static final double PADDING_TOP = 10;
+    private static final double PADDING_BOTTOM = 28;
+    private static final int Y_TICKS = 5;
+    private static final double PIXELS_PER_POINT = 2.0;
+    private static final Color GRID_COLOR = Color.web("#e2e8f0");
+    private static final Color TEXT_COLOR = Color.web("#64748b");
+    private static final Color[] DEFAULT_COLORS = {
+            Color.web("#10b981"), Color.web("#ef4444"), Color.web("#6366f1"),
+            Color.web("#f59e0b"), Color.web("#3b82f6"), Color.web("#ec4899"),
+            Color.web("#14b8a6"), Color.web("#8b5cf6")
+    };
+
+    private final Canvas canvas = new Canvas();
+    private final Tooltip tooltip = new Tooltip();
+
+    private Mode mode = Mode.AREA;
+    private double[][] series = new double[0][];
+    private String[] seriesNames = new String[0];
+    private Color[] colors = DEFAULT_COLORS;
+    private IntFunction<String> labelProvider = i -> String.valueOf(i + 1);
+
+    /** Geometria dell'ultimo disegno, usata dall'hit-test. */
+    private double plotLeft;
+    private double plotTop;
+    private double plotWidth;
+    private double plotHeight;
+    private double pieCenterX;
+    private double pieCenterY;
+    private double pieRadius;
+    private double[] pieCumulative = new double[0];
+    private int lastHitIndex = -1;
+
+    /**
+     * Crea un grafico vuoto in modalità {@link Mode#AREA}.
+     */
+    public CanvasChart() {
+        getChildren().add(canvas);
+        getStyleClass().add("canvas-chart");
+        tooltip.setShowDelay(Duration.ZERO);
+        tooltip.setStyle("-fx-font-size: 13px; -fx-padding: 8px;");
+        setOnMouseMoved(this::handleMouseMoved);
+        setOnMouseExited(e -> hideTooltip());
+    }
+
+    /**
+     * Imposta una o più serie da disegnare come barre affiancate.
+     *
+     * @param names  nomi delle serie (mostrati nel tooltip)
+     * @param labels etichetta della categoria di indice i
+     * @param values valori delle serie, tutte della stessa lunghezza
+     */
+    public void setBarData(String[] names, IntFunction<String> labels, double[]... values) {
+        setSeriesData(Mode.BAR, names, labels, values);
+    }
+
+    /**
+     * Imposta una o più serie da disegnare come aree smussate.
+     *
+     * @param names  nomi delle serie (mostrati nel tooltip)
+     * @param labels etichetta del punto di indice i
+     * @param values valori delle serie, tutte della stessa lunghezza
+     */
+    public void setAreaData(String[] names, IntFunction<String> labels, double[]... values) {
+        setSeriesData(Mode.AREA, names, labels, values);
+    }
+
+    /**
+     * Imposta i dati da disegnare come grafico a torta.
+     *
+     * @param names  nomi delle fette
+     * @param values valori (non negativi) delle fette
+     */
+    public void setPieData(String[] names, double[] values) {
+        this.mode = Mode.PIE;
+        this.series = new double[][]{values.clone()};
+        this.seriesNames = names.clone();
+        this.labelProvider = i -> i < seriesNames.length ? seriesNames[i] : "";
+        redraw();
+    }
+
+    /**
+     * Imposta la palette di colori usata per serie o fette, nell'ordine.
+     *
+     * @param colors colori da usare (ciclici se meno delle serie)
+     */
+    public void setColors(Color... colors) {
+        this.colors = colors.length == 0 ? DEFAULT_COLORS : colors.clone();
+        redraw();
+    }
+
+    /**
+     * Rimuove tutti i dati dal grafico.
+     */
+    public void clear() {
+        this.series = new double[0][];
+        this.seriesNames = new String[0];
+        redraw();
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * @return numero di punti (o categorie, o fette) della prima serie
+     */
+    public int getPointCount() {
+        return series.length == 0 ? 0 : series[0].length;
+    }
+
+    private void setSeriesData(Mode mode, String[] names, IntFunction<String> labels, double[]... values) {
+        int n = values.length == 0 ? 0 : values[0].length;
+        for (double[] v : values) {
+            if (v.length != n) {
+                throw new IllegalArgumentException("Tutte le serie devono avere la stessa lunghezza");
+            }
+        }
+        this.mode = mode;
+        this.series = values.clone();
+        this.seriesNames = names.clone();
+        this.labelProvider = labels != null ? labels : i -> String.valueOf(i + 1);
+        redraw();
+    }
+
+    @Override
+    protected void layoutChildren() {
+        double w = snapSizeX(getWidth());
+        double h = snapSizeY(getHeight());
+        if (canvas.getWidth() != w || canvas.getHeight() != h) {
+            canvas.setWidth(w);
+            canvas.setHeight(h);
+            redraw();
+        }
+    }
+
+    @Override
+    protected double computePrefWidth(double height) {
+        return 480;
+    }
+
+    @Override
+    protected double computePrefHeight(double width) {
+        return 320;
+    }
+
+    /**
+     * Ridisegna completamente il canvas con i dati e le dimensioni correnti.
+     */
+    private void redraw() {
+        GraphicsContext g = canvas.getGraphicsContext2D();
+        double w = canvas.getWidth();
+        double h = canvas.getHeight();
+        g.clearRect(0, 0, w, h);
+        lastHitIndex = -1;
+
+        if (getPointCount() == 0 || w <= PADDING_LEFT + PADDING_RIGHT || h <= PADDING_TOP + PADDING_BOTTOM) {
+            return;
+        }
+
+        if (mode == Mode.PIE) {
+            drawPie(g, w, h);
+            return;
+        }
+
+        plotLeft = PADDING_LEFT;
+        plotTop = PADDING_TOP;
+        plotWidth = w - PADDING_LEFT - PADDING_RIGHT;
+        plotHeight = h - PADDING_TOP - PADDING_BOTTOM;
+
+        double[] range = valueRange();
+        drawAxes(g, range[0], range[1]);
+        if (mode == Mode.BAR) {
+            drawBars(g, range[0], range[1]);
+        } else {
+            drawAreas(g, range[0], range[1]);
+        }
+    }
+
+    /**
+     * Calcola il range dei valori (sempre comprensivo dello zero) con un margine del 10%.
+     */
+    private double[] valueRange() {
+        double min = 0;
+        double max = 0;
+        for (double[] values : series) {
+            for (double v : values) {
+                if (v < min) min = v;
+                if (v > max) max = v;
+            }
+        }
+        double span = max - min;
+        if (span == 0) {
+            span = 10;
+        }
+        return new double[]{min < 0 ? min - span * 0.1 : 0, max + span * 0.1};
+    }
+
+    private double toY(double value, double min, double max) {
+        return plotTop + (max - value) / (max - min) * plotHeight;
+    }
+
+    private void drawAxes(GraphicsContext g, double min, double max) {
+        g.setFont(Font.font(11));
+        g.setLineWidth(1);
+        g.setTextBaseline(VPos.CENTER);
+        g.setTextAlign(TextAlignment.RIGHT);
+        for (int i = 0; i <= Y_TICKS; i++) {
+            double value = min + (max - min) * i / Y_TICKS;
+            double y = snap(toY(value, min, max));
+            g.setStroke(GRID_COLOR);
+            g.strokeLine(plotLeft, y, plotLeft + plotWidth, y);
+            g.setFill(TEXT_COLOR);
+            g.fillText(String.format("%.0f", value), plotLeft - 6, y);
+        }
+
+        // Etichette X: al massimo una ogni 80 pixel
+        int n = getPointCount();
+        int maxLabels = Math.max(1, (int) (plotWidth / 80));
+        int step = Math.max(1, (int) Math.ceil((double) n / maxLabels));
+        g.setTextBaseline(VPos.TOP);
+        g.setTextAlign(TextAlignment.CENTER);
+        g.setFill(TEXT_COLOR);
+        for (int i = 0; i < n; i += step) {
+            g.fillText(labelProvider.apply(i), xCenterOf(i, n), plotTop + plotHeight + 6);
+        }
+    }
+
+    /**
+     * Coordinata X del centro del punto/categoria di indice i.
+     */
+    private double xCenterOf(int i, int n) {
+        if (mode == Mode.BAR) {
+            return plotLeft + (i + 0.5) * plotWidth / n;
+        }
+        return n == 1 ? plotLeft + plotWidth / 2 : plotLeft + i * plotWidth / (n - 1);
+    }
+
+    private void drawBars(GraphicsContext g, double min, double max) {
+        int n = getPointCount();
+        int columns = (int) Math.min(n, Math.max(1, plotWidth));
+        double columnWidth = plotWidth / columns;
+        double barWidth = Math.max(1, columnWidth * 0.8 / series.length);
+        double zeroY = toY(0, min, max);
+
+        for (int c = 0; c < columns; c++) {
+            // Intervallo di categorie rappresentato dalla colonna (1 se n <= pixel)
+            int from = (int) ((long) c * n / columns);
+            int to = (int) ((long) (c + 1) * n / columns);
+            double x0 = plotLeft + c * columnWidth + columnWidth * 0.1;
+
+            for (int s = 0; s < series.length; s++) {
+                double value = series[s][from];
+                for (int i = from + 1; i < to; i++) {
+                    if (Math.abs(series[s][i]) > Math.abs(value)) {
+                        value = series[s][i];
+                    }
+                }
+                double y = toY(value, min, max);
+                g.setFill(colorOf(s));
+                g.fillRect(x0 + s * barWidth, Math.min(y, zeroY), barWidth, Math.abs(zeroY - y));
+            }
+        }
+    }
+
+    private void drawAreas(GraphicsContext g, double min, double max) {
+        int n = getPointCount();
+        double zeroY = toY(0, min, max);
+        double[] xs = new double[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = xCenterOf(i, n);
+        }
+
+        for (int s = 0; s < series.length; s++) {
+            double[] ys = new double[n];
+            for (int i = 0; i < n; i++) {
+                ys[i] = toY(series[s][i], min, max);
+            }
+            int[] kept = LttbDownsampler.select(xs, ys, (int) (plotWidth / PIXELS_PER_POINT));
+
+            Color color = colorOf(s);
+            g.beginPath();
+            g.moveTo(xs[kept[0]], ys[kept[0]]);
+            traceSmooth(g, xs, ys, kept);
+            g.lineTo(xs[kept[kept.length - 1]], zeroY);
+            g.lineTo(xs[kept[0]], zeroY);
+            g.closePath();
+            g.setFill(color.deriveColor(0, 1, 1, 0.25));
+            g.fill();
+
+            g.beginPath();
+            g.moveTo(xs[kept[0]], ys[kept[0]]);
+            traceSmooth(g, xs, ys, kept);
+            g.setStroke(color);
+            g.setLineWidth(2);
+            g.stroke();
+        }
+    }
+
+    /**
+     * Aggiunge al path corrente le curve di Bézier (Catmull-Rom, tensione 0.25)
+     * che passano per i punti selezionati.
+     */
+    private void traceSmooth(GraphicsContext g, double[] xs, double[] ys, int[] kept) {
+        double tension = 0.25;
+        for (int k = 0; k < kept.length - 1; k++) {
+            int i0 = kept[Math.max(k - 1, 0)];
+            int i1 = kept[k];
+            int i2 = kept[k + 1];
+            int i3 = kept[Math.min(k + 2, kept.length - 1)];
+            double cp1x = xs[i1] + (xs[i2] - xs[i0]) * tension;
+            double cp1y = ys[i1] + (ys[i2] - ys[i0]) * tension;
+            double cp2x = xs[i2] - (xs[i3] - xs[i1]) * tension;
+            double cp2y = ys[i2] - (ys[i3] - ys[i1]) * tension;
+            // Vincola i control point per evitare che la curva torni indietro
+            cp1x = Math.min(Math.max(cp1x, xs[i1]), xs[i2]);
+            cp2x = Math.min(Math.max(cp2x, xs[i1]), xs[i2]);
+            g.bezierCurveTo(cp1x, cp1y, cp2x, cp2y, xs[i2], ys[i2]);
+        }
+    }
+
+    private void drawPie(GraphicsContext g, double w, double h) {
+        double[] values = series[0];
+        pieRadius = 0;
+        double total = 0;
+        for (double v : values) {
+            total += Math.max(0, v);
+        }
+        pieCumulative = new double[values.length];
+        if (total <= 0) {
+            return;
+        }
+
+        pieRadius = Math.min(w, h) / 2 - 10;
+        pieCenterX = w / 2;
+        pieCenterY = h / 2;
+
+        double start = 90;
+        double cumulative = 0;
+        for (int i = 0; i < values.length; i++) {
+            double extent = Math.max(0, values[i]) / total * 360;
+            g.setFill(colorOf(i));
+            g.fillArc(pieCenterX - pieRadius, pieCenterY - pieRadius, pieRadius * 2, pieRadius * 2,
+                    start, -extent, javafx.scene.shape.ArcType.ROUND);
+            start -= extent;
+            cumulative += extent;
+            pieCumulative[i] = cumulative;
+        }
+    }
+
+    private Color colorOf(int index) {
+        return colors[index % colors.length];
+    }
+
+    /**
+     * Restituisce l'indice del punto, della categoria o della fetta sotto le
+     * coordinate locali indicate.
+     *
+     * @param x coordinata X locale
+     * @param y coordinata Y locale
+     * @return indice trovato, oppure {@code -1} se il punto è fuori dall'area dati
+     */
+    public int hitTest(double x, double y) {
+        int n = getPointCount();
+        if (n == 0) {
+            return -1;
+        }
+
+        if (mode == Mode.PIE) {
+            double dx = x - pieCenterX;
+            double dy = y - pieCenterY;
+            if (pieRadius <= 0 || dx * dx + dy * dy > pieRadius * pieRadius) {
+                return -1;
+            }
+            // Angolo in senso orario a partire dalle ore 12, come nel disegno
+            double angle = Math.toDegrees(Math.atan2(dx, -dy));
+            if (angle < 0) {
+                angle += 360;
+            }
+            int idx = Arrays.binarySearch(pieCumulative, angle);
+            idx = idx >= 0 ? idx : -idx - 1;
+            return idx < n ? idx : -1;
+        }
+
+        if (x < plotLeft || x > plotLeft + plotWidth || y < plotTop || y > plotTop + plotHeight) {
+            return -1;
+        }
+        if (mode == Mode.BAR) {
+            return Math.min(n - 1, (int) ((x - plotLeft) / plotWidth * n));
+        }
+        return n == 1 ? 0 : (int) Math.round((x - plotLeft) / plotWidth * (n - 1));
+    }
+
+    private void handleMouseMoved(MouseEvent e) {
+        int index = hitTest(e.getX(), e.getY());
+        if (index < 0) {
+            hideTooltip();
+            return;
+        }
+        if (index != lastHitIndex) {
+            tooltip.setText(tooltipText(index));
+            lastHitIndex = index;
+        }
+        Point2D screen = localToScreen(e.getX(), e.getY());
+        if (screen == null || getScene() == null || getScene().getWindow() == null) {
+            return;
+        }
+        if (tooltip.isShowing()) {
+            tooltip.setAnchorX(screen.getX() + 14);
+            tooltip.setAnchorY(screen.getY() + 14);
+        } else {
+            tooltip.show(this, screen.getX() + 14, screen.getY() + 14);
+        }
+    }
+
+    private void hideTooltip() {
+        lastHitIndex = -1;
+        tooltip.hide();
+    }
+
+    /**
+     * Costruisce il testo del tooltip con i valori originali dell'indice indicato.
+     *
+     * @param index indice del punto, categoria o fetta
+     * @return testo del tooltip
+     */
+    public String tooltipText(int index) {
+        if (mode == Mode.PIE) {
+            double total = 0;
+            for (double v : series[0]) {
+                total += Math.max(0, v);
+            }
+            double value = series[0][index];
+            return String.format("%s\n€ %.2f (%.1f%%)", labelProvider.apply(index), value,
+                    total > 0 ? value / total * 100 : 0);
+        }
+
+        StringBuilder text = new StringBuilder(labelProvider.apply(index));
+        for (int s = 0; s < series.length; s++) {
+            String name = s < seriesNames.length ? seriesNames[s] : "Serie " + (s + 1);
+            text.append(String.format("\n%s: € %.2f", name, series[s][index]));
+        }
+        return text.toString();
+    }
+
+    private static double snap(double value) {
+        return Math.floor(value) + 0.5;
+    }
+}
@@ -4,11 +4,17 @@ import it.unicas.project.template.address.MainApp;
 import it.unicas.project.template.address.model.Budget;
 import it.unicas.project.template.address.model.dao.mysql.BudgetDAOMySQLImpl;
 import it.unicas.project.template.address.model.Movimenti;
-import it.unicas.project.template.address.model.dao.mysql.DAOMySQLSettings;
 import it.unicas.project.template.address.model.dao.mysql.MovimentiDAOMySQLImpl;
-import it.unicas.project.template.address.util.ForecastQueryProvider;
 import javafx.animation.*;
+import it.unicas.project.template.address.util.BudgetAlertEngine.ThresholdCrossing;
+import it.unicas.project.template.address.util.BudgetNotificationHelper;
+import it.unicas.project.template.address.util.DateUtil;
 import it.unicas.project.template.address.util.ForecastCalculator;
+import it.unicas.project.template.address.util.ForecastService;
+import it.unicas.project.template.address.util.MonthSnapshotCache;
+import it.unicas.project.template.address.util.MonthSnapshotCache.MonthSnapshot;
+import it.unicas.project.template.address.util.RunningBalanceIndex;
+import it.unicas.project.template.address.util.TimeBucketAggregator;
 import javafx.application.Platform;
 import javafx.beans.value.ChangeListener;
 import javafx.fxml.FXML;
@@ -19,7 +25,7 @@ import javafx.scene.chart.BarChart;
 import javafx.scene.chart.NumberAxis;
 import javafx.scene.chart.XYChart;
 import javafx.scene.control.Label;
-import javafx.scene.control.ProgressBar;
+import javafx.scene.control.ListView;
 import javafx.scene.effect.DropShadow;
 import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
@@ -31,17 +37,20 @@ import javafx.stage.Popup;
 import javafx.util.Duration;
 import java.sql.Connection;
 import java.sql.DriverManager;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.time.format.TextStyle;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 
 /**
@@ -54,6 +63,7 @@ import java.util.Map;
 public class DashboardController {
 
     @FXML private Label lblSaldo;
+    @FXML private Label lblSaldoComplessivo;
     @FXML private Label lblEntrate;
     @FXML private Label lblUscite;
     @FXML private Label lblPrevisione;
@@ -62,10 +72,24 @@ public class DashboardController {
     @FXML private BarChart<String, Number> barChartAndamento;
 
     @FXML private VBox boxUltimiMovimenti;
+    private ListView<Movimenti> listUltimiMovimenti;
     @FXML private GridPane gridBudgetList;
 
+    /** Card dei budget mostrate, indicizzate per id categoria e riutilizzate tra i refresh. */
+    private final Map<Integer, BudgetCard> budgetCards = new HashMap<>();
+
     @FXML private AnchorPane cardPrevisione;
 
+    /** Thread in background per il prefetch dei mesi adiacenti. */
+    private static final ExecutorService PREFETCH_EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "dashboard-prefetch");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /** Istantanee dei mesi già visualizzati o caricati in prefetch. */
+    private final MonthSnapshotCache snapshotCache = new MonthSnapshotCache(MonthSnapshotCache.DEFAULT_CAPACITY);
+
     private MainApp mainApp;
     private MovimentiDAOMySQLImpl movimentiDAO = new MovimentiDAOMySQLImpl();
     private BudgetDAOMySQLImpl budgetDAO = new BudgetDAOMySQLImpl();
@@ -169,8 +193,21 @@ public class DashboardController {
      * <p>
      * Aggiorna saldo, entrate, uscite, previsione, label del mese,
      * lista degli ultimi movimenti, stato dei budget e grafico a barre.
+     * I dati del mese vengono sempre riletti dal database (ad esempio dopo
+     * una modifica ai movimenti); la navigazione tra i mesi passa invece da
+     * {@link #showSelectedMonth(boolean)} con la cache abilitata.
      */
     public void refreshDashboardData() {
+        showSelectedMonth(false);
+    }
+
+    /**
+     * Mostra i dati del mese selezionato, leggendoli dalla cache dei mesi se
+     * richiesto e disponibile, e avvia il prefetch dei mesi adiacenti.
+     *
+     * @param useCache {@code true} per riusare l'istantanea del mese già in cache
+     */
+    private void showSelectedMonth(boolean useCache) {
         if (mainApp == null || mainApp.getLoggedUser() == null) {
             resetLabels("-");
             return;
@@ -179,15 +216,25 @@ public class DashboardController {
         int userId = mainApp.getLoggedUser().getUser_id();
         LocalDate now = LocalDate.now();
         LocalDate selectedDate = LocalDate.of(selectedYear, selectedMonth, 1);
+        YearMonth selectedYearMonth = YearMonth.from(selectedDate);
         try {
-            float totalEntrate = movimentiDAO.getSumByMonth(userId, selectedMonth, selectedYear, "Entrata");
-            float totalUscite = movimentiDAO.getSumByMonth(userId, selectedMonth, selectedYear, "Uscita");
+            MonthSnapshot snapshot = useCache ? snapshotCache.get(userId, selectedYearMonth) : null;
+            if (snapshot == null) {
+                snapshot = loadMonthSnapshot(userId, selectedYearMonth);
+                if (snapshot.getBudgets() != null) {
+                    snapshotCache.put(snapshot);
+                }
+            }
+
+            float totalEntrate = snapshot.getEntrate();
+            float totalUscite = snapshot.getUscite();
             float saldo = totalEntrate - totalUscite;
 
             lblEntrate.setText(String.format("€ %.2f", totalEntrate));
             lblUscite.setText(String.format("€ %.2f", totalUscite));
             lblSaldo.setText(String.format("€ %.2f", saldo));
             lblSaldo.setStyle(saldo >= 0 ? "-fx-text-fill: #10b981;" : "-fx-text-fill: #ef4444;");
+            updateSaldoComplessivo(userId, selectedDate);
 
             // Calcola la previsione solo se è il mese corrente
             boolean isCurrentMonth = (selectedMonth == now.getMonthValue() && selectedYear == now.getYear());
@@ -204,12 +251,17 @@ public class DashboardController {
                 lblMeseCorrente.setText(nomeMese.substring(0, 1).toUpperCase() + nomeMese.substring(1) + " " + selectedYear);
             }
 
-            List<Movimenti> monthlyMovements = movimentiDAO.selectByUserAndMonthYear(userId, selectedMonth, selectedYear);
+            List<Movimenti> monthlyMovements = snapshot.getMovements();
             populateRecentMovements(monthlyMovements);
 
-            populateBudgetStatus(userId, selectedMonth, selectedYear);
+            populateBudgetStatus(snapshot.getBudgets());
+            if (isCurrentMonth) {
+                notifyProjectedOverruns(snapshot.getBudgets());
+            }
+
+            populateBarChart(monthlyMovements, selectedMonth, selectedYear);
 
-            populateBarChart(userId, selectedMonth, selectedYear);
+            prefetchAdjacentMonths(userId, selectedYearMonth);
 
         } catch (Exception e) {
             e.printStackTrace();
@@ -217,9 +269,105 @@ public class DashboardController {
         }
     }
 
+    /**
+     * Legge dal database i dati di un mese: totali di entrate e uscite,
+     * movimenti e budget, con la proiezione a fine mese di ciascun budget.
+     * <p>
+     * Un errore nel caricamento dei budget non interrompe il caricamento:
+     * l'istantanea riporta budget {@code null} e non viene messa in cache.
+     * Un errore nel calcolo della proiezione lascia i budget senza proiezione.
+     *
+     * @param userId identificativo dell'utente.
+     * @param month  mese da caricare.
+     * @return istantanea del mese, con la versione dei dati letta prima delle query.
+     * @throws SQLException se fallisce il caricamento di totali o movimenti.
+     */
+    private MonthSnapshot loadMonthSnapshot(int userId, YearMonth month) throws SQLException {
+        long version = MonthSnapshotCache.currentVersion();
+        int m = month.getMonthValue();
+        int y = month.getYear();
+
+        float totalEntrate = movimentiDAO.getSumByMonth(userId, m, y, "Entrata");
+        float totalUscite = movimentiDAO.getSumByMonth(userId, m, y, "Uscita");
+        List<Movimenti> movements = movimentiDAO.selectByUserAndMonthYear(userId, m, y);
+
+        List<Budget> budgets;
+        try {
+            budgets = budgetDAO.getBudgetsForMonth(userId, m, y);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            budgets = null;
+        }
+        if (budgets != null) {
+            try {
+                budgetDAO.applyBurnRates(userId, budgets, LocalDate.now());
+            } catch (SQLException e) {
+                // Le card vengono mostrate comunque, senza proiezione
+                e.printStackTrace();
+            }
+        }
+
+        return new MonthSnapshot(userId, month, LocalDate.now(), totalEntrate, totalUscite, movements, budgets, version);
+    }
+
+    /**
+     * Carica in background i mesi precedente e successivo a quello mostrato,
+     * se non sono già in cache, così che la navigazione risulti immediata.
+     * <p>
+     * Gli errori vengono ignorati: se il prefetch fallisce il mese verrà
+     * semplicemente caricato in modo sincrono alla navigazione.
+     *
+     * @param userId identificativo dell'utente.
+     * @param month  mese attualmente mostrato.
+     */
+    private void prefetchAdjacentMonths(int userId, YearMonth month) {
+        for (YearMonth adjacent : new YearMonth[]{month.minusMonths(1), month.plusMonths(1)}) {
+            if (snapshotCache.contains(userId, adjacent)) {
+                continue;
+            }
+            PREFETCH_EXECUTOR.execute(() -> {
+                if (snapshotCache.contains(userId, adjacent)) {
+                    return;
+                }
+                try {
+                    MonthSnapshot snapshot = loadMonthSnapshot(userId, adjacent);
+                    if (snapshot.getBudgets() != null) {
+                        snapshotCache.put(snapshot);
+                    }
+                } catch (Exception e) {
+                    // Prefetch facoltativo: il mese verrà caricato alla navigazione
+                }
+            });
+        }
+    }
+
+    /**
+     * Mostra sotto il saldo del mese il saldo complessivo dell'utente
+     * a fine mese selezionato (o ad oggi, per il mese corrente).
+     * <p>
+     * Il valore è una somma di prefisso sull'indice del saldo progressivo;
+     * se l'indice non è disponibile la label resta vuota.
+     *
+     * @param userId       identificativo dell'utente.
+     * @param selectedDate primo giorno del mese selezionato.
+     */
+    private void updateSaldoComplessivo(int userId, LocalDate selectedDate) {
+        if (lblSaldoComplessivo == null) return;
+        try {
+            RunningBalanceIndex index = movimentiDAO.getBalanceIndex(userId);
+            LocalDate fineMese = selectedDate.withDayOfMonth(selectedDate.lengthOfMonth());
+            LocalDate riferimento = fineMese.isAfter(LocalDate.now()) ? LocalDate.now() : fineMese;
+            double saldoComplessivo = index.balanceAt(riferimento);
+            lblSaldoComplessivo.setText(String.format("Saldo complessivo al %s: € %.2f",
+                    DateUtil.format(riferimento), saldoComplessivo));
+        } catch (SQLException e) {
+            lblSaldoComplessivo.setText("");
+        }
+    }
+
     /**
      * Passa al mese precedente rispetto a quello attualmente selezionato
-     * e ricarica i dati della dashboard.
+     * e ne mostra i dati, dalla cache dei mesi se disponibili.
      */
     @FXML
     private void handlePreviousMonth() {
@@ -228,12 +376,12 @@ public class DashboardController {
             selectedMonth = 12;
             selectedYear--;
         }
-        refreshDashboardData();
+        showSelectedMonth(true);
     }
 
     /**
      * Passa al mese successivo rispetto a quello attualmente selezionato
-     * e ricarica i dati della dashboard.
+     * e ne mostra i dati, dalla cache dei mesi se disponibili.
      */
     @FXML
     private void handleNextMonth() {
@@ -242,23 +390,23 @@ public class DashboardController {
             selectedMonth = 1;
             selectedYear++;
         }
-        refreshDashboardData();
+        showSelectedMonth(true);
     }
 
     /**
      * Popola il grafico a barre con l'andamento di entrate e uscite
      * per il mese indicato, raggruppando i giorni in 10 periodi.
      * <p>
-     * Calcola i valori giornalieri dal database, li aggrega per periodo,
-     * imposta i dati nel BarChart, configura l'asse Y e avvia
-     * l'animazione personalizzata delle barre e i tooltip combinati.
+     * Aggrega in un'unica passata i movimenti del mese già caricati tramite
+     * {@link TimeBucketAggregator#threeDayPeriodsOf(YearMonth)}, imposta i dati
+     * nel BarChart, configura l'asse Y e avvia l'animazione personalizzata
+     * delle barre e i tooltip combinati.
      *
-     * @param userId identificativo dell'utente.
-     * @param month  mese di riferimento (1-12).
-     * @param year   anno di riferimento.
-     * @throws SQLException se si verifica un errore durante la lettura dal database.
+     * @param monthlyMovements movimenti del mese selezionato.
+     * @param month            mese di riferimento (1-12).
+     * @param year             anno di riferimento.
      */
-    private void populateBarChart(int userId, int month, int year) throws SQLException {
+    private void populateBarChart(List<Movimenti> monthlyMovements, int month, int year) {
         barChartAndamento.getData().clear();
         periodData.clear();
 
@@ -271,64 +419,22 @@ public class DashboardController {
         XYChart.Series<String, Number> seriesUscite = new XYChart.Series<>();
         seriesUscite.setName("Uscite");
 
-        LocalDate firstDay = LocalDate.of(year, month, 1);
-        int daysInMonth = firstDay.lengthOfMonth();
-
-        String query = "SELECT DAY(date) as giorno, " +
-                "SUM(CASE WHEN LOWER(type) IN ('entrata', 'income') THEN amount ELSE 0 END) as entrate, " +
-                "SUM(CASE WHEN LOWER(type) IN ('uscita', 'expense') THEN amount ELSE 0 END) as uscite " +
-                "FROM movements " +
-                "WHERE user_id = ? AND MONTH(date) = ? AND YEAR(date) = ? " +
-                "GROUP BY DAY(date) " +
-                "ORDER BY giorno";
-
-        float[] entrateGiornaliere = new float[32];
-        float[] usciteGiornaliere = new float[32];
-
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(query)) {
-
-            pstmt.setInt(1, userId);
-            pstmt.setInt(2, month);
-            pstmt.setInt(3, year);
-
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    int giorno = rs.getInt("giorno");
-                    entrateGiornaliere[giorno] = rs.getFloat("entrate");
-                    usciteGiornaliere[giorno] = rs.getFloat("uscite");
-                }
-            }
-        }
+        List<TimeBucketAggregator.Bucket> periodi = TimeBucketAggregator
+                .threeDayPeriodsOf(YearMonth.of(year, month))
+                .addAll(monthlyMovements)
+                .buckets();
 
         // Array per memorizzare i valori finali per l'animazione
-        float[] entrateFinali = new float[10];
-        float[] usciteFinali = new float[10];
-        String[] labels = new String[10];
-
-        for (int periodo = 0; periodo < 10; periodo++) {
-            int giornoInizio = periodo * 3 + 1;
-            int giornoFine = Math.min(giornoInizio + 2, daysInMonth);
-
-            if (periodo == 9) {
-                giornoFine = daysInMonth;
-            }
+        float[] entrateFinali = new float[periodi.size()];
+        float[] usciteFinali = new float[periodi.size()];
 
-            float sommaEntrate = 0;
-            float sommaUscite = 0;
-
-            for (int g = giornoInizio; g <= giornoFine; g++) {
-                sommaEntrate += entrateGiornaliere[g];
-                sommaUscite += usciteGiornaliere[g];
-            }
-
-            String label = giornoInizio + "-" + giornoFine;
-            labels[periodo] = label;
-            entrateFinali[periodo] = sommaEntrate;
-            usciteFinali[periodo] = sommaUscite;
+        for (TimeBucketAggregator.Bucket periodo : periodi) {
+            String label = periodo.getLabel();
+            entrateFinali[periodo.getIndex()] = periodo.getIncome();
+            usciteFinali[periodo.getIndex()] = periodo.getExpense();
 
             // Salva i dati per il tooltip
-            periodData.put(label, new float[]{sommaEntrate, sommaUscite});
+            periodData.put(label, new float[]{periodo.getIncome(), periodo.getExpense()});
 
             // Inizializza a 0 per l'animazione
             XYChart.Data<String, Number> dataEntrate = new XYChart.Data<>(label, 0);
@@ -618,10 +724,6 @@ public class DashboardController {
         timeline.play();
     }
 
-    private Connection getConnection() throws SQLException {
-        return DAOMySQLSettings.getConnection();
-    }
-
 
     /**
      * Configura l'aspetto generale del grafico a barre, impostando
@@ -716,127 +818,91 @@ public class DashboardController {
     }
 
 
+    /**
+     * Accoda al centro notifiche un avviso anticipato per ogni budget che, al ritmo
+     * di spesa attuale, verrà superato entro fine mese; ogni categoria viene
+     * avvisata al più una volta nel mese.
+     *
+     * @param budgetList budget del mese con la proiezione calcolata, {@code null} se non disponibili.
+     */
+    private void notifyProjectedOverruns(List<Budget> budgetList) {
+        List<ThresholdCrossing> projections = BudgetNotificationHelper.selectProjectionsToNotify(budgetList);
+        if (!projections.isEmpty()) {
+            BudgetToastCenter.getInstance().post(projections);
+        }
+    }
+
     /**
      * Popola la griglia dei budget con una card per ciascuna categoria,
      * mostrando quanto è stato speso, quanto rimane o quanto è stato
      * superato il limite, e una barra di avanzamento colorata.
+     * <p>
+     * Le card sono indicizzate per categoria e riutilizzate tra un refresh e
+     * l'altro: vengono create solo per le categorie nuove, aggiornate solo se
+     * i valori sono cambiati e rimosse se la categoria non ha più un budget.
      *
-     * @param userId identificativo dell'utente.
-     * @param month  mese di riferimento (1-12).
-     * @param year   anno di riferimento.
+     * @param budgetList budget del mese, {@code null} se il caricamento è fallito.
      */
-    private void populateBudgetStatus(int userId, int month, int year) {
+    private void populateBudgetStatus(List<Budget> budgetList) {
         if (gridBudgetList == null) return;
-        gridBudgetList.getChildren().clear();
-
-        List<Budget> budgetList;
 
-        try {
-            budgetList = budgetDAO.getBudgetsForMonth(userId, month, year);
-        } catch (SQLException e) {
-            e.printStackTrace();
-            gridBudgetList.add(new Label("Errore DB"), 0, 0);
+        if (budgetList == null) {
+            budgetCards.clear();
+            gridBudgetList.getChildren().setAll(new Label("Errore DB"));
             return;
         }
 
         if (budgetList.isEmpty()) {
+            budgetCards.clear();
             Label lbl = new Label("Nessun budget impostato.");
             lbl.setTextFill(Color.GRAY);
             lbl.setFont(Font.font("System", 12));
-            gridBudgetList.add(lbl, 0, 0);
+            gridBudgetList.getChildren().setAll(lbl);
             return;
         }
 
+        Map<Integer, BudgetCard> cards = new LinkedHashMap<>();
         int column = 0;
         int row = 0;
 
         for (Budget b : budgetList) {
-            double progress = b.getProgress();
-            double remaining = b.getBudgetAmount() - b.getSpentAmount();
-            boolean isOver = remaining < 0;
-
-            String bgColor, accentColor, textColor;
-
-            if (progress >= 1.0) {
-                bgColor = "#fff1f2";
-                accentColor = "#e11d48";
-                textColor = "#be123c";
-            } else if (progress > 0.80) {
-                bgColor = "#fffbeb";
-                accentColor = "#d97706";
-                textColor = "#b45309";
-            } else {
-                bgColor = "#ecfdf5";
-                accentColor = "#059669";
-                textColor = "#047857";
+            BudgetCard card = budgetCards.get(b.getCategoryId());
+            if (card == null) {
+                card = new BudgetCard();
             }
+            card.update(b);
+            cards.put(b.getCategoryId(), card);
 
-            VBox card = new VBox(10);
-            card.setPadding(new Insets(15));
-            card.setStyle("-fx-background-color: " + bgColor + "; " +
-                    "-fx-background-radius: 15; " +
-                    "-fx-effect: dropshadow(three-pass-box, rgba(0,0,0,0.05), 5, 0, 0, 2);");
-
-            HBox topRow = new HBox();
-            topRow.setAlignment(Pos.CENTER_LEFT);
-
-            Label lblName = new Label(b.getCategoryName());
-            lblName.setFont(Font.font("System", FontWeight.BOLD, 15));
-            lblName.setTextFill(Color.web("#1e293b"));
-
-            Region spacer = new Region();
-            HBox.setHgrow(spacer, Priority.ALWAYS);
-
-            topRow.getChildren().addAll(lblName, spacer);
-
-            if (isOver || progress > 0.9) {
-                Label icon = new Label("!");
-                icon.setFont(Font.font("System", FontWeight.BOLD, 14));
-                icon.setTextFill(Color.web(accentColor));
-                icon.setStyle("-fx-border-color: " + accentColor + "; -fx-border-radius: 10; -fx-padding: 0 5 0 5;");
-                topRow.getChildren().add(icon);
+            Integer currentColumn = GridPane.getColumnIndex(card);
+            Integer currentRow = GridPane.getRowIndex(card);
+            if (currentColumn == null || currentColumn != column || currentRow == null || currentRow != row) {
+                GridPane.setConstraints(card, column, row);
             }
 
-            HBox detailsRow = new HBox(10);
-            detailsRow.setAlignment(Pos.CENTER_LEFT);
-
-            Label lblSpesi = new Label("Spesi: €" + String.format("%.0f", b.getSpentAmount()));
-            lblSpesi.setTextFill(Color.web("#64748b"));
-            lblSpesi.setFont(Font.font("System", 12));
-
-            String leftText = isOver ? "Superato di: €" + String.format("%.0f", Math.abs(remaining)) : "Rimasti: €" + String.format("%.0f", remaining);
-            Label lblLeft = new Label(leftText);
-            lblLeft.setTextFill(Color.web(accentColor));
-            lblLeft.setFont(Font.font("System", FontWeight.BOLD, 12));
-
-            detailsRow.getChildren().addAll(lblSpesi, lblLeft);
-
-            ProgressBar pb = new ProgressBar(progress > 1.0 ? 1.0 : progress);
-            pb.setMaxWidth(Double.MAX_VALUE);
-            pb.setPrefHeight(6);
-            pb.setStyle("-fx-accent: " + accentColor + "; " +
-                    "-fx-control-inner-background: rgba(0,0,0,0.05); " +
-                    "-fx-text-box-border: transparent; -fx-background-insets: 0;");
-
-            card.getChildren().addAll(topRow, detailsRow, pb);
-
-            gridBudgetList.add(card, column, row);
-
             column++;
             if (column == 2) {
                 column = 0;
                 row++;
             }
         }
+
+        budgetCards.clear();
+        budgetCards.putAll(cards);
+
+        List<BudgetCard> ordered = new ArrayList<>(cards.values());
+        if (!gridBudgetList.getChildren().equals(ordered)) {
+            gridBudgetList.getChildren().setAll(ordered);
+        }
     }
 
     /**
      * Calcola una previsione del saldo a fine mese sulla base dei movimenti
      * registrati fino alla data odierna.
      * <p>
-     * Utilizza una query aggregata e {@link ForecastCalculator} per stimare
-     * il saldo finale e aggiorna la label di previsione con il valore
-     * stimato e un colore coerente (verde o rosso).
+     * Il calcolo è delegato a {@link ForecastService}, condiviso con il report,
+     * che riusa il risultato finché non cambiano i movimenti del mese corrente.
+     * Aggiorna la label di previsione con il valore stimato e un colore
+     * coerente (verde o rosso).
      *
      * @param today data corrente utilizzata come riferimento per il calcolo.
      */
@@ -847,57 +913,22 @@ public class DashboardController {
 
         try {
             int userId = mainApp.getLoggedUser().getUser_id();
+            ForecastCalculator.ForecastResult result = ForecastService.getForecast(userId, today).getResult();
 
-            var currentMonth = java.time.YearMonth.from(today);
-            int daysInMonth = currentMonth.lengthOfMonth();
-            LocalDate startOfMonth = currentMonth.atDay(1);
-
-            String query = ForecastQueryProvider.MONTHLY_FORECAST_AGGREGATE;
-
-            try (Connection conn = getConnection();
-                 PreparedStatement pstmt = conn.prepareStatement(query)) {
-
-                pstmt.setInt(1, userId);
-                pstmt.setDate(2, java.sql.Date.valueOf(startOfMonth));
-                pstmt.setDate(3, java.sql.Date.valueOf(today));
-
-                try (ResultSet rs = pstmt.executeQuery()) {
-                    if (rs.next()) {
-                        double totaleEntrate = rs.getDouble("totaleEntrate");
-                        double totaleUscite = rs.getDouble("totaleUscite");
-                        int giorniConMovimenti = rs.getInt("giorniConMovimenti");
-
-                        ForecastCalculator calculator = new ForecastCalculator();
-                        ForecastCalculator.ForecastResult result =
-                                calculator.calculateForecast(
-                                        totaleEntrate,
-                                        totaleUscite,
-                                        giorniConMovimenti,
-                                        today.getDayOfMonth(),
-                                        daysInMonth
-                                );
-
-                        if (!result.isValid()) {
-                            lblPrevisione.setText("N/A");
-                            lblPrevisione.setStyle("-fx-text-fill: #64748b; -fx-font-weight: bold; -fx-font-size: 28px;");
-                            return;
-                        }
-
-                        double saldoStimato = result.getEstimatedBalance();
-                        lblPrevisione.setText(String.format("€ %.2f", saldoStimato));
-
-                        // Colore coerente col segno
-                        if (saldoStimato >= 0) {
-                            lblPrevisione.setStyle("-fx-text-fill: #10b981; -fx-font-weight: bold;-fx-font-size: 28px;");
-                        } else {
-                            lblPrevisione.setStyle("-fx-text-fill: #ef4444; -fx-font-weight: bold; -fx-font-size: 28px;");
-                        }
-
-                    } else {
-                        lblPrevisione.setText("N/A");
-                        lblPrevisione.setStyle("-fx-text-fill: #64748b; -fx-font-weight: bold; -fx-font-size: 28px;");
-                    }
-                }
+            if (!result.isValid()) {
+                lblPrevisione.setText("N/A");
+                lblPrevisione.setStyle("-fx-text-fill: #64748b; -fx-font-weight: bold; -fx-font-size: 28px;");
+                return;
+            }
+
+            double saldoStimato = result.getEstimatedBalance();
+            lblPrevisione.setText(String.format("€ %.2f", saldoStimato));
+
+            // Colore coerente col segno
+            if (saldoStimato >= 0) {
+                lblPrevisione.setStyle("-fx-text-fill: #10b981; -fx-font-weight: bold;-fx-font-size: 28px;");
+            } else {
+                lblPrevisione.setStyle("-fx-text-fill: #ef4444; -fx-font-weight: bold; -fx-font-size: 28px;");
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -908,74 +939,43 @@ public class DashboardController {
 
 
     /**
-     * Popola il box laterale con la lista degli ultimi movimenti
-     * del mese selezionato, creando una riga grafica per ciascun movimento.
+     * Mostra i movimenti del mese selezionato nella lista virtualizzata
+     * contenuta in {@code boxUltimiMovimenti}.
+     * <p>
+     * La {@link ListView} viene creata una sola volta e riusa un numero fisso
+     * di celle ({@link MovimentoListCell}) pari alle righe visibili: un mese
+     * con migliaia di movimenti costa quanto le righe a schermo e la
+     * navigazione tra i mesi sostituisce solo gli elementi della lista.
      *
-     * @param list lista di movimenti da visualizzare.
+     * @param list movimenti da mostrare (già ordinati per data decrescente).
      */
     private void populateRecentMovements(List<Movimenti> list) {
-        boxUltimiMovimenti.getChildren().clear();
-
-        if (list.isEmpty()) {
-            Label placeholder = new Label("Nessun movimento recente.");
-            placeholder.setTextFill(Color.GRAY);
-            boxUltimiMovimenti.getChildren().add(placeholder);
-            return;
-        }
-
-        for (Movimenti m : list) {
-            HBox row = createMovementRow(m);
-            boxUltimiMovimenti.getChildren().add(row);
-        }
+        ensureRecentMovementsList();
+        listUltimiMovimenti.getItems().setAll(list);
+        listUltimiMovimenti.scrollTo(0);
     }
 
     /**
-     * Crea la riga grafica (HBox) per rappresentare un singolo movimento,
-     * mostrando icona (entrata/uscita), descrizione, data e importo
-     * con colore differenziato in base al tipo.
-     *
-     * @param m movimento da rappresentare.
-     * @return HBox contenente la riga pronta per essere aggiunta alla view.
+     * Crea (alla prima chiamata) la {@link ListView} degli ultimi movimenti
+     * e la inserisce come unico figlio di {@code boxUltimiMovimenti}.
      */
-    private HBox createMovementRow(Movimenti m) {
-        boolean isExpense = m.getType().equalsIgnoreCase("Uscita") || m.getType().equalsIgnoreCase("Expense");
-        Color color = isExpense ? Color.web("#fee2e2") : Color.web("#dcfce7");
-        Color iconColor = isExpense ? Color.web("#dc2626") : Color.web("#16a34a");
-        String symbol = isExpense ? "↓" : "↑";
-        String sign = isExpense ? "- " : "+ ";
-
-        Circle circle = new Circle(18, color);
-        Label arrow = new Label(symbol);
-        arrow.setTextFill(iconColor);
-        arrow.setFont(Font.font("System", FontWeight.BOLD, 16));
-        StackPane icon = new StackPane(circle, arrow);
-
-        Label desc = new Label(m.getTitle());
-        desc.setTextFill(Color.web("#334155"));
-        desc.setFont(Font.font("System", FontWeight.BOLD, 14));
-        if(desc.getText().isEmpty()) {
-            desc = new Label(m.getCategoryName());
-            desc.setTextFill(Color.web("#334155"));
-            desc.setFont(Font.font("System", FontWeight.BOLD, 14));
+    private void ensureRecentMovementsList() {
+        if (listUltimiMovimenti != null && boxUltimiMovimenti.getChildren().contains(listUltimiMovimenti)) {
+            return;
         }
 
-        Label date = new Label(m.getDate().toString());
-        date.setTextFill(Color.web("#94a3b8"));
-        date.setFont(Font.font("System", 11));
-
-        VBox texts = new VBox(2, desc, date);
-        texts.setAlignment(Pos.CENTER_LEFT);
-
-        Region spacer = new Region();
-        HBox.setHgrow(spacer, Priority.ALWAYS);
+        listUltimiMovimenti = new ListView<>();
+        listUltimiMovimenti.setCellFactory(view -> new MovimentoListCell());
+        listUltimiMovimenti.setFixedCellSize(MovimentoListCell.ROW_HEIGHT);
+        listUltimiMovimenti.setFocusTraversable(false);
+        listUltimiMovimenti.setStyle("-fx-background-color: transparent; -fx-background-insets: 0; -fx-padding: 0;");
 
-        Label amount = new Label(sign + String.format("€ %.2f", m.getAmount()));
-        amount.setTextFill(iconColor);
-        amount.setFont(Font.font("System", FontWeight.BOLD, 14));
+        Label placeholder = new Label("Nessun movimento recente.");
+        placeholder.setTextFill(Color.GRAY);
+        listUltimiMovimenti.setPlaceholder(placeholder);
 
-        HBox row = new HBox(15, icon, texts, spacer, amount);
-        row.setAlignment(Pos.CENTER_LEFT);
-        return row;
+        VBox.setVgrow(listUltimiMovimenti, Priority.ALWAYS);
+        boxUltimiMovimenti.getChildren().setAll(listUltimiMovimenti);
     }
 
     /**
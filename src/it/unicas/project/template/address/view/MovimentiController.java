@@ -1,14 +1,13 @@
 package it.unicas.project.template.address.view;
 
 import it.unicas.project.template.address.MainApp;
-import it.unicas.project.template.address.model.Budget;
 import it.unicas.project.template.address.model.Movimenti;
 import it.unicas.project.template.address.model.dao.DAOException;
 import it.unicas.project.template.address.model.dao.mysql.BudgetDAOMySQLImpl;
 import it.unicas.project.template.address.model.dao.mysql.DAOMySQLSettings;
 import it.unicas.project.template.address.model.dao.mysql.MovimentiDAOMySQLImpl;
+import it.unicas.project.template.address.util.BudgetAlertEngine;
 import it.unicas.project.template.address.util.BudgetNotificationHelper;
-import it.unicas.project.template.address.util.BudgetNotificationPreferences;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
@@ -20,6 +19,7 @@ import javafx.scene.paint.Color;
 import java.io.IOException;
 import java.sql.*;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -315,12 +315,13 @@ public class MovimentiController {
             Movimenti m = new Movimenti(null, type, date, amount, desc, method);
 
             // Insert DB
+            ensureBudgetsTracked();
             movimentiGateway.insert(m, userId, categoryId);
 
             loadMovementsForCurrentUser();
 
-            // Controlla se il budget è stato superato per questa specifica categoria
-            checkBudgetAfterTransaction(categoryId);
+            // Avvisa per le soglie di budget attraversate da questo movimento
+            notifyBudgetAlerts();
 
             // Aggiorna i dati del report e della dashboard se sono aperti
             refreshReportData();
@@ -346,7 +347,6 @@ public class MovimentiController {
      * Richiede conferma se sono selezionati più elementi, elimina
      * i movimenti tramite il gateway, ricarica la tabella e aggiorna:
      * <ul>
-     *     <li>lo stato dei budget (per eventuali categorie non più superate);</li>
      *     <li>i dati del report;</li>
      *     <li>i dati della dashboard.</li>
      * </ul>
@@ -381,9 +381,6 @@ public class MovimentiController {
             // Ricarica i dati
             loadMovementsForCurrentUser();
 
-            // Aggiorna lo stato dei budget dopo la cancellazione
-            checkBudgetAfterDeletion();
-
             // Aggiorna i dati del report e della dashboard se sono aperti
             refreshReportData();
             refreshDashboardData();
@@ -442,13 +439,14 @@ public class MovimentiController {
                     int categoryId = controller.getSelectedCategoryId();
 
                     // Salva nel database
+                    ensureBudgetsTracked();
                     movimentiGateway.update(updatedMovement, categoryId);
 
                     // Ricarica i dati
                     loadMovementsForCurrentUser();
 
-                    // Controlla il budget dopo la modifica
-                    checkBudgetAfterTransaction(categoryId);
+                    // Avvisa per le soglie di budget attraversate dalla modifica
+                    notifyBudgetAlerts();
 
                     // Aggiorna i dati del report e della dashboard
                     refreshReportData();
@@ -469,41 +467,21 @@ public class MovimentiController {
     }
 
     /**
-     * Controlla il budget del mese corrente per una specifica categoria e mostra una notifica se è stato superato.
-     * Viene chiamato dopo l'inserimento di un movimento.
-     *
-     * @param categoryId ID della categoria del movimento appena inserito
+     * Si assicura che i budget del mese corrente siano tracciati da {@link BudgetAlertEngine},
+     * così che la scrittura successiva possa essere confrontata con la spesa precedente.
+     * I budget vengono letti dal database solo se il mese non è ancora tracciato
+     * (ad esempio se la dashboard non li ha già caricati).
      */
-    private void checkBudgetAfterTransaction(int categoryId) {
+    private void ensureBudgetsTracked() {
         if (mainApp == null || mainApp.getLoggedUser() == null) return;
 
+        int userId = mainApp.getLoggedUser().getUser_id();
+        LocalDate now = LocalDate.now();
+        if (BudgetAlertEngine.getInstance().isTracking(userId, YearMonth.from(now))) {
+            return;
+        }
         try {
-            int userId = mainApp.getLoggedUser().getUser_id();
-            LocalDate now = LocalDate.now();
-            int currentMonth = now.getMonthValue();
-            int currentYear = now.getYear();
-
-            List<Budget> budgets = budgetDAO.getBudgetsForMonth(userId, currentMonth, currentYear);
-
-            // 🔁 Prima: per TUTTE le categorie che NON sono più superate,
-            // tolgo il flag "già notificato", così se in futuro risuperano il budget
-            // la notifica potrà riapparire.
-            for (Budget budget : budgets) {
-                if (budget.getCategoryId() == 6) continue; // Ignora Stipendio
-
-                boolean isExceeded = budget.getSpentAmount() > budget.getBudgetAmount()
-                        && budget.getBudgetAmount() > 0;
-
-                if (!isExceeded) {
-                    // La categoria non è più superata → riattivo la notifica
-                    BudgetNotificationPreferences.getInstance()
-                            .unmarkAsNotified(budget.getCategoryId());
-                }
-            }
-
-            // 🔔 Poi controllo SOLO la categoria del movimento appena inserito
-            BudgetNotificationHelper.checkAndNotifyForCategory(budgets, categoryId);
-
+            budgetDAO.getBudgetsForMonth(userId, now.getMonthValue(), now.getYear());
         } catch (SQLException e) {
             // Silenzioso: non blocchiamo l'operazione se il controllo budget fallisce
             System.err.println("Errore nel controllo budget: " + e.getMessage());
@@ -511,36 +489,16 @@ public class MovimentiController {
     }
 
     /**
-     * Controlla i budget del mese corrente dopo una cancellazione.
-     * Non mostra notifiche, ma aggiorna lo stato delle categorie che non sono più superate.
+     * Accoda al centro notifiche gli avvisi per le soglie di budget attraversate
+     * dall'ultima scrittura, calcolate in modo incrementale da {@link BudgetAlertEngine}.
+     * Le notifiche non sono modali: l'operazione prosegue senza attendere l'utente.
      */
-    private void checkBudgetAfterDeletion() {
+    private void notifyBudgetAlerts() {
         if (mainApp == null || mainApp.getLoggedUser() == null) return;
 
-        try {
-            int userId = mainApp.getLoggedUser().getUser_id();
-            LocalDate now = LocalDate.now();
-            int currentMonth = now.getMonthValue();
-            int currentYear = now.getYear();
-
-            List<Budget> budgets = budgetDAO.getBudgetsForMonth(userId, currentMonth, currentYear);
-
-            // Controlla tutte le categorie per vedere se alcune non sono più superate
-            for (Budget budget : budgets) {
-                if (budget.getCategoryId() == 6) continue; // Ignora Stipendio
-
-                boolean isExceeded = budget.getSpentAmount() > budget.getBudgetAmount()
-                        && budget.getBudgetAmount() > 0;
-
-                if (!isExceeded) {
-                    // La categoria non è più superata, rimuovi la marcatura
-                    BudgetNotificationPreferences.getInstance().unmarkAsNotified(budget.getCategoryId());
-                }
-            }
-
-        } catch (SQLException e) {
-            System.err.println("Errore nel controllo budget dopo cancellazione: " + e.getMessage());
-        }
+        int userId = mainApp.getLoggedUser().getUser_id();
+        BudgetToastCenter.getInstance().post(BudgetNotificationHelper.selectCrossingsToNotify(
+                BudgetAlertEngine.getInstance().drainCrossings(userId)));
     }
 
     /**
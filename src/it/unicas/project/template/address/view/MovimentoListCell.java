@@ -0,0 +1,102 @@
+package it.unicas.project.template.address.view;
+
+import it.unicas.project.template.address.model.Movimenti;
+import javafx.geometry.Pos;
+import javafx.scene.control.ContentDisplay;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Circle;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+
+/**
+ * Cella riutilizzabile per la lista degli ultimi movimenti della dashboard.
+ * <p>
+ * La struttura grafica della riga (icona entrata/uscita, descrizione, data e
+ * importo) viene creata una sola volta per cella; la {@code ListView} mantiene
+ * soltanto le celle visibili e, durante lo scroll o al cambio di mese, le
+ * riutilizza aggiornando testi e colori in {@link #updateItem(Movimenti, boolean)}.
+ */
+public class MovimentoListCell extends ListCell<Movimenti> {
+
+    /** Altezza fissa di una riga (icona da 36px più la spaziatura tra righe). */
+    public static final double ROW_HEIGHT = 51.0;
+
+    private static final Color EXPENSE_BACKGROUND = Color.web("#fee2e2");
+    private static final Color EXPENSE_COLOR = Color.web("#dc2626");
+    private static final Color INCOME_BACKGROUND = Color.web("#dcfce7");
+    private static final Color INCOME_COLOR = Color.web("#16a34a");
+
+    private final Circle circle = new Circle(18);
+    private final Label arrow = new Label();
+    private final Label desc = new Label();
+    private final Label date = new Label();
+    private final Label amount = new Label();
+    private final HBox row;
+
+    /**
+     * Crea la cella e la struttura della riga, che verrà poi solo aggiornata.
+     */
+    public MovimentoListCell() {
+        arrow.setFont(Font.font("System", FontWeight.BOLD, 16));
+        StackPane icon = new StackPane(circle, arrow);
+
+        desc.setTextFill(Color.web("#334155"));
+        desc.setFont(Font.font("System", FontWeight.BOLD, 14));
+
+        date.setTextFill(Color.web("#94a3b8"));
+        date.setFont(Font.font("System", 11));
+
+        VBox texts = new VBox(2, desc, date);
+        texts.setAlignment(Pos.CENTER_LEFT);
+
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+
+        amount.setFont(Font.font("System", FontWeight.BOLD, 14));
+
+        row = new HBox(15, icon, texts, spacer, amount);
+        row.setAlignment(Pos.CENTER_LEFT);
+
+        setContentDisplay(ContentDisplay.GRAPHIC_ONLY);
+        setStyle("-fx-background-color: transparent; -fx-padding: 0 24 0 0;");
+    }
+
+    /**
+     * Aggiorna la riga con i dati del movimento, senza ricreare i nodi.
+     *
+     * @param m     movimento da mostrare
+     * @param empty {@code true} se la cella non è associata ad alcun elemento
+     */
+    @Override
+    protected void updateItem(Movimenti m, boolean empty) {
+        super.updateItem(m, empty);
+
+        if (empty || m == null) {
+            setGraphic(null);
+            return;
+        }
+
+        boolean isExpense = "Uscita".equalsIgnoreCase(m.getType()) || "Expense".equalsIgnoreCase(m.getType());
+        Color iconColor = isExpense ? EXPENSE_COLOR : INCOME_COLOR;
+
+        circle.setFill(isExpense ? EXPENSE_BACKGROUND : INCOME_BACKGROUND);
+        arrow.setText(isExpense ? "↓" : "↑");
+        arrow.setTextFill(iconColor);
+
+        String title = m.getTitle();
+        desc.setText(title == null || title.isEmpty() ? m.getCategoryName() : title);
+        date.setText(m.getDate() != null ? m.getDate().toString() : "");
+
+        amount.setText((isExpense ? "- " : "+ ") + String.format("€ %.2f", m.getAmount()));
+        amount.setTextFill(iconColor);
+
+        setGraphic(row);
+    }
+}
@@ -13,6 +13,7 @@ import javafx.scene.effect.DropShadow;
 import javafx.scene.paint.Color;
 import javafx.scene.chart.*;
 import javafx.scene.control.ComboBox;
+import javafx.scene.control.DatePicker;
 import javafx.scene.control.Label;
 import javafx.scene.control.Tooltip;
 import javafx.scene.layout.AnchorPane;
@@ -20,11 +21,18 @@ import javafx.scene.layout.Region;
 import javafx.scene.shape.Rectangle;
 import javafx.util.Duration;
 import javafx.util.Pair;
-import it.unicas.project.template.address.util.ForecastQueryProvider;
+import it.unicas.project.template.address.util.ForecastService;
+import it.unicas.project.template.address.util.DateUtil;
+import it.unicas.project.template.address.util.MonteCarloSimulator;
+import it.unicas.project.template.address.util.RunningBalanceIndex;
+import it.unicas.project.template.address.util.SeasonalForecastModel;
 import java.sql.*;
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Controller per la sezione Report dell'applicazione.
@@ -33,6 +41,7 @@ import java.util.List;
  * <ul>
  *   <li>Grafico a torta delle spese per categoria</li>
  *   <li>Grafico ad area dell'andamento entrate/uscite nel tempo</li>
+ *   <li>Grafico del saldo progressivo nel tempo ({@link CanvasChart})</li>
  *   <li>Previsione finanziaria di fine mese</li>
  * </ul>
 
@@ -50,6 +59,33 @@ public class ReportController {
     /** ID dell'utente correntemente loggato. */
     private int currentUserId = -1;
 
+    /** Thread in background per i caricamenti del report. */
+    private static final ExecutorService REPORT_EXECUTOR = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "report-loader");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /** Generazione dell'ultimo caricamento completo richiesto; i risultati delle precedenti vengono scartati. */
+    private final AtomicLong reportGeneration = new AtomicLong();
+
+    /** Generazione dell'ultimo caricamento del grafico di andamento richiesto. */
+    private final AtomicLong trendGeneration = new AtomicLong();
+
+    /** DAO della query di andamento in corso, annullata se superata da una nuova richiesta. */
+    private MovimentiDAOMySQLImpl trendDao;
+
+    /** Generazione dell'ultimo caricamento della sola previsione (cambio di modello). */
+    private final AtomicLong forecastGeneration = new AtomicLong();
+
+    /** Riepilogo della simulazione Monte Carlo del saldo a fine mese. */
+    @FXML
+    private Label lblSimulazione;
+
+    /** Selettore del modello di previsione (lineare o stagionale). */
+    @FXML
+    private ComboBox<ForecastCalculator.ForecastModel> cmbModelloPrevisione;
+
     /** Grafico a torta per la distribuzione delle spese per categoria. */
     @FXML
     private PieChart pieChart;
@@ -58,10 +94,29 @@ public class ReportController {
     @FXML
     private SmoothAreaChart<String, Number> lineChartAndamento;
 
+    /** Grafico del saldo progressivo nel tempo, disegnato su canvas. */
+    @FXML
+    private CanvasChart chartSaldo;
+
+    /** ComboBox per la selezione del range del grafico del saldo. */
+    @FXML
+    private ComboBox<String> cmbRangeSaldo;
+
     /** ComboBox per la selezione del range temporale. */
     @FXML
     private ComboBox<String> cmbRange;
 
+    /** Data iniziale del range personalizzato. */
+    @FXML
+    private DatePicker dpRangeDa;
+
+    /** Data finale del range personalizzato. */
+    @FXML
+    private DatePicker dpRangeA;
+
+    /** Numero massimo di punti del grafico di andamento: oltre si passa a una granularità più ampia. */
+    private static final int MAX_TREND_POINTS = 60;
+
     /** Label per il risparmio stimato. */
     @FXML
     private Label lblRisparmioStimato;
@@ -132,6 +187,47 @@ public class ReportController {
             pieChart.setLegendVisible(true);
         }
         initRangeSelector();
+        initBalanceRangeSelector();
+        if (cmbModelloPrevisione != null) {
+            cmbModelloPrevisione.getItems().setAll(ForecastCalculator.ForecastModel.values());
+            cmbModelloPrevisione.setValue(ForecastCalculator.ForecastModel.LINEAR);
+            cmbModelloPrevisione.setOnAction(event -> loadForecast());
+        }
+    }
+
+    /**
+     * @return modello di previsione selezionato, lineare se il selettore non è disponibile
+     */
+    private ForecastCalculator.ForecastModel selectedForecastModel() {
+        if (cmbModelloPrevisione == null || cmbModelloPrevisione.getValue() == null) {
+            return ForecastCalculator.ForecastModel.LINEAR;
+        }
+        return cmbModelloPrevisione.getValue();
+    }
+
+    /**
+     * Ricalcola in background la sola previsione con il modello selezionato,
+     * scartando il risultato se nel frattempo è stato richiesto un altro calcolo.
+     */
+    private void loadForecast() {
+        if (currentUserId <= 0) return;
+
+        int userId = currentUserId;
+        ForecastCalculator.ForecastModel model = selectedForecastModel();
+        long generation = forecastGeneration.incrementAndGet();
+
+        REPORT_EXECUTOR.execute(() -> {
+            try {
+                ForecastService.MonthForecast forecast = ForecastService.getForecast(userId, LocalDate.now(), model);
+                Platform.runLater(() -> {
+                    if (generation == forecastGeneration.get()) {
+                        showForecast(forecast);
+                    }
+                });
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        });
     }
 
     /**
@@ -169,51 +265,151 @@ public class ReportController {
     /**
      * Aggiorna tutti i componenti UI con i dati dal database.
      * <p>
-     * Carica in sequenza i dati per il grafico a torta, il grafico
-     * ad area e la sezione previsione.
-
+     * I dati del grafico a torta, del saldo e della previsione vengono letti
+     * in background e applicati sul thread JavaFX solo se nel frattempo non è
+     * stato richiesto un caricamento più recente (politica "vince l'ultimo"):
+     * refresh ravvicinati non si accodano e non sovrascrivono dati più nuovi.
+     * Il grafico di andamento ha un caricamento proprio, annullabile
+     * ({@link #loadLineChartData()}).
      */
     private void updateUIFromData() {
         if (currentUserId <= 0) return;
 
-        try {
-            loadPieChartData();
-            loadLineChartData();
-            loadForecastData();
+        int userId = currentUserId;
+        ForecastCalculator.ForecastModel model = selectedForecastModel();
+        long generation = reportGeneration.incrementAndGet();
+        long forecastGen = forecastGeneration.incrementAndGet();
+
+        loadLineChartData();
+        loadSimulation(userId, generation);
 
-        } catch (SQLException e) {
-            e.printStackTrace();
+        REPORT_EXECUTOR.execute(() -> {
+            try {
+                MovimentiDAOMySQLImpl dao = new MovimentiDAOMySQLImpl();
+                List<Pair<String, Double>> categorie = dao.getCategoryTotals(userId).totals();
+                if (generation != reportGeneration.get()) return;
+
+                RunningBalanceIndex index = dao.getBalanceIndex(userId);
+                if (generation != reportGeneration.get()) return;
+
+                ForecastService.MonthForecast forecast = ForecastService.getForecast(userId, LocalDate.now(), model);
+
+                Platform.runLater(() -> {
+                    if (generation != reportGeneration.get()) {
+                        return;
+                    }
+                    showPieChartData(categorie);
+                    showBalanceChartData(index);
+                    if (forecastGen == forecastGeneration.get()) {
+                        showForecast(forecast);
+                    }
+                });
+            } catch (SQLException e) {
+                if (generation == reportGeneration.get()) {
+                    e.printStackTrace();
+                }
+            }
+        });
+    }
+
+    /**
+     * Esegue in background la simulazione Monte Carlo del saldo a fine mese.
+     * <p>
+     * La simulazione ha un budget di tempo proprio e un task separato, così da non
+     * ritardare grafici e previsione; il risultato viene scartato se nel frattempo
+     * è stato richiesto un nuovo caricamento del report.
+     *
+     * @param userId     identificativo dell'utente
+     * @param generation generazione del caricamento che ha richiesto la simulazione
+     */
+    private void loadSimulation(int userId, long generation) {
+        REPORT_EXECUTOR.execute(() -> {
+            try {
+                MonteCarloSimulator.SimulationResult simulation = ForecastService.simulate(userId, LocalDate.now());
+                Platform.runLater(() -> {
+                    if (generation == reportGeneration.get()) {
+                        showSimulation(simulation);
+                    }
+                });
+            } catch (SQLException e) {
+                if (generation == reportGeneration.get()) {
+                    e.printStackTrace();
+                }
+            }
+        });
+    }
+
+    /**
+     * Mostra percentili e rischio di saldo negativo della simulazione.
+     *
+     * @param simulation risultato della simulazione, {@code null} se lo storico è insufficiente
+     */
+    private void showSimulation(MonteCarloSimulator.SimulationResult simulation) {
+        if (lblSimulazione == null) return;
+        if (simulation == null || !simulation.hasResult()) {
+            lblSimulazione.setText("Simulazione non disponibile: storico delle spese insufficiente");
+            return;
         }
+        lblSimulazione.setText(String.format(
+                "Simulazione su %d scenari: saldo P10 € %.2f · P50 € %.2f · P90 € %.2f · rischio di chiudere in negativo %.0f%%",
+                simulation.getCompletedPaths(),
+                simulation.getP10(),
+                simulation.getP50(),
+                simulation.getP90(),
+                simulation.getProbabilityNegative() * 100));
     }
 
     /**
      * Inizializza il selettore del range temporale.
      * <p>
      * Configura le opzioni disponibili e imposta il listener per
-     * aggiornare il grafico quando cambia la selezione.
-
+     * aggiornare il grafico quando cambia la selezione. Le date del range
+     * personalizzato sono visibili solo quando è selezionato "Personalizzato".
      */
     private void initRangeSelector() {
         if (cmbRange != null) {
             cmbRange.getItems().setAll(
+                    "Ultimo mese",
                     "Ultimi 6 mesi",
-                    "Ultimo anno"
+                    "Ultimo anno",
+                    "Da inizio anno",
+                    "Tutta la storia",
+                    "Personalizzato"
             );
             cmbRange.setValue("Ultimi 6 mesi");
             cmbRange.setOnAction(event -> {
-                try {
-                    loadLineChartData();
-                } catch (SQLException e) {
-                    e.printStackTrace();
-                }
+                updateCustomRangeVisibility();
+                loadLineChartData();
             });
         }
+        if (dpRangeDa != null && dpRangeA != null) {
+            LocalDate today = LocalDate.now();
+            dpRangeDa.setValue(today.minusMonths(3));
+            dpRangeA.setValue(today);
+            dpRangeDa.setOnAction(event -> loadLineChartData());
+            dpRangeA.setOnAction(event -> loadLineChartData());
+        }
+        updateCustomRangeVisibility();
     }
 
     /**
-     * Risolve il numero di mesi da considerare in base alla selezione.
+     * Mostra i selettori di data solo per il range personalizzato.
+     */
+    private void updateCustomRangeVisibility() {
+        boolean custom = cmbRange != null && "Personalizzato".equals(cmbRange.getValue());
+        for (DatePicker picker : new DatePicker[]{dpRangeDa, dpRangeA}) {
+            if (picker != null) {
+                picker.setVisible(custom);
+                picker.setManaged(custom);
+            }
+        }
+    }
+
+    /**
+     * Risolve il numero di mesi da considerare per i range a durata fissa.
      *
-     * @return il numero di mesi selezionato (6 per "Ultimi 6 mesi", 12 per "Ultimo anno")
+     * @return il numero di mesi selezionato (1 per "Ultimo mese", 6 per "Ultimi 6 mesi",
+     *         12 per "Ultimo anno"; 6 negli altri casi)
      */
     private int resolveMonthsBack() {
         if (cmbRange == null) return 6;
@@ -222,6 +418,8 @@ public class ReportController {
             return 6;
         }
         switch (selected) {
+            case "Ultimo mese":
+                return 1;
             case "Ultimo anno":
                 return 12;
             case "Ultimi 6 mesi":
@@ -230,39 +428,54 @@ public class ReportController {
         }
     }
 
+    /**
+     * Risolve l'intervallo di date del grafico di andamento in base alla selezione.
+     *
+     * @param today data odierna
+     * Tranne "Ultimo mese" (che termina oggi) e l'intervallo personalizzato, gli
+     * intervalli includono l'intero mese corrente, compresi i movimenti con data futura.
+     *
+     * @return array {@code {da, a}}; {@code da} è {@code null} per "Tutta la storia"
+     *         (il DAO parte dal primo movimento)
+     */
+    private LocalDate[] resolveTrendRange(LocalDate today) {
+        String selected = cmbRange != null ? cmbRange.getValue() : null;
+        LocalDate endOfMonth = YearMonth.from(today).atEndOfMonth();
+        if ("Da inizio anno".equals(selected)) {
+            return new LocalDate[]{today.withDayOfYear(1), endOfMonth};
+        }
+        if ("Tutta la storia".equals(selected)) {
+            return new LocalDate[]{null, endOfMonth};
+        }
+        if ("Personalizzato".equals(selected) && dpRangeDa != null && dpRangeA != null) {
+            LocalDate da = dpRangeDa.getValue() != null ? dpRangeDa.getValue() : today.minusMonths(3);
+            LocalDate a = dpRangeA.getValue() != null ? dpRangeA.getValue() : today;
+            return a.isBefore(da) ? new LocalDate[]{a, da} : new LocalDate[]{da, a};
+        }
+        int monthsBack = resolveMonthsBack();
+        if (monthsBack == 1) {
+            return new LocalDate[]{today.minusMonths(1).plusDays(1), today};
+        }
+        return new LocalDate[]{today.minusMonths(monthsBack).withDayOfMonth(1), endOfMonth};
+    }
+
     /**
      * Carica i dati per il grafico a torta delle spese.
      * <p>
-     * Esegue una query aggregata per ottenere il totale delle uscite
-     * raggruppate per categoria.
-
+     * I totali delle uscite per categoria provengono dai totali mantenuti in
+     * memoria dal DAO ({@link it.unicas.project.template.address.util.CategoryTotalsIndex}):
+     * la query completa viene eseguita solo alla prima apertura, poi ogni
+     * scrittura aggiorna i totali in modo incrementale.
      *
-     * @throws SQLException in caso di errori di accesso al database
+     * @param categorie coppie (categoria, totale) in ordine decrescente
      */
-    private void loadPieChartData() throws SQLException {
-        String query = "SELECT c.name, SUM(m.amount) as totale " +
-                "FROM movements m " +
-                "JOIN categories c ON m.category_id = c.category_id " +
-                "WHERE m.user_id = ? AND LOWER(m.type) IN ('uscita', 'expense') " +
-                "GROUP BY c.name " +
-                "ORDER BY totale DESC";
-
+    private void showPieChartData(List<Pair<String, Double>> categorie) {
         ObservableList<PieChart.Data> pieData = FXCollections.observableArrayList();
         double totalAmount = 0.0;
 
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(query)) {
-
-            pstmt.setInt(1, currentUserId);
-
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    String categoria = rs.getString("name");
-                    double totale = rs.getDouble("totale");
-                    pieData.add(new PieChart.Data(categoria, totale));
-                    totalAmount += totale;
-                }
-            }
+        for (Pair<String, Double> categoria : categorie) {
+            pieData.add(new PieChart.Data(categoria.getKey(), categoria.getValue()));
+            totalAmount += categoria.getValue();
         }
 
         if (pieData.isEmpty()) {
@@ -345,20 +558,57 @@ public class ReportController {
     }
 
     /**
-     * Carica i dati per il grafico ad area dell'andamento temporale.
-     *
-     * @throws SQLException in caso di errori di accesso al database
+     * Carica in background i dati per il grafico ad area dell'andamento temporale.
+     * <p>
+     * L'intervallo è quello selezionato ({@link #resolveTrendRange(LocalDate)}) e la
+     * granularità viene scelta dal DAO in base alla sua ampiezza (giorni o settimane
+     * fino a tre mesi, poi mesi) entro {@link #MAX_TREND_POINTS} punti, usando i totali per periodo già aggregati in memoria.
+     * <p>
+     * Ogni richiesta (cambio di range o refresh) riceve un numero di generazione
+     * e annulla la query della richiesta precedente ancora in corso
+     * ({@link MovimentiDAOMySQLImpl#cancelRunningQuery()}); il risultato viene
+     * applicato al grafico solo se nessuna richiesta più recente è stata avviata.
      */
-    private void loadLineChartData() throws SQLException {
+    private void loadLineChartData() {
         if (lineChartAndamento == null) return;
 
-        lineChartAndamento.setAnimated(false);
-        lineChartAndamento.getData().clear();
-
-        int monthsBack = resolveMonthsBack();
+        int userId = currentUserId;
+        LocalDate[] range = resolveTrendRange(LocalDate.now());
+        long generation = trendGeneration.incrementAndGet();
 
         MovimentiDAOMySQLImpl dao = new MovimentiDAOMySQLImpl();
-        List<Pair<String, Pair<Float, Float>>> trendData = dao.getIncomeExpenseTrend(currentUserId, monthsBack);
+        MovimentiDAOMySQLImpl previous = trendDao;
+        trendDao = dao;
+        if (previous != null) {
+            previous.cancelRunningQuery();
+        }
+
+        REPORT_EXECUTOR.execute(() -> {
+            try {
+                List<Pair<String, Pair<Float, Float>>> trendData =
+                        dao.getIncomeExpenseTrend(userId, range[0], range[1], MAX_TREND_POINTS);
+                Platform.runLater(() -> {
+                    if (generation == trendGeneration.get()) {
+                        showLineChartData(trendData);
+                    }
+                });
+            } catch (SQLException e) {
+                // Una query superata termina con un errore di annullamento: va ignorato
+                if (generation == trendGeneration.get()) {
+                    e.printStackTrace();
+                }
+            }
+        });
+    }
+
+    /**
+     * Mostra nel grafico ad area l'andamento di entrate e uscite.
+     *
+     * @param trendData coppie (etichetta periodo, (entrate, uscite))
+     */
+    private void showLineChartData(List<Pair<String, Pair<Float, Float>>> trendData) {
+        lineChartAndamento.setAnimated(false);
+        lineChartAndamento.getData().clear();
 
         XYChart.Series<String, Number> serieEntrate = new XYChart.Series<>();
         serieEntrate.setName("Entrate");
@@ -410,6 +660,96 @@ public class ReportController {
         Platform.runLater(() -> animateChartReveal());
     }
 
+    /**
+     * Inizializza il selettore del range del grafico del saldo.
+     * <p>
+     * Il cambio di range ricalcola solo la serie del saldo a partire
+     * dall'indice già in memoria, senza nuove query.
+     */
+    private void initBalanceRangeSelector() {
+        if (cmbRangeSaldo != null) {
+            cmbRangeSaldo.getItems().setAll(
+                    "Ultimi 3 mesi",
+                    "Ultimi 6 mesi",
+                    "Ultimo anno",
+                    "Tutta la storia"
+            );
+            cmbRangeSaldo.setValue("Ultimi 6 mesi");
+            cmbRangeSaldo.setOnAction(event -> {
+                try {
+                    loadBalanceChartData();
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+            });
+        }
+    }
+
+    /**
+     * Risolve il primo giorno del range selezionato per il grafico del saldo.
+     *
+     * @param index indice del saldo dell'utente (per "Tutta la storia")
+     * @param today data odierna
+     * @return primo giorno da mostrare
+     */
+    private LocalDate resolveBalanceRangeStart(RunningBalanceIndex index, LocalDate today) {
+        String selected = cmbRangeSaldo != null ? cmbRangeSaldo.getValue() : null;
+        if (selected == null) {
+            selected = "Ultimi 6 mesi";
+        }
+        switch (selected) {
+            case "Ultimi 3 mesi":
+                return today.minusMonths(3).plusDays(1);
+            case "Ultimo anno":
+                return today.minusYears(1).plusDays(1);
+            case "Tutta la storia":
+                LocalDate first = index.getFirstDate();
+                return first == null || first.isAfter(today) ? today : first;
+            case "Ultimi 6 mesi":
+            default:
+                return today.minusMonths(6).plusDays(1);
+        }
+    }
+
+    /**
+     * Carica il grafico del saldo progressivo per il range selezionato.
+     * <p>
+     * I saldi giornalieri del range sono ottenuti dall'indice {@link RunningBalanceIndex}
+     * con una sola somma di prefisso seguita da un accumulo lineare, senza riaggregare
+     * i movimenti. La serie giornaliera viene passata così com'è al {@link CanvasChart},
+     * che la riduce alla larghezza disponibile in fase di disegno e usa i valori
+     * originali per i tooltip: anche anni di dati giornalieri restano un solo nodo.
+     *
+     * @throws SQLException in caso di errori nel caricamento iniziale dell'indice
+     */
+    private void loadBalanceChartData() throws SQLException {
+        if (chartSaldo == null) return;
+        showBalanceChartData(new MovimentiDAOMySQLImpl().getBalanceIndex(currentUserId));
+    }
+
+    /**
+     * Disegna il saldo progressivo del range selezionato a partire dall'indice.
+     *
+     * @param index indice del saldo dell'utente
+     */
+    private void showBalanceChartData(RunningBalanceIndex index) {
+        if (chartSaldo == null) return;
+
+        if (index.isEmpty()) {
+            chartSaldo.clear();
+            return;
+        }
+
+        LocalDate today = LocalDate.now();
+        LocalDate start = resolveBalanceRangeStart(index, today);
+        double[] saldiGiornalieri = index.dailyBalances(start, today);
+
+        chartSaldo.setColors(Color.web("#6366f1"));
+        chartSaldo.setAreaData(new String[]{"Saldo"},
+                i -> DateUtil.format(start.plusDays(i)),
+                saldiGiornalieri);
+    }
+
     /**
      * Anima il grafico ad area con un effetto di rivelazione progressiva.
      * <p>
@@ -559,60 +899,42 @@ public class ReportController {
     }
 
     /**
-     * Carica i dati per la sezione previsione finanziaria.
+     * Mostra la previsione finanziaria nella sezione dedicata.
+     * <p>
+     * La previsione è fornita da {@link ForecastService}, che la condivide con
+     * la dashboard e la ricalcola solo se cambiano i movimenti del mese corrente.
+     * Per il modello stagionale la descrizione del periodo indica che i giorni
+     * restanti sono stimati dallo storico settimanale.
      *
-     * @throws SQLException in caso di errori di accesso al database
+     * @param forecast previsione del mese corrente
      * @see ForecastCalculator
      */
-    private void loadForecastData() throws SQLException {
-        LocalDate today = LocalDate.now();
-        YearMonth currentMonth = YearMonth.from(today);
-        int daysInMonth = currentMonth.lengthOfMonth();
-        LocalDate startOfMonth = currentMonth.atDay(1);
-
-        String query = ForecastQueryProvider.MONTHLY_FORECAST_AGGREGATE;
-
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(query)) {
-
-            pstmt.setInt(1, currentUserId);
-            pstmt.setDate(2, Date.valueOf(startOfMonth));
-            pstmt.setDate(3, Date.valueOf(today));
-
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    double totaleEntrate = rs.getDouble("totaleEntrate");
-                    double totaleUscite = rs.getDouble("totaleUscite");
-                    int giorniConMovimenti = rs.getInt("giorniConMovimenti");
-
-                    ForecastCalculator calculator = new ForecastCalculator();
-                    ForecastCalculator.ForecastResult result =
-                            calculator.calculateForecast(
-                                    totaleEntrate,
-                                    totaleUscite,
-                                    giorniConMovimenti,
-                                    today.getDayOfMonth(),
-                                    daysInMonth
-                            );
-
-                    if (!result.isValid()) {
-                        displayInsufficientDataMessage();
-                        return;
-                    }
-
-                    updateForecastUI(
-                            result.getCurrentDay(),
-                            result.getRemainingDays(),
-                            result.getDailyExpenseAverage(),
-                            result.getProjectedTotalExpenses(),
-                            result.getEstimatedBalance(),
-                            totaleEntrate,
-                            totaleUscite
-                    );
-                } else {
-                    displayInsufficientDataMessage();
-                }
+    private void showForecast(ForecastService.MonthForecast forecast) {
+        ForecastCalculator.ForecastResult result = forecast.getResult();
+
+        if (!result.isValid()) {
+            displayInsufficientDataMessage();
+            if (forecast.getModel() == ForecastCalculator.ForecastModel.SEASONAL) {
+                Platform.runLater(() -> lblStatusMessaggio.setText(String.format(
+                        "Il modello stagionale richiede almeno %d giorni di movimenti nello storico.",
+                        SeasonalForecastModel.MINIMUM_DAYS)));
             }
+            return;
+        }
+
+        updateForecastUI(
+                result.getCurrentDay(),
+                result.getRemainingDays(),
+                result.getDailyExpenseAverage(),
+                result.getProjectedTotalExpenses(),
+                result.getEstimatedBalance(),
+                forecast.getTotalIncome(),
+                forecast.getTotalExpenses()
+        );
+        if (forecast.getModel() == ForecastCalculator.ForecastModel.SEASONAL) {
+            int currentDay = result.getCurrentDay();
+            Platform.runLater(() -> lblPeriodoCalcolo.setText(String.format(
+                    "Movimenti reali dal giorno 1 al %d, resto del mese stimato con stagionalità settimanale", currentDay)));
         }
     }
 
@@ -3,6 +3,8 @@ package it.unicas.project.template.address.view;
 import it.unicas.project.template.address.MainApp;
 import it.unicas.project.template.address.model.User;
 import it.unicas.project.template.address.model.dao.mysql.DAOMySQLSettings;
+import it.unicas.project.template.address.model.dao.mysql.MovimentiDAOMySQLImpl;
+import it.unicas.project.template.address.util.ForecastService;
 import javafx.animation.KeyFrame;
 import javafx.animation.KeyValue;
 import javafx.animation.RotateTransition;
@@ -475,6 +477,10 @@ public class RootLayoutController {
     @FXML
     private void handleExit() {
         if (mainApp != null) {
+            if (mainApp.getLoggedUser() != null) {
+                MovimentiDAOMySQLImpl.evictUserIndexes(mainApp.getLoggedUser().getUser_id());
+                ForecastService.evict(mainApp.getLoggedUser().getUser_id());
+            }
             mainApp.setLoggedUser(null);
             mainApp.showLogin();
         }
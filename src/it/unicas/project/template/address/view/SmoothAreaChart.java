@@ -1,5 +1,6 @@
 package it.unicas.project.template.address.view;
 
+import it.unicas.project.template.address.util.LttbDownsampler;
 import javafx.collections.ObservableList;
 import javafx.scene.chart.AreaChart;
 import javafx.scene.chart.Axis;
@@ -10,10 +11,15 @@ import javafx.scene.shape.LineTo;
 import javafx.scene.shape.MoveTo;
 import javafx.scene.shape.Path;
 import javafx.scene.shape.PathElement;
+import javafx.scene.shape.ClosePath;
 import javafx.scene.shape.CubicCurveTo;
+import javafx.scene.Node;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Estensione di {@link AreaChart} che renderizza le linee con curve smussate
@@ -22,6 +28,12 @@ import java.util.List;
  * Utilizza l'algoritmo Catmull-Rom per calcolare i punti di controllo delle
  * curve di Bézier cubiche, producendo un effetto visivo più gradevole e
  * professionale rispetto al grafico ad area standard.
+ * <p>
+ * Quando una serie ha più punti di quanti se ne possano distinguere nella
+ * larghezza dell'area di plot, il tracciato viene ridotto con l'algoritmo
+ * LTTB ({@link LttbDownsampler}) prima dello smoothing. La riduzione riguarda
+ * solo il path disegnato: i dati della serie restano integri e continuano
+ * a essere usati per simboli e tooltip.
  
  *
  * <b>Esempio di utilizzo:</b>
@@ -39,6 +51,15 @@ import java.util.List;
  */
 public class SmoothAreaChart<X, Y> extends AreaChart<X, Y> {
 
+    /** Larghezza minima in pixel per punto disegnato, oltre la quale si applica LTTB. */
+    private static final double PIXELS_PER_POINT = 2.0;
+
+    /** Path smussati memorizzati per serie, riusati tra un passaggio di layout e l'altro. */
+    private final Map<Series<X, Y>, SeriesPathCache> pathCache = new HashMap<>();
+
+    /** Versione dei dati del grafico, incrementata a ogni modifica di serie o valori. */
+    private long dataVersion;
+
     /**
      * Costruttore di default per compatibilità con FXML.
      * <p>
@@ -103,121 +124,337 @@ public class SmoothAreaChart<X, Y> extends AreaChart<X, Y> {
         }
     }
 
+    /** Invalida la cache dei path quando cambiano i dati di una serie. */
+    @Override
+    protected void dataItemAdded(Series<X, Y> series, int itemIndex, Data<X, Y> item) {
+        super.dataItemAdded(series, itemIndex, item);
+        dataVersion++;
+    }
+
+    /** Invalida la cache dei path quando cambiano i dati di una serie. */
+    @Override
+    protected void dataItemRemoved(Data<X, Y> item, Series<X, Y> series) {
+        super.dataItemRemoved(item, series);
+        dataVersion++;
+    }
+
+    /** Invalida la cache dei path quando cambiano i dati di una serie. */
+    @Override
+    protected void dataItemChanged(Data<X, Y> item) {
+        super.dataItemChanged(item);
+        dataVersion++;
+    }
+
+    /** Invalida la cache dei path quando viene aggiunta una serie. */
+    @Override
+    protected void seriesAdded(Series<X, Y> series, int seriesIndex) {
+        super.seriesAdded(series, seriesIndex);
+        dataVersion++;
+    }
+
+    /** Rimuove dalla cache i path della serie eliminata. */
+    @Override
+    protected void seriesRemoved(Series<X, Y> series) {
+        super.seriesRemoved(series);
+        pathCache.remove(series);
+        dataVersion++;
+    }
+
     /**
      * {@inheritDoc}
      * <p>
-     * Override del metodo per applicare lo smoothing alle linee del grafico
-     * dopo il layout standard. Per ogni serie di dati, trova i path della
-     * linea e dell'area riempita e applica l'algoritmo di smoothing.
-     
+     * Override del metodo per disegnare le linee del grafico come curve smussate.
+     * Lo smoothing di ogni serie viene ricalcolato solo quando cambiano i dati
+     * (versione dei dati) o la geometria del plot (dimensioni e scala degli assi);
+     * negli altri passaggi di layout, ad esempio per hover o tooltip, i path
+     * esistenti vengono lasciati invariati. Quando serve ricalcolare, gli elementi
+     * dei path vengono aggiornati sul posto invece di essere ricreati.
+     * <p>
+     * Con le animazioni attive i valori visualizzati cambiano a ogni frame, quindi
+     * si usa il layout standard di {@link AreaChart} e si smussa il path risultante.
      */
     @Override
     protected void layoutPlotChildren() {
-        super.layoutPlotChildren();
+        if (getAnimated()) {
+            super.layoutPlotChildren();
+            for (Series<X, Y> series : getData()) {
+                SeriesPathCache cache = cacheFor(series);
+                if (cache.line != null && !series.getData().isEmpty()) {
+                    smoothFromPath(cache);
+                }
+            }
+            return;
+        }
+
         for (Series<X, Y> series : getData()) {
-            Path seriesLine = (Path) series.getNode().lookup(".chart-series-area-line");
-            Path seriesFill = (Path) series.getNode().lookup(".chart-series-area-fill");
+            layoutSeries(series);
+        }
+    }
+
+    /**
+     * Esegue il layout di una serie (simboli e path) se dati o geometria
+     * sono cambiati rispetto all'ultimo calcolo memorizzato.
+     *
+     * @param series la serie da disporre
+     */
+    private void layoutSeries(Series<X, Y> series) {
+        SeriesPathCache cache = cacheFor(series);
+        if (cache.line == null) return;
+
+        ObservableList<Data<X, Y>> items = series.getData();
+        double[] geometry = geometryKey(items);
+        if (cache.version == dataVersion && Arrays.equals(cache.geometry, geometry)) {
+            return;
+        }
+
+        int n = items.size();
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        int count = 0;
+        boolean sorted = true;
+
+        for (Data<X, Y> item : items) {
+            if (item.getXValue() == null || item.getYValue() == null) continue;
+            double x = getXAxis().getDisplayPosition(item.getXValue());
+            double y = getYAxis().getDisplayPosition(item.getYValue());
+            if (Double.isNaN(x) || Double.isNaN(y)) continue;
+
+            Node symbol = item.getNode();
+            if (symbol != null) {
+                double w = symbol.prefWidth(-1);
+                double h = symbol.prefHeight(-1);
+                symbol.resizeRelocate(x - (w / 2), y - (h / 2), w, h);
+            }
+
+            if (count > 0 && x < xs[count - 1]) {
+                sorted = false;
+            }
+            xs[count] = x;
+            ys[count] = y;
+            count++;
+        }
+
+        if (!sorted) {
+            sortByX(xs, ys, count);
+        }
+
+        renderSmoothPath(cache, xs, ys, count);
+        cache.version = dataVersion;
+        cache.geometry = geometry;
+    }
+
+    /**
+     * Calcola la chiave di geometria di una serie: dimensioni del plot,
+     * scala dell'asse Y e posizione del primo e ultimo valore sull'asse X.
+     *
+     * @param items i dati della serie
+     * @return array che identifica la geometria corrente
+     */
+    private double[] geometryKey(List<Data<X, Y>> items) {
+        @SuppressWarnings("unchecked")
+        Axis<Number> yAxis = (Axis<Number>) getYAxis();
+        double firstX = items.isEmpty() || items.get(0).getXValue() == null
+                ? Double.NaN : getXAxis().getDisplayPosition(items.get(0).getXValue());
+        Data<X, Y> last = items.isEmpty() ? null : items.get(items.size() - 1);
+        double lastX = last == null || last.getXValue() == null
+                ? Double.NaN : getXAxis().getDisplayPosition(last.getXValue());
+        return new double[]{
+                getXAxis().getWidth(),
+                getYAxis().getHeight(),
+                yAxis.getDisplayPosition(0),
+                yAxis.getDisplayPosition(1),
+                firstX,
+                lastX
+        };
+    }
+
+    /**
+     * Restituisce (creandola se necessario) la cache della serie, risolvendo
+     * una sola volta i path di linea e riempimento.
+     *
+     * @param series la serie
+     * @return la cache associata
+     */
+    private SeriesPathCache cacheFor(Series<X, Y> series) {
+        SeriesPathCache cache = pathCache.computeIfAbsent(series, s -> new SeriesPathCache());
+        if (cache.line == null && series.getNode() != null) {
+            cache.line = (Path) series.getNode().lookup(".chart-series-area-line");
+            cache.fill = (Path) series.getNode().lookup(".chart-series-area-fill");
+        }
+        return cache;
+    }
 
-            if (seriesLine != null && !series.getData().isEmpty()) {
-                smoothPath(seriesLine, seriesFill);
+    /**
+     * Smussa il path lineare prodotto dal layout standard di {@link AreaChart}
+     * (usato solo con animazioni attive).
+     *
+     * @param cache la cache della serie con i path da smussare
+     */
+    private void smoothFromPath(SeriesPathCache cache) {
+        List<PathElement> elements = cache.line.getElements();
+        double[] xs = new double[elements.size()];
+        double[] ys = new double[elements.size()];
+        int count = 0;
+        for (PathElement elem : elements) {
+            if (elem instanceof MoveTo) {
+                xs[count] = ((MoveTo) elem).getX();
+                ys[count++] = ((MoveTo) elem).getY();
+            } else if (elem instanceof LineTo) {
+                xs[count] = ((LineTo) elem).getX();
+                ys[count++] = ((LineTo) elem).getY();
             }
         }
+        renderSmoothPath(cache, xs, ys, count);
+        cache.version = -1;
     }
 
     /**
-     * Applica lo smoothing a un path, convertendo i segmenti lineari
+     * Applica lo smoothing ai punti di una serie, convertendo i segmenti lineari
      * in curve di Bézier cubiche.
      * <p>
      * L'algoritmo:
      * <ol>
-     *   <li>Estrae i punti dal path originale</li>
+     *   <li>Riduce i punti con LTTB se sono più di quelli distinguibili</li>
      *   <li>Per il primo e l'ultimo segmento usa curve semplificate</li>
      *   <li>Per i segmenti interni usa l'interpolazione Catmull-Rom</li>
      *   <li>Aggiorna sia la linea che l'area riempita</li>
      * </ol>
-     
      *
-     * @param line il path della linea da smussare
-     * @param fill il path dell'area riempita da smussare (può essere null)
+     * @param cache la cache della serie con i path da aggiornare
+     * @param xs    coordinate X di display, ordinate
+     * @param ys    coordinate Y di display
+     * @param count numero di punti validi negli array
      */
-    private void smoothPath(Path line, Path fill) {
-        List<Point2D> points = new ArrayList<>();
-        for (PathElement elem : line.getElements()) {
-            if (elem instanceof MoveTo) {
-                points.add(new Point2D(((MoveTo) elem).getX(), ((MoveTo) elem).getY()));
-            } else if (elem instanceof LineTo) {
-                points.add(new Point2D(((LineTo) elem).getX(), ((LineTo) elem).getY()));
+    private void renderSmoothPath(SeriesPathCache cache, double[] xs, double[] ys, int count) {
+        if (count < 2) {
+            cache.line.getElements().clear();
+            if (cache.fill != null) {
+                cache.fill.getElements().clear();
             }
+            cache.curves = null;
+            return;
         }
 
-        if (points.size() < 2) return;
+        List<Point2D> points = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            points.add(new Point2D(xs[i], ys[i]));
+        }
+        points = downsample(points);
 
-        List<PathElement> smoothElements = new ArrayList<>();
+        int segments = points.size() - 1;
         double yZero = getZeroDisplayPosition();
+        boolean reuse = cache.curves != null
+                && cache.curves.length == segments
+                && cache.line.getElements().size() == segments + 1
+                && cache.line.getElements().get(0) == cache.moveTo;
+
+        if (!reuse) {
+            cache.moveTo = new MoveTo();
+            cache.curves = new CubicCurveTo[segments];
+            for (int i = 0; i < segments; i++) {
+                cache.curves[i] = new CubicCurveTo();
+            }
+            cache.fillRight = new LineTo();
+            cache.fillLeft = new LineTo();
+        }
 
-        smoothElements.add(new MoveTo(points.get(0).x, clampToBaseline(points.get(0).y, yZero)));
+        cache.moveTo.setX(points.get(0).x);
+        cache.moveTo.setY(clampToBaseline(points.get(0).y, yZero));
 
-        for (int i = 0; i < points.size() - 1; i++) {
+        for (int i = 0; i < segments; i++) {
             Point2D p1 = points.get(i);
             Point2D p2 = points.get(i + 1);
+            Point2D cp1;
+            Point2D cp2;
 
-            if (i == 0) {
-                // Primo segmento: curva semplificata per evitare loop
-                Point2D cp1 = new Point2D(
-                        p1.x + (p2.x - p1.x) * 0.3,
-                        p1.y
-                );
-                Point2D cp2 = new Point2D(
-                        p2.x - (p2.x - p1.x) * 0.3,
-                        p2.y
-                );
-
-                smoothElements.add(new CubicCurveTo(
-                        cp1.x, clampToBaseline(cp1.y, yZero),
-                        cp2.x, clampToBaseline(cp2.y, yZero),
-                        p2.x, clampToBaseline(p2.y, yZero)
-                ));
-            } else if (i == points.size() - 2) {
-                // Ultimo segmento: curva semplificata per evitare loop
-                Point2D cp1 = new Point2D(
-                        p1.x + (p2.x - p1.x) * 0.3,
-                        p1.y
-                );
-                Point2D cp2 = new Point2D(
-                        p2.x - (p2.x - p1.x) * 0.3,
-                        p2.y
-                );
-
-                smoothElements.add(new CubicCurveTo(
-                        cp1.x, clampToBaseline(cp1.y, yZero),
-                        cp2.x, clampToBaseline(cp2.y, yZero),
-                        p2.x, clampToBaseline(p2.y, yZero)
-                ));
+            if (i == 0 || i == segments - 1) {
+                // Primo e ultimo segmento: curva semplificata per evitare loop
+                cp1 = new Point2D(p1.x + (p2.x - p1.x) * 0.3, p1.y);
+                cp2 = new Point2D(p2.x - (p2.x - p1.x) * 0.3, p2.y);
             } else {
                 // Segmenti interni: interpolazione Catmull-Rom
                 Point2D p0 = points.get(i - 1);
                 Point2D p3 = points.get(i + 2);
+                cp1 = getControlPoint(p0, p1, p2, false);
+                cp2 = getControlPoint(p1, p2, p3, true);
+            }
+
+            CubicCurveTo curve = cache.curves[i];
+            curve.setControlX1(cp1.x);
+            curve.setControlY1(clampToBaseline(cp1.y, yZero));
+            curve.setControlX2(cp2.x);
+            curve.setControlY2(clampToBaseline(cp2.y, yZero));
+            curve.setX(p2.x);
+            curve.setY(clampToBaseline(p2.y, yZero));
+        }
+
+        cache.fillRight.setX(points.get(segments).x);
+        cache.fillRight.setY(yZero);
+        cache.fillLeft.setX(points.get(0).x);
+        cache.fillLeft.setY(yZero);
 
-                Point2D cp1 = getControlPoint(p0, p1, p2, false);
-                Point2D cp2 = getControlPoint(p1, p2, p3, true);
+        if (!reuse) {
+            List<PathElement> lineElements = new ArrayList<>(segments + 1);
+            lineElements.add(cache.moveTo);
+            lineElements.addAll(Arrays.asList(cache.curves));
+            cache.line.getElements().setAll(lineElements);
 
-                smoothElements.add(new CubicCurveTo(
-                        cp1.x, clampToBaseline(cp1.y, yZero),
-                        cp2.x, clampToBaseline(cp2.y, yZero),
-                        p2.x, clampToBaseline(p2.y, yZero)
-                ));
+            if (cache.fill != null) {
+                List<PathElement> fillElements = new ArrayList<>(lineElements);
+                fillElements.add(cache.fillRight);
+                fillElements.add(cache.fillLeft);
+                fillElements.add(new ClosePath());
+                cache.fill.getElements().setAll(fillElements);
+            }
+        }
+    }
+
+    /**
+     * Ordina per X le coordinate di display (insertion sort: i dati arrivano
+     * quasi sempre già ordinati).
+     */
+    private static void sortByX(double[] xs, double[] ys, int count) {
+        for (int i = 1; i < count; i++) {
+            double x = xs[i];
+            double y = ys[i];
+            int j = i - 1;
+            while (j >= 0 && xs[j] > x) {
+                xs[j + 1] = xs[j];
+                ys[j + 1] = ys[j];
+                j--;
             }
+            xs[j + 1] = x;
+            ys[j + 1] = y;
         }
+    }
 
-        line.getElements().setAll(smoothElements);
+    /**
+     * Riduce i punti del path a circa uno ogni {@link #PIXELS_PER_POINT} pixel
+     * della larghezza di plot, mantenendo picchi e valli grazie a LTTB.
+     *
+     * @param points punti del path in coordinate di display
+     * @return i punti selezionati (la lista originale se non serve ridurre)
+     */
+    private List<Point2D> downsample(List<Point2D> points) {
+        double plotWidth = getXAxis().getWidth();
+        int threshold = (int) (plotWidth / PIXELS_PER_POINT);
+        if (threshold < 3 || points.size() <= threshold) {
+            return points;
+        }
 
-        if (fill != null) {
-            List<PathElement> fillElements = new ArrayList<>(smoothElements);
-            fillElements.add(new LineTo(points.get(points.size() - 1).x, yZero));
-            fillElements.add(new LineTo(points.get(0).x, yZero));
-            fillElements.add(new javafx.scene.shape.ClosePath());
-            fill.getElements().setAll(fillElements);
+        double[] xs = new double[points.size()];
+        double[] ys = new double[points.size()];
+        for (int i = 0; i < points.size(); i++) {
+            xs[i] = points.get(i).x;
+            ys[i] = points.get(i).y;
         }
+
+        int[] selected = LttbDownsampler.select(xs, ys, threshold);
+        List<Point2D> reduced = new ArrayList<>(selected.length);
+        for (int index : selected) {
+            reduced.add(points.get(index));
+        }
+        return reduced;
     }
 
     /**
@@ -292,6 +529,26 @@ public class SmoothAreaChart<X, Y> extends AreaChart<X, Y> {
         return Math.min(value, baseline);
     }
 
+    /**
+     * Stato di smoothing di una serie: path risolti, elementi riusabili
+     * e chiave (versione dati + geometria) dell'ultimo calcolo.
+     */
+    private static class SeriesPathCache {
+        /** Path della linea della serie. */
+        Path line;
+        /** Path dell'area riempita della serie (può essere null). */
+        Path fill;
+        /** Versione dei dati usata nell'ultimo calcolo ({@code -1} = da ricalcolare). */
+        long version = -1;
+        /** Geometria del plot usata nell'ultimo calcolo. */
+        double[] geometry;
+        /** Elementi del path condivisi tra linea e area, aggiornati sul posto. */
+        MoveTo moveTo;
+        CubicCurveTo[] curves;
+        LineTo fillRight;
+        LineTo fillLeft;
+    }
+
     /**
      * Classe interna per rappresentare un punto 2D.
      * <p>
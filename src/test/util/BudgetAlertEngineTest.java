@@ -0,0 +1,174 @@
+package test.util;
+
+import it.unicas.project.template.address.model.Budget;
+import it.unicas.project.template.address.util.BudgetAlertEngine;
+import it.unicas.project.template.address.util.BudgetAlertEngine.ThresholdCrossing;
+import it.unicas.project.template.address.util.BudgetNotificationPreferences;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BudgetAlertEngineTest {
+
+    private static final YearMonth MONTH = YearMonth.of(2025, 11);
+    private static final LocalDate DAY = MONTH.atDay(10);
+
+    private BudgetAlertEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        BudgetNotificationPreferences.resetForTesting(new BudgetNotificationPreferencesTest.RecordingBudgetDAO());
+        BudgetAlertEngine.resetForTesting();
+        engine = BudgetAlertEngine.getInstance();
+        // Alimentari: limite 400, speso 100 (25%)
+        engine.track(new Budget(1, 1, 7, MONTH.getMonthValue(), MONTH.getYear(), 400.0, "Alimentari", 100.0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        BudgetAlertEngine.resetForTesting();
+        BudgetNotificationPreferences.resetForTesting(null);
+    }
+
+    @Test
+    void crossingSeveralThresholdsInOneWriteEmitsEachOnce() {
+        engine.recordSpend(7, 1, DAY, 230.0); // 25% -> 82.5%
+
+        List<ThresholdCrossing> crossings = engine.drainCrossings(7);
+        assertEquals(2, crossings.size());
+        assertEquals(50, crossings.get(0).getThreshold());
+        assertEquals(80, crossings.get(1).getThreshold());
+        assertEquals(330.0, crossings.get(1).getSpentAmount(), 1e-9);
+        assertEquals("Alimentari", crossings.get(1).getCategoryName());
+        assertTrue(engine.drainCrossings(7).isEmpty());
+    }
+
+    @Test
+    void thresholdIsNotEmittedAgainAfterDroppingBelowInSameMonth() {
+        engine.recordSpend(7, 1, DAY, 320.0); // 105%
+        assertEquals(3, engine.drainCrossings(7).size());
+
+        engine.recordSpend(7, 1, DAY, -200.0); // 55%
+        engine.recordSpend(7, 1, DAY, 200.0);  // 105%
+        assertTrue(engine.drainCrossings(7).isEmpty());
+
+        engine.recordSpend(7, 1, DAY, 200.0);  // 155%
+        List<ThresholdCrossing> crossings = engine.drainCrossings(7);
+        assertEquals(1, crossings.size());
+        assertEquals(150, crossings.get(0).getThreshold());
+        assertTrue(crossings.get(0).isExceeded());
+    }
+
+    @Test
+    void spendingExactlyTheLimitIsNotExceeded() {
+        engine.recordSpend(7, 1, DAY, 300.0); // 100% esatto
+        List<ThresholdCrossing> crossings = engine.drainCrossings(7);
+        assertEquals(2, crossings.size());
+        assertFalse(crossings.get(1).isExceeded());
+
+        engine.recordSpend(7, 1, DAY, 0.01);
+        crossings = engine.drainCrossings(7);
+        assertEquals(1, crossings.size());
+        assertEquals(100, crossings.get(0).getThreshold());
+    }
+
+    @Test
+    void alertLevelIsStoredInNotificationPreferences() {
+        engine.recordSpend(7, 1, DAY, 230.0);
+
+        assertEquals(80, BudgetNotificationPreferences.getInstance().getAlertLevel(7, MONTH, 1));
+    }
+
+    @Test
+    void editWithSameAmountDoesNotRecrossThresholds() {
+        // Alert level fermo a 0 (riga precedente al motore): la spesa reale è già all'82.5%
+        engine.track(new Budget(1, 1, 7, MONTH.getMonthValue(), MONTH.getYear(), 400.0, "Alimentari", 330.0));
+
+        engine.recordSpendChange(7, 1, DAY, 230.0, 1, DAY.plusDays(5), 230.0);
+        assertTrue(engine.drainCrossings(7).isEmpty());
+
+        engine.recordSpendChange(7, 1, DAY, 230.0, 1, DAY, 250.0); // 87.5%
+        assertTrue(engine.drainCrossings(7).isEmpty());
+    }
+
+    @Test
+    void editMovingToAnotherCategoryIsSplit() {
+        engine.track(new Budget(2, 2, 7, MONTH.getMonthValue(), MONTH.getYear(), 100.0, "Trasporti", 0.0));
+
+        engine.recordSpendChange(7, 1, DAY, 50.0, 2, DAY, 50.0);
+
+        List<ThresholdCrossing> crossings = engine.drainCrossings(7);
+        assertEquals(1, crossings.size());
+        assertEquals(2, crossings.get(0).getCategoryId());
+        assertEquals(50, crossings.get(0).getThreshold());
+    }
+
+    @Test
+    void customThresholdsPerCategory() {
+        engine.setThresholds(7, 1, 90, 30);
+        assertArrayEquals(new int[]{30, 90}, engine.getThresholds(7, 1));
+        assertArrayEquals(BudgetAlertEngine.DEFAULT_THRESHOLDS, engine.getThresholds(7, 2));
+        assertArrayEquals(BudgetAlertEngine.DEFAULT_THRESHOLDS, engine.getThresholds(8, 1));
+
+        engine.recordSpend(7, 1, DAY, 230.0); // 25% -> 82.5%
+        List<ThresholdCrossing> crossings = engine.drainCrossings(7);
+        assertEquals(1, crossings.size());
+        assertEquals(30, crossings.get(0).getThreshold());
+
+        assertThrows(IllegalArgumentException.class, () -> engine.setThresholds(7, 1));
+        assertThrows(IllegalArgumentException.class, () -> engine.setThresholds(7, 1, 0, 50));
+
+        engine.resetThresholds(7, 1);
+        assertArrayEquals(BudgetAlertEngine.DEFAULT_THRESHOLDS, engine.getThresholds(7, 1));
+    }
+
+    @Test
+    void thresholdsRoundTripThroughText() {
+        int[] parsed = BudgetAlertEngine.parseThresholds(" 100; 50%, 80 80 ");
+        assertArrayEquals(new int[]{50, 80, 100}, parsed);
+        assertEquals("50, 80, 100", BudgetAlertEngine.formatThresholds(parsed));
+        assertArrayEquals(parsed, BudgetAlertEngine.parseThresholds(BudgetAlertEngine.formatThresholds(parsed)));
+
+        assertThrows(IllegalArgumentException.class, () -> BudgetAlertEngine.parseThresholds(""));
+        assertThrows(IllegalArgumentException.class, () -> BudgetAlertEngine.parseThresholds("50, abc"));
+        assertThrows(IllegalArgumentException.class, () -> BudgetAlertEngine.parseThresholds("-10"));
+    }
+
+    @Test
+    void loweringTheLimitCanCrossThresholds() {
+        engine.updateBudgetAmount(7, 1, MONTH, 180.0); // 100 / 180 = 55.6%
+
+        List<ThresholdCrossing> crossings = engine.drainCrossings(7);
+        assertEquals(1, crossings.size());
+        assertEquals(50, crossings.get(0).getThreshold());
+        assertEquals(180.0, crossings.get(0).getBudgetAmount(), 1e-9);
+    }
+
+    @Test
+    void untrackedMonthsAndOtherUsersAreIgnored() {
+        engine.recordSpend(7, 1, MONTH.plusMonths(1).atDay(1), 1000.0);
+        engine.recordSpend(8, 1, DAY, 1000.0);
+        engine.recordSpend(7, 99, DAY, 1000.0);
+
+        assertTrue(engine.drainCrossings(7).isEmpty());
+        assertTrue(engine.drainCrossings(8).isEmpty());
+        assertTrue(engine.isTracking(7, MONTH));
+        assertFalse(engine.isTracking(7, MONTH.plusMonths(1)));
+    }
+
+    @Test
+    void crossingsAreDrainedPerUser() {
+        engine.track(new Budget(2, 1, 8, MONTH.getMonthValue(), MONTH.getYear(), 100.0, "Alimentari", 0.0));
+        engine.recordSpend(7, 1, DAY, 100.0);
+        engine.recordSpend(8, 1, DAY, 60.0);
+
+        assertEquals(1, engine.drainCrossings(8).size());
+        assertEquals(1, engine.drainCrossings(7).size());
+    }
+}
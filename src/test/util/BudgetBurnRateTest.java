@@ -0,0 +1,66 @@
+package test.util;
+
+import it.unicas.project.template.address.model.Budget;
+import it.unicas.project.template.address.util.BudgetBurnRate;
+import it.unicas.project.template.address.util.BudgetNotificationHelper;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BudgetBurnRateTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 4, 10);
+
+    @Test
+    void projectsMonthEndSpendAndExceedDate() {
+        Budget budget = new Budget(1, 1, 1, 4, 2025, 300, "Alimentari", 150);
+
+        BudgetBurnRate.project(budget, null, TODAY);
+
+        assertEquals(15, budget.getDailyBurnRate(), 1e-9);
+        assertEquals(450, budget.getProjectedAmount(), 1e-9);
+        // 150 € rimasti a 15 €/giorno: il limite viene superato all'11° giorno da oggi
+        assertEquals(LocalDate.of(2025, 4, 21), budget.getProjectedExceedDate());
+        assertTrue(BudgetBurnRate.isProjectedToExceed(budget));
+        assertTrue(BudgetNotificationHelper.isBudgetProjectedToExceed(budget));
+    }
+
+    @Test
+    void noExceedDateWhenPaceStaysWithinLimit() {
+        Budget budget = new Budget(1, 2, 1, 4, 2025, 150, "Trasporti", 30);
+
+        BudgetBurnRate.project(budget, null, TODAY);
+
+        assertEquals(90, budget.getProjectedAmount(), 1e-9);
+        assertNull(budget.getProjectedExceedDate());
+        assertFalse(BudgetBurnRate.isProjectedToExceed(budget));
+    }
+
+    @Test
+    void exceededBudgetReportsActualExceedDayFromDailySpend() {
+        Budget budget = new Budget(1, 4, 1, 4, 2025, 100, "Svago", 130);
+        double[] daily = new double[30];
+        daily[1] = 60;
+        daily[4] = 50;
+        daily[8] = 20;
+
+        BudgetBurnRate.apply(List.of(budget), Map.of(4, daily), TODAY);
+
+        assertEquals(LocalDate.of(2025, 4, 5), budget.getProjectedExceedDate());
+        assertFalse(BudgetBurnRate.isProjectedToExceed(budget));
+    }
+
+    @Test
+    void pastMonthsAreNotProjected() {
+        Budget budget = new Budget(1, 1, 1, 3, 2025, 300, "Alimentari", 200);
+
+        BudgetBurnRate.project(budget, null, TODAY);
+
+        assertEquals(200, budget.getProjectedAmount(), 1e-9);
+        assertNull(budget.getProjectedExceedDate());
+    }
+}
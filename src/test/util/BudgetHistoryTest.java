@@ -0,0 +1,64 @@
+package test.util;
+
+import it.unicas.project.template.address.util.BudgetHistory;
+import org.junit.jupiter.api.Test;
+
+import java.time.YearMonth;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BudgetHistoryTest {
+
+    private static final YearMonth LAST = YearMonth.of(2025, 2);
+
+    @Test
+    void monthsEndAtLastMonthAcrossYears() {
+        BudgetHistory history = new BudgetHistory(LAST, 6);
+
+        assertEquals(YearMonth.of(2024, 9), history.getFirstMonth());
+        assertEquals(LAST, history.getMonth(5));
+        assertEquals(4, history.indexOfMonth(YearMonth.of(2025, 1)));
+        assertEquals(-1, history.indexOfMonth(YearMonth.of(2024, 8)));
+        assertEquals(-1, history.indexOfMonth(YearMonth.of(2025, 3)));
+        assertThrows(IllegalArgumentException.class, () -> new BudgetHistory(LAST, 0));
+    }
+
+    @Test
+    void cellsAreStoredPerCategoryAndMonth() {
+        BudgetHistory history = new BudgetHistory(LAST, 3);
+        history.set(4, "Svago", YearMonth.of(2025, 1), 200.0, 150.0);
+        history.set(1, "Alimentari", LAST, 400.0, 500.0);
+        history.set(4, "Svago", LAST, 0.0, 30.0);
+        // Fuori dall'intervallo: la categoria è registrata, il valore ignorato
+        history.set(9, "Viaggi", YearMonth.of(2024, 1), 100.0, 100.0);
+
+        assertEquals(3, history.getCategoryCount());
+        int svago = history.indexOfCategory(4);
+        int alimentari = history.indexOfCategory(1);
+        assertEquals(0, svago);
+        assertEquals("Alimentari", history.getCategoryName(alimentari));
+
+        assertEquals(200.0, history.getLimit(svago, 1), 1e-9);
+        assertEquals(0.75, history.getProgress(svago, 1), 1e-9);
+        assertEquals(0.0, history.getProgress(svago, 2), 1e-9);
+        assertEquals(1.25, history.getProgress(alimentari, 2), 1e-9);
+        assertEquals(0.0, history.getSpent(alimentari, 0), 1e-9);
+        assertEquals(0.0, history.getSpent(history.indexOfCategory(9), 0), 1e-9);
+    }
+
+    @Test
+    void matrixGrowsWithManyCategories() {
+        BudgetHistory history = new BudgetHistory(LAST, 12);
+        for (int id = 1; id <= 40; id++) {
+            history.set(id, "Cat" + id, LAST, id * 10.0, id);
+        }
+
+        assertEquals(40, history.getCategoryCount());
+        for (int id = 1; id <= 40; id++) {
+            int index = history.indexOfCategory(id);
+            assertEquals(id * 10.0, history.getLimit(index, 11), 1e-9);
+            assertEquals(id, history.getSpent(index, 11), 1e-9);
+        }
+        assertEquals(0, history.addCategory(1, "Cat1"));
+    }
+}
@@ -1,6 +1,8 @@
 package test.util;
 
 import it.unicas.project.template.address.model.Budget;
+import it.unicas.project.template.address.util.BudgetAlertEngine.ThresholdCrossing;
+import it.unicas.project.template.address.util.BudgetBurnRate;
 import it.unicas.project.template.address.util.BudgetNotificationHelper;
 import it.unicas.project.template.address.util.BudgetNotificationPreferences;
 import javafx.application.Platform;
@@ -9,18 +11,17 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.io.TempDir;
 
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.ArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import javafx.stage.Window;
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.util.Collections;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -39,9 +40,7 @@ class BudgetNotificationHelperTest {
         }
     }
 
-    @TempDir
-    Path tempDir;
-
+    private static final YearMonth JANUARY_2025 = YearMonth.of(2025, 1);
 
     private static void runOnFxThreadAndWait(Runnable action) {
         CountDownLatch latch = new CountDownLatch(1);
@@ -87,10 +86,8 @@ class BudgetNotificationHelperTest {
     private BudgetNotificationPreferences prefs;
 
     @BeforeEach
-    void setUp() throws IOException {
-        Path prefsFile = tempDir.resolve("budget_prefs.json");
-        Files.deleteIfExists(prefsFile);
-        BudgetNotificationPreferences.resetForTesting(prefsFile.toString());
+    void setUp() {
+        BudgetNotificationPreferences.resetForTesting(new BudgetNotificationPreferencesTest.RecordingBudgetDAO());
         prefs = BudgetNotificationPreferences.getInstance();
     }
 
@@ -104,7 +101,7 @@ class BudgetNotificationHelperTest {
         boolean result = BudgetNotificationHelper.checkAndNotifyForCategory(Collections.emptyList(), 1);
 
         assertFalse(result);
-        assertTrue(prefs.getNotifiedExceededCategoriesSnapshot().isEmpty());
+        assertFalse(prefs.wasAlreadyNotified(1, JANUARY_2025, 1));
     }
 
     @Test
@@ -114,18 +111,18 @@ class BudgetNotificationHelperTest {
         boolean result = BudgetNotificationHelper.checkAndNotifyForCategory(List.of(salaryBudget), 6);
 
         assertFalse(result);
-        assertTrue(prefs.getNotifiedExceededCategoriesSnapshot().isEmpty());
+        assertFalse(prefs.wasAlreadyNotified(1, JANUARY_2025, 6));
     }
 
     @Test
     void checkAndNotifyUnmarksWhenBudgetBackUnderLimit() {
-        prefs.markAsNotified(2);
+        prefs.markAsNotified(1, JANUARY_2025, 2);
         Budget categoryBudget = new Budget(2, 2, 1, 1, 2025, 500.0, "Spesa", 400.0);
 
         boolean result = BudgetNotificationHelper.checkAndNotifyForCategory(List.of(categoryBudget), 2);
 
         assertFalse(result);
-        assertFalse(prefs.wasAlreadyNotifiedThisMonth(2));
+        assertFalse(prefs.wasAlreadyNotified(1, JANUARY_2025, 2));
     }
 
     @Test
@@ -140,7 +137,7 @@ class BudgetNotificationHelperTest {
         }
 
         // Quello che ci interessa davvero: la categoria 3 è stata marcata come notificata
-        assertTrue(prefs.wasAlreadyNotifiedThisMonth(3));
+        assertTrue(prefs.wasAlreadyNotified(1, JANUARY_2025, 3));
     }
 
 
@@ -148,7 +145,7 @@ class BudgetNotificationHelperTest {
 
     @Test
     void checkAndNotifyReturnsTrueIfAlreadyNotifiedAndStillExceeded() {
-        prefs.markAsNotified(4);
+        prefs.markAsNotified(1, JANUARY_2025, 4);
         Budget categoryBudget = new Budget(4, 4, 1, 1, 2025, 200.0, "Svago", 250.0);
 
         final boolean[] result = new boolean[1];
@@ -158,7 +155,35 @@ class BudgetNotificationHelperTest {
         );
 
         assertTrue(result[0]);
-        assertTrue(prefs.wasAlreadyNotifiedThisMonth(4));
+        assertTrue(prefs.wasAlreadyNotified(1, JANUARY_2025, 4));
+    }
+
+    @Test
+    void projectedOverrunIsNotifiedOncePerMonth() {
+        LocalDate today = LocalDate.of(2025, 1, 10);
+        Budget onTrack = new Budget(5, 5, 1, 1, 2025, 500.0, "Casa", 10.0);
+        Budget projected = new Budget(6, 7, 1, 1, 2025, 200.0, "Svago", 100.0);
+        BudgetBurnRate.project(onTrack, null, today);
+        BudgetBurnRate.project(projected, null, today);
+
+        List<ThresholdCrossing> first = BudgetNotificationHelper.selectProjectionsToNotify(List.of(onTrack, projected));
+        assertEquals(1, first.size());
+        assertEquals(7, first.get(0).getCategoryId());
+        assertTrue(first.get(0).isProjection());
+        assertEquals(LocalDate.of(2025, 1, 21), first.get(0).getProjectedExceedDate());
+        assertTrue(prefs.wasProjectionNotified(1, JANUARY_2025, 7));
+
+        // Stesso mese: l'avviso non viene ripetuto
+        assertTrue(BudgetNotificationHelper.selectProjectionsToNotify(List.of(projected)).isEmpty());
     }
 
+    @Test
+    void projectedOverrunRespectsDismissal() {
+        Budget projected = new Budget(6, 7, 1, 1, 2025, 200.0, "Svago", 100.0);
+        BudgetBurnRate.project(projected, null, LocalDate.of(2025, 1, 10));
+        prefs.dismissNotification(1, JANUARY_2025, 7, 200.0);
+
+        assertTrue(BudgetNotificationHelper.selectProjectionsToNotify(List.of(projected)).isEmpty());
+        assertFalse(prefs.wasProjectionNotified(1, JANUARY_2025, 7));
+    }
 }
@@ -1,85 +1,164 @@
 package test.util;
 
+import it.unicas.project.template.address.model.dao.mysql.BudgetDAOMySQLImpl;
 import it.unicas.project.template.address.util.BudgetNotificationPreferences;
+import it.unicas.project.template.address.util.BudgetNotificationPreferences.NotificationState;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
-import java.io.IOException;
-import java.lang.reflect.Field;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.sql.SQLException;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class BudgetNotificationPreferencesTest {
 
-    private Path tempFile;
+    private static final YearMonth MONTH = YearMonth.of(2025, 11);
+
+    /** DAO che registra i batch salvati invece di scriverli sul database. */
+    static class RecordingBudgetDAO extends BudgetDAOMySQLImpl {
+        final List<List<NotificationState>> batches = new ArrayList<>();
+
+        @Override
+        public synchronized void saveNotificationStates(List<NotificationState> states) {
+            batches.add(new ArrayList<>(states));
+        }
+
+        synchronized int batchCount() {
+            return batches.size();
+        }
+    }
+
+    /** DAO che fallisce il primo salvataggio, come un database momentaneamente non raggiungibile. */
+    static class FailingOnceBudgetDAO extends BudgetDAOMySQLImpl {
+        final List<List<NotificationState>> batches = new ArrayList<>();
+        private boolean failed;
+
+        @Override
+        public synchronized void saveNotificationStates(List<NotificationState> states) throws SQLException {
+            if (!failed) {
+                failed = true;
+                throw new SQLException("Connessione non disponibile");
+            }
+            batches.add(new ArrayList<>(states));
+        }
+
+        synchronized int batchCount() {
+            return batches.size();
+        }
+    }
+
+    private RecordingBudgetDAO dao;
+    private BudgetNotificationPreferences prefs;
 
     @BeforeEach
-    void setUp() throws IOException {
-        tempFile = Files.createTempFile("prefs", ".txt");
-        BudgetNotificationPreferences.resetForTesting(tempFile.toString());
+    void setUp() {
+        dao = new RecordingBudgetDAO();
+        BudgetNotificationPreferences.resetForTesting(dao);
+        prefs = BudgetNotificationPreferences.getInstance();
     }
 
     @AfterEach
-    void tearDown() throws IOException {
-        Files.deleteIfExists(tempFile);
+    void tearDown() {
         BudgetNotificationPreferences.resetForTesting(null);
     }
 
     @Test
     void markAndUnmarkNotifications() {
-        BudgetNotificationPreferences prefs = BudgetNotificationPreferences.getInstance();
+        assertFalse(prefs.wasAlreadyNotified(1, MONTH, 3));
+        prefs.markAsNotified(1, MONTH, 3);
+        assertTrue(prefs.wasAlreadyNotified(1, MONTH, 3));
+
+        prefs.unmarkAsNotified(1, MONTH, 3);
+        assertFalse(prefs.wasAlreadyNotified(1, MONTH, 3));
+    }
 
-        assertFalse(prefs.wasAlreadyNotifiedThisMonth(3));
-        prefs.markAsNotified(3);
-        assertTrue(prefs.wasAlreadyNotifiedThisMonth(3));
+    @Test
+    void stateIsKeptPerUserAndMonth() {
+        prefs.markAsNotified(1, MONTH, 3);
 
-        prefs.unmarkAsNotified(3);
-        assertFalse(prefs.wasAlreadyNotifiedThisMonth(3));
+        assertFalse(prefs.wasAlreadyNotified(2, MONTH, 3));
+        assertFalse(prefs.wasAlreadyNotified(1, MONTH.plusMonths(1), 3));
     }
 
     @Test
     void dismissNotificationRestoredWhenBudgetIncreases() {
-        BudgetNotificationPreferences prefs = BudgetNotificationPreferences.getInstance();
-
-        prefs.dismissNotificationForCurrentMonth(2, 200.0);
-        assertTrue(prefs.isNotificationDismissedForCurrentMonth(2, 200.0));
+        prefs.dismissNotification(1, MONTH, 2, 200.0);
+        assertTrue(prefs.isNotificationDismissed(1, MONTH, 2, 200.0));
 
         // Increasing the budget should clear the dismissal
-        assertFalse(prefs.isNotificationDismissedForCurrentMonth(2, 300.0));
+        assertFalse(prefs.isNotificationDismissed(1, MONTH, 2, 300.0));
+        assertFalse(prefs.isNotificationDismissed(1, MONTH, 2, 200.0));
+    }
+
+    @Test
+    void rememberedStateDoesNotOverrideSessionChanges() {
+        prefs.remember(new NotificationState(1, MONTH, 4, true, 150.0, 0, false));
+        assertTrue(prefs.wasAlreadyNotified(1, MONTH, 4));
+        assertTrue(prefs.isNotificationDismissed(1, MONTH, 4, 150.0));
+
+        prefs.unmarkAsNotified(1, MONTH, 4);
+        // Una rilettura dal database (con la modifica non ancora scritta) non la annulla
+        prefs.remember(new NotificationState(1, MONTH, 4, true, 150.0, 0, false));
+        assertFalse(prefs.wasAlreadyNotified(1, MONTH, 4));
+        assertTrue(prefs.isNotificationDismissed(1, MONTH, 4, 150.0));
     }
 
     @Test
-    void cleanOldMonthsRemovesStaleEntries() {
-        BudgetNotificationPreferences prefs = BudgetNotificationPreferences.getInstance();
+    void burstOfChangesIsWrittenOnceInBackground() {
+        for (int i = 1; i <= 20; i++) {
+            prefs.markAsNotified(1, MONTH, i);
+        }
+        // Smarcare una categoria non notificata non accoda nulla
+        prefs.unmarkAsNotified(1, MONTH, 99);
 
-        injectOldMonthData(prefs);
+        // Le modifiche sono subito visibili in memoria, ma non ancora salvate
+        assertTrue(prefs.wasAlreadyNotified(1, MONTH, 20));
+        assertEquals(0, dao.batchCount());
 
-        prefs.cleanOldMonths();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (dao.batchCount() == 0 && System.currentTimeMillis() < deadline) {
+            sleep(20);
+        }
+        assertEquals(1, dao.batchCount());
+        assertEquals(20, dao.batches.get(0).size());
+    }
 
-        assertFalse(prefs.getNotifiedExceededCategoriesSnapshot().containsKey("2020-01"));
-        assertFalse(prefs.getDismissedNotificationsSnapshot().containsKey("2020-01"));
+    @Test
+    void shutdownFlushesPendingChanges() {
+        prefs.dismissNotification(1, MONTH, 4, 60.0);
+
+        BudgetNotificationPreferences.shutdown();
+
+        assertEquals(1, dao.batchCount());
+        NotificationState saved = dao.batches.get(0).get(0);
+        assertEquals(4, saved.getCategoryId());
+        assertEquals(60.0, saved.getDismissedAmount());
+        assertFalse(saved.isNotified());
+    }
+
+    @Test
+    void failedWriteIsRetriedWithoutFurtherChanges() {
+        FailingOnceBudgetDAO failing = new FailingOnceBudgetDAO();
+        BudgetNotificationPreferences.resetForTesting(failing);
+        BudgetNotificationPreferences.getInstance().markAsNotified(1, MONTH, 5);
+
+        long deadline = System.currentTimeMillis() + 8000;
+        while (failing.batchCount() == 0 && System.currentTimeMillis() < deadline) {
+            sleep(50);
+        }
+        assertEquals(1, failing.batchCount());
+        assertEquals(5, failing.batches.get(0).get(0).getCategoryId());
     }
 
-    private void injectOldMonthData(BudgetNotificationPreferences prefs) {
+    private static void sleep(long millis) {
         try {
-            Field notifiedField = BudgetNotificationPreferences.class.getDeclaredField("notifiedExceededCategories");
-            Field dismissedField = BudgetNotificationPreferences.class.getDeclaredField("dismissedNotifications");
-            notifiedField.setAccessible(true);
-            dismissedField.setAccessible(true);
-
-            HashMap<String, HashSet<Integer>> notified = new HashMap<>();
-            notified.put("2020-01", new HashSet<>(java.util.Set.of(1, 2)));
-            notifiedField.set(prefs, notified);
-
-            HashMap<String, java.util.Map<Integer, Double>> dismissed = new HashMap<>();
-            dismissed.put("2020-01", new java.util.HashMap<>(java.util.Map.of(1, 100.0)));
-            dismissedField.set(prefs, dismissed);
-        } catch (ReflectiveOperationException e) {
-            fail("Unable to inject test data: " + e.getMessage());
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
     }
 }
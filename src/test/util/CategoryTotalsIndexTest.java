@@ -0,0 +1,71 @@
+package test.util;
+
+import it.unicas.project.template.address.util.CategoryTotalsIndex;
+import javafx.util.Pair;
+import org.junit.jupiter.api.Test;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CategoryTotalsIndexTest {
+
+    @Test
+    void allTimeTotalsAreSortedAndUpdatedIncrementally() {
+        CategoryTotalsIndex index = new CategoryTotalsIndex();
+        index.setCategoryName(1, "Alimentari");
+        index.setCategoryName(4, "Svago");
+        index.add(1, YearMonth.of(2025, 1), 120);
+        index.add(4, YearMonth.of(2025, 2), 200);
+        index.add(1, YearMonth.of(2025, 3), 30);
+
+        List<Pair<String, Double>> totals = index.totals();
+        assertEquals("Svago", totals.get(0).getKey());
+        assertEquals(150.0, totals.get(1).getValue(), 0.001);
+
+        // Cancellazione dell'unica spesa di Svago: la categoria sparisce
+        index.add(4, YearMonth.of(2025, 2), -200);
+        assertEquals(1, index.totals().size());
+    }
+
+    @Test
+    void rangeTotalsSumOnlyMonthsInRange() {
+        CategoryTotalsIndex index = new CategoryTotalsIndex();
+        index.setCategoryName(1, "Alimentari");
+        index.add(1, YearMonth.of(2024, 12), 50);
+        index.add(1, YearMonth.of(2025, 1), 20);
+        index.add(1, YearMonth.of(2025, 2), 10);
+
+        List<Pair<String, Double>> range = index.totalsBetween(YearMonth.of(2025, 1), YearMonth.of(2025, 2));
+        assertEquals(1, range.size());
+        assertEquals(30.0, range.get(0).getValue(), 0.001);
+    }
+
+    @Test
+    void unknownCategoryNamesAreReported() {
+        CategoryTotalsIndex index = new CategoryTotalsIndex();
+        index.add(9, YearMonth.of(2025, 1), 10);
+        assertFalse(index.hasAllNames());
+
+        index.setCategoryName(9, "Nuova");
+        assertTrue(index.hasAllNames());
+        assertEquals(0.0, CategoryTotalsIndex.expenseAmount("Entrata", 100), 0.0);
+        assertEquals(100.0, CategoryTotalsIndex.expenseAmount("Uscita", 100), 0.0);
+    }
+
+    @Test
+    void missingCategoryNamesAreLookedUpOncePerNewCategory() {
+        CategoryTotalsIndex index = new CategoryTotalsIndex();
+        index.add(9, YearMonth.of(2025, 1), 10);
+        index.markNamesLoaded();
+        assertTrue(index.hasAllNames());
+        assertEquals("Categoria 9", index.totals().get(0).getKey());
+
+        // Una nuova categoria senza nome richiede un nuovo caricamento
+        index.add(10, YearMonth.of(2025, 1), 5);
+        assertFalse(index.hasAllNames());
+        index.setCategoryName(10, "Nuova");
+        assertTrue(index.hasAllNames());
+    }
+}
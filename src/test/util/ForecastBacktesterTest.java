@@ -0,0 +1,105 @@
+package test.util;
+
+import it.unicas.project.template.address.util.ForecastBacktester;
+import it.unicas.project.template.address.util.ForecastBacktester.BacktestReport;
+import it.unicas.project.template.address.util.ForecastBacktester.ErrorMetrics;
+import it.unicas.project.template.address.util.ForecastCalculator;
+import it.unicas.project.template.address.util.ForecastCalculator.ForecastModel;
+import it.unicas.project.template.address.util.PeriodTotalsIndex;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ForecastBacktesterTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+
+    /** Stipendio il primo del mese, 20 € al giorno e 100 € ogni sabato, per due anni. */
+    private static double[][] syntheticYears() {
+        int days = (int) (LocalDate.of(2026, 1, 1).toEpochDay() - START.toEpochDay());
+        double[] income = new double[days];
+        double[] expense = new double[days];
+        for (int i = 0; i < days; i++) {
+            LocalDate day = START.plusDays(i);
+            income[i] = day.getDayOfMonth() == 1 ? 2000 : 0;
+            expense[i] = day.getDayOfWeek() == DayOfWeek.SATURDAY ? 100 : 20;
+        }
+        return new double[][]{income, expense};
+    }
+
+    @Test
+    void seasonalModelBeatsLinearOnWeeklyPattern() {
+        double[][] data = syntheticYears();
+        BacktestReport report = ForecastBacktester.run(START, data[0], data[1], true);
+
+        assertEquals(24, report.getMonths());
+        ErrorMetrics linear = report.getMetrics(ForecastModel.LINEAR);
+        ErrorMetrics seasonal = report.getMetrics(ForecastModel.SEASONAL);
+        assertTrue(linear.getCount() > 0);
+        assertTrue(seasonal.getCount() > linear.getCount() / 2);
+        assertTrue(seasonal.getMeanAbsoluteError() < linear.getMeanAbsoluteError());
+        assertTrue(seasonal.getRootMeanSquaredError() >= seasonal.getMeanAbsoluteError());
+    }
+
+    @Test
+    void parallelAndSequentialRunsAgree() {
+        double[][] data = syntheticYears();
+        BacktestReport parallel = ForecastBacktester.run(START, data[0], data[1], true);
+        BacktestReport sequential = ForecastBacktester.run(START, data[0], data[1], false);
+
+        for (ForecastModel model : ForecastModel.values()) {
+            assertEquals(sequential.getMetrics(model).getCount(), parallel.getMetrics(model).getCount());
+            assertEquals(sequential.getMetrics(model).getMeanAbsoluteError(),
+                    parallel.getMetrics(model).getMeanAbsoluteError(), 1e-6);
+            assertEquals(sequential.getMetrics(model).getStatusAccuracy(),
+                    parallel.getMetrics(model).getStatusAccuracy(), 1e-9);
+        }
+    }
+
+    @Test
+    void linearMetricsMatchSingleForecasts() {
+        double[][] data = syntheticYears();
+        ErrorMetrics linear = ForecastBacktester.run(START, data[0], data[1], false).getMetrics(ForecastModel.LINEAR);
+
+        ForecastCalculator calculator = new ForecastCalculator();
+        long count = 0;
+        double sumAbsError = 0;
+        for (YearMonth month = YearMonth.from(START); month.isBefore(YearMonth.of(2026, 1)); month = month.plusMonths(1)) {
+            int offset = (int) (month.atDay(1).toEpochDay() - START.toEpochDay());
+            int length = month.lengthOfMonth();
+            double actual = 0;
+            for (int i = offset; i < offset + length; i++) {
+                actual += data[0][i] - data[1][i];
+            }
+            double income = 0;
+            double expenses = 0;
+            for (int day = 1; day < length; day++) {
+                income += data[0][offset + day - 1];
+                expenses += data[1][offset + day - 1];
+                // Ogni giorno ha movimenti nella serie sintetica
+                ForecastCalculator.ForecastResult result = calculator.calculateForecast(income, expenses, day, day, length);
+                if (result.isValid()) {
+                    count++;
+                    sumAbsError += Math.abs(result.getEstimatedBalance() - actual);
+                }
+            }
+        }
+
+        assertEquals(count, linear.getCount());
+        assertEquals(sumAbsError / count, linear.getMeanAbsoluteError(), 1e-6);
+    }
+
+    @Test
+    void currentMonthIsExcludedFromIndexBacktest() {
+        PeriodTotalsIndex totals = new PeriodTotalsIndex();
+        totals.add(LocalDate.of(2025, 3, 10), 1000, 30);
+        totals.add(LocalDate.of(2025, 4, 2), 0, 50);
+
+        assertEquals(0, ForecastBacktester.run(totals, LocalDate.of(2025, 3, 20), false).getMonths());
+        assertEquals(1, ForecastBacktester.run(totals, LocalDate.of(2025, 4, 20), false).getMonths());
+    }
+}
@@ -1,8 +1,11 @@
 package test.util;
 
 import it.unicas.project.template.address.util.ForecastCalculator;
+import it.unicas.project.template.address.util.SeasonalForecastModel;
 import org.junit.jupiter.api.Test;
 
+import java.time.LocalDate;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class ForecastCalculatorTest {
@@ -31,4 +34,59 @@ class ForecastCalculatorTest {
 
         assertEquals(ForecastCalculator.ForecastStatus.CRITICAL, result.getStatus());
     }
+
+    @Test
+    void batchForecastsMatchSingleCalculation() {
+        int n = 10_000;
+        double[] income = new double[n];
+        double[] expenses = new double[n];
+        int[] daysWithMovements = new int[n];
+        int[] currentDay = new int[n];
+        int[] daysInMonth = new int[n];
+        for (int i = 0; i < n; i++) {
+            income[i] = (i * 37) % 2000;
+            expenses[i] = (i * 53) % 1500;
+            daysWithMovements[i] = i % 12;
+            daysInMonth[i] = 28 + i % 4;
+            currentDay[i] = i % 33;
+        }
+
+        double[] projected = new double[n];
+        double[] balance = new double[n];
+        ForecastCalculator.ForecastStatus[] status = new ForecastCalculator.ForecastStatus[n];
+        calculator.calculateForecasts(income, expenses, daysWithMovements, currentDay, daysInMonth,
+                projected, balance, status, true);
+
+        for (int i = 0; i < n; i++) {
+            ForecastCalculator.ForecastResult single = calculator.calculateForecast(
+                    income[i], expenses[i], daysWithMovements[i], currentDay[i], daysInMonth[i]);
+            assertEquals(single.getStatus(), status[i], "voce " + i);
+            assertEquals(single.getProjectedTotalExpenses(), projected[i], 1e-9, "voce " + i);
+            assertEquals(single.getEstimatedBalance(), balance[i], 1e-9, "voce " + i);
+        }
+    }
+
+    @Test
+    void batchForecastsRejectMismatchedArrays() {
+        assertThrows(IllegalArgumentException.class, () -> calculator.calculateForecasts(
+                new double[2], new double[2], new int[2], new int[2], new int[1],
+                new double[2], new double[2], new ForecastCalculator.ForecastStatus[2], false));
+    }
+
+    @Test
+    void seasonalForecastAddsModelProjectionToActualExpenses() {
+        SeasonalForecastModel model = new SeasonalForecastModel();
+        LocalDate today = LocalDate.of(2025, 3, 21);
+        assertFalse(calculator.calculateSeasonalForecast(1000, 200, model, today).isValid());
+
+        for (LocalDate day = LocalDate.of(2025, 1, 1); day.isBefore(today); day = day.plusDays(1)) {
+            model.update(day, 15);
+        }
+        ForecastCalculator.ForecastResult result = calculator.calculateSeasonalForecast(1000, 200, model, today);
+
+        assertTrue(result.isValid());
+        assertEquals(10, result.getRemainingDays());
+        assertEquals(200 + 10 * 15, result.getProjectedTotalExpenses(), 1.0);
+        assertEquals(ForecastCalculator.ForecastStatus.STABLE, result.getStatus());
+    }
 }
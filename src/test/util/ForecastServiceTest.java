@@ -0,0 +1,137 @@
+package test.util;
+
+import it.unicas.project.template.address.model.dao.mysql.DAOMySQLSettings;
+import it.unicas.project.template.address.model.dao.mysql.MovimentiDAOMySQLImpl;
+import it.unicas.project.template.address.util.ForecastBacktester;
+import it.unicas.project.template.address.util.ForecastService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ForecastServiceTest {
+
+    private static final int USER_ID = 4242;
+
+    @AfterEach
+    void tearDown() {
+        ForecastService.evict(USER_ID);
+    }
+
+    private static PreparedStatement mockAggregate(Connection conn) throws Exception {
+        PreparedStatement ps = mock(PreparedStatement.class);
+        ResultSet rs = mock(ResultSet.class);
+        when(conn.prepareStatement(anyString())).thenReturn(ps);
+        when(ps.executeQuery()).thenReturn(rs);
+        when(rs.next()).thenReturn(true);
+        when(rs.getDouble("totaleEntrate")).thenReturn(1000d);
+        when(rs.getDouble("totaleUscite")).thenReturn(300d);
+        when(rs.getInt("giorniConMovimenti")).thenReturn(10);
+        return ps;
+    }
+
+    /**
+     * Simula la query dei totali per giorno: un'entrata il primo del mese e
+     * un'uscita il 15, da gennaio ad aprile 2025, per ciascuno degli utenti indicati.
+     */
+    private static void mockDailyTotals(Connection conn, int... userIds) throws Exception {
+        PreparedStatement ps = mock(PreparedStatement.class);
+        ResultSet rs = mock(ResultSet.class);
+        when(conn.prepareStatement(anyString())).thenReturn(ps);
+        when(ps.executeQuery()).thenReturn(rs);
+
+        int rows = userIds.length * 8;
+        int[] row = {-1};
+        when(rs.next()).thenAnswer(inv -> ++row[0] < rows);
+        when(rs.getInt("user_id")).thenAnswer(inv -> userIds[row[0] / 8]);
+        when(rs.getDate("giorno")).thenAnswer(inv -> Date.valueOf(
+                LocalDate.of(2025, 1 + (row[0] % 8) / 2, row[0] % 2 == 0 ? 1 : 15)));
+        when(rs.getDouble("entrate")).thenAnswer(inv -> row[0] % 2 == 0 ? 1000d : 0d);
+        when(rs.getDouble("uscite")).thenAnswer(inv -> row[0] % 2 == 0 ? 0d : 400d);
+    }
+
+    @Test
+    void backtestRunsOnEveryUserFromOneQuery() throws Exception {
+        Connection conn = mock(Connection.class);
+        mockDailyTotals(conn, 11, 12);
+
+        try (MockedStatic<DAOMySQLSettings> settings = Mockito.mockStatic(DAOMySQLSettings.class)) {
+            settings.when(DAOMySQLSettings::getConnection).thenReturn(conn);
+
+            Map<Integer, ForecastBacktester.BacktestReport> reports = ForecastService.backtestAll(LocalDate.of(2025, 5, 10));
+
+            assertEquals(List.of(11, 12), List.copyOf(reports.keySet()));
+            assertEquals(4, reports.get(11).getMonths());
+            assertEquals(4, reports.get(12).getMonths());
+            verify(conn, times(1)).prepareStatement(anyString());
+        }
+    }
+
+    @Test
+    void backtestOfOneUserUsesItsPeriodTotals() throws Exception {
+        Connection conn = mock(Connection.class);
+        mockDailyTotals(conn, USER_ID);
+
+        try (MockedStatic<DAOMySQLSettings> settings = Mockito.mockStatic(DAOMySQLSettings.class)) {
+            settings.when(DAOMySQLSettings::getConnection).thenReturn(conn);
+
+            assertEquals(3, ForecastService.backtest(USER_ID, LocalDate.of(2025, 4, 10)).getMonths());
+        } finally {
+            MovimentiDAOMySQLImpl.evictUserIndexes(USER_ID);
+        }
+    }
+
+    @Test
+    void sameDayAndDataReuseCachedForecast() throws Exception {
+        Connection conn = mock(Connection.class);
+        PreparedStatement ps = mockAggregate(conn);
+        LocalDate today = LocalDate.now();
+
+        try (MockedStatic<DAOMySQLSettings> settings = Mockito.mockStatic(DAOMySQLSettings.class)) {
+            settings.when(DAOMySQLSettings::getConnection).thenReturn(conn);
+
+            ForecastService.MonthForecast first = ForecastService.getForecast(USER_ID, today);
+            ForecastService.MonthForecast second = ForecastService.getForecast(USER_ID, today);
+
+            assertSame(first, second);
+            assertEquals(1000d, first.getTotalIncome());
+            assertEquals(300d, first.getTotalExpenses());
+            verify(ps, times(1)).executeQuery();
+        }
+    }
+
+    @Test
+    void onlyCurrentMonthChangesInvalidateForecast() throws Exception {
+        Connection conn = mock(Connection.class);
+        PreparedStatement ps = mockAggregate(conn);
+        LocalDate today = LocalDate.now();
+
+        try (MockedStatic<DAOMySQLSettings> settings = Mockito.mockStatic(DAOMySQLSettings.class)) {
+            settings.when(DAOMySQLSettings::getConnection).thenReturn(conn);
+
+            ForecastService.getForecast(USER_ID, today);
+            ForecastService.movementChanged(USER_ID, today.minusMonths(2));
+            ForecastService.getForecast(USER_ID, today);
+            verify(ps, times(1)).executeQuery();
+
+            ForecastService.movementChanged(USER_ID, today);
+            ForecastService.getForecast(USER_ID, today);
+            verify(ps, times(2)).executeQuery();
+
+            ForecastService.getForecast(USER_ID, today.plusDays(1));
+            verify(ps, times(3)).executeQuery();
+        }
+    }
+}
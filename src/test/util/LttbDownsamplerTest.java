@@ -0,0 +1,59 @@
+package test.util;
+
+import it.unicas.project.template.address.util.LttbDownsampler;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LttbDownsamplerTest {
+
+    @Test
+    void returnsAllIndicesWhenUnderThreshold() {
+        double[] xs = {0, 1, 2, 3};
+        double[] ys = {5, 6, 7, 8};
+
+        assertArrayEquals(new int[]{0, 1, 2, 3}, LttbDownsampler.select(xs, ys, 10));
+    }
+
+    @Test
+    void keepsEndpointsAndRequestedSize() {
+        int n = 1000;
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = i;
+            ys[i] = Math.sin(i / 20.0);
+        }
+
+        int[] selected = LttbDownsampler.select(xs, ys, 100);
+
+        assertEquals(100, selected.length);
+        assertEquals(0, selected[0]);
+        assertEquals(n - 1, selected[selected.length - 1]);
+        for (int i = 1; i < selected.length; i++) {
+            assertTrue(selected[i] > selected[i - 1]);
+        }
+    }
+
+    @Test
+    void preservesIsolatedPeak() {
+        int n = 2000;
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = i;
+            ys[i] = 30;
+        }
+        ys[1234] = 20000;
+
+        int[] selected = LttbDownsampler.select(xs, ys, 50);
+
+        boolean peakKept = false;
+        for (int index : selected) {
+            if (index == 1234) {
+                peakKept = true;
+            }
+        }
+        assertTrue(peakKept, "Il picco isolato deve sopravvivere alla riduzione");
+    }
+}
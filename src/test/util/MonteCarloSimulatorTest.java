@@ -0,0 +1,57 @@
+package test.util;
+
+import it.unicas.project.template.address.util.MonteCarloSimulator;
+import it.unicas.project.template.address.util.MonteCarloSimulator.SimulationResult;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MonteCarloSimulatorTest {
+
+    private static final double[] HISTORY = {0, 10, 20, 0, 35, 15, 60, 5, 0, 25};
+
+    @Test
+    void sameSeedGivesSameDistribution() {
+        SimulationResult first = MonteCarloSimulator.simulate(500, HISTORY, 15, 20_000, 42L, 10_000);
+        SimulationResult second = MonteCarloSimulator.simulate(500, HISTORY, 15, 20_000, 42L, 10_000);
+
+        assertEquals(20_000, first.getCompletedPaths());
+        assertEquals(first.getP10(), second.getP10());
+        assertEquals(first.getP50(), second.getP50());
+        assertEquals(first.getP90(), second.getP90());
+        assertEquals(first.getProbabilityNegative(), second.getProbabilityNegative());
+    }
+
+    @Test
+    void percentilesAreOrderedAroundExpectedBalance() {
+        // Media storica 17 €/giorno: su 15 giorni il saldo atteso è 500 - 255 = 245
+        SimulationResult result = MonteCarloSimulator.simulate(500, HISTORY, 15, 20_000, 7L, 10_000);
+
+        assertTrue(result.getP10() <= result.getP50());
+        assertTrue(result.getP50() <= result.getP90());
+        assertEquals(245, result.getP50(), 15);
+        assertTrue(result.getProbabilityNegative() < 0.01);
+    }
+
+    @Test
+    void negativeProbabilityWhenSpendingExceedsBalance() {
+        SimulationResult result = MonteCarloSimulator.simulate(50, new double[]{10}, 10, 5_000, 1L, 10_000);
+
+        assertEquals(-50, result.getP50(), 1e-9);
+        assertEquals(1.0, result.getProbabilityNegative());
+    }
+
+    @Test
+    void expiredBudgetYieldsNoPaths() {
+        SimulationResult result = MonteCarloSimulator.simulate(500, HISTORY, 15, 20_000, 1L, -1);
+
+        assertFalse(result.hasResult());
+        assertEquals(20_000, result.getRequestedPaths());
+    }
+
+    @Test
+    void emptyHistoryIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> MonteCarloSimulator.simulate(500, new double[0], 15, 100, 1L, 100));
+    }
+}
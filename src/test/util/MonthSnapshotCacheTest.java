@@ -0,0 +1,64 @@
+package test.util;
+
+import it.unicas.project.template.address.util.MonthSnapshotCache;
+import it.unicas.project.template.address.util.MonthSnapshotCache.MonthSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MonthSnapshotCacheTest {
+
+    private static MonthSnapshot snapshot(int userId, YearMonth month, long version) {
+        return new MonthSnapshot(userId, month, LocalDate.now(), 100f, 40f, List.of(), List.of(), version);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedMonth() {
+        MonthSnapshotCache cache = new MonthSnapshotCache(2);
+        long version = MonthSnapshotCache.currentVersion();
+        YearMonth gennaio = YearMonth.of(2025, 1);
+        YearMonth febbraio = YearMonth.of(2025, 2);
+        YearMonth marzo = YearMonth.of(2025, 3);
+
+        cache.put(snapshot(1, gennaio, version));
+        cache.put(snapshot(1, febbraio, version));
+        assertNotNull(cache.get(1, gennaio));
+        cache.put(snapshot(1, marzo, version));
+
+        assertTrue(cache.contains(1, gennaio));
+        assertFalse(cache.contains(1, febbraio));
+        assertTrue(cache.contains(1, marzo));
+        assertNull(cache.get(2, gennaio));
+    }
+
+    @Test
+    void writesInvalidateExistingAndInFlightSnapshots() {
+        MonthSnapshotCache cache = new MonthSnapshotCache(MonthSnapshotCache.DEFAULT_CAPACITY);
+        YearMonth month = YearMonth.of(2025, 6);
+        long before = MonthSnapshotCache.currentVersion();
+        assertTrue(cache.put(snapshot(1, month, before)));
+
+        MonthSnapshotCache.invalidateAll();
+
+        assertNull(cache.get(1, month));
+        assertFalse(cache.put(snapshot(1, month, before)));
+        assertTrue(cache.put(snapshot(1, month, MonthSnapshotCache.currentVersion())));
+        assertEquals(100f, cache.get(1, month).getEntrate());
+    }
+
+    @Test
+    void snapshotsLoadedOnAnotherDayAreReloaded() {
+        MonthSnapshotCache cache = new MonthSnapshotCache(MonthSnapshotCache.DEFAULT_CAPACITY);
+        YearMonth month = YearMonth.of(2025, 5);
+        MonthSnapshot yesterday = new MonthSnapshot(1, month, LocalDate.now().minusDays(1),
+                100f, 40f, List.of(), List.of(), MonthSnapshotCache.currentVersion());
+
+        assertTrue(cache.put(yesterday));
+        assertFalse(cache.contains(1, month));
+        assertNull(cache.get(1, month));
+    }
+}
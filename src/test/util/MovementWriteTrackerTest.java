@@ -0,0 +1,78 @@
+package test.util;
+
+import it.unicas.project.template.address.util.MovementWriteTracker;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MovementWriteTrackerTest {
+
+    @Test
+    void publishesIndexLoadedWithoutWrites() {
+        Map<Integer, String> indexes = new ConcurrentHashMap<>();
+        long version = MovementWriteTracker.currentVersion(9101);
+
+        assertEquals("caricato", MovementWriteTracker.publish(indexes, 9101, version, "caricato"));
+        assertEquals("caricato", indexes.get(9101));
+
+        // Un indice già pubblicato ha la precedenza su un caricamento concorrente
+        assertEquals("caricato", MovementWriteTracker.publish(indexes, 9101, version, "altro"));
+    }
+
+    @Test
+    void discardsIndexWhenAWriteCompletedDuringTheLoad() {
+        Map<Integer, String> indexes = new ConcurrentHashMap<>();
+        long version = MovementWriteTracker.currentVersion(9102);
+
+        MovementWriteTracker.beginWrite(9102);
+        MovementWriteTracker.endWrite(9102);
+
+        assertEquals("obsoleto", MovementWriteTracker.publish(indexes, 9102, version, "obsoleto"));
+        assertFalse(indexes.containsKey(9102));
+        assertFalse(MovementWriteTracker.isUnchangedSince(9102, version));
+    }
+
+    @Test
+    void discardsIndexWhileAWriteIsInProgress() {
+        Map<Integer, String> indexes = new ConcurrentHashMap<>();
+        MovementWriteTracker.beginWrite(9103);
+        long version = MovementWriteTracker.currentVersion(9103);
+        try {
+            MovementWriteTracker.publish(indexes, 9103, version, "parziale");
+            assertFalse(indexes.containsKey(9103));
+        } finally {
+            MovementWriteTracker.endWrite(9103);
+        }
+
+        long after = MovementWriteTracker.currentVersion(9103);
+        MovementWriteTracker.publish(indexes, 9103, after, "completo");
+        assertEquals("completo", indexes.get(9103));
+    }
+
+    @Test
+    void writesOfOtherUsersDoNotDiscardTheLoad() {
+        Map<Integer, String> indexes = new ConcurrentHashMap<>();
+        long version = MovementWriteTracker.currentVersion(9104);
+
+        MovementWriteTracker.beginWrite(9105);
+        MovementWriteTracker.endWrite(9105);
+
+        MovementWriteTracker.publish(indexes, 9104, version, "caricato");
+        assertEquals("caricato", indexes.get(9104));
+    }
+
+    @Test
+    void writesOfUnknownUserDiscardEveryLoad() {
+        Map<Integer, String> indexes = new ConcurrentHashMap<>();
+        long version = MovementWriteTracker.currentVersion(9106);
+
+        MovementWriteTracker.beginWrite(MovementWriteTracker.ANY_USER);
+        MovementWriteTracker.endWrite(MovementWriteTracker.ANY_USER);
+
+        MovementWriteTracker.publish(indexes, 9106, version, "obsoleto");
+        assertFalse(indexes.containsKey(9106));
+    }
+}
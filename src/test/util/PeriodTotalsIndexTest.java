@@ -0,0 +1,69 @@
+package test.util;
+
+import it.unicas.project.template.address.util.PeriodTotalsIndex;
+import it.unicas.project.template.address.util.TimeBucketAggregator;
+import it.unicas.project.template.address.util.TimeBucketAggregator.Bucket;
+import it.unicas.project.template.address.util.TimeBucketAggregator.Granularity;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PeriodTotalsIndexTest {
+
+    @Test
+    void monthlyFillUsesDailyTotalsForPartialEdgeMonths() {
+        PeriodTotalsIndex index = new PeriodTotalsIndex();
+        index.add(LocalDate.of(2025, 1, 5), 100, 0);
+        index.add(LocalDate.of(2025, 1, 20), 0, 40);
+        index.add(LocalDate.of(2025, 2, 10), 0, 25);
+        index.add(LocalDate.of(2025, 3, 2), 50, 0);
+        index.add(LocalDate.of(2025, 3, 28), 0, 70);
+
+        // Gennaio tagliato a partire dal 10, marzo tagliato al 15
+        List<Bucket> buckets = index.fill(new TimeBucketAggregator(
+                LocalDate.of(2025, 1, 10), LocalDate.of(2025, 3, 15), Granularity.MONTH)).buckets();
+
+        assertEquals(3, buckets.size());
+        assertEquals(0f, buckets.get(0).getIncome());
+        assertEquals(40f, buckets.get(0).getExpense());
+        assertEquals(25f, buckets.get(1).getExpense());
+        assertEquals(50f, buckets.get(2).getIncome());
+        assertEquals(0f, buckets.get(2).getExpense());
+    }
+
+    @Test
+    void revertedMovementsDisappearFromTotalsAndFirstDate() {
+        PeriodTotalsIndex index = new PeriodTotalsIndex();
+        index.add(LocalDate.of(2024, 12, 31), 0, 30);
+        index.add(LocalDate.of(2025, 1, 15), 80, 0);
+        assertEquals(LocalDate.of(2024, 12, 31), index.getFirstDate());
+
+        index.add(LocalDate.of(2024, 12, 31), 0, -30);
+        assertEquals(LocalDate.of(2025, 1, 15), index.getFirstDate());
+
+        TimeBucketAggregator weeks = index.fill(new TimeBucketAggregator(
+                LocalDate.of(2024, 12, 1), LocalDate.of(2025, 1, 31), Granularity.ISO_WEEK));
+        assertEquals(1, weeks.nonEmptyBuckets().size());
+        assertEquals(80f, weeks.nonEmptyBuckets().get(0).getIncome());
+    }
+
+    @Test
+    void revertingEveryMovementEmptiesTheIndex() {
+        PeriodTotalsIndex index = new PeriodTotalsIndex();
+        index.add(LocalDate.of(2025, 3, 10), 20, 0);
+        index.add(LocalDate.of(2025, 3, 10), -20, 0);
+
+        assertNull(index.getFirstDate());
+        TimeBucketAggregator months = index.fill(new TimeBucketAggregator(
+                LocalDate.of(2025, 1, 1), LocalDate.of(2025, 6, 30), Granularity.MONTH));
+        assertTrue(months.nonEmptyBuckets().isEmpty());
+    }
+
+    @Test
+    void emptyIndexHasNoFirstDate() {
+        assertNull(new PeriodTotalsIndex().getFirstDate());
+    }
+}
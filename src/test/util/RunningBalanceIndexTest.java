@@ -0,0 +1,77 @@
+package test.util;
+
+import it.unicas.project.template.address.util.RunningBalanceIndex;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RunningBalanceIndexTest {
+
+    @Test
+    void emptyIndexHasZeroBalance() {
+        RunningBalanceIndex index = new RunningBalanceIndex();
+
+        assertTrue(index.isEmpty());
+        assertEquals(0, index.balanceAt(LocalDate.of(2025, 1, 1)));
+        assertEquals(0, index.total());
+    }
+
+    @Test
+    void balanceAtIsCumulativeUpToDate() {
+        RunningBalanceIndex index = new RunningBalanceIndex();
+        index.add(LocalDate.of(2025, 1, 1), 1500);
+        index.add(LocalDate.of(2025, 1, 10), -200);
+        index.add(LocalDate.of(2025, 2, 5), -300);
+
+        assertEquals(0, index.balanceAt(LocalDate.of(2024, 12, 31)));
+        assertEquals(1500, index.balanceAt(LocalDate.of(2025, 1, 9)));
+        assertEquals(1300, index.balanceAt(LocalDate.of(2025, 1, 31)));
+        assertEquals(1000, index.balanceAt(LocalDate.of(2030, 1, 1)));
+        assertEquals(-500, index.netBetween(LocalDate.of(2025, 1, 2), LocalDate.of(2025, 2, 28)));
+    }
+
+    @Test
+    void updatesBeforeOriginAndBeyondCapacityRebuildTheTree() {
+        RunningBalanceIndex index = new RunningBalanceIndex();
+        index.add(LocalDate.of(2025, 6, 1), 100);
+        index.add(LocalDate.of(2023, 3, 15), 50);
+        index.add(LocalDate.of(2027, 9, 30), -20);
+
+        assertEquals(LocalDate.of(2023, 3, 15), index.getFirstDate());
+        assertEquals(50, index.balanceAt(LocalDate.of(2025, 5, 31)));
+        assertEquals(150, index.balanceAt(LocalDate.of(2025, 6, 1)));
+        assertEquals(130, index.total());
+    }
+
+    @Test
+    void editAndDeleteAreApplicableAsDeltas() {
+        RunningBalanceIndex index = new RunningBalanceIndex();
+        LocalDate day = LocalDate.of(2025, 3, 3);
+        index.add(day, RunningBalanceIndex.signedAmount("Uscita", 80));
+        // modifica: storno del vecchio importo e applicazione del nuovo
+        index.add(day, -RunningBalanceIndex.signedAmount("Uscita", 80));
+        index.add(day.plusDays(1), RunningBalanceIndex.signedAmount("Entrata", 40));
+
+        assertEquals(0, index.balanceAt(day));
+        assertEquals(40, index.balanceAt(day.plusDays(1)));
+    }
+
+    @Test
+    void dailyBalancesMatchPrefixSums() {
+        RunningBalanceIndex index = new RunningBalanceIndex();
+        index.add(LocalDate.of(2025, 1, 1), 1000);
+        index.add(LocalDate.of(2025, 1, 3), -250);
+        index.add(LocalDate.of(2025, 1, 6), 50);
+
+        LocalDate from = LocalDate.of(2024, 12, 30);
+        double[] balances = index.dailyBalances(from, LocalDate.of(2025, 1, 7));
+
+        assertEquals(9, balances.length);
+        for (int i = 0; i < balances.length; i++) {
+            assertEquals(index.balanceAt(from.plusDays(i)), balances[i], 1e-9);
+        }
+        assertEquals(800, balances[8]);
+    }
+}
@@ -0,0 +1,51 @@
+package test.util;
+
+import it.unicas.project.template.address.util.SeasonalForecastModel;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeasonalForecastModelTest {
+
+    /** Lunedì. */
+    private static final LocalDate START = LocalDate.of(2025, 1, 6);
+
+    @Test
+    void learnsWeeklyPattern() {
+        SeasonalForecastModel model = new SeasonalForecastModel();
+        // 10 € al giorno, 80 € il sabato
+        for (int i = 0; i < 8 * 7; i++) {
+            LocalDate day = START.plusDays(i);
+            model.update(day, day.getDayOfWeek() == DayOfWeek.SATURDAY ? 80 : 10);
+        }
+
+        assertTrue(model.isReady());
+        LocalDate nextSaturday = model.getLastDay().plusDays(6);
+        assertEquals(DayOfWeek.SATURDAY, nextSaturday.getDayOfWeek());
+        assertEquals(80, model.forecast(nextSaturday), 1.0);
+        assertEquals(10, model.forecast(nextSaturday.plusDays(2)), 1.0);
+        assertEquals(6 * 10 + 80, model.forecastTotal(model.getLastDay().plusDays(1), model.getLastDay().plusDays(7)), 5.0);
+    }
+
+    @Test
+    void requiresTwoWeeksAndConsecutiveDays() {
+        SeasonalForecastModel model = new SeasonalForecastModel();
+        for (int i = 0; i < SeasonalForecastModel.MINIMUM_DAYS - 1; i++) {
+            model.update(START.plusDays(i), 20);
+        }
+        assertFalse(model.isReady());
+        assertThrows(IllegalArgumentException.class, () -> model.update(START.plusDays(20), 20));
+
+        model.update(START.plusDays(SeasonalForecastModel.MINIMUM_DAYS - 1), 20);
+        assertTrue(model.isReady());
+        assertEquals(SeasonalForecastModel.MINIMUM_DAYS, model.getObservedDays());
+    }
+
+    @Test
+    void emptyModelForecastsNothing() {
+        assertEquals(0, new SeasonalForecastModel().forecast(START));
+    }
+}
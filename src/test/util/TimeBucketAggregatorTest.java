@@ -0,0 +1,96 @@
+package test.util;
+
+import it.unicas.project.template.address.model.Movimenti;
+import it.unicas.project.template.address.util.TimeBucketAggregator;
+import it.unicas.project.template.address.util.TimeBucketAggregator.Bucket;
+import it.unicas.project.template.address.util.TimeBucketAggregator.Granularity;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeBucketAggregatorTest {
+
+    @Test
+    void threeDayPeriodsCoverWholeMonthWithLastPeriodExtended() {
+        List<Bucket> buckets = TimeBucketAggregator.threeDayPeriodsOf(YearMonth.of(2025, 1)).buckets();
+
+        assertEquals(10, buckets.size());
+        assertEquals("1-3", buckets.get(0).getLabel());
+        assertEquals("25-27", buckets.get(8).getLabel());
+        assertEquals("28-31", buckets.get(9).getLabel());
+    }
+
+    @Test
+    void threeDayPeriodsAggregateMovementsByType() {
+        TimeBucketAggregator aggregator = TimeBucketAggregator.threeDayPeriodsOf(YearMonth.of(2025, 2));
+        aggregator.addAll(List.of(
+                new Movimenti(1, "Entrata", LocalDate.of(2025, 2, 2), 100f, "Stipendio", "Bonifico"),
+                new Movimenti(2, "Uscita", LocalDate.of(2025, 2, 3), 30f, "Spesa", "Carta"),
+                new Movimenti(3, "Uscita", LocalDate.of(2025, 2, 28), 20f, "Cena", "Contanti"),
+                new Movimenti(4, "Uscita", LocalDate.of(2025, 3, 1), 999f, "Fuori mese", "Carta")
+        ));
+
+        List<Bucket> buckets = aggregator.buckets();
+        assertEquals(100f, buckets.get(0).getIncome());
+        assertEquals(30f, buckets.get(0).getExpense());
+        assertEquals("28-28", buckets.get(9).getLabel());
+        assertEquals(20f, buckets.get(9).getExpense());
+        assertEquals(2, aggregator.nonEmptyBuckets().size());
+    }
+
+    @Test
+    void monthQuarterAndYearGranularities() {
+        LocalDate from = LocalDate.of(2024, 11, 1);
+        LocalDate to = LocalDate.of(2025, 4, 30);
+
+        TimeBucketAggregator months = new TimeBucketAggregator(from, to, Granularity.MONTH);
+        months.add(LocalDate.of(2025, 1, 15), 50f, 10f);
+        assertEquals(6, months.getBucketCount());
+        assertEquals("gen '25", months.nonEmptyBuckets().get(0).getLabel());
+
+        TimeBucketAggregator quarters = new TimeBucketAggregator(from, to, Granularity.QUARTER);
+        assertEquals(3, quarters.getBucketCount());
+        assertEquals(1, quarters.indexOf(LocalDate.of(2025, 3, 31)));
+        assertEquals(from, quarters.buckets().get(0).getStart());
+
+        TimeBucketAggregator years = new TimeBucketAggregator(from, to, Granularity.YEAR);
+        assertEquals(2, years.getBucketCount());
+        assertEquals("2025", years.buckets().get(1).getLabel());
+    }
+
+    @Test
+    void isoWeeksStartOnMonday() {
+        // 1 gennaio 2025 è un mercoledì: la prima settimana ISO parte dal lunedì 30 dicembre
+        TimeBucketAggregator weeks = new TimeBucketAggregator(
+                LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 31), Granularity.ISO_WEEK);
+
+        assertEquals(0, weeks.indexOf(LocalDate.of(2025, 1, 5)));
+        assertEquals(1, weeks.indexOf(LocalDate.of(2025, 1, 6)));
+        assertEquals(-1, weeks.indexOf(LocalDate.of(2024, 12, 31)));
+        assertEquals(LocalDate.of(2025, 1, 1), weeks.buckets().get(0).getStart());
+    }
+
+    @Test
+    void granularityForKeepsBucketCountBounded() {
+        LocalDate to = LocalDate.of(2025, 6, 30);
+
+        assertEquals(Granularity.DAY, TimeBucketAggregator.granularityFor(LocalDate.of(2025, 6, 1), to, 60));
+        assertEquals(Granularity.ISO_WEEK, TimeBucketAggregator.granularityFor(LocalDate.of(2025, 4, 1), to, 60));
+        assertEquals(Granularity.MONTH, TimeBucketAggregator.granularityFor(LocalDate.of(2021, 1, 1), to, 60));
+        assertEquals(Granularity.QUARTER, TimeBucketAggregator.granularityFor(LocalDate.of(2015, 1, 1), to, 60));
+        assertEquals(Granularity.YEAR, TimeBucketAggregator.granularityFor(LocalDate.of(1950, 1, 1), to, 60));
+
+        // Gli intervalli di più mesi restano mensili anche se i giorni o le settimane ci starebbero
+        assertEquals(Granularity.MONTH, TimeBucketAggregator.granularityFor(LocalDate.of(2025, 1, 1), to, 60));
+        assertEquals(Granularity.MONTH, TimeBucketAggregator.granularityFor(LocalDate.of(2024, 6, 1), to, 60));
+
+        LocalDate from = LocalDate.of(2019, 3, 15);
+        TimeBucketAggregator aggregator = new TimeBucketAggregator(from, to,
+                TimeBucketAggregator.granularityFor(from, to, 60));
+        assertTrue(aggregator.getBucketCount() <= 60);
+    }
+}
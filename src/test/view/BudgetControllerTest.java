@@ -3,16 +3,21 @@ package test.view;
 import it.unicas.project.template.address.MainApp;
 import it.unicas.project.template.address.model.Budget;
 import it.unicas.project.template.address.model.User;
+import it.unicas.project.template.address.util.BudgetHistory;
 import it.unicas.project.template.address.view.BudgetController;
+import it.unicas.project.template.address.view.BudgetLimitCard;
 import javafx.application.Platform;
 import javafx.embed.swing.JFXPanel;
-import javafx.scene.control.Label;
-import javafx.scene.control.ProgressBar;
+import javafx.scene.control.ListView;
+import javafx.scene.control.TableView;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
@@ -42,56 +47,13 @@ class BudgetControllerTest {
     }
 
     private BudgetController controller;
-
-    // Card Alimentari
-    private Label foodCategoryLabel;
-    private Label foodRemainingLabel;
-    private Label foodPercentageLabel;
-    private Label foodSpentLabel;
-    private Label foodLimitLabel;
-    private ProgressBar foodProgressBar;
-
-    // Card Trasporti
-    private Label transportCategoryLabel;
-    private Label transportRemainingLabel;
-    private Label transportPercentageLabel;
-    private Label transportSpentLabel;
-    private Label transportLimitLabel;
-    private ProgressBar transportProgressBar;
+    private ListView<List<Budget>> budgetGrid;
 
     @BeforeEach
     void setUp() {
         controller = new BudgetController();
-
-        // Setup UI elementi per Alimentari
-        foodCategoryLabel = new Label();
-        foodRemainingLabel = new Label();
-        foodPercentageLabel = new Label();
-        foodSpentLabel = new Label();
-        foodLimitLabel = new Label();
-        foodProgressBar = new ProgressBar();
-
-        // Setup UI elementi per Trasporti
-        transportCategoryLabel = new Label();
-        transportRemainingLabel = new Label();
-        transportPercentageLabel = new Label();
-        transportSpentLabel = new Label();
-        transportLimitLabel = new Label();
-        transportProgressBar = new ProgressBar();
-
-        setField(controller, "foodCategoryLabel", foodCategoryLabel);
-        setField(controller, "foodRemainingLabel", foodRemainingLabel);
-        setField(controller, "foodPercentageLabel", foodPercentageLabel);
-        setField(controller, "foodSpentLabel", foodSpentLabel);
-        setField(controller, "foodLimitLabel", foodLimitLabel);
-        setField(controller, "foodProgressBar", foodProgressBar);
-
-        setField(controller, "transportCategoryLabel", transportCategoryLabel);
-        setField(controller, "transportRemainingLabel", transportRemainingLabel);
-        setField(controller, "transportPercentageLabel", transportPercentageLabel);
-        setField(controller, "transportSpentLabel", transportSpentLabel);
-        setField(controller, "transportLimitLabel", transportLimitLabel);
-        setField(controller, "transportProgressBar", transportProgressBar);
+        budgetGrid = new ListView<>();
+        setField(controller, "budgetGrid", budgetGrid);
     }
 
     @Test
@@ -113,28 +75,84 @@ class BudgetControllerTest {
     }
 
     @Test
-    void resetCardShouldSetDefaultValues() throws Exception {
-        // Simuliamo la chiamata al metodo privato resetCard
-        foodRemainingLabel.setText("Rimasti: € 500.00");
-        foodSpentLabel.setText("Spesi: € 200.00");
-        foodLimitLabel.setText("Limite: € 1000.00");
-        foodPercentageLabel.setText("50%");
-        foodProgressBar.setProgress(0.5);
+    void resetCardShouldSetDefaultValues() {
+        BudgetLimitCard[] card = new BudgetLimitCard[1];
+        runOnFxThreadAndWait(() -> {
+            card[0] = new BudgetLimitCard(b -> { });
+            card[0].update(new Budget(1, 1, 7, 11, 2025, 1000.0, "Alimentari", 500.0));
+            card[0].reset();
+        });
+
+        assertNull(card[0].getBudget());
+        assertEquals("Rimasti: € 0.00", card[0].getRemainingText());
+        assertEquals("Spesi: € 0.00", card[0].getSpentText());
+        assertEquals("Limite: € 0.00", card[0].getLimitText());
+        assertEquals("0%", card[0].getPercentageText());
+        assertEquals(0.0, card[0].getProgress(), 0.001);
+    }
+
+    @Test
+    void cardShowsBudgetOfAnyCategory() {
+        BudgetLimitCard[] card = new BudgetLimitCard[1];
+        Budget[] edited = new Budget[1];
+        Budget viaggi = new Budget(0, 42, 7, 11, 2025, 400.0, "Viaggi", 500.0);
+        runOnFxThreadAndWait(() -> {
+            card[0] = new BudgetLimitCard(b -> edited[0] = b);
+            card[0].update(viaggi);
+        });
+
+        assertEquals("Viaggi", card[0].getCategoryText());
+        assertEquals(String.format("Spesi: € %.2f", 500.0), card[0].getSpentText());
+        assertEquals(String.format("Rimasti: € %.2f", 0.0), card[0].getRemainingText());
+        assertEquals("125%", card[0].getPercentageText());
+        assertEquals(1.0, card[0].getProgress(), 0.001);
+        assertSame(viaggi, card[0].getBudget());
+    }
+
+    @Test
+    void budgetsAreGroupedInGridRows() {
+        List<Budget> budgets = new ArrayList<>();
+        for (int id = 1; id <= 5; id++) {
+            budgets.add(new Budget(id, id, 7, 11, 2025, 100.0, "Cat" + id, 10.0 * id));
+        }
+        setField(controller, "currentBudgets", budgets);
+
+        runOnFxThreadAndWait(() -> {
+            try {
+                invokePrivate(controller, "updateUIFromBudgets");
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        assertEquals(3, budgetGrid.getItems().size());
+        assertEquals(List.of(budgets.get(0), budgets.get(1)), budgetGrid.getItems().get(0));
+        assertEquals(List.of(budgets.get(4)), budgetGrid.getItems().get(2));
+    }
+
+    @Test
+    void historyIsShownAsCategoryByMonthTable() {
+        TableView<Integer> historyTable = new TableView<>();
+        setField(controller, "historyTable", historyTable);
+
+        BudgetHistory history = new BudgetHistory(YearMonth.of(2025, 2), 3);
+        history.set(1, "Alimentari", YearMonth.of(2025, 2), 400.0, 500.0);
+        history.set(4, "Svago", YearMonth.of(2025, 1), 0.0, 30.0);
+        history.addCategory(8, "Altro");
 
         runOnFxThreadAndWait(() -> {
             try {
-                invokeResetCard(controller, foodRemainingLabel, foodSpentLabel,
-                        foodLimitLabel, foodPercentageLabel, foodProgressBar);
+                var method = BudgetController.class.getDeclaredMethod("showHistory", BudgetHistory.class);
+                method.setAccessible(true);
+                method.invoke(controller, history);
             } catch (Exception e) {
                 throw new RuntimeException(e);
             }
         });
 
-        assertEquals("Rimasti: € 0.00", foodRemainingLabel.getText());
-        assertEquals("Spesi: € 0.00", foodSpentLabel.getText());
-        assertEquals("Limite: € 0.00", foodLimitLabel.getText());
-        assertEquals("0%", foodPercentageLabel.getText());
-        assertEquals(0.0, foodProgressBar.getProgress(), 0.001);
+        assertEquals(4, historyTable.getColumns().size());
+        assertEquals("Categoria", historyTable.getColumns().get(0).getText());
+        assertEquals(List.of(0, 1, 2), historyTable.getItems());
     }
 
     @Test
@@ -294,12 +312,4 @@ class BudgetControllerTest {
         method.setAccessible(true);
         method.invoke(target);
     }
-
-    private void invokeResetCard(Object target, Label remaining, Label spent,
-                                  Label limit, Label percentage, ProgressBar bar) throws Exception {
-        var method = BudgetController.class.getDeclaredMethod("resetCard",
-                Label.class, Label.class, Label.class, Label.class, ProgressBar.class);
-        method.setAccessible(true);
-        method.invoke(target, remaining, spent, limit, percentage, bar);
-    }
 }
@@ -0,0 +1,127 @@
+package test.view;
+
+import it.unicas.project.template.address.model.Budget;
+import it.unicas.project.template.address.util.BudgetAlertEngine.ThresholdCrossing;
+import it.unicas.project.template.address.util.BudgetBurnRate;
+import it.unicas.project.template.address.view.BudgetToastCenter;
+import javafx.application.Platform;
+import javafx.embed.swing.JFXPanel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BudgetToastCenterTest {
+
+    private static final YearMonth MONTH = YearMonth.of(2025, 11);
+
+    private BudgetToastCenter center;
+
+    @BeforeAll
+    static void initToolkit() {
+        new JFXPanel();
+    }
+
+    @BeforeEach
+    void setUp() {
+        runOnFxThreadAndWait(BudgetToastCenter::resetForTesting);
+        center = BudgetToastCenter.getInstance();
+    }
+
+    @AfterEach
+    void tearDown() {
+        runOnFxThreadAndWait(BudgetToastCenter::resetForTesting);
+    }
+
+    private static ThresholdCrossing crossing(int categoryId, int threshold) {
+        return new ThresholdCrossing(7, MONTH, categoryId, "Cat" + categoryId, threshold, 100.0, threshold);
+    }
+
+    /** Pubblica gli avvisi e attende che vengano visualizzati. */
+    private void post(ThresholdCrossing... crossings) {
+        runOnFxThreadAndWait(() -> center.post(List.of(crossings)));
+        runOnFxThreadAndWait(() -> { });
+    }
+
+    @Test
+    void sameCategoryKeepsOnlyHighestThreshold() {
+        post(crossing(1, 50), crossing(1, 80));
+        assertEquals(1, center.getVisibleCount());
+        assertTrue(center.getVisibleMessages().get(0).contains("restano €20"));
+
+        // Una soglia più alta aggiorna la notifica già visibile
+        post(crossing(1, 100));
+        assertEquals(1, center.getVisibleCount());
+        assertEquals(0, center.getQueuedCount());
+        assertTrue(center.getVisibleMessages().get(0).contains("superato di €0"));
+    }
+
+    @Test
+    void projectionIsReplacedByARealCrossing() {
+        Budget budget = new Budget(1, 1, 7, MONTH.getMonthValue(), MONTH.getYear(), 100.0, "Cat1", 40.0);
+        BudgetBurnRate.project(budget, null, MONTH.atDay(10));
+
+        post(ThresholdCrossing.projection(budget));
+        assertEquals(1, center.getVisibleCount());
+        assertTrue(center.getVisibleMessages().get(0).contains("superato il"));
+
+        post(crossing(1, 50));
+        assertEquals(1, center.getVisibleCount());
+        assertTrue(center.getVisibleMessages().get(0).contains("restano €50"));
+    }
+
+    @Test
+    void notificationsBeyondLimitAreQueued() {
+        post(crossing(1, 100), crossing(2, 100), crossing(3, 100), crossing(4, 50), crossing(5, 80));
+
+        assertEquals(BudgetToastCenter.MAX_VISIBLE, center.getVisibleCount());
+        assertEquals(2, center.getQueuedCount());
+
+        runOnFxThreadAndWait(center::closeAll);
+        assertEquals(2, center.getVisibleCount());
+        assertEquals(0, center.getQueuedCount());
+    }
+
+    @Test
+    void postFromBackgroundThreadIsShownOnFxThread() throws InterruptedException {
+        Thread writer = new Thread(() -> center.post(List.of(crossing(1, 50))));
+        writer.start();
+        writer.join();
+        runOnFxThreadAndWait(() -> { });
+        runOnFxThreadAndWait(() -> { });
+
+        assertEquals(1, center.getVisibleCount());
+    }
+
+    private static void runOnFxThreadAndWait(Runnable action) {
+        if (Platform.isFxApplicationThread()) {
+            action.run();
+            return;
+        }
+
+        CountDownLatch latch = new CountDownLatch(1);
+        Platform.runLater(() -> {
+            try {
+                action.run();
+            } finally {
+                latch.countDown();
+            }
+        });
+
+        try {
+            if (!latch.await(5, TimeUnit.SECONDS)) {
+                throw new RuntimeException("Timeout in runOnFxThreadAndWait");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+}
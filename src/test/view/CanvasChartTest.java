@@ -0,0 +1,68 @@
+package test.view;
+
+import it.unicas.project.template.address.view.CanvasChart;
+import javafx.embed.swing.JFXPanel;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CanvasChartTest {
+
+    @BeforeAll
+    static void initToolkit() {
+        new JFXPanel();
+    }
+
+    /**
+     * Crea un grafico già dimensionato, con area di plot larga 400px
+     * (60px di margine sinistro e 15px a destra).
+     */
+    private CanvasChart sizedChart() {
+        CanvasChart chart = new CanvasChart();
+        chart.resize(475, 300);
+        chart.layout();
+        return chart;
+    }
+
+    @Test
+    void areaHitTestMapsToNearestPointAndKeepsRawValues() {
+        CanvasChart chart = sizedChart();
+        double[] values = new double[20001];
+        values[12345] = 20000;
+        chart.setAreaData(new String[]{"Saldo"}, i -> "g" + i, values);
+
+        assertEquals(20001, chart.getPointCount());
+        assertEquals(0, chart.hitTest(60, 150));
+        assertEquals(20000, chart.hitTest(460, 150));
+        assertEquals(-1, chart.hitTest(10, 150));
+        assertTrue(chart.tooltipText(12345).contains("20000,00"));
+    }
+
+    @Test
+    void barHitTestUsesCategorySlots() {
+        CanvasChart chart = sizedChart();
+        chart.setBarData(new String[]{"Entrate", "Uscite"}, i -> "p" + i,
+                new double[]{100, 200, 300, 400}, new double[]{50, 60, 70, 80});
+
+        assertEquals(CanvasChart.Mode.BAR, chart.getMode());
+        assertEquals(0, chart.hitTest(61, 100));
+        assertEquals(3, chart.hitTest(459, 100));
+        assertEquals("p1\nEntrate: € 200,00\nUscite: € 60,00", chart.tooltipText(1));
+    }
+
+    @Test
+    void pieHitTestFindsSliceClockwiseFromTop() {
+        CanvasChart chart = sizedChart();
+        chart.setPieData(new String[]{"Casa", "Cibo"}, new double[]{75, 25});
+
+        double cx = 475 / 2.0;
+        double cy = 300 / 2.0;
+        // Destra del centro: entro i primi 270° → prima fetta
+        assertEquals(0, chart.hitTest(cx + 50, cy));
+        // Sinistra del centro, appena sopra: ultimo quarto → seconda fetta
+        assertEquals(1, chart.hitTest(cx - 50, cy - 5));
+        assertEquals(-1, chart.hitTest(2, 2));
+        assertEquals("Cibo\n€ 25,00 (25,0%)", chart.tooltipText(1));
+    }
+}
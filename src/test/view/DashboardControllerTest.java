@@ -7,13 +7,20 @@ import it.unicas.project.template.address.model.User;
 import it.unicas.project.template.address.model.dao.mysql.BudgetDAOMySQLImpl;
 import it.unicas.project.template.address.model.dao.mysql.DAOMySQLSettings;
 import it.unicas.project.template.address.model.dao.mysql.MovimentiDAOMySQLImpl;
+import it.unicas.project.template.address.util.BudgetBurnRate;
+import it.unicas.project.template.address.util.DateUtil;
+import it.unicas.project.template.address.util.MonthSnapshotCache;
+import it.unicas.project.template.address.util.RunningBalanceIndex;
+import it.unicas.project.template.address.view.BudgetCard;
 import it.unicas.project.template.address.view.DashboardController;
 import javafx.application.Platform;
+import javafx.css.PseudoClass;
 import javafx.embed.swing.JFXPanel;
 import javafx.scene.chart.BarChart;
 import javafx.scene.chart.CategoryAxis;
 import javafx.scene.chart.NumberAxis;
 import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
 import javafx.scene.layout.AnchorPane;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.VBox;
@@ -28,6 +35,7 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
@@ -59,6 +67,12 @@ class DashboardControllerTest {
         float entrate;
         float uscite;
         List<Movimenti> movimenti;
+        RunningBalanceIndex balanceIndex = new RunningBalanceIndex();
+
+        @Override
+        public RunningBalanceIndex getBalanceIndex(int userId) {
+            return balanceIndex;
+        }
 
         @Override
         public float getSumByMonth(int userId, int month, int year, String type) {
@@ -97,6 +111,7 @@ class DashboardControllerTest {
     private DashboardController createControllerWithBasicUi() {
         DashboardController controller = new DashboardController();
         setField(controller, "lblSaldo", new Label());
+        setField(controller, "lblSaldoComplessivo", new Label());
         setField(controller, "lblEntrate", new Label());
         setField(controller, "lblUscite", new Label());
         setField(controller, "lblPrevisione", new Label());
@@ -112,6 +127,14 @@ class DashboardControllerTest {
      * Configura il controller con i DAO stub e il MainApp finto.
      */
     private void setupControllerWithData(DashboardController controller, float entrate, float uscite, List<Movimenti> movimenti, List<Budget> budgets) {
+        setupControllerWithData(controller, entrate, uscite, movimenti, budgets, new RunningBalanceIndex());
+    }
+
+    /**
+     * Configura il controller con i DAO stub, il MainApp finto e l'indice del saldo progressivo indicato.
+     */
+    private void setupControllerWithData(DashboardController controller, float entrate, float uscite, List<Movimenti> movimenti,
+                                         List<Budget> budgets, RunningBalanceIndex balanceIndex) {
         User user = new User(1, "user", "pwd");
         MainApp mainApp = new TestMainApp(user);
 
@@ -119,6 +142,7 @@ class DashboardControllerTest {
         movimentiDAO.entrate = entrate;
         movimentiDAO.uscite = uscite;
         movimentiDAO.movimenti = movimenti;
+        movimentiDAO.balanceIndex = balanceIndex;
 
         StubBudgetDAO budgetDAO = new StubBudgetDAO();
         budgetDAO.budgets = budgets;
@@ -406,6 +430,28 @@ class DashboardControllerTest {
         assertTrue(lblSaldo.getStyle().contains("#ef4444"), "Il saldo negativo dovrebbe essere rosso");
     }
 
+    /**
+     * Test: Saldo complessivo dall'indice del saldo progressivo
+     * Verifica che la label del saldo complessivo includa i mesi precedenti,
+     * mentre il saldo principale resta quello del mese.
+     */
+    @Test
+    void saldoComplessivoDalSaldoProgressivo() {
+        LocalDate today = LocalDate.now();
+        RunningBalanceIndex index = new RunningBalanceIndex();
+        index.add(today.minusYears(1), 2000);
+        index.add(today, -500);
+
+        DashboardController controller = createControllerWithBasicUi();
+        setupControllerWithData(controller, 100f, 300f, List.of(), List.of(), index);
+
+        Label lblSaldo = getField(controller, "lblSaldo");
+        Label lblSaldoComplessivo = getField(controller, "lblSaldoComplessivo");
+
+        assertEquals("€ -200,00", lblSaldo.getText());
+        assertEquals("Saldo complessivo al " + DateUtil.format(today) + ": € 1500,00", lblSaldoComplessivo.getText());
+    }
+
     /**
      * Test: Saldo zero quando entrate = uscite
      * Verifica che il saldo sia zero e mostrato in verde (>= 0).
@@ -523,6 +569,120 @@ class DashboardControllerTest {
         assertEquals("-", lblUscite.getText());
     }
 
+    /**
+     * Test: la lista degli ultimi movimenti è un'unica ListView virtualizzata,
+     * riusata (non ricreata) quando si cambia mese.
+     */
+    @Test
+    void ultimiMovimentiUsanoUnaSolaListViewRiusata() throws Exception {
+        DashboardController controller = createControllerWithBasicUi();
+        List<Movimenti> movimenti = new java.util.ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            movimenti.add(new Movimenti(i, i % 2 == 0 ? "Uscita" : "Entrata",
+                    LocalDate.now(), 10f, "Movimento " + i, "Carta"));
+        }
+        setupControllerWithData(controller, 100f, 50f, movimenti, List.of());
+
+        VBox box = getField(controller, "boxUltimiMovimenti");
+        assertEquals(1, box.getChildren().size());
+        ListView<?> list = (ListView<?>) box.getChildren().get(0);
+        assertEquals(2000, list.getItems().size());
+
+        runOnFxThreadAndWait(() -> {
+            try {
+                invokePrivate(controller, "handleNextMonth");
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        assertSame(list, box.getChildren().get(0));
+    }
+
+    /**
+     * Test: le card dei budget sono riutilizzate tra i refresh, aggiornate
+     * solo nei valori e rimosse quando la categoria non ha più un budget.
+     */
+    @Test
+    void budgetCardsAreReusedAndUpdatedInPlace() throws Exception {
+        DashboardController controller = createControllerWithBasicUi();
+        List<Budget> budgets = new java.util.ArrayList<>(List.of(
+                new Budget(1, 10, 1, 1, 2025, 100.0, "Spesa", 20.0),
+                new Budget(2, 20, 1, 1, 2025, 50.0, "Svago", 10.0)));
+        setupControllerWithData(controller, 100f, 50f, List.of(), budgets);
+
+        GridPane grid = getField(controller, "gridBudgetList");
+        assertEquals(2, grid.getChildren().size());
+        BudgetCard spesa = (BudgetCard) grid.getChildren().get(0);
+        BudgetCard svago = (BudgetCard) grid.getChildren().get(1);
+        assertEquals("Rimasti: €80", spesa.getLeftText());
+
+        budgets.set(0, new Budget(1, 10, 1, 1, 2025, 100.0, "Spesa", 130.0));
+        budgets.remove(1);
+        runOnFxThreadAndWait(controller::refreshDashboardData);
+
+        assertEquals(1, grid.getChildren().size());
+        assertSame(spesa, grid.getChildren().get(0));
+        assertEquals("Superato di: €30", spesa.getLeftText());
+        assertFalse(svago.update(new Budget(2, 20, 1, 1, 2025, 50.0, "Svago", 10.0)));
+    }
+
+    /**
+     * Test: la card mostra la proiezione e la data di superamento prevista.
+     */
+    @Test
+    void budgetCardShowsProjectedExceedDate() {
+        Budget budget = new Budget(1, 10, 1, 4, 2025, 300.0, "Spesa", 150.0);
+        BudgetCard card = new BudgetCard();
+        card.update(budget);
+        assertEquals("", card.getProjectionText());
+
+        BudgetBurnRate.project(budget, null, LocalDate.of(2025, 4, 10));
+        assertTrue(card.update(budget));
+        assertEquals("Proiezione: €450 · superamento il 21/04", card.getProjectionText());
+        assertTrue(card.getPseudoClassStates().contains(PseudoClass.getPseudoClass("projected")));
+    }
+
+    /**
+     * Test: dopo ogni visualizzazione i mesi adiacenti vengono caricati in
+     * background e la navigazione usa la cache finché non c'è una scrittura.
+     */
+    @Test
+    void navigationUsesPrefetchedMonthUntilInvalidated() throws Exception {
+        DashboardController controller = createControllerWithBasicUi();
+        setupControllerWithData(controller, 100f, 50f, List.of(), List.of());
+
+        MonthSnapshotCache cache = getField(controller, "snapshotCache");
+        YearMonth next = YearMonth.now().plusMonths(1);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!cache.contains(1, next) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(cache.contains(1, next));
+
+        StubMovimentiDAO dao = getField(controller, "movimentiDAO");
+        dao.entrate = 999f;
+
+        runOnFxThreadAndWait(() -> {
+            try {
+                invokePrivate(controller, "handleNextMonth");
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        assertEquals("€ 100,00", ((Label) getField(controller, "lblEntrate")).getText());
+
+        MonthSnapshotCache.invalidateAll();
+        runOnFxThreadAndWait(() -> {
+            try {
+                invokePrivate(controller, "handlePreviousMonth");
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        assertEquals("€ 999,00", ((Label) getField(controller, "lblEntrate")).getText());
+    }
+
     // ==================== HELPER METHODS ====================
 
     private void setField(Object target, String fieldName, Object value) {
@@ -1,17 +1,30 @@
 package test.view;
 
+import it.unicas.project.template.address.model.dao.mysql.DAOMySQLSettings;
+import it.unicas.project.template.address.model.dao.mysql.MovimentiDAOMySQLImpl;
+import it.unicas.project.template.address.util.TimeBucketAggregator;
 import it.unicas.project.template.address.view.ReportController;
+import it.unicas.project.template.address.view.SmoothAreaChart;
 import javafx.application.Platform;
 import javafx.embed.swing.JFXPanel;
+import javafx.scene.chart.CategoryAxis;
+import javafx.scene.chart.NumberAxis;
 import javafx.scene.chart.PieChart;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
 import javafx.scene.layout.AnchorPane;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -64,9 +77,11 @@ class ReportControllerTest {
         ComboBox<String> cmbRange = getField(controller, "cmbRange");
 
         assertNotNull(cmbRange.getItems());
-        assertEquals(2, cmbRange.getItems().size());
+        assertEquals(6, cmbRange.getItems().size());
         assertTrue(cmbRange.getItems().contains("Ultimi 6 mesi"));
         assertTrue(cmbRange.getItems().contains("Ultimo anno"));
+        assertTrue(cmbRange.getItems().contains("Tutta la storia"));
+        assertTrue(cmbRange.getItems().contains("Personalizzato"));
 
         // valore di default
         assertEquals("Ultimi 6 mesi", cmbRange.getValue());
@@ -100,7 +115,7 @@ class ReportControllerTest {
     void forecastUiShowsInsufficientDataMessage() throws Exception {
         ReportController controller = createControllerWithBasicUi();
 
-        // Questo è il ramo richiamato da loadForecastData quando giorniConMovimenti < 7
+        // Questo è il ramo richiamato da showForecast quando giorniConMovimenti < 7
         invokePrivate(controller, "displayInsufficientDataMessage");
 
         waitForFxEvents();
@@ -256,6 +271,34 @@ class ReportControllerTest {
                 || lblStatusMessaggio.getText().contains("deficit"));
     }
 
+    /* ==================== TEST CARICAMENTO ANNULLABILE ==================== */
+
+    @Test
+    void newTrendLoadCancelsSupersededQuery() throws Exception {
+        ReportController controller = createControllerWithBasicUi();
+        setField(controller, "lineChartAndamento", new SmoothAreaChart<String, Number>(new CategoryAxis(), new NumberAxis()));
+        setField(controller, "currentUserId", 1);
+
+        invokePrivate(controller, "loadLineChartData");
+        MovimentiDAOMySQLImpl superseded = getField(controller, "trendDao");
+        invokePrivate(controller, "loadLineChartData");
+
+        assertNotSame(superseded, getField(controller, "trendDao"));
+        assertEquals(2L, ((AtomicLong) getField(controller, "trendGeneration")).get());
+
+        // La query della richiesta superata viene rifiutata senza essere eseguita
+        Connection conn = Mockito.mock(Connection.class);
+        PreparedStatement ps = Mockito.mock(PreparedStatement.class);
+        Mockito.when(conn.prepareStatement(Mockito.anyString())).thenReturn(ps);
+        try (MockedStatic<DAOMySQLSettings> settings = Mockito.mockStatic(DAOMySQLSettings.class)) {
+            settings.when(DAOMySQLSettings::getConnection).thenReturn(conn);
+            TimeBucketAggregator aggregator = new TimeBucketAggregator(
+                    LocalDate.now().minusMonths(6), LocalDate.now(), TimeBucketAggregator.Granularity.MONTH);
+            assertThrows(SQLException.class, () -> superseded.fillBuckets(1, aggregator));
+            Mockito.verify(ps, Mockito.never()).executeQuery();
+        }
+    }
+
     /* ===================== helper FX ===================== */
 
     private void waitForFxEvents() {